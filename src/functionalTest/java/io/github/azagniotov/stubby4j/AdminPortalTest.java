@@ -30,6 +30,7 @@ import io.github.azagniotov.stubby4j.yaml.YamlBuilder;
 import java.io.InputStream;
 import java.net.URL;
 import org.eclipse.jetty.http.HttpStatus;
+import org.json.JSONObject;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -41,6 +42,7 @@ public class AdminPortalTest {
     private static final int STUBS_SSL_PORT = NetworkPortUtils.findAvailableTcpPort();
     private static final int ADMIN_PORT = NetworkPortUtils.findAvailableTcpPort();
 
+    private static final String STUBS_URL = String.format("http://localhost:%s", STUBS_PORT);
     private static final String ADMIN_URL = String.format("http://localhost:%s", ADMIN_PORT);
 
     private static final StubbyClient STUBBY_CLIENT = new StubbyClient();
@@ -130,6 +132,42 @@ public class AdminPortalTest {
         assertThat(responseContentAsString).contains("/uri/with/single/sequenced/response");
     }
 
+    @Test
+    public void shouldMakeSuccessfulGetRequestToStatusPage_WhenPageOfStubsFiltered() throws Exception {
+
+        final String requestUrl = String.format("%s%s", ADMIN_URL, "/status?size=1&url=/pdf/hello-world");
+        final HttpRequest httpGetRequest = HttpUtils.constructHttpRequest(HttpMethods.GET, requestUrl);
+
+        final HttpResponse httpResponse = httpGetRequest.execute();
+        final String responseContentAsString = httpResponse.parseAsString().trim();
+
+        assertThat(httpResponse.getStatusCode()).isEqualTo(HttpStatus.OK_200);
+        assertThat(responseContentAsString).contains("STATUS");
+        assertThat(responseContentAsString).contains("Stubs 1-1 of");
+        assertThat(responseContentAsString).contains("/pdf/hello-world");
+        assertThat(responseContentAsString).doesNotContain("/uri/with/single/sequenced/response");
+    }
+
+    @Test
+    public void shouldListPageOfStubsAsJson_WhenSuccessfulGetMade_ToAjaxStubs() throws Exception {
+
+        final String requestUrl = String.format("%s%s", ADMIN_URL, "/ajax/stubs?size=2&method=get");
+        final HttpRequest httpGetRequest = HttpUtils.constructHttpRequest(HttpMethods.GET, requestUrl);
+
+        final HttpResponse httpResponse = httpGetRequest.execute();
+        final JSONObject stubsPage = new JSONObject(httpResponse.parseAsString().trim());
+
+        assertThat(httpResponse.getStatusCode()).isEqualTo(HttpStatus.OK_200);
+        assertThat(httpResponse.getContentType()).contains("application/json");
+        assertThat(stubsPage.getInt("page")).isEqualTo(1);
+        assertThat(stubsPage.getInt("size")).isEqualTo(2);
+        assertThat(stubsPage.getInt("total")).isGreaterThan(2);
+        assertThat(stubsPage.getBoolean("has_next")).isTrue();
+        assertThat(stubsPage.getJSONArray("stubs").length()).isEqualTo(2);
+        assertThat(stubsPage.getJSONArray("stubs").getJSONObject(0).getJSONArray("method").getString(0))
+                .isEqualTo("GET");
+    }
+
     @Test
     public void should_ReturnCompleteYAMLConfig_WhenSuccessfulGetMade_ToAdminPortalRoot() throws Exception {
 
@@ -148,6 +186,22 @@ public class AdminPortalTest {
         assertThat(responseContentAsString).contains("url: /uri/with/single/sequenced/response");
     }
 
+    @Test
+    public void should_ReturnPageOfYAMLConfig_WhenSuccessfulGetMade_ToAdminPortalRootWithPagingParameters()
+            throws Exception {
+
+        final String requestUrl =
+                String.format("%s%s", ADMIN_URL, "/?size=1&url=/uri/with/single/sequenced/response");
+        final HttpRequest httpGetRequest = HttpUtils.constructHttpRequest(HttpMethods.GET, requestUrl);
+
+        final HttpResponse httpResponse = httpGetRequest.execute();
+        final String responseContentAsString = httpResponse.parseAsString().trim();
+
+        assertThat(httpResponse.getStatusCode()).isEqualTo(HttpStatus.OK_200);
+        assertThat(responseContentAsString).contains("url: /uri/with/single/sequenced/response");
+        assertThat(responseContentAsString).doesNotContain("url: ^/resources/asn/");
+    }
+
     @Test
     public void should_ReturnSingleStubbedRequestAsYAML_WhenSuccessfulGetMade_ToAdminPortalRootWithValidIndexURI()
             throws Exception {
@@ -723,4 +777,34 @@ public class AdminPortalTest {
         assertThat(statusMessage).isEqualTo("Created");
         assertThat(responseMessage).contains("Configuration created successfully");
     }
+
+    @Test
+    public void should_AppendStubsData_WhenSuccessfulValidPostMade_ToAdminPortalAppend() throws Exception {
+
+        final String yamlToAppend = new YamlBuilder()
+                .newStubbedRequest()
+                .withUrl("^/resources/something/appended")
+                .withMethodGet()
+                .newStubbedResponse()
+                .withLiteralBody("OK")
+                .withStatus("201")
+                .build();
+
+        final String requestUrl = String.format("%s/append", ADMIN_URL);
+        final HttpRequest httpPostRequest = HttpUtils.constructHttpRequest(HttpMethods.POST, requestUrl, yamlToAppend);
+
+        final HttpResponse httpResponse = httpPostRequest.execute();
+        final String responseMessage = httpResponse.parseAsString().trim();
+
+        assertThat(httpResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED_201);
+        assertThat(httpResponse.getHeaders().getLocation()).isEqualTo("^/resources/something/appended");
+        assertThat(responseMessage).contains("1 stub(s) added successfully");
+
+        final String stubsRequestUrl = String.format("%s%s", STUBS_URL, "/resources/something/appended");
+        final HttpRequest httpGetRequest = HttpUtils.constructHttpRequest(HttpMethods.GET, stubsRequestUrl);
+        final HttpResponse httpGetResponse = httpGetRequest.execute();
+
+        assertThat(httpGetResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED_201);
+        assertThat(httpGetResponse.parseAsString().trim()).isEqualTo("OK");
+    }
 }
@@ -27,7 +27,10 @@ import static io.github.azagniotov.stubby4j.utils.StringUtils.inputStreamToStrin
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -42,11 +45,14 @@ import io.github.azagniotov.stubby4j.utils.FileUtils;
 import io.github.azagniotov.stubby4j.yaml.YamlBuilder;
 import io.github.azagniotov.stubby4j.yaml.YamlParseResultSet;
 import io.github.azagniotov.stubby4j.yaml.YamlParser;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.net.URL;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -55,10 +61,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import org.eclipse.jetty.http.HttpStatus.Code;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -74,6 +90,9 @@ public class StubRepositoryTest {
     private static final CompletableFuture<YamlParseResultSet> YAML_PARSE_RESULT_SET_FUTURE =
             CompletableFuture.completedFuture(new YamlParseResultSet(new LinkedList<>(), new HashMap<>()));
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private HttpServletRequest mockHttpServletRequest;
 
@@ -117,7 +136,6 @@ public class StubRepositoryTest {
         when(mockHttpServletRequest.getPathInfo()).thenReturn(url);
         when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
         when(mockHttpServletRequest.getQueryString()).thenReturn("");
-        when(mockHttpServletRequest.getHeaderNames()).thenReturn(Collections.enumeration(new ArrayList<>()));
 
         final StubSearchResult stubSearchResult = stubRepository.search(mockHttpServletRequest);
         final StubResponse foundStubResponse = stubSearchResult.getMatch();
@@ -133,6 +151,9 @@ public class StubRepositoryTest {
 
         verify(spyDefaultCache, times(7)).get(anyString());
         verify(spyDefaultCache, times(1)).putIfAbsent(anyString(), any(StubHttpLifecycle.class));
+
+        // Only headers referenced by the loaded stubs are captured, without enumerating all incoming headers
+        verify(mockHttpServletRequest, never()).getHeaderNames();
     }
 
     @Test
@@ -158,7 +179,6 @@ public class StubRepositoryTest {
         when(mockHttpServletRequest.getPathInfo()).thenReturn(url);
         when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
         when(mockHttpServletRequest.getQueryString()).thenReturn("");
-        when(mockHttpServletRequest.getHeaderNames()).thenReturn(Collections.enumeration(new ArrayList<>()));
 
         final StubSearchResult stubSearchResult = stubRepository.search(mockHttpServletRequest);
         final StubResponse foundStubResponse = stubSearchResult.getMatch();
@@ -174,6 +194,9 @@ public class StubRepositoryTest {
 
         verify(spyNoOpCache, times(7)).get(anyString());
         verify(spyNoOpCache, times(7)).putIfAbsent(anyString(), any(StubHttpLifecycle.class));
+
+        // Only headers referenced by the loaded stubs are captured, without enumerating all incoming headers
+        verify(mockHttpServletRequest, never()).getHeaderNames();
     }
 
     @Test
@@ -907,6 +930,169 @@ public class StubRepositoryTest {
         assertThat(filenames.contains(expectedResponseFile.getName())).isFalse();
     }
 
+    @Test
+    public void shouldReloadChangedExternalFileInStubsReferencingIt() throws Exception {
+        final File responseFile = temporaryFolder.newFile("response.json");
+        final File otherResponseFile = temporaryFolder.newFile("other.response.json");
+        Files.write(responseFile.toPath(), "{\"version\": 1}".getBytes(StandardCharsets.UTF_8));
+        Files.write(otherResponseFile.toPath(), "{\"other\": 1}".getBytes(StandardCharsets.UTF_8));
+
+        final String yaml = "- request:\n    method: GET\n    url: /one\n  response:\n    file: response.json\n"
+                + "- request:\n    method: GET\n    url: /two\n  response:\n    file: other.response.json\n"
+                + "- request:\n    method: GET\n    url: /three\n  response:\n    file: ./response.json\n";
+        spyStubRepository.resetStubsCache(new YamlParser().parse(temporaryFolder.getRoot().getPath(), yaml));
+
+        Files.write(responseFile.toPath(), "{\"version\": 2}".getBytes(StandardCharsets.UTF_8));
+        Files.write(otherResponseFile.toPath(), "{\"other\": 2}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(spyStubRepository.reloadExternalFiles(Collections.singleton(responseFile)))
+                .isTrue();
+
+        final List<StubHttpLifecycle> stubs = spyStubRepository.getStubs();
+        assertThat(stubs.get(0).getResponses().get(0).getResponseBodyAsBytes())
+                .isEqualTo("{\"version\": 2}".getBytes(StandardCharsets.UTF_8));
+        assertThat(stubs.get(1).getResponses().get(0).getResponseBodyAsBytes())
+                .isEqualTo("{\"other\": 1}".getBytes(StandardCharsets.UTF_8));
+        assertThat(stubs.get(2).getResponses().get(0).getResponseBodyAsBytes())
+                .isEqualTo("{\"version\": 2}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldNotReloadExternalFilesWhenSomeFileIsNotReferencedByStubs() throws Exception {
+        final File responseFile = temporaryFolder.newFile("response.json");
+        final File notReferencedFile = temporaryFolder.newFile("stubs.yaml");
+        Files.write(responseFile.toPath(), "{\"version\": 1}".getBytes(StandardCharsets.UTF_8));
+
+        final String yaml = "- request:\n    method: GET\n    url: /one\n  response:\n    file: response.json\n";
+        spyStubRepository.resetStubsCache(new YamlParser().parse(temporaryFolder.getRoot().getPath(), yaml));
+
+        Files.write(responseFile.toPath(), "{\"version\": 2}".getBytes(StandardCharsets.UTF_8));
+
+        final Set<File> changedFiles = new HashSet<>();
+        changedFiles.add(responseFile);
+        changedFiles.add(notReferencedFile);
+        assertThat(spyStubRepository.reloadExternalFiles(changedFiles)).isFalse();
+
+        final StubResponse stubResponse = spyStubRepository.getStubs().get(0).getResponses().get(0);
+        assertThat(stubResponse.getResponseBodyAsBytes())
+                .isEqualTo("{\"version\": 1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldSpliceStubsOfChangedIncludedYamlInPlace() throws Exception {
+        final File mainYaml = temporaryFolder.newFile("main.yaml");
+        final File firstInclude = temporaryFolder.newFile("first.yaml");
+        final File secondInclude = temporaryFolder.newFile("second.yaml");
+        final File thirdInclude = temporaryFolder.newFile("third.yaml");
+        writeYaml(mainYaml, "includes:\n  - first.yaml\n  - second.yaml\n  - third.yaml\n");
+        writeYaml(firstInclude, stubYaml("/first/1") + stubYaml("/first/2"));
+        writeYaml(secondInclude, stubYaml("/second/1"));
+        writeYaml(thirdInclude, stubYaml("/third/1"));
+
+        final StubRepository stubRepository = new StubRepository(
+                mainYaml,
+                Cache.stubHttpLifecycleCache(false),
+                YAML_PARSE_RESULT_SET_FUTURE,
+                new StubbyHttpTransport());
+        stubRepository.refreshStubsFromYamlConfig(new YamlParser());
+
+        writeYaml(secondInclude, stubYaml("/second/1") + stubYaml("/second/2"));
+        assertThat(stubRepository.reloadIncludedYamls(new YamlParser(), Collections.singleton(secondInclude)))
+                .isTrue();
+
+        final List<StubHttpLifecycle> stubs = stubRepository.getStubs();
+        assertThat(stubs.size()).isEqualTo(5);
+        final String[] expectedUrls = {"/first/1", "/first/2", "/second/1", "/second/2", "/third/1"};
+        for (int resourceId = 0; resourceId < expectedUrls.length; resourceId++) {
+            assertThat(stubs.get(resourceId).getUrl()).isEqualTo(expectedUrls[resourceId]);
+            assertThat(stubs.get(resourceId).getResourceId()).isEqualTo(String.valueOf(resourceId));
+        }
+
+        writeYaml(thirdInclude, stubYaml("/third/2"));
+        assertThat(stubRepository.reloadIncludedYamls(new YamlParser(), Collections.singleton(thirdInclude)))
+                .isTrue();
+        assertThat(stubRepository.getStubs().get(4).getUrl()).isEqualTo("/third/2");
+        final List<File> includedYamlFiles = stubRepository.getIncludedYamlFiles();
+        assertThat(includedYamlFiles.size()).isEqualTo(3);
+        assertThat(includedYamlFiles.get(0).getName()).isEqualTo(firstInclude.getName());
+        assertThat(includedYamlFiles.get(2).getName()).isEqualTo(thirdInclude.getName());
+    }
+
+    @Test
+    public void shouldKeepResourceStatsOfUnchangedIncludedYamls_WhenSplicingStubs() throws Exception {
+        final File mainYaml = temporaryFolder.newFile("main.yaml");
+        final File firstInclude = temporaryFolder.newFile("first.yaml");
+        final File secondInclude = temporaryFolder.newFile("second.yaml");
+        writeYaml(mainYaml, "includes:\n  - first.yaml\n  - second.yaml\n");
+        writeYaml(firstInclude, stubYaml("/first/1"));
+        writeYaml(secondInclude, stubYaml("/second/1"));
+
+        final StubRepository stubRepository = new StubRepository(
+                mainYaml,
+                Cache.stubHttpLifecycleCache(false),
+                YAML_PARSE_RESULT_SET_FUTURE,
+                new StubbyHttpTransport());
+        stubRepository.refreshStubsFromYamlConfig(new YamlParser());
+
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getQueryString()).thenReturn("");
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/first/1");
+        stubRepository.search(mockHttpServletRequest);
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/second/1");
+        stubRepository.search(mockHttpServletRequest);
+        assertThat(stubRepository.getResourceStats().get("0").get()).isEqualTo(1L);
+        assertThat(stubRepository.getResourceStats().get("1").get()).isEqualTo(1L);
+
+        writeYaml(secondInclude, stubYaml("/second/2"));
+        assertThat(stubRepository.reloadIncludedYamls(new YamlParser(), Collections.singleton(secondInclude)))
+                .isTrue();
+
+        assertThat(stubRepository.getResourceStats().get("0").get()).isEqualTo(1L);
+        assertThat(stubRepository.getResourceStats()).doesNotContainKey("1");
+    }
+
+    @Test
+    public void shouldNotSpliceStubsOfChangedIncludedYamlWhenStubsWereDeleted() throws Exception {
+        final File mainYaml = temporaryFolder.newFile("main.yaml");
+        final File firstInclude = temporaryFolder.newFile("first.yaml");
+        writeYaml(mainYaml, "includes:\n  - first.yaml\n");
+        writeYaml(firstInclude, stubYaml("/first/1") + stubYaml("/first/2"));
+
+        final StubRepository stubRepository = new StubRepository(
+                mainYaml,
+                Cache.stubHttpLifecycleCache(false),
+                YAML_PARSE_RESULT_SET_FUTURE,
+                new StubbyHttpTransport());
+        stubRepository.refreshStubsFromYamlConfig(new YamlParser());
+        stubRepository.deleteStubByIndex(0);
+
+        writeYaml(firstInclude, stubYaml("/first/3"));
+        assertThat(stubRepository.reloadIncludedYamls(new YamlParser(), Collections.singleton(firstInclude)))
+                .isFalse();
+        assertThat(stubRepository.getStubs().get(0).getUrl()).isEqualTo("/first/2");
+    }
+
+    @Test
+    public void shouldNotSpliceStubsOfYamlThatIsNotIncluded() throws Exception {
+        final File mainYaml = temporaryFolder.newFile("main.yaml");
+        final File firstInclude = temporaryFolder.newFile("first.yaml");
+        final File notIncluded = temporaryFolder.newFile("not-included.yaml");
+        writeYaml(mainYaml, "includes:\n  - first.yaml\n");
+        writeYaml(firstInclude, stubYaml("/first/1"));
+        writeYaml(notIncluded, stubYaml("/not/included"));
+
+        final StubRepository stubRepository = new StubRepository(
+                mainYaml,
+                Cache.stubHttpLifecycleCache(false),
+                YAML_PARSE_RESULT_SET_FUTURE,
+                new StubbyHttpTransport());
+        stubRepository.refreshStubsFromYamlConfig(new YamlParser());
+
+        assertThat(stubRepository.reloadIncludedYamls(new YamlParser(), Collections.singleton(notIncluded)))
+                .isFalse();
+        assertThat(stubRepository.getStubs().size()).isEqualTo(1);
+    }
+
     @Test
     public void shouldVerifyGetAllResponsesInvokation_WhenInvokingGetExternalFiles() throws Exception {
         final URL yamlUrl = StubRepositoryTest.class.getResource("/yaml/two.cycles.with.multiple.responses.yaml");
@@ -1040,6 +1226,218 @@ public class StubRepositoryTest {
         }
     }
 
+    @Test
+    public void shouldListPageOfStubsPassingFilter() throws Exception {
+        spyStubRepository.refreshStubsByPost(
+                new YamlParser(),
+                stubYaml("/invoice/1") + stubYaml("/receipt/1") + stubYaml("/invoice/2") + stubYaml("/invoice/3"));
+
+        final StubsPage stubsPage =
+                spyStubRepository.getStubsPage(stub -> stub.getUrl().startsWith("/invoice"), 1, 1);
+
+        assertThat(stubsPage.getTotalCount()).isEqualTo(3);
+        assertThat(stubsPage.getStubs().size()).isEqualTo(1);
+        assertThat(stubsPage.getStubs().get(0).getUrl()).isEqualTo("/invoice/2");
+        assertThat(stubsPage.getStubs().get(0).getResourceId()).isEqualTo("2");
+        assertThat(stubsPage.hasPrevious()).isTrue();
+        assertThat(stubsPage.hasNext()).isTrue();
+
+        final StubsPage pastLastPage = spyStubRepository.getStubsPage(stub -> true, 4, 10);
+        assertThat(pastLastPage.getTotalCount()).isEqualTo(4);
+        assertThat(pastLastPage.getStubs()).isEmpty();
+        assertThat(pastLastPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void shouldDumpYamlConfigOfPageOfStubs() throws Exception {
+        spyStubRepository.refreshStubsByPost(
+                new YamlParser(), stubYaml("/one") + stubYaml("/two") + stubYaml("/three"));
+
+        final StringWriter completeDump = new StringWriter();
+        spyStubRepository.dumpYamlConfig(stub -> true, 0, Integer.MAX_VALUE, completeDump);
+        assertThat(completeDump.toString()).contains("url: /one");
+        assertThat(completeDump.toString()).contains("url: /three");
+
+        final StringWriter pageDump = new StringWriter();
+        spyStubRepository.dumpYamlConfig(stub -> true, 1, 1, pageDump);
+        assertThat(pageDump.toString()).doesNotContain("url: /one");
+        assertThat(pageDump.toString()).contains("url: /two");
+        assertThat(pageDump.toString()).doesNotContain("url: /three");
+    }
+
+    @Test
+    public void shouldKeepResourceStatsOfStub_WhenPrecedingStubWasDeleted() throws Exception {
+        spyStubRepository.refreshStubsByPost(
+                new YamlParser(), stubYaml("/one") + stubYaml("/two") + stubYaml("/three"));
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/three");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getQueryString()).thenReturn("");
+
+        spyStubRepository.search(mockHttpServletRequest);
+        spyStubRepository.search(mockHttpServletRequest);
+        assertThat(spyStubRepository.getResourceStats().get("2").get()).isEqualTo(2L);
+
+        spyStubRepository.deleteStubByIndex(0);
+
+        assertThat(spyStubRepository.getResourceStats()).doesNotContainKey("2");
+        assertThat(spyStubRepository.getResourceStats().get("1").get()).isEqualTo(2L);
+
+        final StubResponse foundStubResponse = spyStubRepository.search(mockHttpServletRequest).getMatch();
+        assertThat(foundStubResponse.getHeaders().get(Common.HEADER_X_STUBBY_RESOURCE_ID)).isEqualTo("1");
+        assertThat(spyStubRepository.getResourceStats().get("1").get()).isEqualTo(3L);
+        assertThat(spyStubRepository.getResourceStatsAsCsv()).isEqualTo("resourceId,hits" + FileUtils.BR + "1,3");
+    }
+
+    @Test
+    public void shouldWriteResourceStatsOfHitStubsAsCsvAndJson() throws Exception {
+        spyStubRepository.refreshStubsByPost(new YamlParser(), stubYaml("/one") + stubYaml("/two"));
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/two");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getQueryString()).thenReturn("");
+        spyStubRepository.search(mockHttpServletRequest);
+        spyStubRepository.search(mockHttpServletRequest);
+
+        final StringWriter csvWriter = new StringWriter();
+        spyStubRepository.writeResourceStatsCsv(csvWriter);
+        final String[] csvLines = csvWriter.toString().split(FileUtils.BR);
+        assertThat(csvLines.length).isEqualTo(2);
+        assertThat(csvLines[0]).isEqualTo("resource_id,hits,hits_last_second,hits_last_minute");
+        assertThat(csvLines[1]).startsWith("1,2,");
+
+        final StringWriter jsonWriter = new StringWriter();
+        spyStubRepository.writeResourceStatsJson(jsonWriter);
+        assertThat(jsonWriter.toString()).startsWith("[" + FileUtils.BR + "{\"resource_id\":1,\"hits\":2,");
+        assertThat(jsonWriter.toString().trim()).endsWith("}" + FileUtils.BR + "]");
+    }
+
+    @Test
+    public void shouldMatchStub_WhileBodyOfAnotherRequestIsStillBeingRead() throws Exception {
+        final String postStubYaml = "- request:\n    method: POST\n    url: /upload\n    post: hello\n"
+                + "  response:\n    status: 201\n";
+        spyStubRepository.refreshStubsByPost(new YamlParser(), postStubYaml + stubYaml("/fast"));
+
+        final CountDownLatch bodyReadStarted = new CountDownLatch(1);
+        final CountDownLatch bodyReadReleased = new CountDownLatch(1);
+        final HttpServletRequest stalledUploadRequest = mock(HttpServletRequest.class);
+        when(stalledUploadRequest.getPathInfo()).thenReturn("/upload");
+        when(stalledUploadRequest.getMethod()).thenReturn(HttpMethods.POST);
+        when(stalledUploadRequest.getInputStream())
+                .thenReturn(new StalledServletInputStream("hello", bodyReadStarted, bodyReadReleased));
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final Future<StubSearchResult> stalledUpload =
+                    executorService.submit(() -> spyStubRepository.search(stalledUploadRequest));
+            assertThat(bodyReadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            when(mockHttpServletRequest.getPathInfo()).thenReturn("/fast");
+            when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+            final Future<StubSearchResult> fastRequest =
+                    executorService.submit(() -> spyStubRepository.search(mockHttpServletRequest));
+            assertThat(fastRequest.get(5, TimeUnit.SECONDS).getMatch().getHttpStatusCode())
+                    .isEqualTo(Code.OK);
+            assertThat(stalledUpload.isDone()).isFalse();
+
+            bodyReadReleased.countDown();
+            assertThat(stalledUpload.get(5, TimeUnit.SECONDS).getMatch().getHttpStatusCode())
+                    .isEqualTo(Code.CREATED);
+        } finally {
+            bodyReadReleased.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotReadBody_WhenNoStubWithMatchingUrlMatchesOnBody() throws Exception {
+        final String postStubYaml = "- request:\n    method: POST\n    url: /upload\n    post: hello\n"
+                + "  response:\n    status: 201\n";
+        final String anyPostStubYaml = "- request:\n    method: POST\n    url: /plain\n"
+                + "  response:\n    status: 202\n";
+        spyStubRepository.refreshStubsByPost(new YamlParser(), postStubYaml + anyPostStubYaml);
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/plain");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.POST);
+
+        final StubSearchResult stubSearchResult = spyStubRepository.search(mockHttpServletRequest);
+
+        assertThat(stubSearchResult.getMatch().getHttpStatusCode()).isEqualTo(Code.ACCEPTED);
+        verify(mockHttpServletRequest, never()).getInputStream();
+    }
+
+    @Test
+    public void shouldActivateLastParsedYaml_WhenReloadsOverlap() throws Exception {
+        final CountDownLatch parseStarted = new CountDownLatch(1);
+        final CountDownLatch parseReleased = new CountDownLatch(1);
+        final YamlParser stalledYamlParser = spy(new YamlParser());
+        doAnswer(invocation -> {
+                    parseStarted.countDown();
+                    parseReleased.await(5, TimeUnit.SECONDS);
+                    return invocation.callRealMethod();
+                })
+                .when(stalledYamlParser)
+                .parse(anyString(), anyString());
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> olderReload = executorService.submit(() -> {
+                spyStubRepository.refreshStubsByPost(stalledYamlParser, stubYaml("/older"));
+                return null;
+            });
+            assertThat(parseStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            final Future<?> newerReload = executorService.submit(() -> {
+                spyStubRepository.refreshStubsByPost(new YamlParser(), stubYaml("/newer"));
+                return null;
+            });
+            // The newer reload waits for the older one, instead of being overwritten by it
+            assertThrows(TimeoutException.class, () -> newerReload.get(200, TimeUnit.MILLISECONDS));
+
+            parseReleased.countDown();
+            olderReload.get(5, TimeUnit.SECONDS);
+            newerReload.get(5, TimeUnit.SECONDS);
+        } finally {
+            parseReleased.countDown();
+            executorService.shutdownNow();
+        }
+
+        final List<StubHttpLifecycle> stubs = spyStubRepository.getStubs();
+        assertThat(stubs.size()).isEqualTo(1);
+        assertThat(stubs.get(0).getUrl()).isEqualTo("/newer");
+    }
+
+    @Test
+    public void shouldRecordLatencyStatsOfHitStubs() throws Exception {
+        spyStubRepository.refreshStubsByPost(new YamlParser(), stubYaml("/one") + stubYaml("/two"));
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/two");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getQueryString()).thenReturn("");
+        final StubSearchResult stubSearchResult = spyStubRepository.search(mockHttpServletRequest);
+        // Repeated request is matched from the cache, without evaluating any candidates
+        spyStubRepository.search(mockHttpServletRequest);
+        spyStubRepository.recordServiceTime(stubSearchResult, TimeUnit.MILLISECONDS.toNanos(5));
+
+        final List<StubHttpLifecycle> stubs = spyStubRepository.getStubs();
+        assertThat(spyStubRepository.getLatencyStats(stubs.get(0)).isPresent()).isFalse();
+
+        final StubLatencyStats latencyStats = spyStubRepository.getLatencyStats(stubs.get(1)).get();
+        assertThat(latencyStats.getMatchTimeMicros().getCount()).isEqualTo(2L);
+        assertThat(latencyStats.getMatchCandidates().getCount()).isEqualTo(2L);
+        assertThat(latencyStats.getMatchCandidates().getP50()).isEqualTo(0L);
+        assertThat(latencyStats.getMatchCandidates().getMax()).isEqualTo(2L);
+        assertThat(latencyStats.getServiceTimeMicros().getCount()).isEqualTo(1L);
+        assertThat(latencyStats.getServiceTimeMicros().getMax()).isEqualTo(5000L);
+
+        final StringWriter jsonWriter = new StringWriter();
+        spyStubRepository.writeLatencyStatsJson(jsonWriter);
+        assertThat(jsonWriter.toString())
+                .startsWith("[" + FileUtils.BR + "{\"resource_id\":1,\"match_time_micros\":{\"count\":2,");
+        assertThat(jsonWriter.toString()).contains("\"match_candidates\":{\"count\":2,\"p50\":0,");
+        assertThat(jsonWriter.toString().trim()).endsWith("}}" + FileUtils.BR + "]");
+    }
+
     @Test
     public void shouldAdjustResourceIDHeadersAccordingly_WhenHttpCyclesWereReset() throws Exception {
         final String cycleOne = YAML_BUILDER
@@ -1204,6 +1602,86 @@ public class StubRepositoryTest {
         assertThat(actualMessage).isEqualTo(expectedMessage);
     }
 
+    @Test
+    public void shouldKeepLoadedStubsWhenDefaultProxyConfigMissing() throws Exception {
+        spyStubRepository.resetStubsCache(new YamlParser().parse(".", stubYaml("/one")));
+
+        final URL yamlUrl = this.getClass().getResource("/yaml/proxy-config-without-default-config.yaml");
+        final InputStream stubsConfigStream = yamlUrl.openStream();
+        final YamlParseResultSet yamlParseResultSet =
+                new YamlParser().parse(".", inputStreamToString(stubsConfigStream));
+
+        assertThrows(IllegalStateException.class, () -> spyStubRepository.resetStubsCache(yamlParseResultSet));
+
+        assertThat(spyStubRepository.getStubs().size()).isEqualTo(1);
+        assertThat(spyStubRepository.getStubs().get(0).getUrl()).isEqualTo("/one");
+        assertThat(spyStubRepository.getProxyConfigs()).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepLoadedStubsWhenPostedYamlCannotBeParsed() throws Exception {
+        spyStubRepository.refreshStubsByPost(new YamlParser(), stubYaml("/one") + stubYaml("/two"));
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> spyStubRepository.refreshStubsByPost(
+                        new YamlParser(), "- request:\n    methodd: GET\n    url: /three\n"));
+
+        assertThat(spyStubRepository.getStubs().size()).isEqualTo(2);
+        assertThat(spyStubRepository.getStubs().get(0).getUrl()).isEqualTo("/one");
+        assertThat(spyStubRepository.getStubs().get(1).getUrl()).isEqualTo("/two");
+    }
+
+    @Test
+    public void shouldAppendStubsWithoutResettingLoadedStubs() throws Exception {
+        spyStubRepository.refreshStubsByPost(new YamlParser(), stubYaml("/one") + stubYaml("/two"));
+        final StubHttpLifecycle loadedStub = spyStubRepository.getStubs().get(0);
+
+        final List<StubHttpLifecycle> appendedStubs =
+                spyStubRepository.appendStubsByPost(new YamlParser(), stubYaml("/three") + stubYaml("/four"));
+
+        assertThat(appendedStubs.size()).isEqualTo(2);
+        final List<StubHttpLifecycle> stubs = spyStubRepository.getStubs();
+        assertThat(stubs.size()).isEqualTo(4);
+        assertThat(stubs.get(0)).isSameInstanceAs(loadedStub);
+        assertThat(stubs.get(2).getUrl()).isEqualTo("/three");
+        assertThat(stubs.get(2).getResourceId()).isEqualTo("2");
+        assertThat(stubs.get(3).getUrl()).isEqualTo("/four");
+        assertThat(stubs.get(3).getResourceId()).isEqualTo("3");
+    }
+
+    @Test
+    public void shouldNotAppendStubsWhenStubUuidAlreadyLoaded() throws Exception {
+        spyStubRepository.refreshStubsByPost(new YamlParser(), stubYaml("stub-1", "/one"));
+
+        final IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> spyStubRepository.appendStubsByPost(
+                        new YamlParser(), stubYaml("/two") + stubYaml("stub-1", "/three")));
+
+        assertThat(exception.getMessage()).isEqualTo("Stub request uuid#stub-1 already exists, cannot append");
+        assertThat(spyStubRepository.getStubs().size()).isEqualTo(1);
+        assertThat(spyStubRepository.getStubs().get(0).getUrl()).isEqualTo("/one");
+    }
+
+    @Test
+    public void shouldUpsertStubsReplacingLoadedStubsWithSameUuidInPlace() throws Exception {
+        spyStubRepository.refreshStubsByPost(new YamlParser(), stubYaml("stub-1", "/one") + stubYaml("/two"));
+
+        final List<StubHttpLifecycle> upsertedStubs = spyStubRepository.upsertStubsByPost(
+                new YamlParser(), stubYaml("stub-1", "/one/updated") + stubYaml("/three"));
+
+        assertThat(upsertedStubs.size()).isEqualTo(2);
+        final List<StubHttpLifecycle> stubs = spyStubRepository.getStubs();
+        assertThat(stubs.size()).isEqualTo(3);
+        assertThat(stubs.get(0).getUrl()).isEqualTo("/one/updated");
+        assertThat(stubs.get(0).getResourceId()).isEqualTo("0");
+        assertThat(stubs.get(1).getUrl()).isEqualTo("/two");
+        assertThat(stubs.get(2).getUrl()).isEqualTo("/three");
+        assertThat(stubs.get(2).getResourceId()).isEqualTo("2");
+        assertThat(spyStubRepository.canMatchStubByUuid("stub-1")).isTrue();
+    }
+
     @Test
     @PotentiallyFlaky("This test sending the request over the wire to https://jsonplaceholder.typicode.com")
     public void shouldReturnProxiedResponseUsingDefaultProxyConfig_WhenStubsWereNotMatched_PotentiallyFlaky()
@@ -1356,6 +1834,57 @@ public class StubRepositoryTest {
         spyStubRepository.resetStubsCache(new YamlParser().parse(".", yaml));
     }
 
+    private static final class StalledServletInputStream extends ServletInputStream {
+
+        private final InputStream body;
+        private final CountDownLatch readStarted;
+        private final CountDownLatch readReleased;
+
+        StalledServletInputStream(
+                final String body, final CountDownLatch readStarted, final CountDownLatch readReleased) {
+            this.body = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+            this.readStarted = readStarted;
+            this.readReleased = readReleased;
+        }
+
+        @Override
+        public int read() throws IOException {
+            readStarted.countDown();
+            try {
+                readReleased.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return body.read();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(final ReadListener readListener) {}
+    }
+
+    private static String stubYaml(final String url) {
+        return "- request:\n    method: GET\n    url: " + url + "\n  response:\n    status: 200\n";
+    }
+
+    private static String stubYaml(final String uuid, final String url) {
+        return "- uuid: " + uuid + "\n" + stubYaml(url).replaceFirst("- ", "  ");
+    }
+
+    private static void writeYaml(final File yamlFile, final String yaml) throws IOException {
+        Files.write(yamlFile.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
     private void resetStubHttpLifeCyclesFromYamlResource(final String resourcePath) throws Exception {
         final URL yamlUrl = StubRepositoryTest.class.getResource(resourcePath);
         final InputStream stubsDataInputStream = yamlUrl.openStream();
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.yaml;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
+import io.github.azagniotov.stubby4j.stubs.StubResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class StubsSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private File configFile;
+    private File includedYamlFile;
+    private File responseFile;
+    private File snapshotFile;
+
+    @Before
+    public void setUp() throws Exception {
+        configFile = temporaryFolder.newFile("main.yaml");
+        includedYamlFile = temporaryFolder.newFile("included.yaml");
+        final File otherIncludedYamlFile = temporaryFolder.newFile("other-included.yaml");
+        responseFile = temporaryFolder.newFile("response.json");
+        snapshotFile = new File(temporaryFolder.getRoot(), "stubs.snapshot");
+
+        write(configFile, "includes:\n  - included.yaml\n  - other-included.yaml\n");
+        write(
+                includedYamlFile,
+                "- description: Stub one\n"
+                        + "  uuid: stub-one\n"
+                        + "  request:\n"
+                        + "    method: [GET, HEAD]\n"
+                        + "    url: ^/one/(\\d+)$\n"
+                        + "    query:\n"
+                        + "      type: json\n"
+                        + "    headers:\n"
+                        + "      authorization-basic: bob:secret\n"
+                        + "  response:\n"
+                        + "    status: 200\n"
+                        + "    latency: 100\n"
+                        + "    file: response.json\n"
+                        + "    headers:\n"
+                        + "      content-type: application/json\n");
+        write(
+                otherIncludedYamlFile,
+                "- request:\n"
+                        + "    method: POST\n"
+                        + "    url: /two\n"
+                        + "    post: some body\n"
+                        + "  response:\n"
+                        + "    - status: 201\n"
+                        + "      body: created\n"
+                        + "    - status: 500\n"
+                        + "      body: failed\n"
+                        + "- request:\n"
+                        + "    method: GET\n"
+                        + "    url: /three\n"
+                        + "  response:\n"
+                        + "    - status: 200\n");
+        write(responseFile, "{\"name\": \"one\"}");
+    }
+
+    @Test
+    public void shouldLoadSameStubsFromSnapshotAsParsedFromYaml() throws Exception {
+        final YamlParseResultSet compiled = StubsSnapshot.compile(configFile, snapshotFile);
+        final YamlParseResultSet loaded = StubsSnapshot.load(configFile, snapshotFile).get();
+
+        final List<StubHttpLifecycle> compiledStubs = compiled.getStubs();
+        final List<StubHttpLifecycle> loadedStubs = loaded.getStubs();
+        assertThat(loadedStubs.size()).isEqualTo(3);
+        for (int idx = 0; idx < compiledStubs.size(); idx++) {
+            final StubHttpLifecycle compiledStub = compiledStubs.get(idx);
+            final StubHttpLifecycle loadedStub = loadedStubs.get(idx);
+
+            assertThat(loadedStub).isEqualTo(compiledStub);
+            assertThat(loadedStub.getRequest().getHeaders()).isEqualTo(compiledStub.getRequest().getHeaders());
+            assertThat(loadedStub.getResourceId()).isEqualTo(String.valueOf(idx));
+            assertThat(loadedStub.getDescription()).isEqualTo(compiledStub.getDescription());
+            assertThat(loadedStub.getUUID()).isEqualTo(compiledStub.getUUID());
+            assertThat(loadedStub.getCompleteYaml()).isEqualTo(compiledStub.getCompleteYaml());
+            assertThat(loadedStub.getRequestAsYAML()).isEqualTo(compiledStub.getRequestAsYAML());
+            assertThat(loadedStub.getResponseAsYAML()).isEqualTo(compiledStub.getResponseAsYAML());
+            assertThat(loadedStub.hasSequencedResponses()).isEqualTo(compiledStub.hasSequencedResponses());
+
+            final List<StubResponse> compiledResponses = compiledStub.getResponses();
+            final List<StubResponse> loadedResponses = loadedStub.getResponses();
+            assertThat(loadedResponses.size()).isEqualTo(compiledResponses.size());
+            for (int responseIdx = 0; responseIdx < compiledResponses.size(); responseIdx++) {
+                final StubResponse compiledResponse = compiledResponses.get(responseIdx);
+                final StubResponse loadedResponse = loadedResponses.get(responseIdx);
+
+                assertThat(loadedResponse.getHttpStatusCode()).isEqualTo(compiledResponse.getHttpStatusCode());
+                assertThat(loadedResponse.getBody()).isEqualTo(compiledResponse.getBody());
+                assertThat(loadedResponse.getLatency()).isEqualTo(compiledResponse.getLatency());
+                assertThat(loadedResponse.getHeaders()).isEqualTo(compiledResponse.getHeaders());
+                assertThat(loadedResponse.getResponseBodyAsBytes())
+                        .isEqualTo(compiledResponse.getResponseBodyAsBytes());
+            }
+        }
+
+        assertThat(loaded.getUuidToStubs().keySet()).containsExactly("stub-one");
+        assertThat(loaded.getIncludedYamls().size()).isEqualTo(2);
+        assertThat(loaded.getIncludedYamls().get(0).getStubCount()).isEqualTo(1);
+        assertThat(loaded.getIncludedYamls().get(1).getStubCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldLoadSameProxyConfigsFromSnapshotAsParsedFromYaml() throws Exception {
+        final URL yamlUrl = StubsSnapshotTest.class.getResource("/yaml/proxy-config-valid-config-with-stubs.yaml");
+        final File proxyConfigFile = new File(yamlUrl.getPath());
+
+        final YamlParseResultSet compiled = StubsSnapshot.compile(proxyConfigFile, snapshotFile);
+        final YamlParseResultSet loaded = StubsSnapshot.load(proxyConfigFile, snapshotFile).get();
+
+        assertThat(loaded.getProxyConfigs()).isEqualTo(compiled.getProxyConfigs());
+        assertThat(loaded.getProxyConfigs().get("some-unique-name").getProxyConfigAsYAML())
+                .isEqualTo(compiled.getProxyConfigs().get("some-unique-name").getProxyConfigAsYAML());
+        assertThat(loaded.getStubs()).isEqualTo(compiled.getStubs());
+    }
+
+    @Test
+    public void shouldNotLoadSnapshotWhenReferencedFileChanged() throws Exception {
+        StubsSnapshot.compile(configFile, snapshotFile);
+        write(responseFile, "{\"name\": \"two\"}");
+
+        assertThat(StubsSnapshot.load(configFile, snapshotFile).isPresent()).isFalse();
+    }
+
+    @Test
+    public void shouldNotLoadSnapshotWhenIncludedYamlChanged() throws Exception {
+        StubsSnapshot.compile(configFile, snapshotFile);
+        write(includedYamlFile, "- request:\n    method: GET\n    url: /changed\n");
+
+        assertThat(StubsSnapshot.load(configFile, snapshotFile).isPresent()).isFalse();
+    }
+
+    @Test
+    public void shouldNotLoadSnapshotCompiledFromAnotherYaml() throws Exception {
+        StubsSnapshot.compile(configFile, snapshotFile);
+
+        assertThat(StubsSnapshot.load(includedYamlFile, snapshotFile).isPresent()).isFalse();
+    }
+
+    @Test
+    public void shouldNotLoadTruncatedSnapshot() throws Exception {
+        StubsSnapshot.compile(configFile, snapshotFile);
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(snapshotFile, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 8);
+        }
+
+        assertThat(StubsSnapshot.load(configFile, snapshotFile).isPresent()).isFalse();
+    }
+
+    @Test
+    public void shouldNotLoadMissingSnapshot() {
+        final Optional<YamlParseResultSet> loaded = StubsSnapshot.load(configFile, snapshotFile);
+
+        assertThat(loaded.isPresent()).isFalse();
+    }
+
+    @Test
+    public void shouldThrowWhenCompilingWebSocketConfigs() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Web socket configs cannot be compiled into a snapshot");
+
+        final URL yamlUrl = StubsSnapshotTest.class.getResource("/yaml/web-socket-valid-config.yaml");
+        StubsSnapshot.compile(new File(yamlUrl.getPath()), snapshotFile);
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
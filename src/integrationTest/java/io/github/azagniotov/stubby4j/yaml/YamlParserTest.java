@@ -1085,6 +1085,137 @@ public class YamlParserTest {
                         + "    status: 200\n");
     }
 
+    @Test
+    public void shouldUnmarshall_toIncludedYamlsWithTheirStubCounts() throws Exception {
+        final URL yamlUrl = YamlParserTest.class.getResource("/yaml/multi-include-main.yaml");
+        final InputStream stubsConfigStream = yamlUrl.openStream();
+        final String parentDirectory = new File(yamlUrl.getPath()).getParent();
+
+        final YamlParseResultSet yamlParseResultSet =
+                new YamlParser().parse(parentDirectory, inputStreamToString(stubsConfigStream));
+        final List<IncludedYaml> includedYamls = yamlParseResultSet.getIncludedYamls();
+
+        assertThat(includedYamls.size()).isEqualTo(3);
+        assertThat(includedYamls.get(0).getFile().getName()).isEqualTo("multi-included-service-1.yaml");
+        assertThat(includedYamls.get(0).getStubCount()).isEqualTo(1);
+        assertThat(includedYamls.get(1).getFile().getName()).isEqualTo("multi-included-service-2.yaml");
+        assertThat(includedYamls.get(1).getStubCount()).isEqualTo(1);
+        assertThat(includedYamls.get(2).getFile().getName()).isEqualTo("multi-included-service-3.yaml");
+        assertThat(includedYamls.get(2).getStubCount()).isEqualTo(2);
+        assertThat(includedYamls.get(2).hasProxyOrWebSocketConfigs()).isFalse();
+    }
+
+    @Test
+    public void shouldUnmarshall_WhenTopLevelSequenceHasDirectiveOrAnchor() throws Exception {
+        final String stubs = "-  request:\n"
+                + "      method: [GET]\n"
+                + "      url: /first\n"
+                + "   response:\n"
+                + "      status: 200\n"
+                + "-  request:\n"
+                + "      method: [GET]\n"
+                + "      url: /second\n"
+                + "   response:\n"
+                + "      status: 201\n";
+
+        final List<StubHttpLifecycle> directiveStubs = unmarshall("%YAML 1.1\n---\n" + stubs).getStubs();
+        assertThat(directiveStubs.size()).isEqualTo(2);
+        assertThat(directiveStubs.get(1).getRequest().getUrl()).isEqualTo("/second");
+        assertThat(directiveStubs.get(1).getResourceId()).isEqualTo("1");
+
+        final List<StubHttpLifecycle> anchoredStubs = unmarshall("--- &stubs\n" + stubs).getStubs();
+        assertThat(anchoredStubs.size()).isEqualTo(2);
+        assertThat(anchoredStubs.get(0).getRequest().getUrl()).isEqualTo("/first");
+    }
+
+    @Test
+    public void shouldUnmarshall_WhenIncludedYamlHasDirective() throws Exception {
+        final URL yamlUrl = YamlParserTest.class.getResource("/yaml/directive-include-main.yaml");
+        final InputStream stubsConfigStream = yamlUrl.openStream();
+        final String parentDirectory = new File(yamlUrl.getPath()).getParent();
+
+        final YamlParseResultSet yamlParseResultSet =
+                new YamlParser().parse(parentDirectory, inputStreamToString(stubsConfigStream));
+
+        assertThat(yamlParseResultSet.getStubs().size()).isEqualTo(1);
+        assertThat(yamlParseResultSet.getStubs().get(0).getRequest().getUrl()).isEqualTo("/directive/included");
+        assertThat(yamlParseResultSet.getIncludedYamls().get(0).getStubCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldUnmarshall_toStubsInDeclarationOrderWhenParsedInParallel() throws Exception {
+        final StringBuilder yaml = new StringBuilder();
+        for (int idx = 0; idx < 500; idx++) {
+            yaml.append("-  request:\n")
+                    .append("      method: [GET]\n")
+                    .append("      url: /parallel/")
+                    .append(idx)
+                    .append("\n")
+                    .append("   response:\n")
+                    .append("      status: 200\n")
+                    .append("      body: OK\n");
+        }
+
+        final List<StubHttpLifecycle> loadedHttpCycles = unmarshall(yaml.toString()).getStubs();
+
+        assertThat(loadedHttpCycles.size()).isEqualTo(500);
+        for (int idx = 0; idx < 500; idx++) {
+            final StubHttpLifecycle loadedHttpCycle = loadedHttpCycles.get(idx);
+            assertThat(loadedHttpCycle.getResourceId()).isEqualTo(String.valueOf(idx));
+            assertThat(loadedHttpCycle.getRequest().getUrl()).isEqualTo("/parallel/" + idx);
+        }
+    }
+
+    @Test
+    public void shouldThrow_WhenDuplicatedUuidSpecifiedInStubsParsedInParallel() throws Exception {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("Stubs YAML contains duplicate UUIDs: uuid-7");
+
+        final StringBuilder yaml = new StringBuilder();
+        for (int idx = 0; idx < 500; idx++) {
+            // Stubs #7 and #8 share the same UUID, and so do the stubs #300 and #301
+            final int uuidIdx = idx == 8 ? 7 : idx == 301 ? 300 : idx;
+            yaml.append("-  uuid: uuid-")
+                    .append(uuidIdx)
+                    .append("\n")
+                    .append("   request:\n")
+                    .append("      method: [GET]\n")
+                    .append("      url: /parallel/")
+                    .append(idx)
+                    .append("\n")
+                    .append("   response:\n")
+                    .append("      status: 200\n");
+        }
+
+        unmarshall(yaml.toString());
+    }
+
+    @Test
+    public void shouldUnmarshall_toStubsReferringToAnchorsDefinedInPreviousStubs() throws Exception {
+        final String yaml = "-  request:\n"
+                + "      method: [GET]\n"
+                + "      url: /anchored/1\n"
+                + "   response: &shared-response\n"
+                + "      status: 201\n"
+                + "      headers:\n"
+                + "         content-type: application/json\n"
+                + "      body: OK\n"
+                + "\n"
+                + "-  request:\n"
+                + "      method: [GET]\n"
+                + "      url: /anchored/2\n"
+                + "   response: *shared-response\n";
+
+        final List<StubHttpLifecycle> loadedHttpCycles = unmarshall(yaml).getStubs();
+
+        assertThat(loadedHttpCycles.size()).isEqualTo(2);
+        final StubResponse actualResponse = loadedHttpCycles.get(1).getResponse(true);
+        assertThat(loadedHttpCycles.get(1).getRequest().getUrl()).isEqualTo("/anchored/2");
+        assertThat(actualResponse.getHttpStatusCode()).isEqualTo(Code.CREATED);
+        assertThat(actualResponse.getBody()).isEqualTo("OK");
+        assertThat(actualResponse.getHeaders()).containsEntry("content-type", "application/json");
+    }
+
     @Test
     public void shouldLoadYamlIncludesAsFileObjects() throws Exception {
         final URL yamlUrl = YamlParserTest.class.getResource("/yaml/multi-include-main.yaml");
@@ -1100,6 +1231,22 @@ public class YamlParserTest {
         assertThat(yamlIncludes.get(0).getAbsolutePath()).isEqualTo(parentDirectory + "/multi-included-service-1.yaml");
     }
 
+    @Test
+    public void shouldReadYamlIncludesFromMainYamlFile() throws Exception {
+        final File mainYaml = new File(
+                YamlParserTest.class.getResource("/yaml/multi-include-main.yaml").getPath());
+        final File stubsYaml = new File(
+                YamlParserTest.class.getResource("/yaml/multi-included-service-1.yaml").getPath());
+
+        final YamlParser yamlParser = new YamlParser();
+        final List<File> yamlIncludes = yamlParser.getYamlIncludes(mainYaml);
+
+        assertThat(yamlIncludes.size()).isEqualTo(3);
+        assertThat(yamlIncludes.get(2).getAbsolutePath())
+                .isEqualTo(mainYaml.getParent() + "/multi-included-service-3.yaml");
+        assertThat(yamlParser.getYamlIncludes(stubsYaml)).isEmpty();
+    }
+
     @Test
     public void shouldUnmarshall_toProxyConfigs() throws Exception {
         final URL yamlUrl = YamlParserTest.class.getResource("/yaml/proxy-config-valid-config.yaml");
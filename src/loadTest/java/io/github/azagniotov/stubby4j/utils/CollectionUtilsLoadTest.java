@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Compares the single-pass query string parsing in {@link CollectionUtils#constructParamMap(String)} with the
+ * regex based parsing it replaced, both for the results and for the throughput.
+ */
+public class CollectionUtilsLoadTest {
+
+    private static final int WARM_UP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static final List<String> QUERY_STRINGS = Arrays.asList(
+            "paramOne=one&paramTwo=two",
+            "type_name=user&client_id=id&client_secret=secret&attributes=[%22id%22,%22uuid%22,%22created%22]",
+            "names=%5B%27cheburashka%27,%27wendy%27%5D&page=1&size=25",
+            "names=stalin%2B%2B%2Blenin%2B%2B%2Btruman&sort=asc",
+            "search=the+quick++brown+fox&lang=en&debug",
+            "q=one%20two%20three&utm_source=newsletter&utm_medium=email&utm_campaign=spring&utm_content=cta",
+            "ids=[1,%202,%20%203,4,,]&empty=&flag");
+
+    @Test
+    public void shouldConstructSameParamMapAsRegexBasedParsing() throws Exception {
+        for (final String queryString : QUERY_STRINGS) {
+            assertThat(CollectionUtils.constructParamMap(queryString))
+                    .containsExactlyEntriesIn(regexBasedConstructParamMap(queryString))
+                    .inOrder();
+        }
+    }
+
+    @Test
+    public void benchmarkSinglePassAgainstRegexBasedParsing() throws Exception {
+        runIterations(WARM_UP_ITERATIONS, true);
+        runIterations(WARM_UP_ITERATIONS, false);
+
+        final long regexBasedNanos = runIterations(MEASURED_ITERATIONS, false);
+        final long singlePassNanos = runIterations(MEASURED_ITERATIONS, true);
+
+        System.out.printf(
+                "constructParamMap over %s query strings: regex based %s ms, single pass %s ms (%.1fx)%n",
+                MEASURED_ITERATIONS,
+                regexBasedNanos / 1_000_000,
+                singlePassNanos / 1_000_000,
+                (double) regexBasedNanos / singlePassNanos);
+    }
+
+    private static long runIterations(final int iterations, final boolean singlePass) {
+        int checksum = 0;
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < iterations; idx++) {
+            final String queryString = QUERY_STRINGS.get(idx % QUERY_STRINGS.size());
+            final Map<String, String> paramMap = singlePass
+                    ? CollectionUtils.constructParamMap(queryString)
+                    : regexBasedConstructParamMap(queryString);
+            checksum += paramMap.size();
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        assertThat(checksum).isGreaterThan(0);
+
+        return elapsed;
+    }
+
+    // The parsing used by CollectionUtils#constructParamMap before v7.6.2
+    private static Map<String, String> regexBasedConstructParamMap(final String requestQueryString) {
+        if (!StringUtils.isSet(requestQueryString)) {
+            return new LinkedHashMap<>();
+        }
+
+        final Map<String, String> paramMap = new LinkedHashMap<>();
+        final String[] pairs = requestQueryString.split("&");
+        for (final String pair : pairs) {
+            final String[] splittedPair = pair.split("=");
+
+            final String splittedPairKey = splittedPair[0];
+            String splittedPairValue = splittedPair.length > 1 ? splittedPair[1] : "";
+
+            if (StringUtils.isWithinSquareBrackets(splittedPairValue)) {
+                final String cleansedValue =
+                        StringUtils.decodeUrlEncodedQuotes(StringUtils.removeSquareBrackets(splittedPairValue));
+                final String bracketedQueryValueAsCSV =
+                        Arrays.asList(cleansedValue.split(",")).toString();
+                splittedPairValue = StringUtils.trimSpacesBetweenCSVElements(bracketedQueryValueAsCSV);
+            }
+
+            paramMap.put(splittedPairKey, StringUtils.decodeUrlEncoded(splittedPairValue));
+        }
+        return paramMap;
+    }
+}
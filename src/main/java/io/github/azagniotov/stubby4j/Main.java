@@ -25,6 +25,8 @@ import io.github.azagniotov.stubby4j.server.StubbyManager;
 import io.github.azagniotov.stubby4j.server.StubbyManagerFactory;
 import io.github.azagniotov.stubby4j.utils.ConsoleUtils;
 import io.github.azagniotov.stubby4j.utils.DateTimeUtils;
+import io.github.azagniotov.stubby4j.utils.ObjectUtils;
+import io.github.azagniotov.stubby4j.yaml.StubsSnapshot;
 import io.github.azagniotov.stubby4j.yaml.YamlParseResultSet;
 import io.github.azagniotov.stubby4j.yaml.YamlParser;
 import java.io.File;
@@ -35,6 +37,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -61,7 +64,7 @@ public final class Main {
         commandLineInterpreter = new CommandLineInterpreter();
 
         parseCommandLineArgs(args);
-        if (printHelpIfRequested() || printVersionIfRequested()) {
+        if (printHelpIfRequested() || printVersionIfRequested() || compileSnapshotIfRequested()) {
             return;
         }
 
@@ -99,6 +102,42 @@ public final class Main {
         return true;
     }
 
+    private static boolean compileSnapshotIfRequested() {
+        if (!commandLineInterpreter.isCompileSnapshot()) {
+            return false;
+        }
+
+        if (!commandLineInterpreter.isYamlProvided()) {
+            final String msg = String.format(
+                    "YAML data must be provided using command line option '--%s' when compiling a snapshot",
+                    CommandLineInterpreter.OPTION_CONFIG);
+
+            throw new IllegalArgumentException(msg);
+        }
+
+        try {
+            final long initialStart = System.currentTimeMillis();
+            final Map<String, String> commandLineArgs = commandLineInterpreter.getCommandlineParams();
+            final File configFile = new File(commandLineArgs.get(CommandLineInterpreter.OPTION_CONFIG));
+            final File snapshotFile = new File(commandLineArgs.get(CommandLineInterpreter.OPTION_COMPILE_SNAPSHOT));
+
+            final YamlParseResultSet yamlParseResultSet = StubsSnapshot.compile(configFile, snapshotFile);
+            final long totalEnd = System.currentTimeMillis();
+
+            final String msg = String.format(
+                    "Compiled %s stubs into the snapshot %s after %s milliseconds",
+                    yamlParseResultSet.getStubs().size(), snapshotFile.getAbsolutePath(), (totalEnd - initialStart));
+            ANSITerminal.status(BR + msg + BR);
+            LOGGER.info(msg);
+        } catch (final Exception ex) {
+            final String msg = String.format("Could not compile stubs snapshot, error: %s", ex.toString());
+
+            throw new IllegalStateException(msg, ex);
+        }
+
+        return true;
+    }
+
     private static void startStubby4jUsingCommandLineArgs() {
         try {
 
@@ -113,7 +152,7 @@ public final class Main {
             final CompletableFuture<YamlParseResultSet> stubLoadComputation = CompletableFuture.supplyAsync(
                     () -> {
                         try {
-                            return new YamlParser().parse(configFile.getParent(), configFile);
+                            return loadStubs(configFile, commandLineArgs.get(CommandLineInterpreter.OPTION_SNAPSHOT));
                         } catch (IOException ioEx) {
                             throw new UncheckedIOException(ioEx);
                         }
@@ -145,6 +184,25 @@ public final class Main {
         }
     }
 
+    private static YamlParseResultSet loadStubs(final File configFile, final String snapshotFilename)
+            throws IOException {
+        if (ObjectUtils.isNotNull(snapshotFilename)) {
+            final Optional<YamlParseResultSet> snapshotOptional =
+                    StubsSnapshot.load(configFile, new File(snapshotFilename));
+            if (snapshotOptional.isPresent()) {
+                final String msg = String.format(
+                        "Loaded %s stubs from the snapshot %s",
+                        snapshotOptional.get().getStubs().size(), snapshotFilename);
+                ANSITerminal.loaded(msg);
+                LOGGER.info(msg);
+
+                return snapshotOptional.get();
+            }
+        }
+
+        return new YamlParser().parse(configFile.getParent(), configFile);
+    }
+
     private static File buildYamlConfigFile(final String configFilename) throws IOException {
 
         if (!commandLineInterpreter.isYamlProvided()) {
@@ -38,6 +38,10 @@ public interface Cache<K, V> {
         return new RegexPatternCache(CACHE_ENTRY_LIFETIME_SECONDS);
     }
 
+    static Cache<String, String> renderedYamlCache() {
+        return new RenderedYamlCache(CACHE_ENTRY_LIFETIME_SECONDS);
+    }
+
     default Optional<V> get(final K key) {
         return Optional.ofNullable(cache().get(key));
     }
@@ -65,6 +69,14 @@ public interface Cache<K, V> {
         size().set(0);
     }
 
+    /**
+     * @return {@code true} if this cache never stores anything, in which case callers can skip computing
+     * potentially expensive cache keys
+     */
+    default boolean isNoOp() {
+        return false;
+    }
+
     UserManagedCache<K, V> cache();
 
     AtomicInteger size();
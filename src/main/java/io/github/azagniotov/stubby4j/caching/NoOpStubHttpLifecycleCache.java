@@ -47,6 +47,11 @@ class NoOpStubHttpLifecycleCache implements Cache<String, StubHttpLifecycle> {
         // NO-OP
     }
 
+    @Override
+    public boolean isNoOp() {
+        return true;
+    }
+
     @Override
     public UserManagedCache<String, StubHttpLifecycle> cache() {
         throw new UnsupportedOperationException();
@@ -39,6 +39,8 @@ public final class ANSITerminal {
     private static final String RED = String.format("%s[31m", ESCAPE);
     private static final String YELLOW = String.format("%s[33m", ESCAPE);
     private static boolean mute = false;
+    private static volatile AsyncConsoleWriter asyncConsoleWriter = null;
+    private static boolean shutdownHookRegistered = false;
 
     private ANSITerminal() {}
 
@@ -46,6 +48,12 @@ public final class ANSITerminal {
         if (mute) {
             return;
         }
+
+        final AsyncConsoleWriter writer = asyncConsoleWriter;
+        if (writer != null) {
+            writer.write(color + msg + RESET + System.lineSeparator());
+            return;
+        }
         System.out.printf("%s%s%s%n", color, msg, RESET);
     }
 
@@ -142,4 +150,69 @@ public final class ANSITerminal {
     public static boolean isMute() {
         return mute;
     }
+
+    /**
+     * Makes console output asynchronous: messages are queued in a bounded buffer, and printed in batches
+     * by a single background thread, instead of being printed by the calling thread.
+     *
+     * @param overflowPolicy what to do with a new message when the buffer is full
+     */
+    public static synchronized void enableAsyncConsole(final OverflowPolicy overflowPolicy) {
+        if (asyncConsoleWriter != null) {
+            return;
+        }
+        asyncConsoleWriter = new AsyncConsoleWriter(System.out, overflowPolicy, AsyncConsoleWriter.DEFAULT_CAPACITY);
+
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime()
+                    .addShutdownHook(new Thread(ANSITerminal::disableAsyncConsole, "stubby4j-console-flusher"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * Prints out the messages still queued for printing, and makes console output synchronous again
+     */
+    public static synchronized void disableAsyncConsole() {
+        final AsyncConsoleWriter writer = asyncConsoleWriter;
+        if (writer == null) {
+            return;
+        }
+        asyncConsoleWriter = null;
+        writer.close();
+    }
+
+    /**
+     * Checks whether console output is printed asynchronously
+     *
+     * @return true if the console output is asynchronous
+     */
+    public static boolean isAsyncConsole() {
+        return asyncConsoleWriter != null;
+    }
+
+    /**
+     * Returns the number of messages that were not printed, because the asynchronous console buffer was full
+     *
+     * @return the number of dropped messages, or zero if the console output is synchronous
+     */
+    public static long getDroppedMessages() {
+        final AsyncConsoleWriter writer = asyncConsoleWriter;
+
+        return writer == null ? 0L : writer.getDroppedMessages();
+    }
+
+    /**
+     * What to do with a new console message when the asynchronous console buffer is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * The message is discarded and counted as dropped, the calling thread never waits
+         */
+        DROP,
+        /**
+         * The calling thread waits until there is room in the buffer, no message is lost
+         */
+        BLOCK
+    }
 }
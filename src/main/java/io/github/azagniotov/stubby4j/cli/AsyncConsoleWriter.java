@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.cli;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes console messages from a bounded lock-free ring buffer, which is drained by a single background
+ * thread that prints the messages in batches. This way, request threads do not contend on the synchronized
+ * {@link PrintStream} when printing to the console.
+ * <p>
+ * The ring buffer is a multi-producer single-consumer variant of the bounded queue by Dmitry Vyukov: every
+ * slot carries a sequence number, which tells producers and the consumer whether the slot is free to be
+ * written to or ready to be read from.
+ */
+final class AsyncConsoleWriter {
+
+    static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_BUFFER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 2000L;
+
+    private final PrintStream printStream;
+    private final ANSITerminal.OverflowPolicy overflowPolicy;
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<String> messages;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerSequence;
+    private final LongAdder droppedMessages;
+    private final Thread writerThread;
+
+    // Only ever accessed by the writer thread
+    private long consumerSequence;
+
+    private volatile boolean running;
+
+    AsyncConsoleWriter(
+            final PrintStream printStream, final ANSITerminal.OverflowPolicy overflowPolicy, final int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                    String.format("Console buffer capacity must be a positive power of two, got: %s", capacity));
+        }
+        this.printStream = printStream;
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.messages = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int idx = 0; idx < capacity; idx++) {
+            this.sequences.set(idx, idx);
+        }
+        this.producerSequence = new AtomicLong();
+        this.droppedMessages = new LongAdder();
+        this.consumerSequence = 0L;
+        this.running = true;
+
+        this.writerThread = new Thread(this::drainUntilClosed, "stubby4j-console-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Enqueues the message for printing. When the buffer is full, the message is either dropped or the
+     * calling thread waits until there is room in the buffer, depending on the configured overflow policy.
+     *
+     * @param message message to print, including the line separator
+     */
+    void write(final String message) {
+        if (offer(message)) {
+            return;
+        }
+
+        if (overflowPolicy == ANSITerminal.OverflowPolicy.DROP) {
+            droppedMessages.increment();
+            return;
+        }
+
+        while (!offer(message)) {
+            if (!running) {
+                printStream.print(message);
+                return;
+            }
+            LockSupport.parkNanos(FULL_BUFFER_PARK_NANOS);
+        }
+    }
+
+    long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    /**
+     * Stops accepting new messages, and waits for the writer thread to print out the messages still in the buffer
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offer(final String message) {
+        long sequence = producerSequence.get();
+        while (true) {
+            final int slot = (int) (sequence & mask);
+            final long difference = sequences.get(slot) - sequence;
+
+            if (difference == 0) {
+                if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                    messages.lazySet(slot, message);
+                    // Publishes the message to the writer thread
+                    sequences.lazySet(slot, sequence + 1);
+
+                    return true;
+                }
+                sequence = producerSequence.get();
+            } else if (difference < 0) {
+                // The writer has not consumed this slot yet, i.e.: the buffer is full
+                return false;
+            } else {
+                sequence = producerSequence.get();
+            }
+        }
+    }
+
+    private String poll() {
+        final int slot = (int) (consumerSequence & mask);
+        if (sequences.get(slot) != consumerSequence + 1) {
+            return null;
+        }
+
+        final String message = messages.get(slot);
+        messages.lazySet(slot, null);
+        // Frees up the slot for the producers of the next lap around the ring buffer
+        sequences.lazySet(slot, consumerSequence + capacity);
+        consumerSequence++;
+
+        return message;
+    }
+
+    private void drainUntilClosed() {
+        final StringBuilder batch = new StringBuilder();
+        while (true) {
+            int batchSize = 0;
+            String message;
+            while (batchSize < MAX_BATCH_SIZE && (message = poll()) != null) {
+                batch.append(message);
+                batchSize++;
+            }
+
+            if (batchSize > 0) {
+                printStream.print(batch);
+                printStream.flush();
+                batch.setLength(0);
+            } else if (running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else {
+                return;
+            }
+        }
+    }
+}
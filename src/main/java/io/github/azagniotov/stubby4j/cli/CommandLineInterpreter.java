@@ -52,6 +52,31 @@ public final class CommandLineInterpreter {
     public static final String OPTION_DISABLE_SSL = "disable_ssl";
     public static final String OPTION_DISABLE_STUB_CACHING = "disable_stub_caching";
     public static final String OPTION_ENABLE_TLS_WITH_ALPN_AND_HTTP_2 = "enable_tls_with_alpn_and_http_2";
+    public static final String OPTION_MAX_REQUEST_BODY_BYTES = "max_request_body_bytes";
+    public static final String OPTION_ASYNC_CONSOLE = "async_console";
+    public static final String OPTION_ACCESS_JOURNAL = "access_journal";
+    public static final String OPTION_MIN_THREADS = "min_threads";
+    public static final String OPTION_MAX_THREADS = "max_threads";
+    public static final String OPTION_MAX_QUEUED_REQUESTS = "max_queued_requests";
+    public static final String OPTION_ACCEPTORS = "acceptors";
+    public static final String OPTION_SELECTORS = "selectors";
+    public static final String OPTION_IDLE_TIMEOUT = "idle_timeout";
+    public static final String OPTION_OUTPUT_BUFFER_SIZE = "output_buffer_size";
+    public static final String OPTION_REQUEST_HEADER_SIZE = "request_header_size";
+    public static final String OPTION_RESPONSE_HEADER_SIZE = "response_header_size";
+    public static final String OPTION_HTTP2_MAX_CONCURRENT_STREAMS = "http2_max_concurrent_streams";
+    public static final String OPTION_HTTP2_INITIAL_SESSION_RECV_WINDOW = "http2_initial_session_recv_window";
+    public static final String OPTION_HTTP2_INITIAL_STREAM_RECV_WINDOW = "http2_initial_stream_recv_window";
+    public static final String OPTION_VIRTUAL_THREADS = "virtual_threads";
+    public static final String OPTION_ADMIN_MAX_THREADS = "admin_max_threads";
+    public static final String OPTION_TLS_MAX_THREADS = "tls_max_threads";
+    public static final String OPTION_MAX_CONCURRENT_REQUESTS = "max_concurrent_requests";
+    public static final String OPTION_MAX_QUEUE_WAIT = "max_queue_wait";
+    public static final String OPTION_RETRY_AFTER = "retry_after";
+    public static final String OPTION_STUBS_CONNECTORS = "stubs_connectors";
+    public static final String OPTION_UNIX_SOCKET = "unix_socket";
+    public static final String OPTION_SNAPSHOT = "snapshot";
+    public static final String OPTION_COMPILE_SNAPSHOT = "compile_snapshot";
     private static final String OPTION_VERSION = "version";
     private static final String OPTION_DEBUG = "debug";
     private static final CommandLineParser POSIX_PARSER = new DefaultParser();
@@ -94,15 +119,138 @@ public final class CommandLineInterpreter {
                 OPTION_DISABLE_SSL,
                 false,
                 "Disables TLS support (enabled by default) and disables the '--enable_tls_with_alpn_and_http_2' flag, if the latter was provided");
+        OPTIONS.addOption(
+                "mb",
+                OPTION_MAX_REQUEST_BODY_BYTES,
+                true,
+                "Since v7.6.2. Maximum size in bytes of the incoming HTTP request body that stubby reads into memory for stub matching. Larger bodies are not matched. Unlimited by default");
+        OPTIONS.addOption(
+                "aj",
+                OPTION_ACCESS_JOURNAL,
+                true,
+                "Since v7.6.2. Directory to write a binary journal of the requests served by the stub portal to, using rotating memory-mapped files. The journal can be converted to CSV or JSON with io.github.azagniotov.stubby4j.journal.AccessJournalExporter");
+        OPTIONS.addOption(
+                "tmin", OPTION_MIN_THREADS, true, "Since v7.6.2. Minimum number of server threads. Defaults to 8.");
+        OPTIONS.addOption(
+                "tmax", OPTION_MAX_THREADS, true, "Since v7.6.2. Maximum number of server threads. Defaults to 200.");
+        OPTIONS.addOption(
+                "mq",
+                OPTION_MAX_QUEUED_REQUESTS,
+                true,
+                "Since v7.6.2. Maximum number of requests waiting for a free server thread. Requests over the limit are rejected. Unbounded by default");
+        OPTIONS.addOption(
+                "ax",
+                OPTION_ACCEPTORS,
+                true,
+                "Since v7.6.2. Number of acceptor threads per connector. By default, derived from the number of CPU cores");
+        OPTIONS.addOption(
+                "sx",
+                OPTION_SELECTORS,
+                true,
+                "Since v7.6.2. Number of selector threads per connector. By default, derived from the number of CPU cores");
+        OPTIONS.addOption(
+                "it",
+                OPTION_IDLE_TIMEOUT,
+                true,
+                "Since v7.6.2. Connection idle timeout in milliseconds. Defaults to 45000.");
+        OPTIONS.addOption(
+                "ob",
+                OPTION_OUTPUT_BUFFER_SIZE,
+                true,
+                "Since v7.6.2. Size in bytes of the response output buffer. Defaults to 32768.");
+        OPTIONS.addOption(
+                "rqh",
+                OPTION_REQUEST_HEADER_SIZE,
+                true,
+                "Since v7.6.2. Maximum size in bytes of the request headers. Defaults to 8192.");
+        OPTIONS.addOption(
+                "rsh",
+                OPTION_RESPONSE_HEADER_SIZE,
+                true,
+                "Since v7.6.2. Maximum size in bytes of the response headers. Defaults to 8192.");
+        OPTIONS.addOption(
+                "h2s",
+                OPTION_HTTP2_MAX_CONCURRENT_STREAMS,
+                true,
+                "Since v7.6.2. Maximum number of concurrent HTTP/2 streams per connection. Defaults to 100.");
+        OPTIONS.addOption(
+                "h2sw",
+                OPTION_HTTP2_INITIAL_SESSION_RECV_WINDOW,
+                true,
+                "Since v7.6.2. Initial HTTP/2 flow-control window in bytes of a connection. Defaults to 1048576.");
+        OPTIONS.addOption(
+                "h2w",
+                OPTION_HTTP2_INITIAL_STREAM_RECV_WINDOW,
+                true,
+                "Since v7.6.2. Initial HTTP/2 flow-control window in bytes of a stream. Defaults to 524288.");
+        OPTIONS.addOption(
+                "atmax",
+                OPTION_ADMIN_MAX_THREADS,
+                true,
+                "Since v7.6.2. Maximum number of threads of the admin portal thread pool, which is separate from the stubs portal thread pool. Defaults to 16.");
+        OPTIONS.addOption(
+                "tlsmax",
+                OPTION_TLS_MAX_THREADS,
+                true,
+                "Since v7.6.2. Gives the TLS stubs portal its own thread pool with the given maximum number of threads. By default, the TLS stubs portal shares the thread pool with the stubs portal");
+        OPTIONS.addOption(
+                "mcr",
+                OPTION_MAX_CONCURRENT_REQUESTS,
+                true,
+                "Since v7.6.2. Maximum number of stubs portal requests in flight. Excess requests get an immediate 503 response with the Retry-After header. Unlimited by default");
+        OPTIONS.addOption(
+                "mqw",
+                OPTION_MAX_QUEUE_WAIT,
+                true,
+                "Since v7.6.2. Maximum time in milliseconds a stubs portal request waits to be admitted, when the '--max_concurrent_requests' is reached. Defaults to 0, i.e.: no wait");
+        OPTIONS.addOption(
+                "ra",
+                OPTION_RETRY_AFTER,
+                true,
+                "Since v7.6.2. Value in seconds of the Retry-After header of the 503 response to a request, which was not admitted. Defaults to 1.");
+        OPTIONS.addOption(
+                "sc",
+                OPTION_STUBS_CONNECTORS,
+                true,
+                "Since v7.6.2. Number of stubs portal connectors bound to the same port using SO_REUSEPORT, each with its own acceptors and selectors, so that accepting connections scales across CPU cores. Falls back to a single connector with a warning when the JDK or OS does not support SO_REUSEPORT. Defaults to 1");
+        OPTIONS.addOption(
+                "us",
+                OPTION_UNIX_SOCKET,
+                true,
+                "Since v7.6.2. Path of the Unix domain socket file for an additional HTTP/1.1 stubs portal, so that co-located clients (e.g.: when running stubby4j as a sidecar) can skip the TCP stack. Supported on Linux and macOS");
+        OPTIONS.addOption(
+                "ss",
+                OPTION_SNAPSHOT,
+                true,
+                "Since v7.6.2. Path of a binary stubs snapshot compiled using the '--compile_snapshot', which is loaded on startup instead of parsing the YAML config. When the YAML config, its included YAMLs or the external files referenced by the stubs changed since the snapshot was compiled, the YAML config is parsed as usual");
+        OPTIONS.addOption(
+                "cs",
+                OPTION_COMPILE_SNAPSHOT,
+                true,
+                "Since v7.6.2. Compiles the YAML config provided using the '--data' into a binary stubs snapshot at the given path, and exits. Web socket configs cannot be compiled into a snapshot");
+        OPTIONS.addOption(
+                "vt",
+                OPTION_VIRTUAL_THREADS,
+                false,
+                "Since v7.6.2. Handles stubs portal requests on virtual threads, when running on JDK 21 or newer. On older JDKs the flag is ignored with a warning");
         @SuppressWarnings("static-access")
         Option watch = Option.builder("w")
                 .desc(
-                        "Since v2.0.11. Periodically scans for changes in last modification date of the main YAML and referenced external files (if any). The flag can accept an optional arg value which is the watch scan time in milliseconds. If milliseconds is not provided, the watch scans every 100ms. If last modification date changed since the last scan period, the stub configuration is reloaded")
+                        "Since v2.0.11. Watches the main YAML, included YAMLs and referenced external files (if any) for changes in their last modification date, and reloads the stub configuration when they change. Since v7.6.2, the OS file system notifications are used where available, with a fallback to periodic scans. The flag can accept an optional arg value in milliseconds, which is the quiet period to wait for after the last change before reloading, and the scan interval when scanning periodically. If milliseconds is not provided, 100ms is used")
                 .longOpt(OPTION_WATCH)
                 .hasArg(true)
                 .optionalArg(true)
                 .build();
         OPTIONS.addOption(watch);
+        @SuppressWarnings("static-access")
+        Option asyncConsole = Option.builder("ac")
+                .desc(
+                        "Since v7.6.2. Prints console output asynchronously in batches from a bounded buffer, instead of printing from the request threads. The flag can accept an optional arg value which is the policy when the buffer is full: 'drop' (the default) discards and counts new messages, 'block' makes the request threads wait")
+                .longOpt(OPTION_ASYNC_CONSOLE)
+                .hasArg(true)
+                .optionalArg(true)
+                .build();
+        OPTIONS.addOption(asyncConsole);
     }
 
     private CommandLine line;
@@ -147,6 +295,15 @@ public final class CommandLineInterpreter {
         return line.hasOption(OPTION_VERSION);
     }
 
+    /**
+     * Checks if compiling of a stubs snapshot was requested
+     *
+     * @return true if the user has provided 'compile_snapshot' command line arg
+     */
+    public boolean isCompileSnapshot() {
+        return line.hasOption(OPTION_COMPILE_SNAPSHOT);
+    }
+
     /**
      * Checks if debug option was provided
      *
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.filesystem;
+
+import static io.github.azagniotov.stubby4j.utils.FileUtils.BR;
+
+import io.github.azagniotov.stubby4j.annotations.GeneratedCodeClassCoverageExclusion;
+import io.github.azagniotov.stubby4j.cli.ANSITerminal;
+import io.github.azagniotov.stubby4j.stubs.StubRepository;
+import io.github.azagniotov.stubby4j.utils.DateTimeUtils;
+import io.github.azagniotov.stubby4j.yaml.YamlParser;
+import java.io.Closeable;
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the main YAML, the YAMLs included from it and the external files referenced from the stubs,
+ * and refreshes the stubs when any of them changes. The actual watching is done by a single
+ * {@link FileChangeWatcher} thread.
+ * <p>
+ * Unless the main YAML itself changed, only the changed included YAMLs are re-parsed and spliced into
+ * the loaded stubs, and only the changed external files are re-read into the stubs referencing them.
+ */
+@GeneratedCodeClassCoverageExclusion
+public final class DataStoreWatcher implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataStoreWatcher.class);
+
+    private final StubRepository stubRepository;
+    private final FileChangeWatcher fileChangeWatcher;
+
+    // Only ever accessed by the watcher thread
+    private Set<File> watchedYamlFiles;
+    private List<File> includedYamlFiles;
+    private boolean mainYamlChanged;
+
+    public DataStoreWatcher(final StubRepository stubRepository, final long debounceMillis) {
+        this.stubRepository = stubRepository;
+        this.watchedYamlFiles = new LinkedHashSet<>();
+        this.includedYamlFiles = Collections.emptyList();
+        this.mainYamlChanged = true;
+        this.fileChangeWatcher =
+                new FileChangeWatcher(this::collectWatchedFiles, this::refreshStubs, debounceMillis, false);
+    }
+
+    public void start() {
+        new Thread(fileChangeWatcher, DataStoreWatcher.class.getCanonicalName()).start();
+
+        ANSITerminal.status(String.format(
+                "YAML data store watch enabled, watching YAMLs and external files referenced from %s",
+                stubRepository.getYamlConfigCanonicalPath()));
+        LOGGER.debug(
+                "YAML data store watch enabled, watching YAMLs and external files referenced from {}.",
+                stubRepository.getYamlConfigCanonicalPath());
+    }
+
+    @Override
+    public void close() {
+        fileChangeWatcher.close();
+    }
+
+    private Set<File> collectWatchedFiles() {
+        final Set<File> watchedFiles = new LinkedHashSet<>();
+        final File mainDataYaml = stubRepository.getYamlConfig();
+        watchedFiles.add(mainDataYaml);
+
+        // The included YAMLs can only change when the main YAML changes, so otherwise, e.g.: after an external
+        // file changed, the main YAML is not read again
+        if (mainYamlChanged) {
+            this.includedYamlFiles = collectIncludedYamlFiles(mainDataYaml);
+            this.mainYamlChanged = false;
+        }
+        watchedFiles.addAll(includedYamlFiles);
+
+        this.watchedYamlFiles =
+                watchedFiles.stream().map(DataStoreWatcher::toNormalizedFile).collect(Collectors.toSet());
+        watchedFiles.addAll(stubRepository.getExternalFiles().keySet());
+
+        return watchedFiles;
+    }
+
+    private List<File> collectIncludedYamlFiles(final File mainDataYaml) {
+        final List<File> loadedIncludedYamlFiles = stubRepository.getIncludedYamlFiles();
+        if (!loadedIncludedYamlFiles.isEmpty()) {
+            return loadedIncludedYamlFiles;
+        }
+
+        // E.g.: the main YAML has no includes, or the same YAML is included more than once
+        try {
+            return new YamlParser().getYamlIncludes(mainDataYaml);
+        } catch (final Exception ex) {
+            // The included YAMLs are watched again once the main YAML is fixed and reloaded
+            LOGGER.warn("Could not collect included YAMLs from {}.", mainDataYaml.getAbsolutePath(), ex);
+            return Collections.emptyList();
+        }
+    }
+
+    private void refreshStubs(final Set<File> changedFiles) {
+        final File mainDataYaml = toNormalizedFile(stubRepository.getYamlConfig());
+        this.mainYamlChanged =
+                changedFiles.stream().map(DataStoreWatcher::toNormalizedFile).anyMatch(mainDataYaml::equals);
+
+        final String changedFilenames =
+                changedFiles.stream().map(File::getAbsolutePath).collect(Collectors.joining(", "));
+        ANSITerminal.info(String.format("%sYAML data store watch detected change in %s%s", BR, changedFilenames, BR));
+        LOGGER.info("YAML data store watch detected change in {}.", changedFilenames);
+
+        try {
+            if (reloadChangedFilesOnly(changedFiles)) {
+                ANSITerminal.ok(String.format(
+                        "%sSuccessfully reloaded only the changed files: %s on [" + DateTimeUtils.systemDefault()
+                                + "]%s",
+                        BR,
+                        changedFilenames,
+                        BR));
+                LOGGER.info("Successfully reloaded only the changed files: {}.", changedFilenames);
+
+                return;
+            }
+
+            stubRepository.refreshStubsFromYamlConfig(new YamlParser());
+
+            ANSITerminal.ok(String.format(
+                    "%sSuccessfully performed live refresh of main YAML from: %s on [" + DateTimeUtils.systemDefault()
+                            + "]%s",
+                    BR,
+                    stubRepository.getYamlConfig(),
+                    BR));
+            LOGGER.info("Successfully performed live refresh of main YAML from: {}.", stubRepository.getYamlConfig());
+        } catch (final Exception ex) {
+            ANSITerminal.error(
+                    "Could not refresh YAML configuration, previously loaded stubs remain untouched." + ex.toString());
+            LOGGER.error("Could not refresh YAML configuration, previously loaded stubs remain untouched.", ex);
+        }
+    }
+
+    /**
+     * Re-parses only the changed included YAMLs, and re-reads only the changed external files
+     *
+     * @return {@code false} if the main YAML has to be reloaded with all of its includes instead
+     */
+    private boolean reloadChangedFilesOnly(final Set<File> changedFiles) throws Exception {
+        final Set<File> changedYamlFiles = new LinkedHashSet<>();
+        final Set<File> changedExternalFiles = new LinkedHashSet<>();
+        for (final File changedFile : changedFiles) {
+            if (watchedYamlFiles.contains(toNormalizedFile(changedFile))) {
+                changedYamlFiles.add(changedFile);
+            } else {
+                changedExternalFiles.add(changedFile);
+            }
+        }
+
+        if (changedYamlFiles.contains(toNormalizedFile(stubRepository.getYamlConfig()))) {
+            return false;
+        }
+
+        if (!changedYamlFiles.isEmpty() && !stubRepository.reloadIncludedYamls(new YamlParser(), changedYamlFiles)) {
+            return false;
+        }
+
+        return changedExternalFiles.isEmpty() || stubRepository.reloadExternalFiles(changedExternalFiles);
+    }
+
+    private static File toNormalizedFile(final File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+}
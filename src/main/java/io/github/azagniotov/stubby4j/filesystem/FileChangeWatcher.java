@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.filesystem;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import io.github.azagniotov.stubby4j.cli.ANSITerminal;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches a set of files for changes in their last modification date, and notifies the listener once
+ * about all the files that changed within a debounce window.
+ * <p>
+ * The parent directories of the watched files are registered with a {@link WatchService}, so the watcher
+ * thread sleeps until the OS reports a change. Then, the watcher waits until no further events arrive for
+ * the debounce window, which coalesces a burst of writes (e.g.: an editor saving via a temp file, or a
+ * checkout touching many files) into a single notification.
+ * <p>
+ * When the {@link WatchService} is not available, or when it is itself implemented by polling (as the JDK
+ * does on macOS with a coarse ten seconds interval), the watcher falls back to checking the last modification
+ * date of the watched files every debounce window.
+ * <p>
+ * A symbolic link does not raise events under its own name when its target changes, e.g.: when a Kubernetes
+ * ConfigMap volume swaps its {@code ..data} link, or when the link points into another directory. So while any
+ * of the watched files is a symbolic link, or while a parent directory cannot be watched (e.g.: it has been
+ * deleted), the watcher also checks the last modification dates every debounce window.
+ */
+public final class FileChangeWatcher implements Runnable, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileChangeWatcher.class);
+
+    private static final String JDK_POLLING_WATCH_SERVICE = "sun.nio.fs.PollingWatchService";
+
+    private final Supplier<Set<File>> watchedFilesSupplier;
+    private final Consumer<Set<File>> changeListener;
+    private final long debounceMillis;
+    private final boolean forcePolling;
+
+    // Only ever accessed by the watcher thread
+    private final Map<Path, Long> lastModifiedTimes;
+    private final Map<Path, WatchKey> watchedDirectories;
+    private final Set<Path> parentDirectories;
+    private boolean hasSymbolicLinks;
+
+    private volatile WatchService watchService;
+
+    private volatile boolean running;
+
+    /**
+     * @param watchedFilesSupplier supplies the files to watch. Called on start and after every notification,
+     *                             so that the watched files can change as a result of handling the change
+     * @param changeListener       called on the watcher thread with the files that changed
+     * @param debounceMillis       quiet period after the last change, and polling interval in the polling mode
+     * @param forcePolling         whether to poll the last modification date instead of using a {@link WatchService}
+     */
+    public FileChangeWatcher(
+            final Supplier<Set<File>> watchedFilesSupplier,
+            final Consumer<Set<File>> changeListener,
+            final long debounceMillis,
+            final boolean forcePolling) {
+        if (debounceMillis <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Watch debounce time must be a positive number, got: %s", debounceMillis));
+        }
+        this.watchedFilesSupplier = watchedFilesSupplier;
+        this.changeListener = changeListener;
+        this.debounceMillis = debounceMillis;
+        this.forcePolling = forcePolling;
+        this.lastModifiedTimes = new HashMap<>();
+        this.watchedDirectories = new HashMap<>();
+        this.parentDirectories = new HashSet<>();
+        this.running = true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (!forcePolling) {
+                watchService = openWatchService();
+            }
+            if (!running) {
+                return;
+            }
+            snapshotWatchedFiles();
+
+            while (running && !Thread.currentThread().isInterrupted()) {
+                if (watchService != null) {
+                    // Registers again the directories lost since the last loop, as soon as they come back
+                    registerDirectories();
+                }
+                if (!awaitChange()) {
+                    continue;
+                }
+                awaitQuietPeriod();
+
+                final Set<File> changedFiles = collectChangedFiles();
+                if (changedFiles.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    changeListener.accept(changedFiles);
+                } catch (final RuntimeException ex) {
+                    LOGGER.error("Could not handle change in {}.", changedFiles, ex);
+                }
+                snapshotWatchedFiles();
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (final ClosedWatchServiceException ex) {
+            // Closed by close()
+        } finally {
+            closeWatchService();
+        }
+    }
+
+    /**
+     * @return {@code true} if the files are watched using a {@link WatchService}, {@code false} when polling
+     */
+    public boolean isUsingWatchService() {
+        return watchService != null;
+    }
+
+    /**
+     * Stops the watcher thread
+     */
+    @Override
+    public void close() {
+        running = false;
+        final WatchService currentWatchService = watchService;
+        if (currentWatchService != null) {
+            // Wakes up the watcher thread blocked on the watch service
+            closeQuietly(currentWatchService);
+        }
+    }
+
+    /**
+     * Blocks until the OS reports an event in a watched directory, or until the next polling interval in the
+     * polling mode.
+     *
+     * @return {@code true} if any of the watched files may have changed
+     */
+    private boolean awaitChange() throws InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(debounceMillis);
+            return true;
+        }
+
+        if (hasSymbolicLinks || watchedDirectories.size() < parentDirectories.size()) {
+            final WatchKey watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+            return watchKey == null || drainEvents(watchKey);
+        }
+
+        return drainEvents(watchService.take());
+    }
+
+    private void awaitQuietPeriod() throws InterruptedException {
+        if (watchService == null) {
+            return;
+        }
+
+        WatchKey watchKey;
+        while ((watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+            drainEvents(watchKey);
+        }
+    }
+
+    private boolean drainEvents(final WatchKey watchKey) {
+        // Any event in a watched directory is relevant, not only the events named after a watched file, as a file
+        // can change through a symbolic link (e.g.: a swapped ..data link). The changes are then filtered by
+        // checking the last modification dates of the watched files. On OVERFLOW, the events were lost altogether
+        boolean isRelevant = !watchKey.pollEvents().isEmpty();
+
+        if (!watchKey.reset()) {
+            // The directory is no longer accessible, it is registered again once it comes back
+            watchedDirectories.remove((Path) watchKey.watchable());
+            isRelevant = true;
+        }
+
+        return isRelevant;
+    }
+
+    private Set<File> collectChangedFiles() {
+        final Set<File> changedFiles = new LinkedHashSet<>();
+        for (final Map.Entry<Path, Long> entry : lastModifiedTimes.entrySet()) {
+            final File file = entry.getKey().toFile();
+            final long currentLastModified = file.lastModified();
+            // A missing file is not reported until it gets created again, e.g.: while an editor replaces it
+            if (currentLastModified != 0L && currentLastModified != entry.getValue()) {
+                changedFiles.add(file);
+            }
+        }
+
+        return changedFiles;
+    }
+
+    private void snapshotWatchedFiles() {
+        final Set<File> watchedFiles = watchedFilesSupplier.get();
+
+        lastModifiedTimes.clear();
+        parentDirectories.clear();
+        hasSymbolicLinks = false;
+        for (final File watchedFile : watchedFiles) {
+            final Path path = watchedFile.toPath().toAbsolutePath().normalize();
+            lastModifiedTimes.put(path, watchedFile.lastModified());
+            if (path.getParent() != null) {
+                parentDirectories.add(path.getParent());
+            }
+            if (Files.isSymbolicLink(path)) {
+                hasSymbolicLinks = true;
+            }
+        }
+    }
+
+    private void registerDirectories() {
+        final Iterator<Map.Entry<Path, WatchKey>> iterator = watchedDirectories.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Path, WatchKey> entry = iterator.next();
+            if (!parentDirectories.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+
+        for (final Path directory : parentDirectories) {
+            if (watchedDirectories.containsKey(directory)) {
+                continue;
+            }
+            try {
+                watchedDirectories.put(
+                        directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE));
+            } catch (final NoSuchFileException ex) {
+                // Polled until the directory comes back
+                LOGGER.debug("Directory {} does not exist, polling until it is created.", directory);
+            } catch (final IOException ex) {
+                final String fallbackMsg = String.format(
+                        "Could not watch directory %s, falling back to polling every %sms: %s",
+                        directory, debounceMillis, ex.getMessage());
+                ANSITerminal.warn(fallbackMsg);
+                LOGGER.warn(fallbackMsg, ex);
+                closeWatchService();
+                return;
+            }
+        }
+    }
+
+    private WatchService openWatchService() {
+        try {
+            final WatchService newWatchService = FileSystems.getDefault().newWatchService();
+            if (JDK_POLLING_WATCH_SERVICE.equals(newWatchService.getClass().getName())) {
+                LOGGER.debug(
+                        "JDK watch service polls the file system, falling back to polling every {}ms.",
+                        debounceMillis);
+                newWatchService.close();
+                return null;
+            }
+
+            return newWatchService;
+        } catch (final IOException | UnsupportedOperationException ex) {
+            final String fallbackMsg = String.format(
+                    "File system watch service is not available, falling back to polling every %sms: %s",
+                    debounceMillis, ex.getMessage());
+            ANSITerminal.warn(fallbackMsg);
+            LOGGER.warn(fallbackMsg, ex);
+
+            return null;
+        }
+    }
+
+    private void closeWatchService() {
+        final WatchService currentWatchService = watchService;
+        if (currentWatchService == null) {
+            return;
+        }
+        watchService = null;
+        watchedDirectories.clear();
+        closeQuietly(currentWatchService);
+    }
+
+    private static void closeQuietly(final WatchService watchService) {
+        try {
+            watchService.close();
+        } catch (final IOException ex) {
+            LOGGER.debug("Could not close watch service.", ex);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.handlers;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+/**
+ * Admits requests to the wrapped handler through the {@link AdmissionController}. A shed request gets
+ * an immediate 503 response with the Retry-After header, without reaching the wrapped handler.
+ * <p>
+ * A wrapped handler that handles the request asynchronously must call
+ * {@link #addPermitReleasingListener(HttpServletRequest, AsyncContext)} right after starting the async cycle,
+ * so that the permit is released even when the request completes before the wrapped handler returns.
+ */
+public final class AdmissionControlHandler extends HandlerWrapper {
+
+    private static final String PERMIT_RELEASING_LISTENER_ATTRIBUTE =
+            AdmissionControlHandler.class.getName() + ".permitReleasingListener";
+
+    private final AdmissionController admissionController;
+
+    public AdmissionControlHandler(final AdmissionController admissionController, final Handler handler) {
+        this.admissionController = admissionController;
+        setHandler(handler);
+    }
+
+    @Override
+    public void handle(
+            final String target,
+            final Request baseRequest,
+            final HttpServletRequest request,
+            final HttpServletResponse response)
+            throws IOException, ServletException {
+        if (baseRequest.isHandled()) {
+            return;
+        }
+
+        if (!admissionController.tryAdmit()) {
+            baseRequest.setHandled(true);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE_503);
+            response.setHeader(
+                    HttpHeader.RETRY_AFTER.asString(), String.valueOf(admissionController.getRetryAfterSeconds()));
+            return;
+        }
+
+        final ReleasingAsyncListener releasingAsyncListener = new ReleasingAsyncListener(admissionController);
+        request.setAttribute(PERMIT_RELEASING_LISTENER_ATTRIBUTE, releasingAsyncListener);
+
+        boolean releaseOnReturn = true;
+        try {
+            super.handle(target, baseRequest, request, response);
+
+            if (request.isAsyncStarted()) {
+                // The request is still being handled on another thread, the permit is released once it completes.
+                // A no-op when the wrapped handler already added the listener right after starting the async cycle
+                releasingAsyncListener.addTo(request.getAsyncContext());
+                releaseOnReturn = false;
+            }
+        } finally {
+            if (releaseOnReturn) {
+                releasingAsyncListener.release();
+            }
+        }
+    }
+
+    /**
+     * Adds the listener that releases the admission permit of the request once the async cycle completes.
+     * A no-op when the request was not admitted by an {@link AdmissionControlHandler}
+     *
+     * @param request      the request whose async cycle has just been started
+     * @param asyncContext the async context of the request
+     */
+    static void addPermitReleasingListener(final HttpServletRequest request, final AsyncContext asyncContext) {
+        final Object releasingAsyncListener = request.getAttribute(PERMIT_RELEASING_LISTENER_ATTRIBUTE);
+        if (releasingAsyncListener instanceof ReleasingAsyncListener) {
+            ((ReleasingAsyncListener) releasingAsyncListener).addTo(asyncContext);
+        }
+    }
+
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final AdmissionController admissionController;
+        private final AtomicBoolean added;
+        private final AtomicBoolean released;
+
+        private ReleasingAsyncListener(final AdmissionController admissionController) {
+            this.admissionController = admissionController;
+            this.added = new AtomicBoolean(false);
+            this.released = new AtomicBoolean(false);
+        }
+
+        private void addTo(final AsyncContext asyncContext) {
+            if (added.compareAndSet(false, true)) {
+                asyncContext.addListener(this);
+            }
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // The permit is released in onComplete, which follows the timeout
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // The permit is released in onComplete, which follows the error
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // Keeps listening, when the async cycle is restarted
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                admissionController.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.handlers;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of stubs portal requests in flight. A request, which cannot be admitted within the maximum
+ * queue wait, is shed instead of adding to the latency of the requests already in flight.
+ * <p>
+ * A single instance is shared by the stubs portal handlers of all connectors.
+ */
+public final class AdmissionController {
+
+    private final int maxConcurrentRequests;
+    private final long maxQueueWaitMillis;
+    private final int retryAfterSeconds;
+    private final Semaphore permits;
+    private final LongAdder shedRequests;
+
+    public AdmissionController(
+            final int maxConcurrentRequests, final long maxQueueWaitMillis, final int retryAfterSeconds) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Max concurrent requests must be a positive number, got: %s", maxConcurrentRequests));
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        // A fair semaphore admits the waiting requests in the order of their arrival
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.shedRequests = new LongAdder();
+    }
+
+    /**
+     * Admits the request when there is a free permit, waiting for one up to the maximum queue wait. Every
+     * admitted request must be followed by a call to {@link #release()} once the request has been handled.
+     *
+     * @return {@code true} if the request was admitted, {@code false} if the request was shed
+     */
+    boolean tryAdmit() {
+        try {
+            final boolean admitted = maxQueueWaitMillis == 0
+                    ? permits.tryAcquire()
+                    : permits.tryAcquire(maxQueueWaitMillis, TimeUnit.MILLISECONDS);
+            if (!admitted) {
+                shedRequests.increment();
+            }
+
+            return admitted;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shedRequests.increment();
+
+            return false;
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getInFlightRequests() {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+
+    public int getQueuedRequests() {
+        return permits.getQueueLength();
+    }
+
+    public long getShedRequests() {
+        return shedRequests.sum();
+    }
+}
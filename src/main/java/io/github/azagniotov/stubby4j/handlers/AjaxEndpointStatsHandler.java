@@ -57,7 +57,19 @@ public class AjaxEndpointStatsHandler extends AbstractHandler implements Abstrac
 
         try {
             if (request.getRequestURI().contains("stats/check")) {
-                response.getWriter().println(!stubRepository.getResourceStats().isEmpty());
+                response.getWriter().println(stubRepository.hasResourceStats());
+            } else if (request.getRequestURI().endsWith("stats/csv")) {
+                // e.g.: GET localhost:8889/ajax/stats/csv
+                response.setContentType("text/csv;charset=UTF-8");
+                stubRepository.writeResourceStatsCsv(response.getWriter());
+            } else if (request.getRequestURI().endsWith("stats/json")) {
+                // e.g.: GET localhost:8889/ajax/stats/json
+                response.setContentType("application/json;charset=UTF-8");
+                stubRepository.writeResourceStatsJson(response.getWriter());
+            } else if (request.getRequestURI().endsWith("stats/latency")) {
+                // e.g.: GET localhost:8889/ajax/stats/latency
+                response.setContentType("application/json;charset=UTF-8");
+                stubRepository.writeLatencyStatsJson(response.getWriter());
             } else {
                 ConsoleUtils.logIncomingRequest(request);
                 final String popupStatsHtmlTemplate = getHtmlResourceByName("_popup_stats");
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.handlers;
+
+import io.github.azagniotov.stubby4j.annotations.GeneratedCodeClassCoverageExclusion;
+import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
+import io.github.azagniotov.stubby4j.stubs.StubRepository;
+import io.github.azagniotov.stubby4j.stubs.StubsPage;
+import io.github.azagniotov.stubby4j.utils.ConsoleUtils;
+import io.github.azagniotov.stubby4j.utils.HandlerUtils;
+import io.github.azagniotov.stubby4j.utils.StringUtils;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.json.JSONObject;
+
+/**
+ * Lists one page of the loaded stubs as JSON, so that a UI can load the stubs incrementally instead of
+ * rendering all of them at once. Takes the same query string as the status page, see {@link StubsListingQuery}:
+ *
+ * <pre>
+ * GET /ajax/stubs?page=1&amp;size=50&amp;url=/invoice
+ *
+ * {"page":1,"size":50,"total":1,"has_next":false,"stubs":[
+ * {"resource_id":"0","uuid":null,"description":null,"method":["GET"],"url":"/invoice","responses":1}
+ * ]}
+ * </pre>
+ */
+@GeneratedCodeClassCoverageExclusion
+public class AjaxStubsListingHandler extends AbstractHandler implements AbstractHandlerExtension {
+
+    private final StubRepository stubRepository;
+
+    public AjaxStubsListingHandler(final StubRepository stubRepository) {
+        this.stubRepository = stubRepository;
+    }
+
+    @Override
+    public void handle(
+            final String target,
+            final Request baseRequest,
+            final HttpServletRequest request,
+            final HttpServletResponse response)
+            throws IOException, ServletException {
+        if (logAndCheckIsHandled("ajaxStubsListing", baseRequest, request, response)) {
+            return;
+        }
+        baseRequest.setHandled(true);
+
+        HandlerUtils.setResponseMainHeaders(response);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setStatus(HttpStatus.OK_200);
+
+        try {
+            final StubsListingQuery query = StubsListingQuery.fromRequest(request);
+            final StubsPage stubsPage =
+                    stubRepository.getStubsPage(query.toFilter(), query.getOffset(), query.getPageSize());
+            writeStubsPageJson(query, stubsPage, response.getWriter());
+        } catch (final Exception ex) {
+            HandlerUtils.configureErrorResponse(response, HttpStatus.INTERNAL_SERVER_ERROR_500, ex.toString());
+        }
+
+        ConsoleUtils.logOutgoingResponse(request.getRequestURI(), response);
+    }
+
+    // Written by hand rather than through a JSONObject, which does not keep the order of the keys
+    private static void writeStubsPageJson(
+            final StubsListingQuery query, final StubsPage stubsPage, final PrintWriter writer) {
+        writer.print("{\"page\":");
+        writer.print(query.getPage());
+        writer.print(",\"size\":");
+        writer.print(query.getPageSize());
+        writer.print(",\"total\":");
+        writer.print(stubsPage.getTotalCount());
+        writer.print(",\"has_next\":");
+        writer.print(stubsPage.hasNext());
+        writer.print(",\"stubs\":[");
+        final List<StubHttpLifecycle> stubs = stubsPage.getStubs();
+        for (int idx = 0; idx < stubs.size(); idx++) {
+            writer.print(idx == 0 ? "\n" : ",\n");
+            writeStubJson(stubs.get(idx), writer);
+        }
+        writer.println("\n]}");
+    }
+
+    private static void writeStubJson(final StubHttpLifecycle stub, final PrintWriter writer) {
+        writer.print("{\"resource_id\":");
+        writer.print(toJsonString(stub.getResourceId()));
+        writer.print(",\"uuid\":");
+        writer.print(toJsonString(stub.getUUID()));
+        writer.print(",\"description\":");
+        writer.print(toJsonString(stub.getDescription()));
+        writer.print(",\"method\":[");
+        final List<String> methods = stub.getRequest().getMethod();
+        for (int idx = 0; idx < methods.size(); idx++) {
+            writer.print(idx == 0 ? "" : ",");
+            writer.print(JSONObject.quote(StringUtils.toUpper(methods.get(idx))));
+        }
+        writer.print("],\"url\":");
+        writer.print(toJsonString(stub.getUrl()));
+        writer.print(",\"responses\":");
+        writer.print(stub.getResponses().size());
+        writer.print('}');
+    }
+
+    private static String toJsonString(final String value) {
+        return value == null ? "null" : JSONObject.quote(value);
+    }
+}
@@ -28,11 +28,14 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
 
 import io.github.azagniotov.stubby4j.annotations.GeneratedCodeClassCoverageExclusion;
+import io.github.azagniotov.stubby4j.cli.ANSITerminal;
 import io.github.azagniotov.stubby4j.cli.CommandLineInterpreter;
 import io.github.azagniotov.stubby4j.server.JettyContext;
 import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
+import io.github.azagniotov.stubby4j.stubs.StubLatencyStats;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
 import io.github.azagniotov.stubby4j.stubs.StubResponse;
+import io.github.azagniotov.stubby4j.stubs.StubsPage;
 import io.github.azagniotov.stubby4j.stubs.proxy.StubProxyConfig;
 import io.github.azagniotov.stubby4j.utils.ConsoleUtils;
 import io.github.azagniotov.stubby4j.utils.DateTimeUtils;
@@ -44,12 +47,14 @@ import io.github.azagniotov.stubby4j.utils.StringUtils;
 import io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.RuntimeMXBean;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -58,6 +63,7 @@ import org.eclipse.jetty.http.HttpScheme;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
 @GeneratedCodeClassCoverageExclusion
 public final class StatusPageHandler extends AbstractHandler implements AbstractHandlerExtension {
@@ -73,8 +79,17 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
             "<strong><a class='ajax-resource' href='/ajax/resource/%s/%s/%s'>[view]</a></strong>";
     private static final String TEMPLATE_AJAX_TO_STATS_HYPERLINK =
             "<strong><a class='ajax-stats' href='/ajax/stats'>[view]</a></strong>";
+    private static final String TEMPLATE_LINK_TO_LATENCY_STATS =
+            "<strong><a href='/ajax/stats/latency'>[view]</a></strong>";
     private static final String TEMPLATE_HTML_TABLE_ROW =
             "<tr><td width='250px' valign='top' align='left'>%s</td><td align='left'>%s</td></tr>";
+    private static final String TEMPLATE_STUBS_LISTING_FILTER = "<form method='GET' action='/status'>"
+            + "URL <input type='text' name='url' value='%s'/> "
+            + "UUID <input type='text' name='uuid' value='%s'/> "
+            + "METHOD <input type='text' name='method' value='%s'/> "
+            + "<input type='hidden' name='size' value='%s'/>"
+            + "<input type='submit' value='Filter stubs'/></form>";
+    private static final String TEMPLATE_STUBS_LISTING_PAGE_LINK = "<a href='/status%s'>%s</a>";
     private static final String NEXT_IN_THE_QUEUE = " NEXT IN THE QUEUE";
     private static final String HTML_BR = "<br />";
 
@@ -103,7 +118,7 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
                 HttpHeader.SERVER.asString().toLowerCase(Locale.US), HandlerUtils.constructHeaderServerName());
 
         try {
-            response.getWriter().println(buildStatusPageHtml());
+            writeStatusPageHtml(StubsListingQuery.fromRequest(request), response.getWriter());
         } catch (final Exception ex) {
             HandlerUtils.configureErrorResponse(response, HttpStatus.INTERNAL_SERVER_ERROR_500, ex.toString());
         }
@@ -111,11 +126,19 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
         ConsoleUtils.logOutgoingResponse(request.getRequestURI(), response);
     }
 
-    private String buildStatusPageHtml() throws Exception {
-        final StringBuilder builder = new StringBuilder();
-
+    /**
+     * Writes the status page out one stub at a time, instead of building the whole page in memory first.
+     * Only the requested page of the loaded stubs is rendered, see {@link StubsListingQuery}
+     */
+    private void writeStatusPageHtml(final StubsListingQuery query, final PrintWriter writer) throws Exception {
         final String templateHtmlTable = getHtmlResourceByName("_table");
+        final String templateHtmlPage = getHtmlResourceByName("status");
+        // The page body is the last token of the page template, the preceding ones are cache busting timestamps
+        final int bodyTokenIndex = templateHtmlPage.lastIndexOf("%s");
+        final long timestamp = System.currentTimeMillis();
+        writer.print(String.format(templateHtmlPage.substring(0, bodyTokenIndex), timestamp, timestamp));
 
+        final StringBuilder builder = new StringBuilder();
         builder.append(buildJvmParametersHtmlTable(templateHtmlTable));
         builder.append(buildJettyParametersHtmlTable(templateHtmlTable));
         builder.append(buildStubbyParametersHtmlTable(templateHtmlTable));
@@ -134,16 +157,60 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
             }
             builder.append(HTML_BR).append(HTML_BR);
         }
+        writer.print(builder);
+
+        final StubsPage stubsPage =
+                stubRepository.getStubsPage(query.toFilter(), query.getOffset(), query.getPageSize());
+        final String stubsListingNavigation = buildStubsListingNavigationHtml(query, stubsPage);
+        writer.print(buildStubsListingFilterHtml(query));
+        writer.print(stubsListingNavigation);
+        for (final StubHttpLifecycle stubHttpLifecycle : stubsPage.getStubs()) {
+            writer.print(buildStubRequestHtmlTable(stubHttpLifecycle, templateHtmlTable));
+            writer.print(buildStubResponseHtmlTable(stubHttpLifecycle, templateHtmlTable));
+            writer.print(HTML_BR + HTML_BR);
+        }
+        writer.print(stubsListingNavigation);
 
-        final List<StubHttpLifecycle> stubHttpLifecycles = stubRepository.getStubs();
-        for (final StubHttpLifecycle stubHttpLifecycle : stubHttpLifecycles) {
-            builder.append(buildStubRequestHtmlTable(stubHttpLifecycle, templateHtmlTable));
-            builder.append(buildStubResponseHtmlTable(stubHttpLifecycle, templateHtmlTable));
-            builder.append(HTML_BR).append(HTML_BR);
+        writer.println(templateHtmlPage.substring(bodyTokenIndex + 2));
+    }
+
+    private static String buildStubsListingFilterHtml(final StubsListingQuery query) {
+        return String.format(
+                TEMPLATE_STUBS_LISTING_FILTER,
+                escapeFilterValue(query.getUrl()),
+                escapeFilterValue(query.getUuid()),
+                escapeFilterValue(query.getMethod()),
+                query.getPageSize());
+    }
+
+    private static String escapeFilterValue(final String value) {
+        return StringUtils.isSet(value) ? StringUtils.escapeHtmlEntities(value) : "";
+    }
+
+    private static String buildStubsListingNavigationHtml(final StubsListingQuery query, final StubsPage stubsPage) {
+        final StringBuilder builder = new StringBuilder("<p>");
+        if (stubsPage.getStubs().isEmpty()) {
+            builder.append(
+                    String.format("No stubs on page %s of %s stubs", query.getPage(), stubsPage.getTotalCount()));
+        } else {
+            builder.append(String.format(
+                    "Stubs %s-%s of %s",
+                    stubsPage.getOffset() + 1,
+                    stubsPage.getOffset() + stubsPage.getStubs().size(),
+                    stubsPage.getTotalCount()));
+        }
+        if (stubsPage.hasPrevious()) {
+            builder.append(" | ")
+                    .append(String.format(
+                            TEMPLATE_STUBS_LISTING_PAGE_LINK, query.toQueryString(query.getPage() - 1), "previous"));
+        }
+        if (stubsPage.hasNext()) {
+            builder.append(" | ")
+                    .append(String.format(
+                            TEMPLATE_STUBS_LISTING_PAGE_LINK, query.toQueryString(query.getPage() + 1), "next"));
         }
 
-        final long timestamp = System.currentTimeMillis();
-        return HandlerUtils.populateHtmlTemplate("status", timestamp, timestamp, builder.toString());
+        return builder.append("</p>").toString();
     }
 
     private String buildStubProxyConfigtHtmlTable(final StubProxyConfig stubProxyConfig, final String templateHtmlTable)
@@ -170,6 +237,17 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
                 resourceId, REQUEST.toString(), ReflectionUtils.getProperties(stubHttpLifecycle.getRequest()));
         requestTableBuilder.append(interpolateHtmlTableRowTemplate("RAW YAML", ajaxLinkToRequestAsYaml));
 
+        final Optional<StubLatencyStats> latencyStatsOptional = stubRepository.getLatencyStats(stubHttpLifecycle);
+        if (latencyStatsOptional.isPresent()) {
+            final StubLatencyStats latencyStats = latencyStatsOptional.get();
+            requestTableBuilder.append(
+                    interpolateHtmlTableRowTemplate("MATCH TIME (MICROS)", latencyStats.getMatchTimeMicros()));
+            requestTableBuilder.append(
+                    interpolateHtmlTableRowTemplate("MATCH CANDIDATES", latencyStats.getMatchCandidates()));
+            requestTableBuilder.append(
+                    interpolateHtmlTableRowTemplate("SERVICE TIME (MICROS)", latencyStats.getServiceTimeMicros()));
+        }
+
         return String.format(templateHtmlTable, REQUEST, requestTableBuilder.toString());
     }
 
@@ -227,6 +305,21 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
         builder.append(interpolateHtmlTableRowTemplate("ADMIN PORT", adminPort));
         builder.append(interpolateHtmlTableRowTemplate("STUBS PORT", jettyContext.getStubsPort()));
         builder.append(interpolateHtmlTableRowTemplate("STUBS TLS PORT", jettyContext.getStubsTlsPort()));
+        for (final Map.Entry<String, QueuedThreadPool> entry : jettyContext.getThreadPools().entrySet()) {
+            builder.append(interpolateHtmlTableRowTemplate(
+                    toUpper(entry.getKey()) + " THREAD POOL", buildThreadPoolSaturation(entry.getValue())));
+        }
+        final AdmissionController admissionController = jettyContext.getAdmissionController();
+        if (ObjectUtils.isNotNull(admissionController)) {
+            builder.append(interpolateHtmlTableRowTemplate(
+                    "STUBS ADMISSION CONTROL",
+                    String.format(
+                            "%s of max %s requests in flight, %s queued, %s shed",
+                            admissionController.getInFlightRequests(),
+                            admissionController.getMaxConcurrentRequests(),
+                            admissionController.getQueuedRequests(),
+                            admissionController.getShedRequests())));
+        }
         final String endpointRegistration = HandlerUtils.linkifyRequestUrl(
                 HttpScheme.HTTP.asString(), AdminPortalHandler.ADMIN_ROOT, host, adminPort);
         builder.append(interpolateHtmlTableRowTemplate("NEW STUB DATA POST URI", endpointRegistration));
@@ -234,6 +327,21 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
         return String.format(templateHtmlTable, "jetty parameters", builder.toString());
     }
 
+    private static String buildThreadPoolSaturation(final QueuedThreadPool threadPool) {
+        final int busyThreads = threadPool.getBusyThreads();
+        final int maxThreads = threadPool.getMaxThreads();
+        final long saturationPercent = maxThreads == 0 ? 0 : Math.round(busyThreads * 100.0 / maxThreads);
+
+        return String.format(
+                "busy %s of max %s threads (%s%%), %s started, %s idle, %s queued",
+                busyThreads,
+                maxThreads,
+                saturationPercent,
+                threadPool.getThreads(),
+                threadPool.getIdleThreads(),
+                threadPool.getQueueSize());
+    }
+
     private String buildStubbyParametersHtmlTable(final String templateHtmlTable) throws Exception {
 
         final StringBuilder builder = new StringBuilder();
@@ -244,7 +352,11 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
                 "UPTIME", HandlerUtils.calculateStubbyUpTime(RUNTIME_MX_BEAN.getUptime())));
         builder.append(interpolateHtmlTableRowTemplate("INPUT ARGS", CommandLineInterpreter.PROVIDED_OPTIONS));
         builder.append(interpolateHtmlTableRowTemplate(
-                "STUBBED ENDPOINTS", stubRepository.getStubs().size()));
+                "STUBBED ENDPOINTS", stubRepository.getStubsCount()));
+        if (ANSITerminal.isAsyncConsole()) {
+            builder.append(
+                    interpolateHtmlTableRowTemplate("DROPPED CONSOLE MESSAGES", ANSITerminal.getDroppedMessages()));
+        }
         builder.append(interpolateHtmlTableRowTemplate(
                 "LOADED YAML", buildLoadedFileMetadata(stubRepository.getYamlConfig())));
 
@@ -263,10 +375,11 @@ public final class StatusPageHandler extends AbstractHandler implements Abstract
     private String buildEndpointStatsHtmlTable(final String templateHtmlTable) throws Exception {
 
         final StringBuilder builder = new StringBuilder();
-        if (stubRepository.getResourceStats().isEmpty()) {
+        if (!stubRepository.hasResourceStats()) {
             builder.append(interpolateHtmlTableRowTemplate("ENDPOINT HITS", "No requests were made to stubby yet"));
         } else {
             builder.append(interpolateHtmlTableRowTemplate("ENDPOINT HITS", TEMPLATE_AJAX_TO_STATS_HYPERLINK));
+            builder.append(interpolateHtmlTableRowTemplate("ENDPOINT LATENCY", TEMPLATE_LINK_TO_LATENCY_STATS));
         }
 
         return String.format(templateHtmlTable, "stubby stats", builder.toString());
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.handlers;
+
+import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
+import io.github.azagniotov.stubby4j.utils.ObjectUtils;
+import io.github.azagniotov.stubby4j.utils.StringUtils;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.function.Predicate;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Which page of the loaded stubs to list, and how to filter them, as given in the query string of the status
+ * page or of the stubs listing API: {@code ?page=2&size=50&url=/invoice&uuid=some-uuid&method=GET}.
+ * <p>
+ * Pages are 1-based. A missing or malformed page or page size falls back to the defaults, so that a mistyped
+ * query string still lists something. The URL filter matches stubs whose URL contains the given value, the
+ * UUID and method filters match exactly, the method ignoring case.
+ * <p>
+ * A query without the page and page size parameters is not paged, which is what the YAML config dump uses to
+ * dump all the stubs that pass the filters.
+ */
+public final class StubsListingQuery {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final String PARAM_PAGE = "page";
+    static final String PARAM_SIZE = "size";
+    static final String PARAM_URL = "url";
+    static final String PARAM_UUID = "uuid";
+    static final String PARAM_METHOD = "method";
+
+    private final int page;
+    private final int pageSize;
+    private final String url;
+    private final String uuid;
+    private final String method;
+    private final boolean paged;
+
+    StubsListingQuery(final int page, final int pageSize, final String url, final String uuid, final String method) {
+        this(page, pageSize, url, uuid, method, true);
+    }
+
+    private StubsListingQuery(
+            final int page,
+            final int pageSize,
+            final String url,
+            final String uuid,
+            final String method,
+            final boolean paged) {
+        this.page = Math.max(page, 1);
+        this.pageSize = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        this.url = StringUtils.trimIfSet(url);
+        this.uuid = StringUtils.trimIfSet(uuid);
+        this.method = StringUtils.trimIfSet(method);
+        this.paged = paged;
+    }
+
+    public static StubsListingQuery fromRequest(final HttpServletRequest request) {
+        final String page = request.getParameter(PARAM_PAGE);
+        final String pageSize = request.getParameter(PARAM_SIZE);
+
+        return new StubsListingQuery(
+                parseInt(page, 1),
+                parseInt(pageSize, DEFAULT_PAGE_SIZE),
+                request.getParameter(PARAM_URL),
+                request.getParameter(PARAM_UUID),
+                request.getParameter(PARAM_METHOD),
+                ObjectUtils.isNotNull(page) || ObjectUtils.isNotNull(pageSize));
+    }
+
+    int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return {@code false} when neither the page nor the page size was given
+     */
+    public boolean isPaged() {
+        return paged;
+    }
+
+    public int getOffset() {
+        // Widened to long, so that a huge page number cannot overflow into a negative offset
+        return (int) Math.min((long) (page - 1) * pageSize, Integer.MAX_VALUE);
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    String getUuid() {
+        return uuid;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    public Predicate<StubHttpLifecycle> toFilter() {
+        return stub -> (StringUtils.isNotSet(url) || (stub.getUrl() != null && stub.getUrl().contains(url)))
+                && (StringUtils.isNotSet(uuid) || uuid.equals(stub.getUUID()))
+                && (StringUtils.isNotSet(method)
+                        || stub.getRequest().getMethod().stream().anyMatch(method::equalsIgnoreCase));
+    }
+
+    /**
+     * @return query string, including the leading '?', which lists the given page with the same filters and
+     * page size as this query
+     */
+    String toQueryString(final int targetPage) {
+        final StringBuilder builder = new StringBuilder()
+                .append('?')
+                .append(PARAM_PAGE)
+                .append('=')
+                .append(targetPage)
+                .append('&')
+                .append(PARAM_SIZE)
+                .append('=')
+                .append(pageSize);
+        appendParameter(builder, PARAM_URL, url);
+        appendParameter(builder, PARAM_UUID, uuid);
+        appendParameter(builder, PARAM_METHOD, method);
+
+        return builder.toString();
+    }
+
+    private static void appendParameter(final StringBuilder builder, final String name, final String value) {
+        if (StringUtils.isNotSet(value)) {
+            return;
+        }
+        try {
+            builder.append('&').append(name).append('=').append(URLEncoder.encode(value, StringUtils.UTF_8));
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int parseInt(final String value, final int defaultValue) {
+        if (StringUtils.isNotSet(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -18,25 +18,50 @@ package io.github.azagniotov.stubby4j.handlers;
 
 import static io.github.azagniotov.stubby4j.handlers.strategy.stubs.StubsResponseHandlingStrategyFactory.getStrategy;
 
+import io.github.azagniotov.stubby4j.common.Common;
 import io.github.azagniotov.stubby4j.handlers.strategy.stubs.StubResponseHandlingStrategy;
+import io.github.azagniotov.stubby4j.journal.AccessJournal;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
 import io.github.azagniotov.stubby4j.stubs.StubSearchResult;
 import io.github.azagniotov.stubby4j.utils.ConsoleUtils;
 import io.github.azagniotov.stubby4j.utils.HandlerUtils;
 import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.HttpChannel;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class StubsPortalHandler extends AbstractHandler implements AbstractHandlerExtension {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(StubsPortalHandler.class);
+
     private final StubRepository stubRepository;
+    private final AccessJournal accessJournal;
+    private final Executor requestExecutor;
 
     public StubsPortalHandler(final StubRepository stubRepository) {
+        this(stubRepository, AccessJournal.noOpAccessJournal(), null);
+    }
+
+    /**
+     * @param requestExecutor when not {@code null}, the requests are handled asynchronously on this executor,
+     *                        which releases the server thread while the request is being handled. Otherwise,
+     *                        the requests are handled on the server thread
+     */
+    public StubsPortalHandler(
+            final StubRepository stubRepository, final AccessJournal accessJournal, final Executor requestExecutor) {
         this.stubRepository = stubRepository;
+        this.accessJournal = accessJournal;
+        this.requestExecutor = requestExecutor;
     }
 
     @Override
@@ -51,14 +76,112 @@ public class StubsPortalHandler extends AbstractHandler implements AbstractHandl
         }
         baseRequest.setHandled(true);
 
+        if (requestExecutor == null) {
+            handleStubRequest(baseRequest, request, response);
+            return;
+        }
+
+        final AsyncContext asyncContext = request.startAsync();
+        // Before the request can complete on the executor, so that the admission permit is always released
+        AdmissionControlHandler.addPermitReleasingListener(request, asyncContext);
+        // Stubbed latency can be arbitrarily long, the async context must not time out before the stub responds
+        asyncContext.setTimeout(0);
+        try {
+            requestExecutor.execute(() -> {
+                try {
+                    handleStubRequest(baseRequest, request, response);
+                } catch (final IOException e) {
+                    LOGGER.error("Could not respond to {} {}", request.getMethod(), request.getRequestURI(), e);
+                } finally {
+                    asyncContext.complete();
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // The executor has been shut down, i.e.: the server is stopping
+            try {
+                handleStubRequest(baseRequest, request, response);
+            } finally {
+                asyncContext.complete();
+            }
+        }
+    }
+
+    private void handleStubRequest(
+            final Request baseRequest, final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException {
+        final long matchStartNanos = System.nanoTime();
+        long matchTimeNanos = 0L;
         try {
             final StubSearchResult stubSearchResult = stubRepository.search(request);
+            matchTimeNanos = System.nanoTime() - matchStartNanos;
             final StubResponseHandlingStrategy strategyStubResponse = getStrategy(stubSearchResult.getMatch());
 
             strategyStubResponse.handle(response, stubSearchResult.getInvariant());
+            stubRepository.recordServiceTime(stubSearchResult, System.nanoTime() - matchStartNanos);
             ConsoleUtils.logOutgoingResponse(stubSearchResult.getInvariant().getUrl(), response);
         } catch (final Exception ex) {
             HandlerUtils.configureErrorResponse(response, HttpStatus.INTERNAL_SERVER_ERROR_500, ex.toString());
         }
+
+        if (!accessJournal.isNoOp()) {
+            appendToAccessJournal(baseRequest, request, response, matchTimeNanos);
+        }
+    }
+
+    /**
+     * Appends the access journal record once the response completed. Only then is the number of bytes written
+     * final, e.g.: after the gzip handler flushed the compressed response, or after a buffered response was sent.
+     */
+    private void appendToAccessJournal(
+            final Request baseRequest,
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final long matchTimeNanos) {
+        final long timestamp = baseRequest.getTimeStamp();
+        final String method = request.getMethod();
+        final String queryString = request.getQueryString();
+        final String url = queryString == null ? request.getRequestURI() : request.getRequestURI() + "?" + queryString;
+        final HttpChannel httpChannel = baseRequest.getHttpChannel();
+        if (httpChannel == null) {
+            appendToAccessJournal(timestamp, method, url, response, matchTimeNanos, 0L);
+            return;
+        }
+
+        // A transient listener, which is removed when the channel is recycled for the next request
+        httpChannel.addListener(new HttpChannel.Listener() {
+            @Override
+            public void onComplete(final Request completedRequest) {
+                appendToAccessJournal(
+                        timestamp, method, url, response, matchTimeNanos, httpChannel.getBytesWritten());
+            }
+        });
+    }
+
+    private void appendToAccessJournal(
+            final long timestamp,
+            final String method,
+            final String url,
+            final HttpServletResponse response,
+            final long matchTimeNanos,
+            final long bytesWritten) {
+        accessJournal.append(
+                timestamp,
+                method,
+                url,
+                toResourceId(response.getHeader(Common.HEADER_X_STUBBY_RESOURCE_ID)),
+                response.getStatus(),
+                TimeUnit.NANOSECONDS.toMicros(matchTimeNanos),
+                bytesWritten);
+    }
+
+    private static int toResourceId(final String resourceIdHeader) {
+        if (resourceIdHeader == null) {
+            return AccessJournal.NO_RESOURCE_ID;
+        }
+        try {
+            return Integer.parseInt(resourceIdHeader);
+        } catch (final NumberFormatException e) {
+            return AccessJournal.NO_RESOURCE_ID;
+        }
     }
 }
@@ -17,10 +17,15 @@
 package io.github.azagniotov.stubby4j.handlers.strategy.admin;
 
 import io.github.azagniotov.stubby4j.handlers.AdminPortalHandler;
+import io.github.azagniotov.stubby4j.handlers.StubsListingQuery;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
 import io.github.azagniotov.stubby4j.utils.HandlerUtils;
 import io.github.azagniotov.stubby4j.utils.StringUtils;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.eclipse.jetty.http.HttpStatus;
@@ -32,14 +37,13 @@ public class GetHandlingStrategy implements AdminResponseHandlingStrategy {
             final HttpServletRequest request, final HttpServletResponse response, final StubRepository stubRepository)
             throws IOException {
 
-        final StringBuilder yamlAppender = new StringBuilder();
-
         if (request.getRequestURI().equals(AdminPortalHandler.ADMIN_ROOT)) {
-            yamlAppender.append(stubRepository.dumpCompleteYamlConfig());
-            writeResponseOutputStream(response, yamlAppender.toString());
+            writeYamlConfigDump(StubsListingQuery.fromRequest(request), response, stubRepository);
             return;
         }
 
+        final StringBuilder yamlAppender = new StringBuilder();
+
         final String[] uriFragments = splitRequestURI(request);
         if (uriFragments.length == 1) {
             final String lastUriPathSegment = uriFragments[0];
@@ -95,4 +99,23 @@ public class GetHandlingStrategy implements AdminResponseHandlingStrategy {
             }
         }
     }
+
+    /**
+     * Streams the YAML config dump to the response, instead of building the whole dump in memory first. The dump
+     * can be filtered and paged with the same query parameters as the status page, e.g.:
+     * GET localhost:8889/?page=2&amp;size=100. Gzipping the response is left to the admin portal gzip handler.
+     */
+    private static void writeYamlConfigDump(
+            final StubsListingQuery query, final HttpServletResponse response, final StubRepository stubRepository)
+            throws IOException {
+        response.setContentType("text/plain;charset=UTF-8");
+        response.setStatus(HttpStatus.OK_200);
+
+        final int offset = query.isPaged() ? query.getOffset() : 0;
+        final int limit = query.isPaged() ? query.getPageSize() : Integer.MAX_VALUE;
+        try (final Writer writer =
+                new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8))) {
+            stubRepository.dumpYamlConfig(query.toFilter(), offset, limit, writer);
+        }
+    }
 }
@@ -17,10 +17,12 @@
 package io.github.azagniotov.stubby4j.handlers.strategy.admin;
 
 import io.github.azagniotov.stubby4j.handlers.AdminPortalHandler;
+import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
 import io.github.azagniotov.stubby4j.utils.HandlerUtils;
 import io.github.azagniotov.stubby4j.yaml.YamlParser;
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -30,12 +32,21 @@ import org.eclipse.jetty.http.HttpStatus;
 public class PostHandlingStrategy implements AdminResponseHandlingStrategy {
 
     private static final int NUM_OF_STUBS_THRESHOLD = 1;
+    // Adds stubs to the loaded ones, rejecting the stubs whose UUIDs are already loaded
+    private static final String APPEND_URI = "/append";
+    // Adds stubs to the loaded ones, replacing the loaded stubs that have the same UUIDs
+    private static final String UPSERT_URI = "/upsert";
 
     @Override
     public void handle(
             final HttpServletRequest request, final HttpServletResponse response, final StubRepository stubRepository)
             throws Exception {
 
+        if (request.getRequestURI().equals(APPEND_URI) || request.getRequestURI().equals(UPSERT_URI)) {
+            handleAppend(request, response, stubRepository);
+            return;
+        }
+
         if (!request.getRequestURI().equals(AdminPortalHandler.ADMIN_ROOT)) {
             response.setStatus(HttpStatus.METHOD_NOT_ALLOWED_405);
             return;
@@ -57,4 +68,27 @@ public class PostHandlingStrategy implements AdminResponseHandlingStrategy {
             }
         }
     }
+
+    private void handleAppend(
+            final HttpServletRequest request, final HttpServletResponse response, final StubRepository stubRepository)
+            throws Exception {
+        final Optional<String> payloadOptional = extractRequestBodyWithOptionalError(request, response);
+        if (payloadOptional.isPresent()) {
+            try {
+                final List<StubHttpLifecycle> addedStubs = request.getRequestURI().equals(UPSERT_URI)
+                        ? stubRepository.upsertStubsByPost(new YamlParser(), payloadOptional.get())
+                        : stubRepository.appendStubsByPost(new YamlParser(), payloadOptional.get());
+                if (addedStubs.size() == NUM_OF_STUBS_THRESHOLD) {
+                    response.addHeader(HttpHeader.LOCATION.asString(), addedStubs.get(0).getUrl());
+                }
+
+                response.setStatus(HttpStatus.CREATED_201);
+                response.getWriter().println(String.format("%s stub(s) added successfully", addedStubs.size()));
+            } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+                // Thrown by YamlParser if there are duplicate UUID keys or un-parseable YAML, or by StubRepository
+                // if the stubs to append are already loaded
+                HandlerUtils.configureErrorResponse(response, HttpStatus.BAD_REQUEST_400, e.getMessage());
+            }
+        }
+    }
 }
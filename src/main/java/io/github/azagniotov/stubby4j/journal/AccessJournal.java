@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Records one fixed-layout binary record per request served by the stubs portal, for post-run analysis.
+ * <p>
+ * Use {@link AccessJournalExporter} to convert the written journal segments to CSV or JSON.
+ */
+public interface AccessJournal {
+
+    int NO_RESOURCE_ID = -1;
+
+    static AccessJournal noOpAccessJournal() {
+        return NoOpAccessJournal.INSTANCE;
+    }
+
+    static AccessJournal mappedSegmentAccessJournal(final Path directory) throws IOException {
+        return new MappedSegmentAccessJournal(
+                directory,
+                AccessJournalLayout.DEFAULT_RECORDS_PER_SEGMENT,
+                AccessJournalLayout.DEFAULT_MAX_RETAINED_SEGMENTS);
+    }
+
+    /**
+     * Appends a record to the journal. Implementations must not block the calling request thread.
+     *
+     * @param timestampMillis   epoch time in milliseconds when the request was received
+     * @param method            HTTP method of the request
+     * @param url               request URL, including the query string (if any)
+     * @param resourceId        resource ID of the matched stub, or {@link #NO_RESOURCE_ID} when no stub matched
+     * @param status            HTTP status code of the response
+     * @param matchTimeMicros   time in microseconds it took to match the request to a stub
+     * @param bytes             number of response bytes written
+     */
+    void append(
+            final long timestampMillis,
+            final String method,
+            final String url,
+            final int resourceId,
+            final int status,
+            final long matchTimeMicros,
+            final long bytes);
+
+    /**
+     * @return {@code true} if this journal never records anything, in which case callers can skip collecting
+     * the record fields
+     */
+    default boolean isNoOp() {
+        return false;
+    }
+
+    void close();
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+import io.github.azagniotov.stubby4j.utils.StringUtils;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import org.json.JSONObject;
+
+/**
+ * Converts the access journal segments to CSV or JSON, printing the result to standard output:
+ *
+ * <pre>
+ * java -cp stubby4j.jar io.github.azagniotov.stubby4j.journal.AccessJournalExporter &lt;journal directory&gt; [csv|json]
+ * </pre>
+ */
+public final class AccessJournalExporter {
+
+    static final String CSV_HEADER = "timestamp,method,url,resource_id,status,match_time_micros,bytes";
+
+    private AccessJournalExporter() {}
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println(
+                    "Usage: java -cp stubby4j.jar io.github.azagniotov.stubby4j.journal.AccessJournalExporter <journal directory> [csv|json]");
+            System.exit(1);
+        }
+
+        final Path directory = Paths.get(args[0]);
+        final String format = args.length == 2 ? StringUtils.toLower(args[1]) : "csv";
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        if (format.equals("json")) {
+            exportJson(directory, writer);
+        } else if (format.equals("csv")) {
+            exportCsv(directory, writer);
+        } else {
+            System.err.println(String.format("Unsupported export format: %s, expected csv or json", args[1]));
+            System.exit(1);
+        }
+        writer.flush();
+    }
+
+    public static void exportCsv(final Path directory, final Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        readUnchecked(directory, record -> {
+            writer.write(Instant.ofEpochMilli(record.getTimestampMillis()).toString());
+            writer.write(',');
+            writer.write(record.getMethod());
+            writer.write(',');
+            writer.write(toCsvField(record.getUrl()));
+            writer.write(',');
+            writer.write(String.valueOf(record.getResourceId()));
+            writer.write(',');
+            writer.write(String.valueOf(record.getStatus()));
+            writer.write(',');
+            writer.write(String.valueOf(record.getMatchTimeMicros()));
+            writer.write(',');
+            writer.write(String.valueOf(record.getBytes()));
+            writer.write('\n');
+        });
+    }
+
+    public static void exportJson(final Path directory, final Writer writer) throws IOException {
+        final boolean[] first = {true};
+        writer.write('[');
+        readUnchecked(directory, record -> {
+            writer.write(first[0] ? "\n" : ",\n");
+            first[0] = false;
+            // Written by hand rather than through a JSONObject, which does not keep the order of the keys
+            writer.write("{\"timestamp\":");
+            writer.write(JSONObject.quote(Instant.ofEpochMilli(record.getTimestampMillis()).toString()));
+            writer.write(",\"method\":");
+            writer.write(JSONObject.quote(record.getMethod()));
+            writer.write(",\"url\":");
+            writer.write(JSONObject.quote(record.getUrl()));
+            writer.write(",\"resource_id\":");
+            writer.write(String.valueOf(record.getResourceId()));
+            writer.write(",\"status\":");
+            writer.write(String.valueOf(record.getStatus()));
+            writer.write(",\"match_time_micros\":");
+            writer.write(String.valueOf(record.getMatchTimeMicros()));
+            writer.write(",\"bytes\":");
+            writer.write(String.valueOf(record.getBytes()));
+            writer.write('}');
+        });
+        writer.write("\n]\n");
+    }
+
+    static String toCsvField(final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static void readUnchecked(final Path directory, final RecordWriter recordWriter) throws IOException {
+        try {
+            AccessJournalReader.read(directory, record -> {
+                try {
+                    recordWriter.write(record);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(final AccessJournalRecord record) throws IOException;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Binary layout of the access journal segment files. Every segment starts with a fixed-size header, which is
+ * followed by fixed-size records. All values are written in big-endian byte order:
+ *
+ * <pre>
+ * Header:
+ *  0: 8 bytes  magic, i.e.: the ASCII string STUBBY4J
+ *  8: int      layout version
+ * 12: int      record size in bytes
+ * 16: int      number of records in the segment
+ *
+ * Record:
+ *  0: int      commit marker, written after all other fields of the record
+ *  4: short    length of the method in bytes
+ *  6: short    length of the URL in bytes
+ *  8: long     timestamp in epoch milliseconds
+ * 16: long     match time in microseconds
+ * 24: long     number of response bytes
+ * 32: int      response status
+ * 36: int      matched resource ID, or -1
+ * 40: 16 bytes method, US-ASCII
+ * 56: bytes    URL, UTF-8, truncated to fit the record
+ * </pre>
+ */
+final class AccessJournalLayout {
+
+    static final byte[] MAGIC = "STUBBY4J".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int HEADER_VERSION_OFFSET = 8;
+    static final int HEADER_RECORD_SIZE_OFFSET = 12;
+    static final int HEADER_RECORD_COUNT_OFFSET = 16;
+
+    static final int RECORD_SIZE = 512;
+    static final int RECORD_COMMITTED = 0x53544A52;
+    static final int RECORD_COMMIT_MARKER_OFFSET = 0;
+    static final int RECORD_METHOD_LENGTH_OFFSET = 4;
+    static final int RECORD_URL_LENGTH_OFFSET = 6;
+    static final int RECORD_TIMESTAMP_OFFSET = 8;
+    static final int RECORD_MATCH_TIME_OFFSET = 16;
+    static final int RECORD_BYTES_OFFSET = 24;
+    static final int RECORD_STATUS_OFFSET = 32;
+    static final int RECORD_RESOURCE_ID_OFFSET = 36;
+    static final int RECORD_METHOD_OFFSET = 40;
+    static final int MAX_METHOD_LENGTH = 16;
+    static final int RECORD_URL_OFFSET = RECORD_METHOD_OFFSET + MAX_METHOD_LENGTH;
+    static final int MAX_URL_LENGTH = RECORD_SIZE - RECORD_URL_OFFSET;
+
+    // 16384 records * 512 bytes => 8MB per segment, 64MB of retained segments on disk
+    static final int DEFAULT_RECORDS_PER_SEGMENT = 16384;
+    static final int DEFAULT_MAX_RETAINED_SEGMENTS = 8;
+
+    private static final String SEGMENT_FILE_NAME_TEMPLATE = "access-journal-%019d.seg";
+    private static final Pattern SEGMENT_FILE_NAME_PATTERN = Pattern.compile("^access-journal-(\\d{19})\\.seg$");
+
+    private AccessJournalLayout() {}
+
+    static Path segmentPath(final Path directory, final long segmentNumber) {
+        return directory.resolve(String.format(SEGMENT_FILE_NAME_TEMPLATE, segmentNumber));
+    }
+
+    /**
+     * @return segment number parsed from the given segment file name, or {@code -1} if the file name does not
+     * denote a journal segment
+     */
+    static long segmentNumber(final Path segmentPath) {
+        final Matcher matcher =
+                SEGMENT_FILE_NAME_PATTERN.matcher(segmentPath.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1L;
+    }
+}
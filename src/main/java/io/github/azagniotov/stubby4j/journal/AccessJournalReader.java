@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_RECORD_COUNT_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_RECORD_SIZE_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_SIZE;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_VERSION_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.MAGIC;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.MAX_METHOD_LENGTH;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.MAX_URL_LENGTH;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_BYTES_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_COMMITTED;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_COMMIT_MARKER_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_MATCH_TIME_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_METHOD_LENGTH_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_METHOD_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_RESOURCE_ID_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_SIZE;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_STATUS_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_TIMESTAMP_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_URL_LENGTH_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_URL_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.VERSION;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the committed records of the access journal segments, oldest segment first
+ */
+public final class AccessJournalReader {
+
+    private AccessJournalReader() {}
+
+    public static void read(final Path directory, final Consumer<AccessJournalRecord> recordConsumer)
+            throws IOException {
+        for (final Path segmentPath : listSegments(directory)) {
+            readSegment(segmentPath, recordConsumer);
+        }
+    }
+
+    static List<Path> listSegments(final Path directory) throws IOException {
+        final List<Path> segmentPaths = new ArrayList<>();
+        try (final DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+            for (final Path path : directoryStream) {
+                if (AccessJournalLayout.segmentNumber(path) >= 0) {
+                    segmentPaths.add(path);
+                }
+            }
+        }
+        segmentPaths.sort(Comparator.comparingLong(AccessJournalLayout::segmentNumber));
+
+        return segmentPaths;
+    }
+
+    private static void readSegment(final Path segmentPath, final Consumer<AccessJournalRecord> recordConsumer)
+            throws IOException {
+        final MappedByteBuffer segment;
+        try (final FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(String.format("Not a stubby4j access journal segment: %s", segmentPath));
+            }
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        final byte[] magic = new byte[MAGIC.length];
+        segment.duplicate().get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException(String.format("Not a stubby4j access journal segment: %s", segmentPath));
+        }
+        if (segment.getInt(HEADER_VERSION_OFFSET) != VERSION
+                || segment.getInt(HEADER_RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+            throw new IOException(String.format("Unsupported access journal segment layout: %s", segmentPath));
+        }
+
+        final long recordCount = Math.min(
+                segment.getInt(HEADER_RECORD_COUNT_OFFSET), (segment.capacity() - HEADER_SIZE) / RECORD_SIZE);
+        for (int slot = 0; slot < recordCount; slot++) {
+            final int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            if (segment.getInt(offset + RECORD_COMMIT_MARKER_OFFSET) != RECORD_COMMITTED) {
+                // Either the slot was never written to, or the record was not fully written before a crash
+                continue;
+            }
+            recordConsumer.accept(readRecord(segment, offset));
+        }
+    }
+
+    private static AccessJournalRecord readRecord(final MappedByteBuffer segment, final int offset) {
+        final int methodLength = Math.min(segment.getShort(offset + RECORD_METHOD_LENGTH_OFFSET), MAX_METHOD_LENGTH);
+        final int urlLength = Math.min(segment.getShort(offset + RECORD_URL_LENGTH_OFFSET), MAX_URL_LENGTH);
+
+        final byte[] methodBytes = new byte[methodLength];
+        final byte[] urlBytes = new byte[urlLength];
+        final ByteBuffer recordView = segment.duplicate();
+        recordView.position(offset + RECORD_METHOD_OFFSET);
+        recordView.get(methodBytes);
+        recordView.position(offset + RECORD_URL_OFFSET);
+        recordView.get(urlBytes);
+
+        return new AccessJournalRecord(
+                segment.getLong(offset + RECORD_TIMESTAMP_OFFSET),
+                new String(methodBytes, StandardCharsets.US_ASCII),
+                new String(urlBytes, StandardCharsets.UTF_8),
+                segment.getInt(offset + RECORD_RESOURCE_ID_OFFSET),
+                segment.getInt(offset + RECORD_STATUS_OFFSET),
+                segment.getLong(offset + RECORD_MATCH_TIME_OFFSET),
+                segment.getLong(offset + RECORD_BYTES_OFFSET));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+public final class AccessJournalRecord {
+
+    private final long timestampMillis;
+    private final String method;
+    private final String url;
+    private final int resourceId;
+    private final int status;
+    private final long matchTimeMicros;
+    private final long bytes;
+
+    AccessJournalRecord(
+            final long timestampMillis,
+            final String method,
+            final String url,
+            final int resourceId,
+            final int status,
+            final long matchTimeMicros,
+            final long bytes) {
+        this.timestampMillis = timestampMillis;
+        this.method = method;
+        this.url = url;
+        this.resourceId = resourceId;
+        this.status = status;
+        this.matchTimeMicros = matchTimeMicros;
+        this.bytes = bytes;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return resource ID of the matched stub, or {@link AccessJournal#NO_RESOURCE_ID} when no stub matched
+     */
+    public int getResourceId() {
+        return resourceId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getMatchTimeMicros() {
+        return matchTimeMicros;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "AccessJournalRecord{" + "timestampMillis="
+                + timestampMillis + ", method='"
+                + method + '\'' + ", url='"
+                + url + '\'' + ", resourceId="
+                + resourceId + ", status="
+                + status + ", matchTimeMicros="
+                + matchTimeMicros + ", bytes="
+                + bytes + '}';
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_RECORD_COUNT_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_RECORD_SIZE_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_SIZE;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.HEADER_VERSION_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.MAGIC;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.MAX_METHOD_LENGTH;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.MAX_URL_LENGTH;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_BYTES_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_COMMITTED;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_COMMIT_MARKER_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_MATCH_TIME_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_METHOD_LENGTH_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_METHOD_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_RESOURCE_ID_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_SIZE;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_STATUS_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_TIMESTAMP_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_URL_LENGTH_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.RECORD_URL_OFFSET;
+import static io.github.azagniotov.stubby4j.journal.AccessJournalLayout.VERSION;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes journal records into a rotating set of memory-mapped segment files.
+ * <p>
+ * Request threads reserve record slots with a single atomic increment and write their record straight into the
+ * mapped memory, without taking any locks and without waiting on disk I/O: the operating system flushes the
+ * dirty pages to disk in the background, which also means that the records survive a crash of the JVM. A record
+ * is marked as committed only after all of its fields were written, so the reader skips partially written records.
+ * <p>
+ * The next segment is mapped ahead of time, when the current segment is half full. Once the number of segments on
+ * disk reaches the configured maximum, the oldest segment is deleted.
+ */
+final class MappedSegmentAccessJournal implements AccessJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedSegmentAccessJournal.class);
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int maxRetainedSegments;
+    private final AtomicLong recordSequence;
+    private final ConcurrentMap<Long, MappedByteBuffer> segments;
+
+    private volatile long newestRetiredSegmentNumber;
+    private volatile boolean closed;
+
+    MappedSegmentAccessJournal(final Path directory, final int recordsPerSegment, final int maxRetainedSegments)
+            throws IOException {
+        if (recordsPerSegment <= 1 || maxRetainedSegments <= 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Access journal must have more than one record per segment and more than one retained segment, got: %s and %s",
+                    recordsPerSegment, maxRetainedSegments));
+        }
+        this.directory = Files.createDirectories(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxRetainedSegments = maxRetainedSegments;
+        // Continues the segment numbering of a journal written by a previous run (if any), so that
+        // the previous records are not overwritten and the segments keep on rotating in order
+        this.recordSequence = new AtomicLong(nextSegmentNumber(directory) * recordsPerSegment);
+        this.segments = new ConcurrentHashMap<>();
+        this.newestRetiredSegmentNumber = -1L;
+        this.closed = false;
+    }
+
+    @Override
+    public void append(
+            final long timestampMillis,
+            final String method,
+            final String url,
+            final int resourceId,
+            final int status,
+            final long matchTimeMicros,
+            final long bytes) {
+        if (closed) {
+            return;
+        }
+
+        final long sequence = recordSequence.getAndIncrement();
+        final long segmentNumber = sequence / recordsPerSegment;
+        final int slot = (int) (sequence % recordsPerSegment);
+
+        final MappedByteBuffer segment = segmentFor(segmentNumber);
+        if (segment == null) {
+            return;
+        }
+        if (slot == recordsPerSegment / 2) {
+            // Maps the next segment ahead of time, so that the threads rolling over to it do not wait on the mapping
+            segmentFor(segmentNumber + 1);
+        }
+
+        final int offset = HEADER_SIZE + slot * RECORD_SIZE;
+        final byte[] methodBytes = method.getBytes(StandardCharsets.US_ASCII);
+        final byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        final int methodLength = Math.min(methodBytes.length, MAX_METHOD_LENGTH);
+        final int urlLength = truncatedUtf8Length(urlBytes, MAX_URL_LENGTH);
+
+        segment.putShort(offset + RECORD_METHOD_LENGTH_OFFSET, (short) methodLength);
+        segment.putShort(offset + RECORD_URL_LENGTH_OFFSET, (short) urlLength);
+        segment.putLong(offset + RECORD_TIMESTAMP_OFFSET, timestampMillis);
+        segment.putLong(offset + RECORD_MATCH_TIME_OFFSET, matchTimeMicros);
+        segment.putLong(offset + RECORD_BYTES_OFFSET, bytes);
+        segment.putInt(offset + RECORD_STATUS_OFFSET, status);
+        segment.putInt(offset + RECORD_RESOURCE_ID_OFFSET, resourceId);
+
+        // Relative bulk puts go through a duplicate, because the position of the
+        // shared segment buffer must not be touched by the concurrent writers
+        final ByteBuffer recordView = segment.duplicate();
+        recordView.position(offset + RECORD_METHOD_OFFSET);
+        recordView.put(methodBytes, 0, methodLength);
+        recordView.position(offset + RECORD_URL_OFFSET);
+        recordView.put(urlBytes, 0, urlLength);
+
+        segment.putInt(offset + RECORD_COMMIT_MARKER_OFFSET, RECORD_COMMITTED);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        for (final MappedByteBuffer segment : segments.values()) {
+            segment.force();
+        }
+        segments.clear();
+    }
+
+    private MappedByteBuffer segmentFor(final long segmentNumber) {
+        final MappedByteBuffer segment = segments.get(segmentNumber);
+        if (segment != null) {
+            return segment;
+        }
+        if (segmentNumber <= newestRetiredSegmentNumber) {
+            // A writer, which has been stalled for the whole rotation, must not re-create a retired segment
+            return null;
+        }
+
+        final MappedByteBuffer mappedSegment;
+        try {
+            mappedSegment = segments.computeIfAbsent(segmentNumber, this::mapSegment);
+        } catch (final UncheckedIOException e) {
+            LOGGER.error("Could not map access journal segment {}", segmentNumber, e.getCause());
+            return null;
+        }
+        // The mapping function of the computeIfAbsent must not modify other mappings, therefore the oldest
+        // segment is retired after the new segment was mapped
+        retireSegment(segmentNumber - maxRetainedSegments);
+
+        return mappedSegment;
+    }
+
+    private MappedByteBuffer mapSegment(final long segmentNumber) {
+        final Path segmentPath = AccessJournalLayout.segmentPath(directory, segmentNumber);
+        final long segmentSize = HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE;
+
+        final MappedByteBuffer segment;
+        try (final FileChannel channel = FileChannel.open(
+                segmentPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final ByteBuffer headerView = segment.duplicate();
+        headerView.put(MAGIC);
+        segment.putInt(HEADER_VERSION_OFFSET, VERSION);
+        segment.putInt(HEADER_RECORD_SIZE_OFFSET, RECORD_SIZE);
+        segment.putInt(HEADER_RECORD_COUNT_OFFSET, recordsPerSegment);
+
+        return segment;
+    }
+
+    private void retireSegment(final long segmentNumber) {
+        if (segmentNumber < 0) {
+            return;
+        }
+        newestRetiredSegmentNumber = Math.max(newestRetiredSegmentNumber, segmentNumber);
+        segments.remove(segmentNumber);
+        try {
+            Files.deleteIfExists(AccessJournalLayout.segmentPath(directory, segmentNumber));
+        } catch (final IOException e) {
+            LOGGER.warn("Could not delete access journal segment {}", segmentNumber, e);
+        }
+    }
+
+    /**
+     * @return number of bytes that fit into the given maximum length, without cutting a multibyte UTF-8 character
+     */
+    static int truncatedUtf8Length(final byte[] utf8Bytes, final int maxLength) {
+        if (utf8Bytes.length <= maxLength) {
+            return utf8Bytes.length;
+        }
+        int length = maxLength;
+        // UTF-8 continuation bytes have the bit pattern 10xxxxxx
+        while (length > 0 && (utf8Bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+
+        return length;
+    }
+
+    private static long nextSegmentNumber(final Path directory) throws IOException {
+        long nextSegmentNumber = 0L;
+        try (final DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+            for (final Path path : directoryStream) {
+                nextSegmentNumber = Math.max(nextSegmentNumber, AccessJournalLayout.segmentNumber(path) + 1);
+            }
+        }
+
+        return nextSegmentNumber;
+    }
+}
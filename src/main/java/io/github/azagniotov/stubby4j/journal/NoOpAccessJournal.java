@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+final class NoOpAccessJournal implements AccessJournal {
+
+    static final NoOpAccessJournal INSTANCE = new NoOpAccessJournal();
+
+    private NoOpAccessJournal() {}
+
+    @Override
+    public void append(
+            final long timestampMillis,
+            final String method,
+            final String url,
+            final int resourceId,
+            final int status,
+            final long matchTimeMicros,
+            final long bytes) {
+        // NO-OP
+    }
+
+    @Override
+    public boolean isNoOp() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // NO-OP
+    }
+}
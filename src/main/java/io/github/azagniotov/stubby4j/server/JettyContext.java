@@ -17,6 +17,10 @@
 package io.github.azagniotov.stubby4j.server;
 
 import io.github.azagniotov.stubby4j.annotations.GeneratedCodeClassCoverageExclusion;
+import io.github.azagniotov.stubby4j.handlers.AdmissionController;
+import java.util.Collections;
+import java.util.Map;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
 @GeneratedCodeClassCoverageExclusion
 public final class JettyContext {
@@ -25,12 +29,26 @@ public final class JettyContext {
     private final int stubsSslPort;
     private final int stubsPort;
     private final int adminPort;
+    private final Map<String, QueuedThreadPool> threadPools;
+    private final AdmissionController admissionController;
 
     public JettyContext(final String host, final int stubsPort, final int stubsSslPort, final int adminPort) {
+        this(host, stubsPort, stubsSslPort, adminPort, Collections.emptyMap(), null);
+    }
+
+    public JettyContext(
+            final String host,
+            final int stubsPort,
+            final int stubsSslPort,
+            final int adminPort,
+            final Map<String, QueuedThreadPool> threadPools,
+            final AdmissionController admissionController) {
         this.host = host;
         this.stubsSslPort = stubsSslPort;
         this.stubsPort = stubsPort;
         this.adminPort = adminPort;
+        this.threadPools = Collections.unmodifiableMap(threadPools);
+        this.admissionController = admissionController;
     }
 
     public int getStubsTlsPort() {
@@ -48,4 +66,18 @@ public final class JettyContext {
     public String getHost() {
         return host;
     }
+
+    /**
+     * @return server thread pools keyed by the thread pool name
+     */
+    public Map<String, QueuedThreadPool> getThreadPools() {
+        return threadPools;
+    }
+
+    /**
+     * @return admission control of the stubs portal requests, or {@code null} when the admission control is disabled
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
 }
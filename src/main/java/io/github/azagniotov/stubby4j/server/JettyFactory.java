@@ -24,13 +24,17 @@ import io.github.azagniotov.stubby4j.annotations.GeneratedCodeClassCoverageExclu
 import io.github.azagniotov.stubby4j.cli.ANSITerminal;
 import io.github.azagniotov.stubby4j.cli.CommandLineInterpreter;
 import io.github.azagniotov.stubby4j.handlers.AdminPortalHandler;
+import io.github.azagniotov.stubby4j.handlers.AdmissionControlHandler;
+import io.github.azagniotov.stubby4j.handlers.AdmissionController;
 import io.github.azagniotov.stubby4j.handlers.AjaxEndpointStatsHandler;
 import io.github.azagniotov.stubby4j.handlers.AjaxResourceContentHandler;
+import io.github.azagniotov.stubby4j.handlers.AjaxStubsListingHandler;
 import io.github.azagniotov.stubby4j.handlers.FaviconHandler;
 import io.github.azagniotov.stubby4j.handlers.JsonErrorHandler;
 import io.github.azagniotov.stubby4j.handlers.StatusPageHandler;
 import io.github.azagniotov.stubby4j.handlers.StubDataRefreshActionHandler;
 import io.github.azagniotov.stubby4j.handlers.StubsPortalHandler;
+import io.github.azagniotov.stubby4j.journal.AccessJournal;
 import io.github.azagniotov.stubby4j.server.ssl.SslUtils;
 import io.github.azagniotov.stubby4j.server.websocket.StubsWebSocketCreator;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
@@ -38,20 +42,28 @@ import io.github.azagniotov.stubby4j.utils.ObjectUtils;
 import io.github.azagniotov.stubby4j.utils.StringUtils;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import javax.servlet.ServletException;
 import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
 import org.eclipse.jetty.http.HttpScheme;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
 import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
 import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
@@ -66,8 +78,13 @@ import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.ResourceHandler;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.unixsocket.UnixSocketConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.websocket.server.NativeWebSocketServletContainerInitializer;
 import org.eclipse.jetty.websocket.server.WebSocketUpgradeFilter;
 import org.slf4j.Logger;
@@ -84,7 +101,16 @@ public final class JettyFactory {
     public static final String DASHED_STATUS_LINE =
             "--------------------------------------------------------------------------------------------------------\n";
     private static final Logger LOGGER = LoggerFactory.getLogger(JettyFactory.class);
-    private static final int SERVER_CONNECTOR_IDLETIME_MILLIS = 45000;
+    private static final int THREAD_IDLE_TIMEOUT_MILLIS = 60000;
+    private static final String STUBS_THREAD_POOL_NAME = "stubby4j-stubs";
+    private static final String ADMIN_THREAD_POOL_NAME = "stubby4j-admin";
+    private static final String TLS_THREAD_POOL_NAME = "stubby4j-tls";
+    private static final int ADMIN_MIN_THREADS = 2;
+    private static final int ADMIN_MAX_QUEUED_REQUESTS = 256;
+    // The admin portal traffic is light, so its connector does not take the
+    // acceptor and selector threads away from the small admin thread pool
+    private static final int ADMIN_ACCEPTORS = 1;
+    private static final int ADMIN_SELECTORS = 1;
     private static final String PROTOCOL_HTTP_1_1 = "HTTP/1.1";
     private static final String PROTOCOL_HTTP_2 = "h2";
     private static final String ADMIN_CONNECTOR_NAME = "AdminConnector";
@@ -94,7 +120,12 @@ public final class JettyFactory {
     private static final String WS_ROOT_PATH_INFO = "/ws";
     private final Map<String, String> commandLineArgs;
     private final StubRepository stubRepository;
+    private final ServerTuning serverTuning;
     private final StringBuilder statusBuilder;
+    private final Map<String, QueuedThreadPool> threadPools;
+    private AccessJournal accessJournal;
+    private ExecutorService stubsRequestExecutor;
+    private AdmissionController admissionController;
     private String currentHost;
     private int currentStubsPort;
     private int currentAdminPort;
@@ -103,16 +134,26 @@ public final class JettyFactory {
     JettyFactory(final Map<String, String> commandLineArgs, final StubRepository stubRepository) {
         this.commandLineArgs = commandLineArgs;
         this.stubRepository = stubRepository;
+        this.serverTuning = ServerTuning.fromCommandLineArgs(commandLineArgs);
         this.statusBuilder = new StringBuilder();
+        this.threadPools = new LinkedHashMap<>();
+        this.accessJournal = AccessJournal.noOpAccessJournal();
     }
 
     Server construct() throws IOException, ServletException {
-        final Server server = new Server();
+        final Server server = new Server(newThreadPool(
+                STUBS_THREAD_POOL_NAME,
+                serverTuning.getMinThreads(),
+                serverTuning.getMaxThreads(),
+                serverTuning.getMaxQueuedRequests()));
         server.setDumpAfterStart(false);
         server.setDumpBeforeStop(false);
         server.setStopAtShutdown(true);
 
         server.setConnectors(buildConnectors(server));
+        accessJournal = buildAccessJournal(server);
+        stubsRequestExecutor = buildStubsRequestExecutor(server);
+        admissionController = buildAdmissionController();
         server.setHandler(constructHandlers());
 
         // The WebSocketServerContainerInitializer.configureContext() requires knowledge about the Server that it will
@@ -144,16 +185,99 @@ public final class JettyFactory {
         return server;
     }
 
+    private AccessJournal buildAccessJournal(final Server server) throws IOException {
+        if (!commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ACCESS_JOURNAL)) {
+            return AccessJournal.noOpAccessJournal();
+        }
+
+        final String journalDirectory = commandLineArgs.get(CommandLineInterpreter.OPTION_ACCESS_JOURNAL);
+        final AccessJournal mappedSegmentAccessJournal =
+                AccessJournal.mappedSegmentAccessJournal(Paths.get(journalDirectory));
+        // The journal is shared by the stubs handlers of all connectors, therefore it is closed with the server
+        runWhenStopped(server, mappedSegmentAccessJournal::close);
+        ANSITerminal.info(String.format("Writing access journal to %s", journalDirectory));
+        LOGGER.info("Writing access journal to {}", journalDirectory);
+
+        return mappedSegmentAccessJournal;
+    }
+
+    /**
+     * @return executor of the stubs portal requests, or {@code null} when the requests should be handled
+     * on the server thread pool
+     */
+    private ExecutorService buildStubsRequestExecutor(final Server server) {
+        if (!commandLineArgs.containsKey(CommandLineInterpreter.OPTION_VIRTUAL_THREADS)) {
+            return null;
+        }
+
+        final Optional<ExecutorService> virtualThreadPerTaskExecutor =
+                VirtualThreads.newVirtualThreadPerTaskExecutor();
+        if (!virtualThreadPerTaskExecutor.isPresent()) {
+            final String unsupportedMsg = String.format(
+                    "Virtual threads require JDK 21 or newer, got JDK v%s. "
+                            + "Stubs portal requests are handled on the server thread pool",
+                    System.getProperty("java.runtime.version"));
+            ANSITerminal.warn(unsupportedMsg);
+            LOGGER.warn(unsupportedMsg);
+
+            return null;
+        }
+
+        final ExecutorService executorService = virtualThreadPerTaskExecutor.get();
+        runWhenStopped(server, executorService::shutdown);
+        ANSITerminal.info("Stubs portal requests are handled on virtual threads");
+        LOGGER.info("Stubs portal requests are handled on virtual threads");
+
+        return executorService;
+    }
+
+    /**
+     * @return admission control of the stubs portal requests, or {@code null} when the admission control is disabled
+     */
+    private AdmissionController buildAdmissionController() {
+        if (serverTuning.getMaxConcurrentRequests() == ServerTuning.UNLIMITED_CONCURRENT_REQUESTS) {
+            return null;
+        }
+
+        return new AdmissionController(
+                serverTuning.getMaxConcurrentRequests(),
+                serverTuning.getMaxQueueWaitMillis(),
+                serverTuning.getRetryAfterSeconds());
+    }
+
+    private Handler admissionControlled(final Handler handler) {
+        return ObjectUtils.isNull(admissionController)
+                ? handler
+                : new AdmissionControlHandler(admissionController, handler);
+    }
+
+    private static void runWhenStopped(final Server server, final Runnable action) {
+        server.addLifeCycleListener(new AbstractLifeCycle.AbstractLifeCycleListener() {
+            @Override
+            public void lifeCycleStopped(final LifeCycle event) {
+                action.run();
+            }
+        });
+    }
+
     private ContextHandlerCollection constructHandlers() {
 
-        final JettyContext jettyContext =
-                new JettyContext(currentHost, currentStubsPort, currentStubsSslPort, currentAdminPort);
+        final JettyContext jettyContext = new JettyContext(
+                currentHost, currentStubsPort, currentStubsSslPort, currentAdminPort, threadPools, admissionController);
         final ContextHandlerCollection handlers = new ContextHandlerCollection();
         handlers.setHandlers(new Handler[] {
             constructHandler(STUBS_CONNECTOR_NAME, "/favicon.ico", gzipHandler(new FaviconHandler())),
-            constructHandler(STUBS_CONNECTOR_NAME, ROOT_PATH_INFO, gzipHandler(new StubsPortalHandler(stubRepository))),
+            constructHandler(
+                    STUBS_CONNECTOR_NAME,
+                    ROOT_PATH_INFO,
+                    admissionControlled(gzipHandler(
+                            new StubsPortalHandler(stubRepository, accessJournal, stubsRequestExecutor)))),
             constructHandler(SSL_CONNECTOR_NAME, "/favicon.ico", gzipHandler(new FaviconHandler())),
-            constructHandler(SSL_CONNECTOR_NAME, ROOT_PATH_INFO, gzipHandler(new StubsPortalHandler(stubRepository))),
+            constructHandler(
+                    SSL_CONNECTOR_NAME,
+                    ROOT_PATH_INFO,
+                    admissionControlled(gzipHandler(
+                            new StubsPortalHandler(stubRepository, accessJournal, stubsRequestExecutor)))),
             constructHandler(
                     ADMIN_CONNECTOR_NAME, "/status", gzipHandler(new StatusPageHandler(jettyContext, stubRepository))),
             constructHandler(ADMIN_CONNECTOR_NAME, "/refresh", new StubDataRefreshActionHandler(stubRepository)),
@@ -171,6 +295,8 @@ public final class JettyFactory {
                     gzipHandler(new AjaxResourceContentHandler(stubRepository))),
             constructHandler(
                     ADMIN_CONNECTOR_NAME, "/ajax/stats", gzipHandler(new AjaxEndpointStatsHandler(stubRepository))),
+            constructHandler(
+                    ADMIN_CONNECTOR_NAME, "/ajax/stubs", gzipHandler(new AjaxStubsListingHandler(stubRepository))),
             constructHandler(ADMIN_CONNECTOR_NAME, "/favicon.ico", gzipHandler(new FaviconHandler())),
             constructHandler(ADMIN_CONNECTOR_NAME, ROOT_PATH_INFO, gzipHandler(new AdminPortalHandler(stubRepository)))
         });
@@ -229,6 +355,25 @@ public final class JettyFactory {
         return contextHandler;
     }
 
+    /**
+     * Creates a thread pool, which is registered for the saturation metrics on the status page. A thread pool
+     * passed to a connector is started and stopped together with that connector.
+     */
+    private QueuedThreadPool newThreadPool(
+            final String name, final int minThreads, final int maxThreads, final int maxQueuedRequests) {
+        // When the queue is null, Jetty falls back to its default unbounded queue
+        final BlockingQueue<Runnable> jobQueue = maxQueuedRequests == ServerTuning.UNBOUNDED_QUEUE
+                ? null
+                : new BlockingArrayQueue<>(Math.min(minThreads, maxQueuedRequests), minThreads, maxQueuedRequests);
+
+        final QueuedThreadPool threadPool =
+                new QueuedThreadPool(maxThreads, minThreads, THREAD_IDLE_TIMEOUT_MILLIS, jobQueue);
+        threadPool.setName(name);
+        threadPools.put(name, threadPool);
+
+        return threadPool;
+    }
+
     private Connector[] buildConnectors(final Server server) throws IOException {
 
         final List<Connector> connectors = new ArrayList<>();
@@ -236,7 +381,10 @@ public final class JettyFactory {
         if (!commandLineArgs.containsKey(CommandLineInterpreter.OPTION_DISABLE_ADMIN)) {
             connectors.add(buildAdminConnector(server));
         }
-        connectors.add(buildStubsConnector(server));
+        connectors.addAll(buildStubsConnectors(server));
+        if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_UNIX_SOCKET)) {
+            connectors.add(buildStubsUnixSocketConnector(server));
+        }
         if (!commandLineArgs.containsKey(CommandLineInterpreter.OPTION_DISABLE_SSL)) {
             connectors.add(buildStubsSslConnector(server));
         }
@@ -248,12 +396,26 @@ public final class JettyFactory {
     private ServerConnector buildAdminConnector(final Server server) {
 
         final HttpConfiguration httpConfiguration = constructHttpConfiguration();
-        final ServerConnector adminChannel = new ServerConnector(server, new HttpConnectionFactory(httpConfiguration));
+        // The admin portal gets its own bounded thread pool, so that rendering a large status page
+        // or handling a large admin request does not compete with the stubs traffic for threads
+        final QueuedThreadPool adminThreadPool = newThreadPool(
+                ADMIN_THREAD_POOL_NAME,
+                Math.min(ADMIN_MIN_THREADS, serverTuning.getAdminMaxThreads()),
+                serverTuning.getAdminMaxThreads(),
+                ADMIN_MAX_QUEUED_REQUESTS);
+        final ServerConnector adminChannel = new ServerConnector(
+                server,
+                adminThreadPool,
+                null,
+                null,
+                ADMIN_ACCEPTORS,
+                ADMIN_SELECTORS,
+                new HttpConnectionFactory(httpConfiguration));
         adminChannel.setPort(getAdminPort(commandLineArgs));
 
         adminChannel.setName(ADMIN_CONNECTOR_NAME);
         adminChannel.setHost(DEFAULT_HOST);
-        adminChannel.setIdleTimeout(SERVER_CONNECTOR_IDLETIME_MILLIS);
+        adminChannel.setIdleTimeout(serverTuning.getIdleTimeoutMillis());
 
         if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ADDRESS)) {
             adminChannel.setHost(commandLineArgs.get(CommandLineInterpreter.OPTION_ADDRESS));
@@ -277,24 +439,55 @@ public final class JettyFactory {
         return adminChannel;
     }
 
-    private ServerConnector buildStubsConnector(final Server server) {
+    private List<ServerConnector> buildStubsConnectors(final Server server) {
+        final int requestedConnectors = serverTuning.getStubsConnectors();
+        final boolean reusePort = requestedConnectors > 1 && ReusePortServerConnector.isReusePortSupported();
+        if (requestedConnectors > 1 && !reusePort) {
+            final String unsupportedMsg = String.format(
+                    "SO_REUSEPORT is not supported by JDK v%s on %s, starting a single stubs portal connector",
+                    System.getProperty("java.runtime.version"), System.getProperty("os.name"));
+            ANSITerminal.warn(unsupportedMsg);
+            LOGGER.warn(unsupportedMsg);
+        }
+
+        // All stubs connectors have the same name, so that the stubs portal handlers serve all of them
+        final int connectorsCount = reusePort ? requestedConnectors : 1;
+        final List<ServerConnector> stubsConnectors = new ArrayList<>();
+        stubsConnectors.add(buildStubsConnector(server, reusePort, connectorsCount));
+        for (int idx = 1; idx < connectorsCount; idx++) {
+            stubsConnectors.add(newStubsConnector(server, true));
+        }
 
+        return stubsConnectors;
+    }
+
+    private ServerConnector newStubsConnector(final Server server, final boolean reusePort) {
         final boolean enableAlpnAndHttp2 =
                 commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ENABLE_TLS_WITH_ALPN_AND_HTTP_2);
         final HttpConfiguration httpConfiguration = constructHttpConfiguration();
         final ServerConnector stubsChannel = enableAlpnAndHttp2
-                ? buildStubsConnectorWithHttp20(server, httpConfiguration)
-                : buildStubsConnectorWithHttp11(server, httpConfiguration);
+                ? buildStubsConnectorWithHttp20(server, httpConfiguration, reusePort)
+                : buildStubsConnectorWithHttp11(server, httpConfiguration, reusePort);
         stubsChannel.setPort(getStubsPort(commandLineArgs));
 
         stubsChannel.setName(STUBS_CONNECTOR_NAME);
         stubsChannel.setHost(DEFAULT_HOST);
-        stubsChannel.setIdleTimeout(SERVER_CONNECTOR_IDLETIME_MILLIS);
+        stubsChannel.setIdleTimeout(serverTuning.getIdleTimeoutMillis());
 
         if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ADDRESS)) {
             stubsChannel.setHost(commandLineArgs.get(CommandLineInterpreter.OPTION_ADDRESS));
         }
 
+        return stubsChannel;
+    }
+
+    private ServerConnector buildStubsConnector(
+            final Server server, final boolean reusePort, final int connectorsCount) {
+
+        final boolean enableAlpnAndHttp2 =
+                commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ENABLE_TLS_WITH_ALPN_AND_HTTP_2);
+        final ServerConnector stubsChannel = newStubsConnector(server, reusePort);
+
         statusBuilder.append("\n");
         statusBuilder.append("Available insecure endpoints:\n");
         statusBuilder.append(DASHED_STATUS_LINE);
@@ -314,6 +507,13 @@ public final class JettyFactory {
                 " > ws://%s:%s/ws\t\tHTTP/1.1 WebSockets stubs portal\n",
                 stubsChannel.getHost(), stubsChannel.getPort());
         statusBuilder.append(statusWs);
+
+        if (reusePort) {
+            final String reusePortStatus = String.format(
+                    " > %s stubs portal connectors share the port %s using SO_REUSEPORT\n",
+                    connectorsCount, stubsChannel.getPort());
+            statusBuilder.append(reusePortStatus);
+        }
         statusBuilder.append("\n");
 
         currentStubsPort = stubsChannel.getPort();
@@ -321,6 +521,25 @@ public final class JettyFactory {
         return stubsChannel;
     }
 
+    private UnixSocketConnector buildStubsUnixSocketConnector(final Server server) {
+        final String unixSocketPath = commandLineArgs.get(CommandLineInterpreter.OPTION_UNIX_SOCKET);
+        // Shares the stubs connector name, so that the stubs portal handlers also serve the Unix domain socket
+        final UnixSocketConnector unixSocketChannel = new UnixSocketConnector(
+                server, serverTuning.getSelectors(), new HttpConnectionFactory(constructHttpConfiguration()));
+        unixSocketChannel.setUnixSocket(unixSocketPath);
+        unixSocketChannel.setName(STUBS_CONNECTOR_NAME);
+        unixSocketChannel.setIdleTimeout(serverTuning.getIdleTimeoutMillis());
+
+        statusBuilder.append("Available Unix domain socket endpoints:\n");
+        statusBuilder.append(DASHED_STATUS_LINE);
+
+        final String unixSocketStatus = String.format(" > unix:%s\t\tHTTP/1.1 stubs portal\n", unixSocketPath);
+        statusBuilder.append(unixSocketStatus);
+        statusBuilder.append("\n");
+
+        return unixSocketChannel;
+    }
+
     private ServerConnector buildStubsSslConnector(final Server server) throws IOException {
         final boolean enableAlpnAndHttp2 =
                 commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ENABLE_TLS_WITH_ALPN_AND_HTTP_2);
@@ -351,15 +570,24 @@ public final class JettyFactory {
         httpConfiguration.setSecurePort(getStubsSslPort(commandLineArgs));
         httpConfiguration.addCustomizer(new SecureRequestCustomizer());
 
+        // When null, the TLS connector shares the server thread pool with the stubs connector
+        final Executor tlsThreadPool = serverTuning.getTlsMaxThreads() == ServerTuning.SHARED_THREAD_POOL
+                ? null
+                : newThreadPool(
+                        TLS_THREAD_POOL_NAME,
+                        Math.min(serverTuning.getMinThreads(), serverTuning.getTlsMaxThreads()),
+                        serverTuning.getTlsMaxThreads(),
+                        serverTuning.getMaxQueuedRequests());
+
         final SslContextFactory sslContextFactory = constructSslContextFactory(keystorePassword, keystorePath);
         final ServerConnector sslConnector = enableAlpnAndHttp2
-                ? buildSslConnectorWithHttp2Alpn(server, httpConfiguration, sslContextFactory)
-                : buildSslConnectorWithHttp11(server, httpConfiguration, sslContextFactory);
+                ? buildSslConnectorWithHttp2Alpn(server, tlsThreadPool, httpConfiguration, sslContextFactory)
+                : buildSslConnectorWithHttp11(server, tlsThreadPool, httpConfiguration, sslContextFactory);
 
         sslConnector.setPort(getStubsSslPort(commandLineArgs));
         sslConnector.setHost(DEFAULT_HOST);
         sslConnector.setName(SSL_CONNECTOR_NAME);
-        sslConnector.setIdleTimeout(SERVER_CONNECTOR_IDLETIME_MILLIS);
+        sslConnector.setIdleTimeout(serverTuning.getIdleTimeoutMillis());
 
         if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ADDRESS)) {
             sslConnector.setHost(commandLineArgs.get(CommandLineInterpreter.OPTION_ADDRESS));
@@ -451,37 +679,61 @@ public final class JettyFactory {
         final HttpConfiguration httpConfiguration = new HttpConfiguration();
         httpConfiguration.setSendServerVersion(true);
         httpConfiguration.setSendXPoweredBy(true);
-        httpConfiguration.setOutputBufferSize(32768);
-        httpConfiguration.setRequestHeaderSize(8192);
-        httpConfiguration.setResponseHeaderSize(8192);
+        httpConfiguration.setOutputBufferSize(serverTuning.getOutputBufferSize());
+        httpConfiguration.setRequestHeaderSize(serverTuning.getRequestHeaderSize());
+        httpConfiguration.setResponseHeaderSize(serverTuning.getResponseHeaderSize());
 
         return httpConfiguration;
     }
 
     private ServerConnector buildStubsConnectorWithHttp11(
-            final Server server, final HttpConfiguration httpConfiguration) {
-        return new ServerConnector(server, new HttpConnectionFactory(httpConfiguration));
+            final Server server, final HttpConfiguration httpConfiguration, final boolean reusePort) {
+        return newServerConnector(server, reusePort, new HttpConnectionFactory(httpConfiguration));
     }
 
     private ServerConnector buildStubsConnectorWithHttp20(
-            final Server server, final HttpConfiguration httpConfiguration) {
+            final Server server, final HttpConfiguration httpConfiguration, final boolean reusePort) {
         // Annoying cURL notice in response: Connection state changed (MAX_CONCURRENT_STREAMS == N)!
         // https://github.com/curl/curl/blob/63c76681827b5ae9017f6c981003cd75e5f127de/lib/http2.h#L32
         final HTTP2CServerConnectionFactory http2CServerConnectionFactory =
                 new HTTP2CServerConnectionFactory(httpConfiguration);
-        http2CServerConnectionFactory.setMaxConcurrentStreams(100);
-        return new ServerConnector(server, new HttpConnectionFactory(httpConfiguration), http2CServerConnectionFactory);
+        configureHttp2(http2CServerConnectionFactory);
+        return newServerConnector(
+                server, reusePort, new HttpConnectionFactory(httpConfiguration), http2CServerConnectionFactory);
+    }
+
+    private ServerConnector newServerConnector(
+            final Server server, final boolean reusePort, final ConnectionFactory... connectionFactories) {
+        return reusePort
+                ? new ReusePortServerConnector(
+                        server, serverTuning.getAcceptors(), serverTuning.getSelectors(), connectionFactories)
+                : new ServerConnector(
+                        server, serverTuning.getAcceptors(), serverTuning.getSelectors(), connectionFactories);
     }
 
     private ServerConnector buildSslConnectorWithHttp11(
-            final Server server, final HttpConfiguration httpConfiguration, final SslContextFactory sslContextFactory) {
+            final Server server,
+            final Executor executor,
+            final HttpConfiguration httpConfiguration,
+            final SslContextFactory sslContextFactory) {
         final SslConnectionFactory sslConnectionFactory =
                 new SslConnectionFactory(sslContextFactory, PROTOCOL_HTTP_1_1);
-        return new ServerConnector(server, sslConnectionFactory, new HttpConnectionFactory(httpConfiguration));
+        return new ServerConnector(
+                server,
+                executor,
+                null,
+                null,
+                serverTuning.getAcceptors(),
+                serverTuning.getSelectors(),
+                sslConnectionFactory,
+                new HttpConnectionFactory(httpConfiguration));
     }
 
     private ServerConnector buildSslConnectorWithHttp2Alpn(
-            final Server server, final HttpConfiguration httpConfiguration, final SslContextFactory sslContextFactory) {
+            final Server server,
+            final Executor executor,
+            final HttpConfiguration httpConfiguration,
+            final SslContextFactory sslContextFactory) {
         // https://www.eclipse.org/jetty/documentation/jetty-9/index.html#alpn-chapter
 
         sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
@@ -493,14 +745,25 @@ public final class JettyFactory {
 
         // Annoying cURL notice in response: Connection state changed (MAX_CONCURRENT_STREAMS == N)!
         // https://github.com/curl/curl/blob/63c76681827b5ae9017f6c981003cd75e5f127de/lib/http2.h#L32
-        http2ServerConnectionFactory.setMaxConcurrentStreams(100);
+        configureHttp2(http2ServerConnectionFactory);
         return new ServerConnector(
                 server,
+                executor,
+                null,
+                null,
+                serverTuning.getAcceptors(),
+                serverTuning.getSelectors(),
                 new SslConnectionFactory(sslContextFactory, alpnServerConnectionFactory.getProtocol()),
                 alpnServerConnectionFactory,
                 http2ServerConnectionFactory);
     }
 
+    private void configureHttp2(final AbstractHTTP2ServerConnectionFactory http2ServerConnectionFactory) {
+        http2ServerConnectionFactory.setMaxConcurrentStreams(serverTuning.getHttp2MaxConcurrentStreams());
+        http2ServerConnectionFactory.setInitialSessionRecvWindow(serverTuning.getHttp2InitialSessionRecvWindow());
+        http2ServerConnectionFactory.setInitialStreamRecvWindow(serverTuning.getHttp2InitialStreamRecvWindow());
+    }
+
     private int getStubsPort(final Map<String, String> commandLineArgs) {
         if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_CLIENTPORT)) {
             return Integer.parseInt(commandLineArgs.get(CommandLineInterpreter.OPTION_CLIENTPORT));
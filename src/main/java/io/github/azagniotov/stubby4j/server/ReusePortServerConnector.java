@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+
+/**
+ * Binds its server socket with SO_REUSEPORT, which lets several connectors, each with its own acceptor and
+ * selector threads, listen on the same port. The kernel then load balances the new connections between them.
+ * <p>
+ * The SO_REUSEPORT socket option is available since JDK 9 on Linux and macOS. As stubby4j is built for Java 8,
+ * the option is looked up reflectively.
+ */
+final class ReusePortServerConnector extends ServerConnector {
+
+    private static final SocketOption<Boolean> SO_REUSEPORT = lookupReusePortOption();
+
+    ReusePortServerConnector(
+            final Server server, final int acceptors, final int selectors, final ConnectionFactory... factories) {
+        super(server, acceptors, selectors, factories);
+    }
+
+    /**
+     * @return {@code true} if the running JDK supports the SO_REUSEPORT option on the server sockets
+     */
+    static boolean isReusePortSupported() {
+        if (SO_REUSEPORT == null) {
+            return false;
+        }
+        try (final ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            return serverChannel.supportedOptions().contains(SO_REUSEPORT);
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected ServerSocketChannel openAcceptChannel() throws IOException {
+        final InetSocketAddress bindAddress = getHost() == null
+                ? new InetSocketAddress(getPort())
+                : new InetSocketAddress(getHost(), getPort());
+
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, getReuseAddress());
+            serverChannel.setOption(SO_REUSEPORT, true);
+            serverChannel.bind(bindAddress, getAcceptQueueSize());
+        } catch (final IOException | RuntimeException e) {
+            serverChannel.close();
+            throw new IOException(String.format("Failed to bind to %s with SO_REUSEPORT", bindAddress), e);
+        }
+
+        return serverChannel;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> lookupReusePortOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+        } catch (final ReflectiveOperationException e) {
+            // Prior to JDK 9
+            return null;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.server;
+
+import io.github.azagniotov.stubby4j.cli.CommandLineInterpreter;
+import java.util.Map;
+import org.eclipse.jetty.util.ProcessorUtils;
+
+/**
+ * Jetty thread pool, connector and protocol sizing, which can be tuned from the command line. The defaults
+ * are the sizes stubby4j has always been running with.
+ */
+final class ServerTuning {
+
+    static final int DEFAULT_MIN_THREADS = 8;
+    static final int DEFAULT_MAX_THREADS = 200;
+    static final int UNBOUNDED_QUEUE = -1;
+    // Lets Jetty pick the number of acceptors and selectors based on the number of available CPU cores
+    static final int JETTY_DEFAULT = -1;
+    static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 45000;
+    static final int DEFAULT_OUTPUT_BUFFER_SIZE = 32768;
+    static final int DEFAULT_REQUEST_HEADER_SIZE = 8192;
+    static final int DEFAULT_RESPONSE_HEADER_SIZE = 8192;
+    static final int DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS = 100;
+    static final int DEFAULT_HTTP2_INITIAL_SESSION_RECV_WINDOW = 1024 * 1024;
+    static final int DEFAULT_HTTP2_INITIAL_STREAM_RECV_WINDOW = 512 * 1024;
+    static final int DEFAULT_ADMIN_MAX_THREADS = 16;
+    static final int SHARED_THREAD_POOL = -1;
+    static final int UNLIMITED_CONCURRENT_REQUESTS = -1;
+    static final int DEFAULT_MAX_QUEUE_WAIT_MILLIS = 0;
+    static final int DEFAULT_RETRY_AFTER_SECONDS = 1;
+    static final int DEFAULT_STUBS_CONNECTORS = 1;
+    // Leaves room for the acceptor, selector and reserved threads taken from a dedicated pool
+    private static final int MIN_DEDICATED_POOL_THREADS = 4;
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final int maxQueuedRequests;
+    private final int acceptors;
+    private final int selectors;
+    private final int idleTimeoutMillis;
+    private final int outputBufferSize;
+    private final int requestHeaderSize;
+    private final int responseHeaderSize;
+    private final int http2MaxConcurrentStreams;
+    private final int http2InitialSessionRecvWindow;
+    private final int http2InitialStreamRecvWindow;
+    private final int adminMaxThreads;
+    private final int tlsMaxThreads;
+    private final int maxConcurrentRequests;
+    private final int maxQueueWaitMillis;
+    private final int retryAfterSeconds;
+    private final int stubsConnectors;
+
+    private ServerTuning(final Map<String, String> commandLineArgs, final int availableProcessors) {
+        this.maxThreads = parse(commandLineArgs, CommandLineInterpreter.OPTION_MAX_THREADS, DEFAULT_MAX_THREADS, 1);
+        // A smaller --max_threads alone also lowers the default minimum, instead of failing the check below
+        this.minThreads = parse(
+                commandLineArgs,
+                CommandLineInterpreter.OPTION_MIN_THREADS,
+                Math.min(DEFAULT_MIN_THREADS, maxThreads),
+                1);
+        this.maxQueuedRequests =
+                parse(commandLineArgs, CommandLineInterpreter.OPTION_MAX_QUEUED_REQUESTS, UNBOUNDED_QUEUE, 1);
+        this.acceptors = parse(commandLineArgs, CommandLineInterpreter.OPTION_ACCEPTORS, JETTY_DEFAULT, 0);
+        this.selectors = parse(commandLineArgs, CommandLineInterpreter.OPTION_SELECTORS, JETTY_DEFAULT, 1);
+        this.idleTimeoutMillis =
+                parse(commandLineArgs, CommandLineInterpreter.OPTION_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT_MILLIS, 1);
+        this.outputBufferSize = parse(
+                commandLineArgs, CommandLineInterpreter.OPTION_OUTPUT_BUFFER_SIZE, DEFAULT_OUTPUT_BUFFER_SIZE, 1);
+        this.requestHeaderSize = parse(
+                commandLineArgs, CommandLineInterpreter.OPTION_REQUEST_HEADER_SIZE, DEFAULT_REQUEST_HEADER_SIZE, 1);
+        this.responseHeaderSize = parse(
+                commandLineArgs, CommandLineInterpreter.OPTION_RESPONSE_HEADER_SIZE, DEFAULT_RESPONSE_HEADER_SIZE, 1);
+        this.http2MaxConcurrentStreams = parse(
+                commandLineArgs,
+                CommandLineInterpreter.OPTION_HTTP2_MAX_CONCURRENT_STREAMS,
+                DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS,
+                1);
+        this.http2InitialSessionRecvWindow = parse(
+                commandLineArgs,
+                CommandLineInterpreter.OPTION_HTTP2_INITIAL_SESSION_RECV_WINDOW,
+                DEFAULT_HTTP2_INITIAL_SESSION_RECV_WINDOW,
+                1);
+        this.http2InitialStreamRecvWindow = parse(
+                commandLineArgs,
+                CommandLineInterpreter.OPTION_HTTP2_INITIAL_STREAM_RECV_WINDOW,
+                DEFAULT_HTTP2_INITIAL_STREAM_RECV_WINDOW,
+                1);
+        this.adminMaxThreads = parse(
+                commandLineArgs,
+                CommandLineInterpreter.OPTION_ADMIN_MAX_THREADS,
+                DEFAULT_ADMIN_MAX_THREADS,
+                MIN_DEDICATED_POOL_THREADS);
+        this.tlsMaxThreads = parse(
+                commandLineArgs,
+                CommandLineInterpreter.OPTION_TLS_MAX_THREADS,
+                SHARED_THREAD_POOL,
+                MIN_DEDICATED_POOL_THREADS);
+        this.maxConcurrentRequests = parse(
+                commandLineArgs,
+                CommandLineInterpreter.OPTION_MAX_CONCURRENT_REQUESTS,
+                UNLIMITED_CONCURRENT_REQUESTS,
+                1);
+        this.maxQueueWaitMillis = parse(
+                commandLineArgs, CommandLineInterpreter.OPTION_MAX_QUEUE_WAIT, DEFAULT_MAX_QUEUE_WAIT_MILLIS, 0);
+        this.retryAfterSeconds = parse(
+                commandLineArgs, CommandLineInterpreter.OPTION_RETRY_AFTER, DEFAULT_RETRY_AFTER_SECONDS, 0);
+        this.stubsConnectors = parse(
+                commandLineArgs, CommandLineInterpreter.OPTION_STUBS_CONNECTORS, DEFAULT_STUBS_CONNECTORS, 1);
+
+        if (minThreads > maxThreads) {
+            throw new IllegalArgumentException(String.format(
+                    "The --%s must not be greater than the --%s, got: %s and %s",
+                    CommandLineInterpreter.OPTION_MIN_THREADS,
+                    CommandLineInterpreter.OPTION_MAX_THREADS,
+                    minThreads,
+                    maxThreads));
+        }
+
+        // Otherwise, the Jetty ThreadPoolBudget fails the server start with insufficient configured threads
+        final int requiredStubsPoolThreads = requiredStubsPoolThreads(commandLineArgs, availableProcessors);
+        if (maxThreads <= requiredStubsPoolThreads) {
+            throw new IllegalArgumentException(String.format(
+                    "The --%s must be at least %s to run the acceptor, selector and reserved threads, got: %s",
+                    CommandLineInterpreter.OPTION_MAX_THREADS,
+                    requiredStubsPoolThreads + 1,
+                    maxThreads));
+        }
+        if (tlsMaxThreads != SHARED_THREAD_POOL) {
+            final int requiredTlsPoolThreads = connectorThreads(tlsMaxThreads, availableProcessors)
+                    + reservedThreads(tlsMaxThreads, availableProcessors);
+            if (tlsMaxThreads <= requiredTlsPoolThreads) {
+                throw new IllegalArgumentException(String.format(
+                        "The --%s must be at least %s to run the acceptor, selector and reserved threads, got: %s",
+                        CommandLineInterpreter.OPTION_TLS_MAX_THREADS,
+                        requiredTlsPoolThreads + 1,
+                        tlsMaxThreads));
+            }
+        }
+    }
+
+    static ServerTuning fromCommandLineArgs(final Map<String, String> commandLineArgs) {
+        return new ServerTuning(commandLineArgs, ProcessorUtils.availableProcessors());
+    }
+
+    static ServerTuning fromCommandLineArgs(
+            final Map<String, String> commandLineArgs, final int availableProcessors) {
+        return new ServerTuning(commandLineArgs, availableProcessors);
+    }
+
+    /**
+     * Mirrors how Jetty sizes the threads it leases from the stubs thread pool when the server starts: the acceptor
+     * and selector threads of every connector sharing the pool, plus the reserved threads of the pool itself
+     */
+    private int requiredStubsPoolThreads(
+            final Map<String, String> commandLineArgs, final int availableProcessors) {
+        int sharedPoolConnectors = stubsConnectors;
+        if (!commandLineArgs.containsKey(CommandLineInterpreter.OPTION_DISABLE_SSL)
+                && tlsMaxThreads == SHARED_THREAD_POOL) {
+            sharedPoolConnectors++;
+        }
+        int requiredThreads = sharedPoolConnectors * connectorThreads(maxThreads, availableProcessors);
+        if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_UNIX_SOCKET)) {
+            // The Unix domain socket connector has a single acceptor, and a single selector unless configured
+            requiredThreads += 1 + (selectors > 0 ? selectors : 1);
+        }
+
+        return requiredThreads + reservedThreads(maxThreads, availableProcessors);
+    }
+
+    // See ReservedThreadExecutor#reservedThreads, every Jetty QueuedThreadPool keeps a few threads reserved
+    private static int reservedThreads(final int poolMaxThreads, final int availableProcessors) {
+        return Math.max(1, Math.min(availableProcessors, poolMaxThreads / 10));
+    }
+
+    // See AbstractConnector and SelectorManager#defaultSelectors for how Jetty picks the defaults
+    private int connectorThreads(final int poolMaxThreads, final int availableProcessors) {
+        final int connectorAcceptors =
+                acceptors == JETTY_DEFAULT ? Math.max(1, Math.min(4, availableProcessors / 8)) : acceptors;
+        final int connectorSelectors = selectors == JETTY_DEFAULT
+                ? Math.max(1, Math.min(availableProcessors / 2, poolMaxThreads / 16))
+                : selectors;
+
+        return connectorAcceptors + connectorSelectors;
+    }
+
+    int getMinThreads() {
+        return minThreads;
+    }
+
+    int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * @return maximum number of requests waiting for a thread, or {@link #UNBOUNDED_QUEUE}
+     */
+    int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    int getAcceptors() {
+        return acceptors;
+    }
+
+    int getSelectors() {
+        return selectors;
+    }
+
+    int getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    int getRequestHeaderSize() {
+        return requestHeaderSize;
+    }
+
+    int getResponseHeaderSize() {
+        return responseHeaderSize;
+    }
+
+    int getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    int getHttp2InitialSessionRecvWindow() {
+        return http2InitialSessionRecvWindow;
+    }
+
+    int getHttp2InitialStreamRecvWindow() {
+        return http2InitialStreamRecvWindow;
+    }
+
+    int getAdminMaxThreads() {
+        return adminMaxThreads;
+    }
+
+    /**
+     * @return maximum number of threads of the dedicated TLS connector thread pool, or {@link #SHARED_THREAD_POOL}
+     * when the TLS connector shares the server thread pool with the stubs connector
+     */
+    int getTlsMaxThreads() {
+        return tlsMaxThreads;
+    }
+
+    /**
+     * @return maximum number of stubs portal requests in flight, or {@link #UNLIMITED_CONCURRENT_REQUESTS}
+     * when the admission control is disabled
+     */
+    int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    int getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+
+    int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * @return number of stubs portal connectors bound to the same port, which is honored only when
+     * SO_REUSEPORT is supported
+     */
+    int getStubsConnectors() {
+        return stubsConnectors;
+    }
+
+    /**
+     * @return value of the given numeric command line option, or the default value if the option was not given
+     * @throws IllegalArgumentException naming the option, if its value is not a number or is less than the minimum
+     */
+    static int parse(
+            final Map<String, String> commandLineArgs, final String option, final int defaultValue, final int min) {
+        if (!commandLineArgs.containsKey(option)) {
+            return defaultValue;
+        }
+
+        final String value = commandLineArgs.get(option);
+        final int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("The --%s must be a number, got: %s", option, value), e);
+        }
+        if (parsed < min) {
+            throw new IllegalArgumentException(
+                    String.format("The --%s must be at least %s, got: %s", option, min, parsed));
+        }
+
+        return parsed;
+    }
+}
@@ -19,9 +19,7 @@ package io.github.azagniotov.stubby4j.server;
 import io.github.azagniotov.stubby4j.annotations.GeneratedCodeClassCoverageExclusion;
 import io.github.azagniotov.stubby4j.cli.ANSITerminal;
 import io.github.azagniotov.stubby4j.cli.CommandLineInterpreter;
-import io.github.azagniotov.stubby4j.filesystem.ExternalFilesScanner;
-import io.github.azagniotov.stubby4j.filesystem.MainIncludedYamlScanner;
-import io.github.azagniotov.stubby4j.filesystem.MainYamlScanner;
+import io.github.azagniotov.stubby4j.filesystem.DataStoreWatcher;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
 import io.github.azagniotov.stubby4j.utils.ObjectUtils;
 import java.util.Map;
@@ -38,6 +36,8 @@ public final class StubbyManager {
     private final JettyFactory jettyFactory;
     private final StubRepository stubRepository;
 
+    private DataStoreWatcher dataStoreWatcher;
+
     StubbyManager(
             final Map<String, String> commandLineArgs,
             final Server server,
@@ -64,8 +64,8 @@ public final class StubbyManager {
 
         if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_WATCH)) {
             final String watchValue = commandLineArgs.get(CommandLineInterpreter.OPTION_WATCH);
-            final long watchScanTime = ObjectUtils.isNotNull(watchValue) ? Long.parseLong(watchValue) : 100;
-            watchDataStore(stubRepository, watchScanTime);
+            final long watchDebounceTime = ObjectUtils.isNotNull(watchValue) ? Long.parseLong(watchValue) : 100;
+            watchDataStore(stubRepository, watchDebounceTime);
         }
     }
 
@@ -74,6 +74,10 @@ public final class StubbyManager {
             return;
         }
 
+        if (dataStoreWatcher != null) {
+            dataStoreWatcher.close();
+            dataStoreWatcher = null;
+        }
         server.stop();
 
         while (!isJettyDown()) {
@@ -110,16 +114,8 @@ public final class StubbyManager {
         return (server.isStopped() && !server.isRunning());
     }
 
-    private void watchDataStore(final StubRepository stubRepository, final long sleepTime) {
-
-        final MainYamlScanner mainYamlScanner = new MainYamlScanner(stubRepository, sleepTime);
-        new Thread(mainYamlScanner, MainYamlScanner.class.getCanonicalName()).start();
-
-        final ExternalFilesScanner externalFilesScanner = new ExternalFilesScanner(stubRepository, sleepTime + 25);
-        new Thread(externalFilesScanner, ExternalFilesScanner.class.getCanonicalName()).start();
-
-        final MainIncludedYamlScanner mainIncludedYamlScanner =
-                new MainIncludedYamlScanner(stubRepository, sleepTime + 50);
-        new Thread(mainIncludedYamlScanner, MainIncludedYamlScanner.class.getCanonicalName()).start();
+    private void watchDataStore(final StubRepository stubRepository, final long debounceTime) {
+        dataStoreWatcher = new DataStoreWatcher(stubRepository, debounceTime);
+        dataStoreWatcher.start();
     }
 }
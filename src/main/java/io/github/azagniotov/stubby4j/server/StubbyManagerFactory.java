@@ -23,8 +23,12 @@ import io.github.azagniotov.stubby4j.cli.EmptyLogger;
 import io.github.azagniotov.stubby4j.http.StubbyHttpTransport;
 import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
+import io.github.azagniotov.stubby4j.utils.HandlerUtils;
+import io.github.azagniotov.stubby4j.utils.ObjectUtils;
+import io.github.azagniotov.stubby4j.utils.StringUtils;
 import io.github.azagniotov.stubby4j.yaml.YamlParseResultSet;
 import java.io.File;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import org.eclipse.jetty.server.Server;
@@ -55,6 +59,19 @@ public class StubbyManagerFactory {
                 commandLineArgs.containsKey(CommandLineInterpreter.OPTION_DISABLE_STUB_CACHING);
         final Cache<String, StubHttpLifecycle> stubCache = Cache.stubHttpLifecycleCache(true);
 
+        if (commandLineArgs.containsKey(CommandLineInterpreter.OPTION_MAX_REQUEST_BODY_BYTES)) {
+            HandlerUtils.configureMaxRequestBodyBytes(ServerTuning.parse(
+                    commandLineArgs,
+                    CommandLineInterpreter.OPTION_MAX_REQUEST_BODY_BYTES,
+                    HandlerUtils.DEFAULT_MAX_REQUEST_BODY_BYTES,
+                    1));
+        }
+
+        final ANSITerminal.OverflowPolicy overflowPolicy =
+                commandLineArgs.containsKey(CommandLineInterpreter.OPTION_ASYNC_CONSOLE)
+                        ? parseOverflowPolicy(commandLineArgs.get(CommandLineInterpreter.OPTION_ASYNC_CONSOLE))
+                        : null;
+
         final StubRepository stubRepository =
                 new StubRepository(configFile, stubCache, stubLoadComputation, new StubbyHttpTransport());
         final JettyFactory jettyFactory = new JettyFactory(commandLineArgs, stubRepository);
@@ -64,6 +81,28 @@ public class StubbyManagerFactory {
             ANSITerminal.muteConsole(true);
         }
 
+        if (ObjectUtils.isNotNull(overflowPolicy)) {
+            ANSITerminal.enableAsyncConsole(overflowPolicy);
+        }
+
         return new StubbyManager(commandLineArgs, server, jettyFactory, stubRepository);
     }
+
+    static ANSITerminal.OverflowPolicy parseOverflowPolicy(final String value) {
+        if (ObjectUtils.isNull(value)) {
+            return ANSITerminal.OverflowPolicy.DROP;
+        }
+
+        for (final ANSITerminal.OverflowPolicy overflowPolicy : ANSITerminal.OverflowPolicy.values()) {
+            if (overflowPolicy.name().equals(StringUtils.toUpper(value))) {
+                return overflowPolicy;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format(
+                "The --%s must be one of %s, got: %s",
+                CommandLineInterpreter.OPTION_ASYNC_CONSOLE,
+                Arrays.toString(ANSITerminal.OverflowPolicy.values()),
+                value));
+    }
 }
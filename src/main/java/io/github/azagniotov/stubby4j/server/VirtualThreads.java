@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.server;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Looks up the virtual threads API reflectively, as stubby4j is built for Java 8, while the virtual threads
+ * are available only since JDK 21
+ */
+final class VirtualThreads {
+
+    private static final String NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+
+    private VirtualThreads() {}
+
+    /**
+     * @return an executor that starts a new virtual thread for each task, or an empty {@link Optional} when
+     * the running JVM does not support virtual threads
+     */
+    static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            final Method factoryMethod = Executors.class.getMethod(NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR);
+            return Optional.of((ExecutorService) factoryMethod.invoke(null));
+        } catch (final ReflectiveOperationException e) {
+            // NoSuchMethodException prior to JDK 19. On JDK 19 and 20 virtual threads are a preview feature, and the
+            // invocation fails with an UnsupportedOperationException cause, unless the JVM runs with --enable-preview
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed memory histogram of non-negative values, in the spirit of the HdrHistogram: the values are counted in buckets
+ * whose width doubles with every power of two, and every power of two range is split into
+ * {@value #SUB_BUCKET_COUNT} equally wide buckets. So a value is counted in a bucket at most an 8th as wide as the
+ * value, and the values below {@code 2 * }{@value #SUB_BUCKET_COUNT} are counted exactly. Recording a value is
+ * lock-free.
+ * <p>
+ * Values above the highest trackable value are counted in the last bucket, though the max value is kept as is.
+ */
+final class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong maxValue;
+
+    LogLinearHistogram(final long highestTrackableValue) {
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketIndexOf(highestTrackableValue) + 1);
+        this.maxValue = new AtomicLong();
+    }
+
+    void record(final long value) {
+        final long nonNegativeValue = Math.max(value, 0L);
+        counts.incrementAndGet(bucketIndexOf(Math.min(nonNegativeValue, highestTrackableValue)));
+        maxValue.accumulateAndGet(nonNegativeValue, Math::max);
+    }
+
+    /**
+     * @return percentiles of the values recorded so far. The values recorded while the percentiles are read may or
+     * may not be taken into account
+     */
+    StubLatencyStats.Percentiles getPercentiles() {
+        final long[] snapshot = new long[counts.length()];
+        long totalCount = 0;
+        for (int bucketIndex = 0; bucketIndex < snapshot.length; bucketIndex++) {
+            snapshot[bucketIndex] = counts.get(bucketIndex);
+            totalCount += snapshot[bucketIndex];
+        }
+
+        final long max = maxValue.get();
+        return new StubLatencyStats.Percentiles(
+                totalCount,
+                valueAtPercentile(snapshot, totalCount, 50.0, max),
+                valueAtPercentile(snapshot, totalCount, 90.0, max),
+                valueAtPercentile(snapshot, totalCount, 99.0, max),
+                max);
+    }
+
+    static int bucketIndexOf(final long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        // How far the sub-buckets of the value's power of two range are shifted from the exactly counted values
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+
+        return SUB_BUCKET_COUNT * (shift + 1) + subBucket;
+    }
+
+    static long highestValueOf(final int bucketIndex) {
+        if (bucketIndex < 2 * SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+
+        final int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+        final long subBucket = SUB_BUCKET_COUNT + bucketIndex % SUB_BUCKET_COUNT;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    private static long valueAtPercentile(
+            final long[] snapshot, final long totalCount, final double percentile, final long max) {
+        if (totalCount == 0) {
+            return 0L;
+        }
+
+        final long targetCount = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulativeCount = 0;
+        for (int bucketIndex = 0; bucketIndex < snapshot.length; bucketIndex++) {
+            cumulativeCount += snapshot[bucketIndex];
+            if (cumulativeCount >= targetCount) {
+                return Math.min(highestValueOf(bucketIndex), max);
+            }
+        }
+
+        return max;
+    }
+}
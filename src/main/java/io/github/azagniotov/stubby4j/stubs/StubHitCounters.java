@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Hit counters of the loaded stubs, indexed by their stable stub ID, see {@link StubSlots}. Recording a hit takes
+ * no lock: the counter is found by the stub ID in a two-level array, and the hits are summed up in
+ * {@link LongAdder}s, so that concurrent hits on the same stub do not contend.
+ * <p>
+ * Besides the total, every counter keeps the hits of each of the last {@value #WINDOW_SECONDS} seconds, which gives
+ * the hits in the last second and in the last minute. Only the complete seconds are counted, i.e.: the second in
+ * progress is not. A hit recorded while the counter moves on to the next second may be left out of the rolling
+ * windows, but never out of the total.
+ * <p>
+ * Every counter also keeps {@link LogLinearHistogram}s of the match time, of the number of the stubs evaluated to
+ * find the match, and of the service time of the stub, which take about 4KB per counter. Recording to the histograms
+ * is lock-free too.
+ * <p>
+ * A counter is only allocated on the first hit of a stub. The stub IDs are never reused, so the counters of the
+ * stubs that are no longer loaded are just dropped.
+ */
+final class StubHitCounters {
+
+    static final int WINDOW_SECONDS = 60;
+
+    // Beyond these, values are counted as the highest trackable ones, see LogLinearHistogram
+    private static final long HIGHEST_TRACKABLE_MATCH_TIME_MICROS = TimeUnit.SECONDS.toMicros(16);
+    private static final long HIGHEST_TRACKABLE_MATCH_CANDIDATES = 1_000_000L;
+    private static final long HIGHEST_TRACKABLE_SERVICE_TIME_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final LongSupplier secondsClock;
+    private final AtomicInteger countersInUse;
+
+    // Chunks are created, and the array of chunks is replaced by a bigger one, under the lock of this object only.
+    // A chunk is never copied, so a counter set into a chunk is never lost when the array of chunks grows
+    private volatile AtomicReferenceArray<Counter>[] chunks;
+
+    StubHitCounters() {
+        this(() -> TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+    }
+
+    StubHitCounters(final LongSupplier secondsClock) {
+        this.secondsClock = secondsClock;
+        this.countersInUse = new AtomicInteger();
+        this.chunks = newChunks(0);
+    }
+
+    void recordHit(final int stubId) {
+        counterOf(stubId).recordHit(secondsClock.getAsLong());
+    }
+
+    void recordMatchTime(final int stubId, final long matchTimeMicros) {
+        counterOf(stubId).matchTimesMicros.record(matchTimeMicros);
+    }
+
+    void recordMatchCandidates(final int stubId, final long matchCandidates) {
+        counterOf(stubId).matchCandidates.record(matchCandidates);
+    }
+
+    /**
+     * Unlike the other recordings, does not allocate a counter, as the stub was hit already by the time it was served,
+     * unless its counter has been dropped since
+     */
+    void recordServiceTime(final int stubId, final long serviceTimeMicros) {
+        final Counter counter = existingCounterOf(stubId);
+        if (counter != null) {
+            counter.serviceTimesMicros.record(serviceTimeMicros);
+        }
+    }
+
+    /**
+     * @return hits of the given stub, or {@code null} if the stub was never hit
+     */
+    HitCounts getHitCounts(final int stubId) {
+        final Counter counter = existingCounterOf(stubId);
+        return counter == null ? null : counter.getHitCounts(secondsClock.getAsLong());
+    }
+
+    /**
+     * @return latency stats of the given stub, or {@code null} if the stub was never hit
+     */
+    StubLatencyStats getLatencyStats(final int stubId) {
+        final Counter counter = existingCounterOf(stubId);
+        if (counter == null) {
+            return null;
+        }
+
+        return new StubLatencyStats(
+                counter.matchTimesMicros.getPercentiles(),
+                counter.matchCandidates.getPercentiles(),
+                counter.serviceTimesMicros.getPercentiles());
+    }
+
+    boolean isEmpty() {
+        return countersInUse.get() == 0;
+    }
+
+    void remove(final int stubId) {
+        final AtomicReferenceArray<Counter>[] currentChunks = this.chunks;
+        final int chunkIndex = stubId >>> CHUNK_SHIFT;
+        if (chunkIndex < currentChunks.length
+                && currentChunks[chunkIndex] != null
+                && currentChunks[chunkIndex].getAndSet(stubId & CHUNK_MASK, null) != null) {
+            countersInUse.decrementAndGet();
+        }
+    }
+
+    synchronized void clear() {
+        this.chunks = newChunks(chunks.length);
+        this.countersInUse.set(0);
+    }
+
+    private Counter counterOf(final int stubId) {
+        final AtomicReferenceArray<Counter> chunk = chunkOf(stubId);
+        final int index = stubId & CHUNK_MASK;
+
+        final Counter counter = chunk.get(index);
+        if (counter != null) {
+            return counter;
+        }
+
+        final Counter newCounter = new Counter();
+        if (chunk.compareAndSet(index, null, newCounter)) {
+            countersInUse.incrementAndGet();
+            return newCounter;
+        }
+        return chunk.get(index);
+    }
+
+    private Counter existingCounterOf(final int stubId) {
+        final AtomicReferenceArray<Counter>[] currentChunks = this.chunks;
+        final int chunkIndex = stubId >>> CHUNK_SHIFT;
+        if (chunkIndex >= currentChunks.length || currentChunks[chunkIndex] == null) {
+            return null;
+        }
+
+        return currentChunks[chunkIndex].get(stubId & CHUNK_MASK);
+    }
+
+    private AtomicReferenceArray<Counter> chunkOf(final int stubId) {
+        final AtomicReferenceArray<Counter>[] currentChunks = this.chunks;
+        final int chunkIndex = stubId >>> CHUNK_SHIFT;
+        if (chunkIndex < currentChunks.length && currentChunks[chunkIndex] != null) {
+            return currentChunks[chunkIndex];
+        }
+        return createChunk(chunkIndex);
+    }
+
+    private synchronized AtomicReferenceArray<Counter> createChunk(final int chunkIndex) {
+        if (chunkIndex >= chunks.length) {
+            final AtomicReferenceArray<Counter>[] grownChunks =
+                    newChunks(Math.max(chunkIndex + 1, chunks.length * 2));
+            System.arraycopy(chunks, 0, grownChunks, 0, chunks.length);
+            this.chunks = grownChunks;
+        }
+        if (chunks[chunkIndex] == null) {
+            chunks[chunkIndex] = new AtomicReferenceArray<>(CHUNK_SIZE);
+            // Re-publishes the array of chunks, so that the readers of the volatile field see the new chunk
+            this.chunks = chunks;
+        }
+        return chunks[chunkIndex];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<Counter>[] newChunks(final int length) {
+        return (AtomicReferenceArray<Counter>[]) new AtomicReferenceArray[length];
+    }
+
+    /**
+     * Hits of a stub, as of the time the hits were read
+     */
+    static final class HitCounts {
+
+        private final long hits;
+        private final long hitsInLastSecond;
+        private final long hitsInLastMinute;
+
+        HitCounts(final long hits, final long hitsInLastSecond, final long hitsInLastMinute) {
+            this.hits = hits;
+            this.hitsInLastSecond = hitsInLastSecond;
+            this.hitsInLastMinute = hitsInLastMinute;
+        }
+
+        long getHits() {
+            return hits;
+        }
+
+        long getHitsInLastSecond() {
+            return hitsInLastSecond;
+        }
+
+        long getHitsInLastMinute() {
+            return hitsInLastMinute;
+        }
+    }
+
+    private static final class Counter {
+
+        private final LongAdder hits;
+        private final LogLinearHistogram matchTimesMicros;
+        private final LogLinearHistogram matchCandidates;
+        private final LogLinearHistogram serviceTimesMicros;
+        // Hits of the complete seconds, where a second takes the bucket at (second % WINDOW_SECONDS).
+        // Written under the lock of this counter, when it moves on to the next second
+        private final long[] bucketHits;
+        private final long[] bucketSeconds;
+
+        private volatile Second currentSecond;
+
+        private Counter() {
+            this.hits = new LongAdder();
+            this.matchTimesMicros = new LogLinearHistogram(HIGHEST_TRACKABLE_MATCH_TIME_MICROS);
+            this.matchCandidates = new LogLinearHistogram(HIGHEST_TRACKABLE_MATCH_CANDIDATES);
+            this.serviceTimesMicros = new LogLinearHistogram(HIGHEST_TRACKABLE_SERVICE_TIME_MICROS);
+            this.bucketHits = new long[WINDOW_SECONDS];
+            this.bucketSeconds = new long[WINDOW_SECONDS];
+            Arrays.fill(bucketSeconds, -1L);
+            this.currentSecond = new Second(-1L);
+        }
+
+        private void recordHit(final long nowSecond) {
+            hits.increment();
+
+            Second second = currentSecond;
+            if (second.second != nowSecond) {
+                second = moveOnTo(nowSecond);
+            }
+            second.hits.increment();
+        }
+
+        private synchronized Second moveOnTo(final long nowSecond) {
+            final Second second = currentSecond;
+            if (second.second == nowSecond) {
+                return second;
+            }
+            if (second.second >= 0) {
+                final int bucket = (int) (second.second % WINDOW_SECONDS);
+                bucketHits[bucket] = second.hits.sum();
+                bucketSeconds[bucket] = second.second;
+            }
+
+            final Second nextSecond = new Second(nowSecond);
+            this.currentSecond = nextSecond;
+
+            return nextSecond;
+        }
+
+        private synchronized HitCounts getHitCounts(final long nowSecond) {
+            long hitsInLastSecond = 0;
+            long hitsInLastMinute = 0;
+            for (int bucket = 0; bucket < WINDOW_SECONDS; bucket++) {
+                hitsInLastSecond += countIfWithin(bucketSeconds[bucket], bucketHits[bucket], nowSecond, 1);
+                hitsInLastMinute +=
+                        countIfWithin(bucketSeconds[bucket], bucketHits[bucket], nowSecond, WINDOW_SECONDS);
+            }
+
+            // The second in progress of this counter may be over already, if there were no hits since
+            final Second second = currentSecond;
+            final long secondHits = second.hits.sum();
+            hitsInLastSecond += countIfWithin(second.second, secondHits, nowSecond, 1);
+            hitsInLastMinute += countIfWithin(second.second, secondHits, nowSecond, WINDOW_SECONDS);
+
+            return new HitCounts(hits.sum(), hitsInLastSecond, hitsInLastMinute);
+        }
+
+        private static long countIfWithin(
+                final long second, final long secondHits, final long nowSecond, final int windowSeconds) {
+            return second >= 0 && second < nowSecond && second >= nowSecond - windowSeconds ? secondHits : 0;
+        }
+    }
+
+    private static final class Second {
+
+        private final long second;
+        private final LongAdder hits;
+
+        private Second(final long second) {
+            this.second = second;
+            this.hits = new LongAdder();
+        }
+    }
+}
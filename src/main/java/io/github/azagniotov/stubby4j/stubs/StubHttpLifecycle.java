@@ -20,8 +20,11 @@ import static io.github.azagniotov.generics.TypeSafeConverter.asCheckedLinkedLis
 import static io.github.azagniotov.stubby4j.stubs.StubResponse.okResponse;
 
 import io.github.azagniotov.stubby4j.annotations.VisibleForTesting;
+import io.github.azagniotov.stubby4j.utils.ObjectUtils;
 import io.github.azagniotov.stubby4j.utils.ReflectionUtils;
 import io.github.azagniotov.stubby4j.utils.StringUtils;
+import io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty;
+import io.github.azagniotov.stubby4j.yaml.YamlSource;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -37,15 +40,23 @@ public class StubHttpLifecycle implements ReflectableStub {
     private final Object response;
     private final String requestAsYAML;
     private final String responseAsYAML;
+    // Renders the above YAMLs on demand, when they were not given upfront
+    private final YamlSource yamlSource;
     private final String description;
     private final String uuid;
 
+    // Where this stub is in the StubRepository, see StubSlots. Guarded by the repository lock
+    private int slot;
+    private int stubId;
+    private int resourceIdVersion;
+
     private StubHttpLifecycle(
             final StubRequest request,
             final Object response,
             final String requestAsYAML,
             final String responseAsYAML,
             final String completeYAML,
+            final YamlSource yamlSource,
             final String description,
             final String uuid) {
         this.request = request;
@@ -53,8 +64,12 @@ public class StubHttpLifecycle implements ReflectableStub {
         this.requestAsYAML = requestAsYAML;
         this.responseAsYAML = responseAsYAML;
         this.completeYAML = completeYAML;
+        this.yamlSource = yamlSource;
         this.description = description;
         this.uuid = uuid;
+        this.slot = -1;
+        this.stubId = -1;
+        this.resourceIdVersion = -1;
     }
 
     public StubRequest getRequest() {
@@ -85,6 +100,13 @@ public class StubHttpLifecycle implements ReflectableStub {
         return responseSequencedIdCounter.get();
     }
 
+    /**
+     * @return true when the response was stubbed as a list of sequenced responses, even as a list of one
+     */
+    public boolean hasSequencedResponses() {
+        return !(response instanceof StubResponse);
+    }
+
     public List<StubResponse> getResponses() {
         if (response instanceof StubResponse) {
             return new LinkedList<>(Collections.singletonList((StubResponse) response));
@@ -119,6 +141,30 @@ public class StubHttpLifecycle implements ReflectableStub {
         getResponses().forEach(response -> response.addResourceIDHeader(resourceId));
     }
 
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * @return ID of this stub, which unlike its resource ID does not change while the stub is loaded
+     */
+    int getStubId() {
+        return stubId;
+    }
+
+    void assignSlot(final int slot, final int stubId) {
+        this.slot = slot;
+        this.stubId = stubId;
+    }
+
+    int getResourceIdVersion() {
+        return resourceIdVersion;
+    }
+
+    void setResourceIdVersion(final int resourceIdVersion) {
+        this.resourceIdVersion = resourceIdVersion;
+    }
+
     /**
      * @see StubRequest#getUrl()
      */
@@ -139,6 +185,9 @@ public class StubHttpLifecycle implements ReflectableStub {
      * It is used by {@link ReflectionUtils} at runtime when fetching content for Ajax response
      */
     public String getCompleteYaml() {
+        if (ObjectUtils.isNull(completeYAML) && ObjectUtils.isNotNull(yamlSource)) {
+            return yamlSource.renderAsYamlList();
+        }
         return completeYAML;
     }
 
@@ -147,6 +196,9 @@ public class StubHttpLifecycle implements ReflectableStub {
      * It is used by {@link ReflectionUtils} at runtime when fetching content for Ajax response
      */
     public String getRequestAsYAML() {
+        if (ObjectUtils.isNull(requestAsYAML) && ObjectUtils.isNotNull(yamlSource)) {
+            return yamlSource.renderAsYaml(ConfigurableYAMLProperty.REQUEST);
+        }
         return requestAsYAML;
     }
 
@@ -155,6 +207,9 @@ public class StubHttpLifecycle implements ReflectableStub {
      * It is used by {@link ReflectionUtils} at runtime when fetching content for Ajax response
      */
     public String getResponseAsYAML() {
+        if (ObjectUtils.isNull(responseAsYAML) && ObjectUtils.isNotNull(yamlSource)) {
+            return yamlSource.renderAsYaml(ConfigurableYAMLProperty.RESPONSE);
+        }
         return responseAsYAML;
     }
 
@@ -201,6 +256,7 @@ public class StubHttpLifecycle implements ReflectableStub {
         private String completeYAML;
         private String requestAsYAML;
         private String responseAsYAML;
+        private YamlSource yamlSource;
         private String description;
         private String uuid;
 
@@ -210,6 +266,7 @@ public class StubHttpLifecycle implements ReflectableStub {
             this.completeYAML = null;
             this.requestAsYAML = null;
             this.responseAsYAML = null;
+            this.yamlSource = null;
             this.description = null;
             this.uuid = null;
         }
@@ -248,6 +305,12 @@ public class StubHttpLifecycle implements ReflectableStub {
             return this;
         }
 
+        public Builder withYamlSource(final YamlSource yamlSource) {
+            this.yamlSource = yamlSource;
+
+            return this;
+        }
+
         public Builder withResourceId(final int resourceId) {
             getResponses().forEach(response -> response.addResourceIDHeader(resourceId));
 
@@ -268,13 +331,14 @@ public class StubHttpLifecycle implements ReflectableStub {
 
         public StubHttpLifecycle build() {
             final StubHttpLifecycle stubHttpLifecycle = new StubHttpLifecycle(
-                    request, response, requestAsYAML, responseAsYAML, completeYAML, description, uuid);
+                    request, response, requestAsYAML, responseAsYAML, completeYAML, yamlSource, description, uuid);
 
             this.request = null;
             this.response = okResponse();
             this.completeYAML = null;
             this.requestAsYAML = null;
             this.responseAsYAML = null;
+            this.yamlSource = null;
             this.description = null;
             this.uuid = null;
 
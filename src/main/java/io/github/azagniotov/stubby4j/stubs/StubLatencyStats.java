@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+/**
+ * Percentiles of how long it took to match and to serve the requests to a stub, and of how many loaded stubs were
+ * evaluated before the stub matched, since the stub was first hit
+ *
+ * @see StubRepository#getLatencyStats(StubHttpLifecycle)
+ */
+public final class StubLatencyStats {
+
+    private final Percentiles matchTimeMicros;
+    private final Percentiles matchCandidates;
+    private final Percentiles serviceTimeMicros;
+
+    StubLatencyStats(
+            final Percentiles matchTimeMicros, final Percentiles matchCandidates, final Percentiles serviceTimeMicros) {
+        this.matchTimeMicros = matchTimeMicros;
+        this.matchCandidates = matchCandidates;
+        this.serviceTimeMicros = serviceTimeMicros;
+    }
+
+    /**
+     * @return time it took to find the stub among the loaded stubs, including waiting for the repository lock
+     */
+    public Percentiles getMatchTimeMicros() {
+        return matchTimeMicros;
+    }
+
+    /**
+     * @return number of the loaded stubs evaluated to find the stub, which is zero when the match was cached
+     */
+    public Percentiles getMatchCandidates() {
+        return matchCandidates;
+    }
+
+    /**
+     * @return time it took to handle the requests to the stub, from the start of matching until the stubbed response
+     * was written, including the stubbed latency
+     */
+    public Percentiles getServiceTimeMicros() {
+        return serviceTimeMicros;
+    }
+
+    public static final class Percentiles {
+
+        private final long count;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+
+        Percentiles(final long count, final long p50, final long p90, final long p99, final long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50 %s, p90 %s, p99 %s, max %s (%s samples)", p50, p90, p99, max, count);
+        }
+    }
+}
@@ -167,6 +167,15 @@ class StubMatcher {
         return true;
     }
 
+    /**
+     * Checks only the URL and the HTTP method(s) of the stubbed request, i.e.: what is matched before the request
+     * body, without logging the outcome
+     */
+    boolean urlAndMethodMatch(final StubRequest stubbedRequest, final StubRequest assertingRequest) {
+        return urlsMatch(stubbedRequest.getUri(), assertingRequest.getUri())
+                && listsIntersect(stubbedRequest.getMethod(), assertingRequest.getMethod());
+    }
+
     private boolean urlsMatch(final String stubbedUrl, final String assertingUrl) {
         return stringsMatch(stubbedUrl, assertingUrl, URL.toString());
     }
@@ -183,7 +192,7 @@ class StubMatcher {
                 return false;
             }
 
-            final String assertingContentType = assertingRequest.getHeaders().get("content-type");
+            final String assertingContentType = assertingRequest.getHeaders().get(StubRequest.HTTP_HEADER_CONTENT_TYPE);
 
             if (isSet(assertingContentType)) {
                 final Matcher matcher = SUB_TYPE_PATTERN.matcher(assertingContentType);
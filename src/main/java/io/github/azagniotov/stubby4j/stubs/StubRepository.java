@@ -25,6 +25,7 @@ import static io.github.azagniotov.stubby4j.utils.CollectionUtils.constructParam
 import static io.github.azagniotov.stubby4j.utils.ConsoleUtils.logAssertingRequest;
 import static io.github.azagniotov.stubby4j.utils.HandlerUtils.extractPostRequestBody;
 import static io.github.azagniotov.stubby4j.utils.ObjectUtils.isNotNull;
+import static io.github.azagniotov.stubby4j.utils.ObjectUtils.isNull;
 import static io.github.azagniotov.stubby4j.utils.ReflectionUtils.injectObjectFields;
 import static io.github.azagniotov.stubby4j.utils.StringUtils.isSet;
 import static io.github.azagniotov.stubby4j.utils.StringUtils.toLower;
@@ -38,17 +39,23 @@ import io.github.azagniotov.stubby4j.client.StubbyResponse;
 import io.github.azagniotov.stubby4j.http.StubbyHttpTransport;
 import io.github.azagniotov.stubby4j.stubs.proxy.StubProxyConfig;
 import io.github.azagniotov.stubby4j.stubs.websocket.StubWebSocketConfig;
+import io.github.azagniotov.stubby4j.utils.ConsoleUtils;
 import io.github.azagniotov.stubby4j.utils.FileUtils;
 import io.github.azagniotov.stubby4j.utils.ObjectUtils;
 import io.github.azagniotov.stubby4j.utils.StringUtils;
+import io.github.azagniotov.stubby4j.yaml.IncludedYaml;
 import io.github.azagniotov.stubby4j.yaml.YamlParseResultSet;
 import io.github.azagniotov.stubby4j.yaml.YamlParser;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -58,7 +65,13 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import org.eclipse.jetty.http.HttpStatus;
 import org.slf4j.Logger;
@@ -67,12 +80,17 @@ import org.slf4j.LoggerFactory;
 public class StubRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(StubRepository.class);
 
+    // When the cache is a no-op, the incoming request hashCode is not computed at all
+    private static final String NO_OP_CACHE_KEY = "";
+    private static final String RESOURCE_STATS_CSV_HEADER = "resource_id,hits,hits_last_second,hits_last_minute";
+
     private final File configFile;
 
-    private final List<StubHttpLifecycle> stubs;
+    private final StubSlots stubs;
     private final Cache<String, StubHttpLifecycle> stubMatchesCache;
 
-    private final ConcurrentHashMap<String, AtomicLong> resourceStats;
+    // Hits of the loaded stubs, keyed by their stable stub ID, so that they follow a stub whose resource ID changes
+    private final StubHitCounters hitCounters;
     private final ConcurrentHashMap<String, StubHttpLifecycle> uuidToStub;
     private final ConcurrentHashMap<String, StubProxyConfig> proxyConfigs;
     private final ConcurrentHashMap<String, StubWebSocketConfig> webSocketConfigs;
@@ -80,20 +98,42 @@ public class StubRepository {
     private final CompletableFuture<YamlParseResultSet> stubLoadComputation;
     private final StubbyHttpTransport stubbyHttpTransport;
 
+    // The repository lock. Not the object monitor, as a virtual thread blocked on a monitor pins its carrier
+    // thread, see --virtual_threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Serializes the reloads, i.e.: parsing a YAML config without the repository lock and then activating it, so
+    // that a config parsed earlier cannot be activated after a config parsed later. Taken before the repository lock
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Lower-cased names of the incoming request headers that can ever be looked at by the loaded stubs.
+    // When null, all incoming request headers are captured, e.g.: when requests may be proxied as-is
+    private volatile Set<String> capturedHeaderNames;
+
+    // Reverse index from the absolute path of an external file to the stubs referencing it. Built lazily on the
+    // first external file change, and dropped whenever the loaded stubs change. Guarded by the repository lock
+    private Map<String, List<StubHttpLifecycle>> externalFileIndex;
+
+    // What was loaded from each of the YAMLs included from the main YAML, in the order of the includes.
+    // Empty when the loaded stubs did not come from included YAMLs only. Guarded by the repository lock
+    private List<IncludedYaml> includedYamls;
+
     public StubRepository(
             final File configFile,
             final Cache<String, StubHttpLifecycle> stubMatchesCache,
             final CompletableFuture<YamlParseResultSet> stubLoadComputation,
             final StubbyHttpTransport stubbyHttpTransport) {
-        this.stubs = new ArrayList<>();
+        this.stubs = new StubSlots();
         this.uuidToStub = new ConcurrentHashMap<>();
         this.proxyConfigs = new ConcurrentHashMap<>();
         this.webSocketConfigs = new ConcurrentHashMap<>();
         this.configFile = configFile;
         this.stubLoadComputation = stubLoadComputation;
         this.stubbyHttpTransport = stubbyHttpTransport;
-        this.resourceStats = new ConcurrentHashMap<>();
+        this.hitCounters = new StubHitCounters();
         this.stubMatchesCache = stubMatchesCache;
+        this.includedYamls = new ArrayList<>();
+        indexCapturedHeaderNames();
     }
 
     private static void logMatch(final String typeDescription, long elapsed, StubHttpLifecycle matched) {
@@ -121,11 +161,34 @@ public class StubRepository {
         final StubRequest assertionStubRequest = this.toStubRequest(incomingRequest);
         logAssertingRequest(assertionStubRequest);
 
-        final StubResponse match = findMatch(new StubHttpLifecycle.Builder()
+        final StubHttpLifecycle incomingHttpLifecycle = new StubHttpLifecycle.Builder()
                 .withRequest(assertionStubRequest)
-                .build());
+                .build();
+        final long matchStartNanos = System.nanoTime();
+        final Optional<StubHttpLifecycle> matchedStubOptional = matchStub(incomingHttpLifecycle);
+        final long matchTimeNanos = System.nanoTime() - matchStartNanos;
+        final StubResponse match = findMatch(incomingHttpLifecycle, matchedStubOptional, matchTimeNanos);
+        if (!matchedStubOptional.isPresent() && isNotNull(this.capturedHeaderNames)) {
+            // Only the headers referenced by the loaded stubs were captured for matching,
+            // but the 404 diagnostics list all the headers of the incoming request
+            captureAllHeaders(incomingRequest, assertionStubRequest::addHeader);
+        }
+
+        return new StubSearchResult(assertionStubRequest, match, matchedStubOptional.orElse(null));
+    }
 
-        return new StubSearchResult(assertionStubRequest, match);
+    /**
+     * Records how long it took to serve the stubbed response found by the given search, if a stub was matched
+     *
+     * @param stubSearchResult  search that found the stubbed response
+     * @param serviceTimeNanos  time it took to match the stub and to write out its stubbed response
+     * @see #getLatencyStats(StubHttpLifecycle)
+     */
+    public void recordServiceTime(final StubSearchResult stubSearchResult, final long serviceTimeNanos) {
+        final StubHttpLifecycle matchedStub = stubSearchResult.getMatchedStub();
+        if (ObjectUtils.isNotNull(matchedStub)) {
+            hitCounters.recordServiceTime(matchedStub.getStubId(), TimeUnit.NANOSECONDS.toMicros(serviceTimeNanos));
+        }
     }
 
     /**
@@ -137,24 +200,42 @@ public class StubRepository {
     public StubRequest toStubRequest(final HttpServletRequest request) throws IOException {
         final StubRequest.Builder builder = new StubRequest.Builder();
         builder.withUrl(request.getPathInfo())
-                .withPost(extractPostRequestBody(request, "stubs"))
+                .withLazyPost(() -> extractPostRequestBody(request, "stubs"))
                 .withMethod(request.getMethod());
 
-        final Enumeration<String> headerNamesEnumeration = request.getHeaderNames();
-        final List<String> headerNames =
-                isNotNull(headerNamesEnumeration) ? list(request.getHeaderNames()) : new LinkedList<>();
-        for (final String headerName : headerNames) {
-            final String headerValue = request.getHeader(headerName);
-
-            builder.withHeader(toLower(headerName), headerValue);
+        // The debug request dump shows all the headers of the incoming request
+        final Set<String> headerNamesToCapture = ConsoleUtils.isDebug() ? null : this.capturedHeaderNames;
+        if (isNull(headerNamesToCapture)) {
+            captureAllHeaders(request, builder::withHeader);
+        } else {
+            // Header lookup by name is case-insensitive, so only the headers of interest are materialized
+            for (final String headerName : headerNamesToCapture) {
+                final String headerValue = request.getHeader(headerName);
+                if (isNotNull(headerValue)) {
+                    builder.withHeader(headerName, headerValue);
+                }
+            }
         }
 
         return builder.withQuery(constructParamMap(request.getQueryString())).build();
     }
 
-    private StubResponse findMatch(final StubHttpLifecycle incomingHttpLifecycle) {
+    private static void captureAllHeaders(
+            final HttpServletRequest request, final BiConsumer<String, String> headerConsumer) {
+        final Enumeration<String> headerNamesEnumeration = request.getHeaderNames();
+        if (isNull(headerNamesEnumeration)) {
+            return;
+        }
+
+        for (final String headerName : list(headerNamesEnumeration)) {
+            headerConsumer.accept(toLower(headerName), request.getHeader(headerName));
+        }
+    }
 
-        final Optional<StubHttpLifecycle> matchedStubOptional = matchStub(incomingHttpLifecycle);
+    private StubResponse findMatch(
+            final StubHttpLifecycle incomingHttpLifecycle,
+            final Optional<StubHttpLifecycle> matchedStubOptional,
+            final long matchTimeNanos) {
         if (!matchedStubOptional.isPresent()) {
             if (!proxyConfigs.isEmpty()) {
                 return proxyRequest(incomingHttpLifecycle);
@@ -164,9 +245,8 @@ public class StubRepository {
         }
 
         final StubHttpLifecycle matchedStub = matchedStubOptional.get();
-        final String resourceId = matchedStub.getResourceId();
-        resourceStats.putIfAbsent(resourceId, new AtomicLong(0));
-        resourceStats.get(resourceId).incrementAndGet();
+        hitCounters.recordHit(matchedStub.getStubId());
+        hitCounters.recordMatchTime(matchedStub.getStubId(), TimeUnit.NANOSECONDS.toMicros(matchTimeNanos));
 
         final StubResponse matchedStubResponse = matchedStub.getResponse(true);
         if (matchedStub.isAuthorizationRequired() && matchedStub.isIncomingRequestUnauthorized(incomingHttpLifecycle)) {
@@ -199,6 +279,8 @@ public class StubRepository {
      * {@link StubHttpLifecycle request} is compared to every {@link StubHttpLifecycle element} in the list of loaded
      * stubs using their natural order (i.e.: the order in which the stubs were defined in the YAML).
      * <p>
+     * The body of the incoming request is read only once the matching gets to a stub that needs it, and the lock is
+     * released while the body is being read, see {@link #matchAll(StubHttpLifecycle, String, long)}.
      *
      * @param incomingStub {@link StubHttpLifecycle}
      * @return an {@link Optional} describing {@link StubHttpLifecycle} match, or an empty {@link Optional} if there was no match.
@@ -207,31 +289,40 @@ public class StubRepository {
      * @see StubRequest#equals(Object)
      * @see StubMatcher#matches(StubRequest, StubRequest)
      */
-    private synchronized Optional<StubHttpLifecycle> matchStub(final StubHttpLifecycle incomingStub) {
-
-        final long initialStart = System.currentTimeMillis();
-
-        final String incomingRequestHashCode = String.valueOf(incomingStub.hashCode());
-        final Optional<StubHttpLifecycle> cachedMatchCandidateOptional = stubMatchesCache.get(incomingRequestHashCode);
-
-        // TODO BUG: When stubs are cached, upon finding the previously cached match by hashCode,
-        // if stubbed response has template tokens for dynamic token replacement, the tokens are
-        // not replaced with values from the incoming request because the cached stub is not going
-        // through the same matching process like upon the first match. Either fix this bug or just
-        // deprecate the stub caching all together, as it is causing more headaches than not.
-        // Also, deprecate the --disable_stub_caching command line flag if the caching has retired.
-        return cachedMatchCandidateOptional
-                .map(cachedMatchCandidate -> {
-                    ANSITerminal.loaded(
-                            String.format("Local cache contains a match for hashCode [%s]", incomingRequestHashCode));
-                    LOGGER.debug("Local cache contains a match for hashCode [{}].", incomingRequestHashCode);
-
-                    final long elapsed = System.currentTimeMillis() - initialStart;
-                    logMatch("stubbed match in cache (i.e.: repeated request)", elapsed, cachedMatchCandidate);
-
-                    return Optional.of(cachedMatchCandidate);
-                })
-                .orElseGet(() -> matchAll(incomingStub, initialStart));
+    private Optional<StubHttpLifecycle> matchStub(final StubHttpLifecycle incomingStub) {
+        lock.lock();
+        try {
+            final long initialStart = System.currentTimeMillis();
+
+            final String incomingRequestHashCode = toStubMatchesCacheKey(incomingStub);
+            final Optional<StubHttpLifecycle> cachedMatchCandidateOptional =
+                    stubMatchesCache.get(incomingRequestHashCode);
+
+            // TODO BUG: When stubs are cached, upon finding the previously cached match by hashCode,
+            // if stubbed response has template tokens for dynamic token replacement, the tokens are
+            // not replaced with values from the incoming request because the cached stub is not going
+            // through the same matching process like upon the first match. Either fix this bug or just
+            // deprecate the stub caching all together, as it is causing more headaches than not.
+            // Also, deprecate the --disable_stub_caching command line flag if the caching has retired.
+            final Optional<StubHttpLifecycle> matchedStubOptional = cachedMatchCandidateOptional
+                    .map(cachedMatchCandidate -> {
+                        ANSITerminal.loaded(String.format(
+                                "Local cache contains a match for hashCode [%s]", incomingRequestHashCode));
+                        LOGGER.debug("Local cache contains a match for hashCode [{}].", incomingRequestHashCode);
+
+                        final long elapsed = System.currentTimeMillis() - initialStart;
+                        logMatch("stubbed match in cache (i.e.: repeated request)", elapsed, cachedMatchCandidate);
+                        hitCounters.recordMatchCandidates(cachedMatchCandidate.getStubId(), 0);
+
+                        return Optional.of(cachedMatchCandidate);
+                    })
+                    .orElseGet(() -> matchAll(incomingStub, incomingRequestHashCode, initialStart));
+            matchedStubOptional.ifPresent(stubs::refreshResourceId);
+
+            return matchedStubOptional;
+        } finally {
+            lock.unlock();
+        }
     }
 
     private StubResponse proxyRequest(final StubHttpLifecycle incomingHttpLifecycle) {
@@ -319,17 +410,53 @@ public class StubRepository {
         }
     }
 
-    private Optional<StubHttpLifecycle> matchAll(final StubHttpLifecycle incomingStub, final long initialStart) {
-        for (final StubHttpLifecycle stubbed : stubs) {
+    /**
+     * Matches the incoming request to the loaded stubs in their display order. When the matching gets to a stub,
+     * whose URL and method(s) match and which matches on the request body, the body of the incoming request is read
+     * with the lock released, as reading it may block on the network. Then the matching resumes from that stub, or
+     * starts over if the loaded stubs changed in the meantime. So a request, which does not get to such a stub, is
+     * never read at all.
+     * <p>
+     * Must be called holding the lock exactly once.
+     */
+    private Optional<StubHttpLifecycle> matchAll(
+            final StubHttpLifecycle incomingStub, final String incomingRequestHashCode, final long initialStart) {
+        final StubRequest incomingRequest = incomingStub.getRequest();
+        String stubMatchesCacheKey = incomingRequestHashCode;
+        int matchCandidates = 0;
+        Iterator<StubHttpLifecycle> stubsIterator = stubs.iterator();
+        while (stubsIterator.hasNext()) {
+            final StubHttpLifecycle stubbed = stubsIterator.next();
+            if (incomingRequest.isPostNeededToMatch(stubbed.getRequest())) {
+                final int modificationCount = stubs.getModificationCount();
+                lock.unlock();
+                try {
+                    incomingRequest.resolveLazyPost();
+                } finally {
+                    lock.lock();
+                }
+
+                // The read body is a part of the request hashCode, the match must be cached under the new one
+                stubMatchesCacheKey = toStubMatchesCacheKey(incomingStub);
+                if (stubs.getModificationCount() == modificationCount) {
+                    stubsIterator = stubs.iteratorFrom(stubbed);
+                } else {
+                    stubsIterator = stubs.iterator();
+                    matchCandidates = 0;
+                }
+                continue;
+            }
+
+            matchCandidates++;
             if (incomingStub.equals(stubbed)) {
                 final long elapsed = System.currentTimeMillis() - initialStart;
                 logMatch("stubbed match", elapsed, stubbed);
+                hitCounters.recordMatchCandidates(stubbed.getStubId(), matchCandidates);
 
-                final String incomingRequestHashCode = String.valueOf(incomingStub.hashCode());
                 // ANSITerminal.status(String.format("Caching the found match for hashCode [%s]",
                 // incomingRequestHashCode));
                 // LOGGER.debug("Caching the found match for hashCode [{}].", incomingRequestHashCode);
-                stubMatchesCache.putIfAbsent(incomingRequestHashCode, stubbed);
+                stubMatchesCache.putIfAbsent(stubMatchesCacheKey, stubbed);
 
                 return Optional.of(stubbed);
             }
@@ -338,52 +465,112 @@ public class StubRepository {
         return Optional.empty();
     }
 
-    public synchronized Optional<StubHttpLifecycle> matchStubByIndex(final int index) {
-        if (!canMatchStubByIndex(index)) {
-            return Optional.empty();
+    private String toStubMatchesCacheKey(final StubHttpLifecycle incomingStub) {
+        return stubMatchesCache.isNoOp() ? NO_OP_CACHE_KEY : String.valueOf(incomingStub.hashCode());
+    }
+
+    public Optional<StubHttpLifecycle> matchStubByIndex(final int index) {
+        lock.lock();
+        try {
+            if (!canMatchStubByIndex(index)) {
+                return Optional.empty();
+            }
+            final StubHttpLifecycle matchedStub = stubs.get(index);
+            stubs.refreshResourceId(matchedStub);
+
+            return Optional.of(matchedStub);
+        } finally {
+            lock.unlock();
         }
-        return Optional.of(stubs.get(index));
     }
 
-    public synchronized StubProxyConfig matchProxyConfigByName(final String proxyConfigUniqueName) {
-        return proxyConfigs.get(proxyConfigUniqueName);
+    public StubProxyConfig matchProxyConfigByName(final String proxyConfigUniqueName) {
+        lock.lock();
+        try {
+            return proxyConfigs.get(proxyConfigUniqueName);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized StubWebSocketConfig matchWebSocketConfigByUrl(final String webSocketConfigUniqueUrl) {
-        return webSocketConfigs.get(webSocketConfigUniqueUrl);
+    public StubWebSocketConfig matchWebSocketConfigByUrl(final String webSocketConfigUniqueUrl) {
+        lock.lock();
+        try {
+            return webSocketConfigs.get(webSocketConfigUniqueUrl);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    synchronized boolean resetStubsCache(final YamlParseResultSet yamlParseResultSet) {
-        this.stubMatchesCache.clear();
-        this.stubs.clear();
-        this.uuidToStub.clear();
-        this.proxyConfigs.clear();
-        this.webSocketConfigs.clear();
+    /**
+     * Activates the given, already parsed, stubs in place of the loaded ones. The given stubs are validated
+     * before anything is changed, so on failure the loaded stubs keep serving the requests
+     */
+    boolean resetStubsCache(final YamlParseResultSet yamlParseResultSet) {
+        lock.lock();
+        try {
+            validateProxyConfigs(yamlParseResultSet.getProxyConfigs());
 
-        final boolean addedStubs = this.stubs.addAll(yamlParseResultSet.getStubs());
-        if (addedStubs) {
             this.stubMatchesCache.clear();
-            updateResourceIDHeaders();
-            this.uuidToStub.putAll(yamlParseResultSet.getUuidToStubs());
-        }
+            this.stubs.clear();
+            this.uuidToStub.clear();
+            this.proxyConfigs.clear();
+            this.webSocketConfigs.clear();
 
-        loadProxyConfigsWithOptionalThrow(yamlParseResultSet);
+            this.hitCounters.clear();
 
-        this.webSocketConfigs.putAll(yamlParseResultSet.getWebSocketConfigs());
+            this.stubs.addAll(yamlParseResultSet.getStubs());
+            final boolean addedStubs = !this.stubs.isEmpty();
+            if (addedStubs) {
+                this.stubMatchesCache.clear();
+                this.uuidToStub.putAll(yamlParseResultSet.getUuidToStubs());
+            }
+
+            this.proxyConfigs.putAll(yamlParseResultSet.getProxyConfigs());
+
+            this.webSocketConfigs.putAll(yamlParseResultSet.getWebSocketConfigs());
+            indexCapturedHeaderNames();
+            this.externalFileIndex = null;
+            this.includedYamls = yamlParseResultSet.getIncludedYamls();
 
-        return addedStubs;
+            return addedStubs;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized void refreshStubsFromYamlConfig(final YamlParser yamlParser) throws Exception {
-        resetStubsCache(yamlParser.parse(this.configFile.getParent(), configFile));
+    /**
+     * Parses the YAML config without holding the repository lock, i.e.: while the loaded stubs keep serving the
+     * requests, and only then activates the parsed stubs. By the time the stubs are parsed, their regex patterns
+     * are compiled and their external files are loaded, so the activation itself is a quick swap.
+     * <p>
+     * The reloads run one at a time, so the config activated last is always the one parsed last.
+     *
+     * @param yamlParser parser of the YAML config
+     * @throws Exception when the YAML config cannot be parsed, in which case the loaded stubs remain untouched
+     */
+    public void refreshStubsFromYamlConfig(final YamlParser yamlParser) throws Exception {
+        reloadLock.lock();
+        try {
+            resetStubsCache(yamlParser.parse(this.configFile.getParent(), configFile));
+        } finally {
+            reloadLock.unlock();
+        }
     }
 
-    public synchronized void refreshStubsByPost(final YamlParser yamlParser, final String postPayload)
-            throws Exception {
-        resetStubsCache(yamlParser.parse(this.configFile.getParent(), postPayload));
+    /**
+     * @see #refreshStubsFromYamlConfig(YamlParser)
+     */
+    public void refreshStubsByPost(final YamlParser yamlParser, final String postPayload) throws Exception {
+        reloadLock.lock();
+        try {
+            resetStubsCache(yamlParser.parse(this.configFile.getParent(), postPayload));
+        } finally {
+            reloadLock.unlock();
+        }
     }
 
-    public synchronized String refreshStubByIndex(final YamlParser yamlParser, final String putPayload, final int index)
+    public String refreshStubByIndex(final YamlParser yamlParser, final String putPayload, final int index)
             throws Exception {
         final YamlParseResultSet yamlParseResultSet = yamlParser.parse(this.configFile.getParent(), putPayload);
         final StubHttpLifecycle newStub = yamlParseResultSet.getStubs().get(0);
@@ -392,7 +579,7 @@ public class StubRepository {
         return newStub.getUrl();
     }
 
-    public synchronized String refreshStubByUuid(
+    public String refreshStubByUuid(
             final YamlParser yamlParser, final String putPayload, final String uuid) throws Exception {
         final YamlParseResultSet yamlParseResultSet = yamlParser.parse(this.configFile.getParent(), putPayload);
         final StubHttpLifecycle newStub = yamlParseResultSet.getStubs().get(0);
@@ -401,7 +588,7 @@ public class StubRepository {
         return newStub.getUrl();
     }
 
-    public synchronized String refreshProxyConfigByUuid(
+    public String refreshProxyConfigByUuid(
             final YamlParser yamlParser, final String putPayload, final String uuid) throws Exception {
         final YamlParseResultSet yamlParseResultSet = yamlParser.parse(this.configFile.getParent(), putPayload);
         final StubProxyConfig newStubProxyConfig =
@@ -411,9 +598,158 @@ public class StubRepository {
         return newStubProxyConfig.getPropertyEndpoint();
     }
 
+    /**
+     * Parses the given YAML payload without holding the repository lock, and adds the parsed stubs, proxy configs
+     * and web socket configs to the loaded ones. Unlike {@link #refreshStubsByPost(YamlParser, String)}, the loaded
+     * stubs are left as they are, so the cost of this call depends on the size of the payload only.
+     *
+     * @return the appended stubs, in the order they were declared in the payload
+     * @throws IllegalArgumentException when a stub or proxy config UUID, or a web socket config URL, in the
+     *                                  payload is already loaded. In which case nothing is appended
+     * @see #upsertStubsByPost(YamlParser, String)
+     */
+    public List<StubHttpLifecycle> appendStubsByPost(final YamlParser yamlParser, final String postPayload)
+            throws Exception {
+        return appendStubs(yamlParser.parse(this.configFile.getParent(), postPayload), false);
+    }
+
+    /**
+     * Same as {@link #appendStubsByPost(YamlParser, String)}, except that a stub whose UUID is already loaded
+     * replaces the loaded stub in its place, and so do proxy configs and web socket configs that are already
+     * loaded under the same UUID or URL.
+     *
+     * @return the upserted stubs, in the order they were declared in the payload
+     */
+    public List<StubHttpLifecycle> upsertStubsByPost(final YamlParser yamlParser, final String postPayload)
+            throws Exception {
+        return appendStubs(yamlParser.parse(this.configFile.getParent(), postPayload), true);
+    }
+
+    List<StubHttpLifecycle> appendStubs(
+            final YamlParseResultSet yamlParseResultSet, final boolean replaceLoaded) {
+        lock.lock();
+        try {
+            final List<StubHttpLifecycle> newStubs = yamlParseResultSet.getStubs();
+            if (!replaceLoaded) {
+                checkNotLoaded(yamlParseResultSet);
+            }
+
+            final Map<String, StubProxyConfig> mergedProxyConfigs = new HashMap<>(this.proxyConfigs);
+            mergedProxyConfigs.putAll(yamlParseResultSet.getProxyConfigs());
+            validateProxyConfigs(mergedProxyConfigs);
+
+            boolean replacedStubs = false;
+            for (final StubHttpLifecycle newStub : newStubs) {
+                final StubHttpLifecycle loadedStub =
+                        StringUtils.isSet(newStub.getUUID()) ? uuidToStub.get(newStub.getUUID()) : null;
+                if (ObjectUtils.isNotNull(loadedStub)) {
+                    final StubHttpLifecycle replacedStub = stubs.set(stubs.indexOf(loadedStub), newStub);
+                    hitCounters.remove(replacedStub.getStubId());
+                    replacedStubs = true;
+                } else {
+                    stubs.add(newStub);
+                }
+                stubs.refreshResourceId(newStub);
+
+                if (StringUtils.isSet(newStub.getUUID())) {
+                    uuidToStub.put(newStub.getUUID(), newStub);
+                }
+            }
+
+            if (replacedStubs) {
+                // Cached matches may point to the replaced stubs. Whereas the appended stubs come after the loaded
+                // ones, so they can never take over a cached match
+                this.stubMatchesCache.clear();
+            }
+
+            this.proxyConfigs.putAll(yamlParseResultSet.getProxyConfigs());
+            this.webSocketConfigs.putAll(yamlParseResultSet.getWebSocketConfigs());
+            indexCapturedHeaderNames(newStubs);
+            this.externalFileIndex = null;
+            // The stubs no longer line up with the included YAMLs they were loaded from
+            this.includedYamls = new ArrayList<>();
+
+            return newStubs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotLoaded(final YamlParseResultSet yamlParseResultSet) {
+        for (final String uuid : yamlParseResultSet.getUuidToStubs().keySet()) {
+            if (uuidToStub.containsKey(uuid)) {
+                throw new IllegalArgumentException(
+                        String.format("Stub request uuid#%s already exists, cannot append", uuid));
+            }
+        }
+
+        for (final String uuid : yamlParseResultSet.getProxyConfigs().keySet()) {
+            if (proxyConfigs.containsKey(uuid)) {
+                throw new IllegalArgumentException(
+                        String.format("Proxy config uuid#%s already exists, cannot append", uuid));
+            }
+        }
+
+        for (final String url : yamlParseResultSet.getWebSocketConfigs().keySet()) {
+            if (webSocketConfigs.containsKey(url)) {
+                throw new IllegalArgumentException(
+                        String.format("Web socket config url#%s already exists, cannot append", url));
+            }
+        }
+    }
+
     // Just a shallow copy that protects collection from modification, the points themselves are not copied
     public List<StubHttpLifecycle> getStubs() {
-        return new LinkedList<>(stubs);
+        lock.lock();
+        try {
+            final List<StubHttpLifecycle> loadedStubs = stubs.toList();
+            loadedStubs.forEach(stubs::refreshResourceId);
+
+            return new LinkedList<>(loadedStubs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Same as {@link #getStubs()}, but only copies out one page of the loaded stubs that pass the given filter,
+     * so listing a few stubs does not cost a copy of all of them
+     *
+     * @param filter which of the loaded stubs to list
+     * @param offset how many of the stubs that pass the filter to skip
+     * @param limit  maximum number of the stubs to list
+     * @return the requested page, which is empty when the offset is past the last stub that passed the filter
+     */
+    public StubsPage getStubsPage(
+            final Predicate<StubHttpLifecycle> filter, final int offset, final int limit) {
+        lock.lock();
+        try {
+            final List<StubHttpLifecycle> pageStubs = new ArrayList<>(Math.min(limit, stubs.size()));
+            int totalCount = 0;
+            for (final StubHttpLifecycle stub : stubs) {
+                if (!filter.test(stub)) {
+                    continue;
+                }
+                if (totalCount >= offset && pageStubs.size() < limit) {
+                    stubs.refreshResourceId(stub);
+                    pageStubs.add(stub);
+                }
+                totalCount++;
+            }
+
+            return new StubsPage(pageStubs, offset, limit, totalCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getStubsCount() {
+        lock.lock();
+        try {
+            return stubs.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     public Map<String, StubProxyConfig> getProxyConfigs() {
@@ -422,39 +758,414 @@ public class StubRepository {
 
     // Just a shallow copy that protects collection from modification, the points themselves are not copied
     public ConcurrentHashMap<String, AtomicLong> getResourceStats() {
-        return new ConcurrentHashMap<>(resourceStats);
+        final ConcurrentHashMap<String, AtomicLong> resourceIdToHits = new ConcurrentHashMap<>();
+        for (final Map.Entry<String, StubHitCounters.HitCounts> entry : snapshotResourceStats()) {
+            resourceIdToHits.put(entry.getKey(), new AtomicLong(entry.getValue().getHits()));
+        }
+
+        return resourceIdToHits;
+    }
+
+    public boolean hasResourceStats() {
+        return !hitCounters.isEmpty();
     }
 
     public String getResourceStatsAsCsv() {
-        final String csvNoHeader = resourceStats
-                .toString()
-                .replaceAll("\\{|\\}", "")
-                .replaceAll(", ", FileUtils.BR)
-                .replaceAll("=", ",");
-        return String.format("resourceId,hits%s%s", FileUtils.BR, csvNoHeader);
+        final StringBuilder builder = new StringBuilder("resourceId,hits").append(FileUtils.BR);
+        final List<Map.Entry<String, StubHitCounters.HitCounts>> resourceStats = snapshotResourceStats();
+        for (int idx = 0; idx < resourceStats.size(); idx++) {
+            final Map.Entry<String, StubHitCounters.HitCounts> entry = resourceStats.get(idx);
+            builder.append(idx == 0 ? "" : FileUtils.BR)
+                    .append(entry.getKey())
+                    .append(',')
+                    .append(entry.getValue().getHits());
+        }
+
+        return builder.toString();
     }
 
-    public synchronized String getOnlyStubRequestUrl() {
-        return stubs.get(0).getUrl();
+    /**
+     * Writes out the hits of the loaded stubs that were hit at least once, in their display order, as CSV. Besides
+     * the total, the hits of the last complete second and of the last {@value StubHitCounters#WINDOW_SECONDS}
+     * complete seconds are written. The hits are read under the repository lock, but written outside of it.
+     *
+     * @param writer where to write the CSV to
+     */
+    public void writeResourceStatsCsv(final Writer writer) throws IOException {
+        writer.write(RESOURCE_STATS_CSV_HEADER);
+        writer.write(FileUtils.BR);
+        for (final Map.Entry<String, StubHitCounters.HitCounts> entry : snapshotResourceStats()) {
+            final StubHitCounters.HitCounts hitCounts = entry.getValue();
+            writer.write(entry.getKey());
+            writer.write(',');
+            writer.write(String.valueOf(hitCounts.getHits()));
+            writer.write(',');
+            writer.write(String.valueOf(hitCounts.getHitsInLastSecond()));
+            writer.write(',');
+            writer.write(String.valueOf(hitCounts.getHitsInLastMinute()));
+            writer.write(FileUtils.BR);
+        }
+    }
+
+    /**
+     * Same as {@link #writeResourceStatsCsv(Writer)}, but writes out a JSON array
+     *
+     * @param writer where to write the JSON to
+     */
+    public void writeResourceStatsJson(final Writer writer) throws IOException {
+        final List<Map.Entry<String, StubHitCounters.HitCounts>> resourceStats = snapshotResourceStats();
+        writer.write('[');
+        for (int idx = 0; idx < resourceStats.size(); idx++) {
+            final StubHitCounters.HitCounts hitCounts = resourceStats.get(idx).getValue();
+            writer.write(idx == 0 ? FileUtils.BR : "," + FileUtils.BR);
+            writer.write("{\"resource_id\":");
+            writer.write(resourceStats.get(idx).getKey());
+            writer.write(",\"hits\":");
+            writer.write(String.valueOf(hitCounts.getHits()));
+            writer.write(",\"hits_last_second\":");
+            writer.write(String.valueOf(hitCounts.getHitsInLastSecond()));
+            writer.write(",\"hits_last_minute\":");
+            writer.write(String.valueOf(hitCounts.getHitsInLastMinute()));
+            writer.write('}');
+        }
+        writer.write(FileUtils.BR);
+        writer.write(']');
+        writer.write(FileUtils.BR);
+    }
+
+    /**
+     * @return latency stats of the given loaded stub, or an empty {@link Optional} if the stub was not hit yet
+     */
+    public Optional<StubLatencyStats> getLatencyStats(final StubHttpLifecycle stub) {
+        return Optional.ofNullable(hitCounters.getLatencyStats(stub.getStubId()));
+    }
+
+    /**
+     * Writes out the latency stats of the loaded stubs that were hit at least once, in their display order, as a
+     * JSON array. The stats are read under the repository lock, but written outside of it.
+     *
+     * @param writer where to write the JSON to
+     * @see StubLatencyStats
+     */
+    public void writeLatencyStatsJson(final Writer writer) throws IOException {
+        final List<Map.Entry<String, StubLatencyStats>> latencyStats =
+                snapshotStatsOfHitStubs(hitCounters::getLatencyStats);
+        writer.write('[');
+        for (int idx = 0; idx < latencyStats.size(); idx++) {
+            final StubLatencyStats stubLatencyStats = latencyStats.get(idx).getValue();
+            writer.write(idx == 0 ? FileUtils.BR : "," + FileUtils.BR);
+            writer.write("{\"resource_id\":");
+            writer.write(latencyStats.get(idx).getKey());
+            writer.write(",\"match_time_micros\":");
+            writePercentilesJson(stubLatencyStats.getMatchTimeMicros(), writer);
+            writer.write(",\"match_candidates\":");
+            writePercentilesJson(stubLatencyStats.getMatchCandidates(), writer);
+            writer.write(",\"service_time_micros\":");
+            writePercentilesJson(stubLatencyStats.getServiceTimeMicros(), writer);
+            writer.write('}');
+        }
+        writer.write(FileUtils.BR);
+        writer.write(']');
+        writer.write(FileUtils.BR);
+    }
+
+    private static void writePercentilesJson(final StubLatencyStats.Percentiles percentiles, final Writer writer)
+            throws IOException {
+        writer.write("{\"count\":");
+        writer.write(String.valueOf(percentiles.getCount()));
+        writer.write(",\"p50\":");
+        writer.write(String.valueOf(percentiles.getP50()));
+        writer.write(",\"p90\":");
+        writer.write(String.valueOf(percentiles.getP90()));
+        writer.write(",\"p99\":");
+        writer.write(String.valueOf(percentiles.getP99()));
+        writer.write(",\"max\":");
+        writer.write(String.valueOf(percentiles.getMax()));
+        writer.write('}');
+    }
+
+    private List<Map.Entry<String, StubHitCounters.HitCounts>> snapshotResourceStats() {
+        return snapshotStatsOfHitStubs(hitCounters::getHitCounts);
+    }
+
+    // Resource IDs of the loaded stubs that were hit at least once, with their stats, in the display order
+    private <T> List<Map.Entry<String, T>> snapshotStatsOfHitStubs(final IntFunction<T> statsOfStubId) {
+        lock.lock();
+        try {
+            final List<Map.Entry<String, T>> statsOfHitStubs = new ArrayList<>();
+            if (hitCounters.isEmpty()) {
+                return statsOfHitStubs;
+            }
+
+            for (final StubHttpLifecycle stub : stubs) {
+                final T stats = statsOfStubId.apply(stub.getStubId());
+                if (ObjectUtils.isNotNull(stats)) {
+                    stubs.refreshResourceId(stub);
+                    statsOfHitStubs.add(new AbstractMap.SimpleImmutableEntry<>(stub.getResourceId(), stats));
+                }
+            }
+
+            return statsOfHitStubs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getOnlyStubRequestUrl() {
+        lock.lock();
+        try {
+            return stubs.get(0).getUrl();
+        } finally {
+            lock.unlock();
+        }
     }
 
     public File getYamlConfig() {
         return configFile;
     }
 
-    public synchronized Map<File, Long> getExternalFiles() {
-        final Set<String> escrow = new HashSet<>();
-        final Map<File, Long> externalFiles = new HashMap<>();
+    /**
+     * @return the YAMLs included from the main YAML the loaded stubs came from, in the order of the includes.
+     * Empty when the loaded stubs did not come from included YAMLs only, e.g.: after stubs were changed via the API
+     */
+    public List<File> getIncludedYamlFiles() {
+        lock.lock();
+        try {
+            return includedYamls.stream().map(IncludedYaml::getFile).collect(Collectors.toList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<File, Long> getExternalFiles() {
+        lock.lock();
+        try {
+            final Set<String> escrow = new HashSet<>();
+            final Map<File, Long> externalFiles = new HashMap<>();
+            for (final StubHttpLifecycle stub : stubs) {
+                cacheExternalFile(escrow, externalFiles, stub.getRequest().getRawFile());
+
+                final List<StubResponse> responses = stub.getResponses();
+                for (final StubResponse stubbedResponse : responses) {
+                    cacheExternalFile(escrow, externalFiles, stubbedResponse.getRawFile());
+                }
+            }
+
+            return externalFiles;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads the given external files into the stubs that reference them, instead of re-parsing the whole
+     * YAML config and rebuilding every stub. The stubs are found through a reverse index from an external
+     * file to the stubs referencing it.
+     *
+     * @param changedFiles external files that changed on disk
+     * @return {@code false} without reloading anything, if some of the given files are not referenced by
+     * the loaded stubs, e.g.: when a YAML config changed. Otherwise {@code true}
+     */
+    public boolean reloadExternalFiles(final Set<File> changedFiles) {
+        lock.lock();
+        try {
+            if (this.externalFileIndex == null) {
+                this.externalFileIndex = indexExternalFiles();
+            }
+
+            for (final File changedFile : changedFiles) {
+                if (!externalFileIndex.containsKey(toAbsoluteFileKey(changedFile))) {
+                    return false;
+                }
+            }
+
+            boolean isRequestFileReloaded = false;
+            for (final File changedFile : changedFiles) {
+                final String externalFileKey = toAbsoluteFileKey(changedFile);
+                for (final StubHttpLifecycle stub : externalFileIndex.get(externalFileKey)) {
+                    final StubRequest stubRequest = stub.getRequest();
+                    if (isExternalFile(stubRequest.getRawFile(), externalFileKey)) {
+                        stubRequest.reloadFile();
+                        isRequestFileReloaded = true;
+                    }
+
+                    for (final StubResponse stubResponse : stub.getResponses()) {
+                        if (isExternalFile(stubResponse.getRawFile(), externalFileKey)) {
+                            stubResponse.reloadFile();
+                        }
+                    }
+                }
+            }
+
+            // Cached matches may no longer hold when the stubbed request body has changed
+            if (isRequestFileReloaded) {
+                this.stubMatchesCache.clear();
+            }
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-parses only the given included YAMLs, and splices their stubs in place of the stubs previously loaded
+     * from them, instead of re-parsing the main YAML with all of its includes. The stubs of the included YAMLs
+     * are kept in the order of the includes, so the resource IDs and the first-match ordering end up the same
+     * as after a full reload.
+     *
+     * @param yamlParser   parser of the included YAMLs
+     * @param changedYamls included YAMLs that changed on disk
+     * @return {@code false} without changing anything, if the given YAMLs cannot be reloaded on their own, e.g.:
+     * when some of them is not included from the main YAML, when they have proxy or web socket configs, or when
+     * the loaded stubs were changed via the admin portal since the main YAML was loaded. Otherwise {@code true}
+     * @throws Exception when a changed YAML cannot be parsed, in which case the loaded stubs remain untouched
+     */
+    public boolean reloadIncludedYamls(final YamlParser yamlParser, final Set<File> changedYamls) throws Exception {
+        reloadLock.lock();
+        try {
+            return reloadIncludedYamlsInOrder(yamlParser, changedYamls);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private boolean reloadIncludedYamlsInOrder(final YamlParser yamlParser, final Set<File> changedYamls)
+            throws Exception {
+        final List<IncludedYaml> includedYamls = getSpliceableIncludedYamls();
+        if (includedYamls.isEmpty()) {
+            return false;
+        }
+
+        final Set<String> changedYamlKeys = new HashSet<>();
+        for (final File changedYaml : changedYamls) {
+            changedYamlKeys.add(toAbsoluteFileKey(changedYaml));
+        }
+
+        final Map<String, List<StubHttpLifecycle>> reloadedStubs = new HashMap<>();
+        for (final IncludedYaml includedYaml : includedYamls) {
+            final String includedYamlKey = toAbsoluteFileKey(includedYaml.getFile());
+            if (!changedYamlKeys.contains(includedYamlKey)) {
+                continue;
+            }
+            if (includedYaml.hasProxyOrWebSocketConfigs()) {
+                return false;
+            }
+
+            final YamlParseResultSet yamlParseResultSet =
+                    yamlParser.parse(this.configFile.getParent(), includedYaml.getFile());
+            if (!yamlParseResultSet.getProxyConfigs().isEmpty()
+                    || !yamlParseResultSet.getWebSocketConfigs().isEmpty()) {
+                return false;
+            }
+            reloadedStubs.put(includedYamlKey, yamlParseResultSet.getStubs());
+        }
+
+        if (reloadedStubs.size() != changedYamlKeys.size()) {
+            // Some of the changed YAMLs are not included from the main YAML
+            return false;
+        }
+
+        return spliceIncludedYamls(includedYamls, reloadedStubs);
+    }
+
+    private List<IncludedYaml> getSpliceableIncludedYamls() {
+        lock.lock();
+        try {
+            if (includedYamls.stream().mapToInt(IncludedYaml::getStubCount).sum() != stubs.size()) {
+                return Collections.emptyList();
+            }
+            return includedYamls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean spliceIncludedYamls(
+            final List<IncludedYaml> parsedIncludedYamls, final Map<String, List<StubHttpLifecycle>> reloadedStubs)
+            throws IOException {
+        lock.lock();
+        try {
+            if (this.includedYamls != parsedIncludedYamls
+                    || includedYamls.stream().mapToInt(IncludedYaml::getStubCount).sum() != stubs.size()) {
+                // The loaded stubs changed while the included YAMLs were being parsed
+                return false;
+            }
+
+            final List<StubHttpLifecycle> loadedStubs = stubs.toList();
+            final List<StubHttpLifecycle> splicedStubs = new ArrayList<>(stubs.size());
+            final List<IncludedYaml> splicedIncludedYamls = new ArrayList<>();
+            final List<StubHttpLifecycle> replacedStubs = new ArrayList<>();
+            int offset = 0;
+            for (final IncludedYaml includedYaml : includedYamls) {
+                final List<StubHttpLifecycle> previousStubs =
+                        loadedStubs.subList(offset, offset + includedYaml.getStubCount());
+                offset += includedYaml.getStubCount();
+
+                final List<StubHttpLifecycle> includedStubs =
+                        reloadedStubs.get(toAbsoluteFileKey(includedYaml.getFile()));
+                if (includedStubs == null) {
+                    splicedStubs.addAll(previousStubs);
+                    splicedIncludedYamls.add(includedYaml);
+                } else {
+                    splicedStubs.addAll(includedStubs);
+                    replacedStubs.addAll(previousStubs);
+                    splicedIncludedYamls.add(new IncludedYaml(includedYaml.getFile(), includedStubs.size(), false));
+                }
+            }
+
+            final Map<String, StubHttpLifecycle> splicedUuidToStub = new HashMap<>();
+            for (final StubHttpLifecycle stub : splicedStubs) {
+                if (StringUtils.isSet(stub.getUUID()) && splicedUuidToStub.put(stub.getUUID(), stub) != null) {
+                    throw new IOException("Stubs YAML contains duplicate UUIDs: " + stub.getUUID());
+                }
+            }
+
+            // The stubs of the included YAMLs that did not change keep their stable IDs, and so their hits
+            this.stubs.replaceAll(splicedStubs);
+            for (final StubHttpLifecycle replacedStub : replacedStubs) {
+                this.hitCounters.remove(replacedStub.getStubId());
+            }
+            this.stubMatchesCache.clear();
+            this.uuidToStub.clear();
+            this.uuidToStub.putAll(splicedUuidToStub);
+            indexCapturedHeaderNames();
+            this.externalFileIndex = null;
+            this.includedYamls = splicedIncludedYamls;
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, List<StubHttpLifecycle>> indexExternalFiles() {
+        final Map<String, List<StubHttpLifecycle>> index = new HashMap<>();
         for (final StubHttpLifecycle stub : stubs) {
-            cacheExternalFile(escrow, externalFiles, stub.getRequest().getRawFile());
+            final Set<String> externalFileKeys = new HashSet<>();
+            if (ObjectUtils.isNotNull(stub.getRequest().getRawFile())) {
+                externalFileKeys.add(toAbsoluteFileKey(stub.getRequest().getRawFile()));
+            }
+            for (final StubResponse stubResponse : stub.getResponses()) {
+                if (ObjectUtils.isNotNull(stubResponse.getRawFile())) {
+                    externalFileKeys.add(toAbsoluteFileKey(stubResponse.getRawFile()));
+                }
+            }
 
-            final List<StubResponse> responses = stub.getResponses();
-            for (final StubResponse stubbedResponse : responses) {
-                cacheExternalFile(escrow, externalFiles, stubbedResponse.getRawFile());
+            for (final String externalFileKey : externalFileKeys) {
+                index.computeIfAbsent(externalFileKey, key -> new ArrayList<>()).add(stub);
             }
         }
 
-        return externalFiles;
+        return index;
+    }
+
+    private static boolean isExternalFile(final File file, final String externalFileKey) {
+        return ObjectUtils.isNotNull(file) && toAbsoluteFileKey(file).equals(externalFileKey);
+    }
+
+    private static String toAbsoluteFileKey(final File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
     }
 
     private void cacheExternalFile(final Set<String> escrow, final Map<File, Long> externalFiles, final File file) {
@@ -472,126 +1183,268 @@ public class StubRepository {
         }
     }
 
-    public synchronized String dumpCompleteYamlConfig() {
-        final StringBuilder builder = new StringBuilder();
+    /**
+     * Writes out the YAML config of the loaded proxy configs, and of one page of the loaded stubs that pass the given
+     * filter. The stubs and proxy configs are copied out under the repository lock, so the dump is consistent, but
+     * their YAMLs are rendered and written outside of it, so dumping a big config does not stall request matching.
+     * The proxy configs are dumped along with the first page only.
+     *
+     * @param filter which of the loaded stubs to dump
+     * @param offset how many of the stubs that pass the filter to skip
+     * @param limit  maximum number of the stubs to dump
+     * @param writer where to write the YAML config to
+     */
+    public void dumpYamlConfig(
+            final Predicate<StubHttpLifecycle> filter, final int offset, final int limit, final Writer writer)
+            throws IOException {
+        final List<StubProxyConfig> dumpedProxyConfigs;
+        final StubsPage stubsPage;
+        lock.lock();
+        try {
+            dumpedProxyConfigs = offset == 0 ? new ArrayList<>(proxyConfigs.values()) : Collections.emptyList();
+            stubsPage = getStubsPage(filter, offset, limit);
+        } finally {
+            lock.unlock();
+        }
 
-        if (!proxyConfigs.isEmpty()) {
-            for (final Map.Entry<String, StubProxyConfig> entry : proxyConfigs.entrySet()) {
-                builder.append(entry.getValue().getProxyConfigAsYAML())
-                        .append(FileUtils.BR)
-                        .append(FileUtils.BR);
+        if (!dumpedProxyConfigs.isEmpty()) {
+            for (final StubProxyConfig proxyConfig : dumpedProxyConfigs) {
+                writer.write(proxyConfig.getProxyConfigAsYAML());
+                writer.write(FileUtils.BR);
+                writer.write(FileUtils.BR);
             }
-            builder.append(FileUtils.BR);
+            writer.write(FileUtils.BR);
         }
 
-        for (final StubHttpLifecycle stub : stubs) {
-            builder.append(stub.getCompleteYaml()).append(FileUtils.BR).append(FileUtils.BR);
+        for (final StubHttpLifecycle stub : stubsPage.getStubs()) {
+            writer.write(stub.getCompleteYaml());
+            writer.write(FileUtils.BR);
+            writer.write(FileUtils.BR);
         }
-
-        return builder.toString();
     }
 
-    public synchronized String getStubYamlByIndex(final int index) {
-        return stubs.get(index).getCompleteYaml();
+    public String getStubYamlByIndex(final int index) {
+        lock.lock();
+        try {
+            return stubs.get(index).getCompleteYaml();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized String getStubYamlByUuid(final String uuid) {
-        return uuidToStub.get(uuid).getCompleteYaml();
+    public String getStubYamlByUuid(final String uuid) {
+        lock.lock();
+        try {
+            return uuidToStub.get(uuid).getCompleteYaml();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized String getProxyConfigYamlByUuid(final String uuid) {
-        return proxyConfigs.get(uuid).getProxyConfigAsYAML();
+    public String getProxyConfigYamlByUuid(final String uuid) {
+        lock.lock();
+        try {
+            return proxyConfigs.get(uuid).getProxyConfigAsYAML();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized boolean canMatchStubByIndex(final int index) {
-        return stubs.size() - 1 >= index;
+    public boolean canMatchStubByIndex(final int index) {
+        lock.lock();
+        try {
+            return stubs.size() - 1 >= index;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized boolean canMatchStubByUuid(final String uuid) {
-        return uuidToStub.containsKey(uuid);
+    public boolean canMatchStubByUuid(final String uuid) {
+        lock.lock();
+        try {
+            return uuidToStub.containsKey(uuid);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized boolean canMatchProxyConfigByUuid(final String uuid) {
-        return proxyConfigs.containsKey(uuid);
+    public boolean canMatchProxyConfigByUuid(final String uuid) {
+        lock.lock();
+        try {
+            return proxyConfigs.containsKey(uuid);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    synchronized void updateProxyConfigByUuid(final String uuid, final StubProxyConfig newStubProxyConfig) {
-        if (!uuid.equals(newStubProxyConfig.getUUID())) {
-            final String message = String.format(
-                    "Provided proxy config UUID '%s' does not match the target UUID '%s'",
-                    newStubProxyConfig.getUUID(), uuid);
-            throw new IllegalArgumentException(message);
-        }
+    void updateProxyConfigByUuid(final String uuid, final StubProxyConfig newStubProxyConfig) {
+        lock.lock();
+        try {
+            if (!uuid.equals(newStubProxyConfig.getUUID())) {
+                final String message = String.format(
+                        "Provided proxy config UUID '%s' does not match the target UUID '%s'",
+                        newStubProxyConfig.getUUID(), uuid);
+                throw new IllegalArgumentException(message);
+            }
 
-        if (uuid.equals(StubProxyConfig.Builder.DEFAULT_UUID)) {
-            proxyConfigs.remove(StubProxyConfig.Builder.DEFAULT_UUID);
-            proxyConfigs.put(StubProxyConfig.Builder.DEFAULT_UUID, newStubProxyConfig);
-        } else {
-            proxyConfigs.remove(uuid);
-            proxyConfigs.put(uuid, newStubProxyConfig);
+            if (uuid.equals(StubProxyConfig.Builder.DEFAULT_UUID)) {
+                proxyConfigs.remove(StubProxyConfig.Builder.DEFAULT_UUID);
+                proxyConfigs.put(StubProxyConfig.Builder.DEFAULT_UUID, newStubProxyConfig);
+            } else {
+                proxyConfigs.remove(uuid);
+                proxyConfigs.put(uuid, newStubProxyConfig);
+            }
+            indexCapturedHeaderNames();
+        } finally {
+            lock.unlock();
         }
     }
 
-    synchronized void updateStubByIndex(final int index, final StubHttpLifecycle newStub) {
-        final StubHttpLifecycle deletedStub = deleteStubByIndex(index);
-        stubs.add(index, newStub);
-        updateResourceIDHeaders();
+    void updateStubByIndex(final int index, final StubHttpLifecycle newStub) {
+        lock.lock();
+        try {
+            // The other stubs keep their resource IDs, so only the new stub needs one
+            final StubHttpLifecycle replacedStub = stubs.set(index, newStub);
+            stubs.refreshResourceId(newStub);
+            hitCounters.remove(replacedStub.getStubId());
 
-        this.stubMatchesCache.clear();
+            this.stubMatchesCache.clear();
 
-        if (StringUtils.isSet(deletedStub.getUUID())) {
-            uuidToStub.remove(deletedStub.getUUID());
-        }
+            if (StringUtils.isSet(replacedStub.getUUID())) {
+                uuidToStub.remove(replacedStub.getUUID());
+            }
 
-        if (StringUtils.isSet(newStub.getUUID())) {
-            uuidToStub.put(newStub.getUUID(), newStub);
+            if (StringUtils.isSet(newStub.getUUID())) {
+                uuidToStub.put(newStub.getUUID(), newStub);
+            }
+            indexCapturedHeaderNames(Collections.singletonList(newStub));
+            this.externalFileIndex = null;
+            // The stubs no longer line up with the included YAMLs they were loaded from
+            this.includedYamls = new ArrayList<>();
+        } finally {
+            lock.unlock();
         }
     }
 
-    synchronized void updateStubByUuid(final String uuid, final StubHttpLifecycle newStub) {
-        final StubHttpLifecycle obsolete = uuidToStub.get(uuid);
-        final int resourceId = Integer.parseInt(obsolete.getResourceId());
+    void updateStubByUuid(final String uuid, final StubHttpLifecycle newStub) {
+        lock.lock();
+        try {
+            final StubHttpLifecycle obsolete = uuidToStub.get(uuid);
 
-        updateStubByIndex(resourceId, newStub);
+            updateStubByIndex(stubs.indexOf(obsolete), newStub);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized StubHttpLifecycle deleteStubByIndex(final int index) {
-        final StubHttpLifecycle removedStub = stubs.remove(index);
-        updateResourceIDHeaders();
+    public StubHttpLifecycle deleteStubByIndex(final int index) {
+        lock.lock();
+        try {
+            // The subsequent stubs pick up their new resource IDs lazily, i.e.: once they are matched or listed
+            final StubHttpLifecycle removedStub = stubs.remove(index);
+            hitCounters.remove(removedStub.getStubId());
+            // Cached matches may point to the removed stub
+            this.stubMatchesCache.clear();
 
-        if (StringUtils.isSet(removedStub.getUUID())) {
-            uuidToStub.remove(removedStub.getUUID());
+            if (StringUtils.isSet(removedStub.getUUID())) {
+                uuidToStub.remove(removedStub.getUUID());
+            }
+            // Header names captured only for the removed stub are left in place,
+            // capturing a few extra headers is harmless
+            this.externalFileIndex = null;
+            // The stubs no longer line up with the included YAMLs they were loaded from
+            this.includedYamls = new ArrayList<>();
+
+            return removedStub;
+        } finally {
+            lock.unlock();
         }
+    }
+
+    public StubHttpLifecycle deleteStubByUuid(final String uuid) {
+        lock.lock();
+        try {
+            final StubHttpLifecycle toBeRemoved = uuidToStub.get(uuid);
 
-        return removedStub;
+            return deleteStubByIndex(stubs.indexOf(toBeRemoved));
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized StubHttpLifecycle deleteStubByUuid(final String uuid) {
-        final StubHttpLifecycle toBeRemoved = uuidToStub.get(uuid);
-        final int resourceId = Integer.parseInt(toBeRemoved.getResourceId());
+    public StubProxyConfig deleteProxyConfigByUuid(final String uuid) {
+        lock.lock();
+        try {
+            if (uuid.equals(StubProxyConfig.Builder.DEFAULT_UUID)) {
+                throw new IllegalArgumentException(
+                        "You cannot delete 'default' (i.e.: catch-all) proxy config via API");
+            }
+            final StubProxyConfig removedProxyConfig = proxyConfigs.remove(uuid);
+            indexCapturedHeaderNames();
 
-        return deleteStubByIndex(resourceId);
+            return removedProxyConfig;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized StubProxyConfig deleteProxyConfigByUuid(final String uuid) {
-        if (uuid.equals(StubProxyConfig.Builder.DEFAULT_UUID)) {
-            throw new IllegalArgumentException("You cannot delete 'default' (i.e.: catch-all) proxy config via API");
+    public void clear() {
+        lock.lock();
+        try {
+            this.stubMatchesCache.clear();
+            this.stubs.clear();
+            this.uuidToStub.clear();
+            this.hitCounters.clear();
+            this.proxyConfigs.clear();
+            this.webSocketConfigs.clear();
+            indexCapturedHeaderNames();
+            this.externalFileIndex = null;
+            this.includedYamls = new ArrayList<>();
+        } finally {
+            lock.unlock();
         }
-        return proxyConfigs.remove(uuid);
     }
 
-    public synchronized void clear() {
-        this.stubMatchesCache.clear();
-        this.stubs.clear();
-        this.uuidToStub.clear();
-        this.proxyConfigs.clear();
-        this.webSocketConfigs.clear();
+    /**
+     * Collects names of the request headers referenced by the loaded stubs, so that only those headers (plus
+     * the ones stubby4j itself relies on, i.e.: authorization & content type) are copied from the incoming
+     * {@link HttpServletRequest request} when converting it to a {@link StubRequest}. If there are proxy configs
+     * loaded, then all headers are captured, because the unmatched incoming request is proxied as-is.
+     *
+     * @see #toStubRequest(HttpServletRequest)
+     */
+    private void indexCapturedHeaderNames() {
+        if (!proxyConfigs.isEmpty()) {
+            this.capturedHeaderNames = null;
+            return;
+        }
+
+        final Set<String> headerNames = new HashSet<>();
+        headerNames.add(StubRequest.HTTP_HEADER_AUTHORIZATION);
+        headerNames.add(StubRequest.HTTP_HEADER_CONTENT_TYPE);
+        for (final StubHttpLifecycle stub : stubs) {
+            headerNames.addAll(stub.getRequest().getHeaders().keySet());
+        }
+
+        this.capturedHeaderNames = Collections.unmodifiableSet(headerNames);
     }
 
-    private void updateResourceIDHeaders() {
-        for (int index = 0; index < stubs.size(); index++) {
-            stubs.get(index).setResourceId(index);
+    /**
+     * Same as {@link #indexCapturedHeaderNames()}, but only adds header names of the given newly loaded stubs
+     * to the already captured ones, instead of going through all the loaded stubs again
+     */
+    private void indexCapturedHeaderNames(final List<StubHttpLifecycle> newStubs) {
+        if (!proxyConfigs.isEmpty() || ObjectUtils.isNull(this.capturedHeaderNames)) {
+            indexCapturedHeaderNames();
+            return;
         }
+
+        final Set<String> headerNames = new HashSet<>(this.capturedHeaderNames);
+        for (final StubHttpLifecycle stub : newStubs) {
+            headerNames.addAll(stub.getRequest().getHeaders().keySet());
+        }
+
+        this.capturedHeaderNames = Collections.unmodifiableSet(headerNames);
     }
 
     public void retrieveLoadedStubs() {
@@ -600,22 +1453,22 @@ public class StubRepository {
             this.stubs.addAll(yamlParseResultSet.getStubs());
             this.uuidToStub.putAll(yamlParseResultSet.getUuidToStubs());
 
-            loadProxyConfigsWithOptionalThrow(yamlParseResultSet);
+            validateProxyConfigs(yamlParseResultSet.getProxyConfigs());
+            this.proxyConfigs.putAll(yamlParseResultSet.getProxyConfigs());
 
             this.webSocketConfigs.putAll(yamlParseResultSet.getWebSocketConfigs());
+            indexCapturedHeaderNames();
+            this.externalFileIndex = null;
+            this.includedYamls = yamlParseResultSet.getIncludedYamls();
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
         }
     }
 
-    private void loadProxyConfigsWithOptionalThrow(final YamlParseResultSet yamlParseResultSet) {
-        final Map<String, StubProxyConfig> loadedProxyConfigs = yamlParseResultSet.getProxyConfigs();
-
+    private static void validateProxyConfigs(final Map<String, StubProxyConfig> loadedProxyConfigs) {
         if (!loadedProxyConfigs.isEmpty() && !loadedProxyConfigs.containsKey(StubProxyConfig.Builder.DEFAULT_UUID)) {
             throw new IllegalStateException(
                     "YAML config contains proxy configs, but the 'default' proxy config is not configured, how so?");
         }
-
-        this.proxyConfigs.putAll(loadedProxyConfigs);
     }
 }
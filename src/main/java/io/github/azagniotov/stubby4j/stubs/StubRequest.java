@@ -45,21 +45,29 @@ import io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import org.eclipse.jetty.http.HttpMethod;
 
 public class StubRequest implements ReflectableStub {
 
     static final String HTTP_HEADER_AUTHORIZATION = "authorization";
+    static final String HTTP_HEADER_CONTENT_TYPE = "content-type";
 
     private final String url;
-    private final String post;
+    private volatile String post;
+    private volatile Supplier<String> lazyPost;
+    // Guards reading of the lazy body. Not the object monitor, as reading blocks on the network and
+    // a virtual thread blocked while holding a monitor pins its carrier thread
+    private final ReentrantLock lazyPostLock;
     private final File file;
-    private final byte[] fileBytes;
+    private volatile byte[] fileBytes;
     private final List<String> method;
     private final Map<String, String> headers;
     private final Map<String, String> query;
@@ -68,12 +76,15 @@ public class StubRequest implements ReflectableStub {
     private StubRequest(
             final String url,
             final String post,
+            final Supplier<String> lazyPost,
             final File file,
             final List<String> method,
             final Map<String, String> headers,
             final Map<String, String> query) {
         this.url = url;
         this.post = post;
+        this.lazyPost = lazyPost;
+        this.lazyPostLock = ObjectUtils.isNull(lazyPost) ? null : new ReentrantLock();
         this.file = file;
         this.fileBytes = ObjectUtils.isNull(file) ? new byte[] {} : getFileBytes();
         this.method = method;
@@ -114,18 +125,74 @@ public class StubRequest implements ReflectableStub {
     }
 
     public String getPostBody() {
-        if (fileBytes.length == 0) {
-            return FileUtils.enforceSystemLineSeparator(post);
+        final byte[] currentFileBytes = fileBytes;
+        if (currentFileBytes.length == 0) {
+            return FileUtils.enforceSystemLineSeparator(getPost());
         }
-        final String utf8FileContent = newStringUtf8(fileBytes);
+        final String utf8FileContent = newStringUtf8(currentFileBytes);
         return FileUtils.enforceSystemLineSeparator(utf8FileContent);
     }
 
+    /**
+     * Re-reads the contents of the stubbed external file, e.g.: after the file changed on disk
+     */
+    void reloadFile() {
+        if (ObjectUtils.isNotNull(file)) {
+            this.fileBytes = getFileBytes();
+        }
+    }
+
     // Used by reflection when populating stubby admin page with stubbed information
     public String getPost() {
+        resolveLazyPost();
         return post;
     }
 
+    /**
+     * The body of an incoming request is read only when it is needed for the first time, e.g.: when the
+     * request is compared to a stub that has a stubbed body. This way, a large upload to a stub
+     * that does not care about the body is never read into memory.
+     * <p>
+     * Reading the body may block on the network, so the {@link StubRepository} releases its lock while the body
+     * is being read, see {@link #isPostNeededToMatch(StubRequest)}
+     */
+    void resolveLazyPost() {
+        if (ObjectUtils.isNull(lazyPost)) {
+            return;
+        }
+        lazyPostLock.lock();
+        try {
+            if (ObjectUtils.isNotNull(lazyPost)) {
+                this.post = lazyPost.get();
+                this.lazyPost = null;
+            }
+        } finally {
+            lazyPostLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a header of the incoming request that was not captured for matching, e.g.: for the 404 diagnostics
+     */
+    void addHeader(final String name, final String value) {
+        this.headers.put(toLower(name), value);
+    }
+
+    boolean isPostResolved() {
+        return ObjectUtils.isNull(lazyPost);
+    }
+
+    /**
+     * @param stubbedRequest stubbed request this incoming request is about to be matched to
+     * @return true if the body of this incoming request was not read yet, but matching it to the given stubbed
+     * request would read it, i.e.: the stubbed request matches on the body and its URL and method(s) match
+     */
+    boolean isPostNeededToMatch(final StubRequest stubbedRequest) {
+        return !isPostResolved()
+                && stubbedRequest.isRequestBodyStubbed()
+                && new StubMatcher(new HashMap<>()).urlAndMethodMatch(stubbedRequest, this);
+    }
+
     public final Map<String, String> getHeaders() {
         final Map<String, String> headersCopy = new LinkedHashMap<>(headers);
         final Set<Map.Entry<String, String>> entrySet = headersCopy.entrySet();
@@ -240,6 +307,7 @@ public class StubRequest implements ReflectableStub {
     public int hashCode() {
         int result = (isNotNull(url) ? url.hashCode() : 0);
         result = 31 * result + method.hashCode();
+        // A body that was not read yet is not hashed, as hashing must not block on reading the body
         result = 31 * result + (isNotNull(post) ? post.hashCode() : 0);
         result = 31 * result + (isNotNull(fileBytes) && fileBytes.length != 0 ? Arrays.hashCode(fileBytes) : 0);
         result = 31 * result + headers.hashCode();
@@ -270,6 +338,7 @@ public class StubRequest implements ReflectableStub {
         private String url;
         private List<String> method;
         private String post;
+        private Supplier<String> lazyPost;
         private File file;
         private Map<String, String> headers;
         private Map<String, String> query;
@@ -279,6 +348,7 @@ public class StubRequest implements ReflectableStub {
             this.url = null;
             this.method = new ArrayList<>();
             this.post = null;
+            this.lazyPost = null;
             this.file = null;
             this.headers = new LinkedHashMap<>();
             this.query = new LinkedHashMap<>();
@@ -389,6 +459,19 @@ public class StubRequest implements ReflectableStub {
             return this;
         }
 
+        /**
+         * Sets a supplier of the request body, which is invoked at most once, and only when the body is
+         * accessed for the first time. Used when converting incoming HTTP requests to {@link StubRequest}.
+         *
+         * @param lazyPost supplier of the request body
+         * @return this {@link Builder}
+         */
+        public Builder withLazyPost(final Supplier<String> lazyPost) {
+            this.lazyPost = lazyPost;
+
+            return this;
+        }
+
         public Builder withFile(final File file) {
             this.file = file;
 
@@ -421,11 +504,12 @@ public class StubRequest implements ReflectableStub {
             this.headers = asCheckedLinkedHashMap(getStaged(Map.class, HEADERS, headers), String.class, String.class);
             this.query = asCheckedLinkedHashMap(getStaged(Map.class, QUERY, query), String.class, String.class);
 
-            final StubRequest stubRequest = new StubRequest(url, post, file, method, headers, query);
+            final StubRequest stubRequest = new StubRequest(url, post, lazyPost, file, method, headers, query);
 
             this.url = null;
             this.method = new ArrayList<>();
             this.post = null;
+            this.lazyPost = null;
             this.file = null;
             this.headers = new LinkedHashMap<>();
             this.query = new LinkedHashMap<>();
@@ -43,7 +43,7 @@ public class StubResponse implements ReflectableStub {
     private final Code httpStatusCode;
     private final String body;
     private final File file;
-    private final byte[] fileBytes;
+    private volatile byte[] fileBytes;
     private final String latency;
     private final Map<String, String> headers;
 
@@ -110,11 +110,20 @@ public class StubResponse implements ReflectableStub {
     }
 
     public byte[] getResponseBodyAsBytes() {
-
-        if (fileBytes.length == 0) {
+        final byte[] currentFileBytes = fileBytes;
+        if (currentFileBytes.length == 0) {
             return StringUtils.getBytesUtf8(getBody());
         }
-        return fileBytes;
+        return currentFileBytes;
+    }
+
+    /**
+     * Re-reads the contents of the stubbed external file, e.g.: after the file changed on disk
+     */
+    void reloadFile() {
+        if (!isNull(file)) {
+            this.fileBytes = getFileBytes();
+        }
     }
 
     public boolean isBodyContainsTemplateTokens() {
@@ -20,10 +20,13 @@ public class StubSearchResult {
 
     private final StubRequest invariant;
     private final StubResponse match;
+    // Null when no stub was matched, e.g.: when the request was proxied
+    private final StubHttpLifecycle matchedStub;
 
-    StubSearchResult(final StubRequest invariant, final StubResponse match) {
+    StubSearchResult(final StubRequest invariant, final StubResponse match, final StubHttpLifecycle matchedStub) {
         this.invariant = invariant;
         this.match = match;
+        this.matchedStub = matchedStub;
     }
 
     public StubRequest getInvariant() {
@@ -33,4 +36,8 @@ public class StubSearchResult {
     public StubResponse getMatch() {
         return match;
     }
+
+    StubHttpLifecycle getMatchedStub() {
+        return matchedStub;
+    }
 }
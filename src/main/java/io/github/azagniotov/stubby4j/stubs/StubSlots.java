@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Loaded stubs in their display order, i.e.: the order in which they are matched and in which their resource IDs
+ * are handed out. Every stub takes a slot, and a slot of a deleted stub is just freed instead of shifting all the
+ * subsequent stubs. A Fenwick (i.e.: binary indexed) tree counting the taken slots gives the display index of a
+ * stub, and the stub at a display index, in O(log n). So deleting or replacing a single stub does not renumber
+ * every loaded stub.
+ * <p>
+ * Every stub added to the slots also gets a stable ID, which never changes while the stub is loaded, unlike its
+ * display index. Not thread-safe, guarded by the {@link StubRepository} lock.
+ */
+final class StubSlots implements Iterable<StubHttpLifecycle> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private StubHttpLifecycle[] slots;
+    // 1-based Fenwick tree over the slots, where a taken slot counts as one
+    private int[] takenSlotCounts;
+    // Number of the used slots, including the freed ones
+    private int usedSlots;
+    private int size;
+    private int nextStubId;
+    // Bumped whenever the display index of a loaded stub may have changed
+    private int layoutVersion;
+    // Bumped whenever a stub is added, replaced or removed
+    private int modificationCount;
+
+    StubSlots() {
+        rebuild(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of times a stub was added, replaced or removed, e.g.: to tell whether the loaded stubs
+     * changed while the repository lock was released
+     */
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    StubHttpLifecycle get(final int index) {
+        return slots[slotAt(index)];
+    }
+
+    /**
+     * @return display index of the given stub, or -1 if the stub is not loaded
+     */
+    int indexOf(final StubHttpLifecycle stub) {
+        final int slot = stub.getSlot();
+        if (slot < 0 || slot >= usedSlots || slots[slot] != stub) {
+            return -1;
+        }
+        return countTakenSlotsBefore(slot);
+    }
+
+    void add(final StubHttpLifecycle stub) {
+        add(stub, nextStubId++);
+    }
+
+    private void add(final StubHttpLifecycle stub, final int stubId) {
+        if (usedSlots == slots.length) {
+            // Compacting keeps the display order, so the display indices do not change
+            rebuild(size * 2 > slots.length ? slots.length * 2 : slots.length);
+        }
+        take(usedSlots++, stub, stubId);
+        size++;
+    }
+
+    void addAll(final Collection<StubHttpLifecycle> stubs) {
+        for (final StubHttpLifecycle stub : stubs) {
+            add(stub);
+        }
+    }
+
+    /**
+     * Replaces the stub at the given display index, the display indices of other stubs do not change
+     *
+     * @return the replaced stub
+     */
+    StubHttpLifecycle set(final int index, final StubHttpLifecycle stub) {
+        final int slot = slotAt(index);
+        final StubHttpLifecycle replacedStub = slots[slot];
+        replacedStub.assignSlot(-1, replacedStub.getStubId());
+        slots[slot] = stub;
+        stub.assignSlot(slot, nextStubId++);
+        modificationCount++;
+
+        return replacedStub;
+    }
+
+    /**
+     * @return the removed stub
+     */
+    StubHttpLifecycle remove(final int index) {
+        final int slot = slotAt(index);
+        final StubHttpLifecycle removedStub = slots[slot];
+        removedStub.assignSlot(-1, removedStub.getStubId());
+        slots[slot] = null;
+        updateTakenSlotCounts(slot, -1);
+        size--;
+        modificationCount++;
+        layoutVersion++;
+
+        return removedStub;
+    }
+
+    /**
+     * Replaces the loaded stubs with the given stubs, in the given display order. The given stubs that are already
+     * loaded keep their stable IDs, e.g.: the stubs of the included YAMLs that did not change
+     */
+    void replaceAll(final Collection<StubHttpLifecycle> stubs) {
+        final Set<StubHttpLifecycle> keptStubs = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final StubHttpLifecycle stub : stubs) {
+            if (indexOf(stub) != -1) {
+                keptStubs.add(stub);
+            }
+        }
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (slots[slot] != null && !keptStubs.contains(slots[slot])) {
+                slots[slot].assignSlot(-1, slots[slot].getStubId());
+            }
+        }
+
+        usedSlots = 0;
+        size = 0;
+        rebuild(MIN_CAPACITY);
+        modificationCount++;
+        layoutVersion++;
+        for (final StubHttpLifecycle stub : stubs) {
+            add(stub, keptStubs.contains(stub) ? stub.getStubId() : nextStubId++);
+        }
+    }
+
+    void clear() {
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (slots[slot] != null) {
+                slots[slot].assignSlot(-1, slots[slot].getStubId());
+            }
+        }
+        usedSlots = 0;
+        size = 0;
+        rebuild(MIN_CAPACITY);
+        modificationCount++;
+        layoutVersion++;
+    }
+
+    /**
+     * Updates the resource ID of the given loaded stub to its display index, unless that was already done since
+     * the display indices last changed.
+     */
+    void refreshResourceId(final StubHttpLifecycle stub) {
+        if (stub.getResourceIdVersion() == layoutVersion) {
+            return;
+        }
+
+        final int index = indexOf(stub);
+        if (index != -1) {
+            stub.setResourceId(index);
+            stub.setResourceIdVersion(layoutVersion);
+        }
+    }
+
+    List<StubHttpLifecycle> toList() {
+        final List<StubHttpLifecycle> stubs = new ArrayList<>(size);
+        for (final StubHttpLifecycle stub : this) {
+            stubs.add(stub);
+        }
+        return stubs;
+    }
+
+    @Override
+    public Iterator<StubHttpLifecycle> iterator() {
+        return iteratorFromSlot(0);
+    }
+
+    /**
+     * @return iterator over the loaded stubs in their display order, starting from the given loaded stub
+     */
+    Iterator<StubHttpLifecycle> iteratorFrom(final StubHttpLifecycle stub) {
+        if (indexOf(stub) == -1) {
+            throw new IllegalArgumentException("Stub is not loaded");
+        }
+        return iteratorFromSlot(stub.getSlot());
+    }
+
+    private Iterator<StubHttpLifecycle> iteratorFromSlot(final int fromSlot) {
+        return new Iterator<StubHttpLifecycle>() {
+            private int slot = nextTakenSlot(fromSlot);
+
+            @Override
+            public boolean hasNext() {
+                return slot < usedSlots;
+            }
+
+            @Override
+            public StubHttpLifecycle next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final StubHttpLifecycle stub = slots[slot];
+                slot = nextTakenSlot(slot + 1);
+
+                return stub;
+            }
+        };
+    }
+
+    private int nextTakenSlot(final int fromSlot) {
+        int slot = fromSlot;
+        while (slot < usedSlots && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private void take(final int slot, final StubHttpLifecycle stub, final int stubId) {
+        slots[slot] = stub;
+        stub.assignSlot(slot, stubId);
+        updateTakenSlotCounts(slot, 1);
+        modificationCount++;
+    }
+
+    private int slotAt(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %s, Size: %s", index, size));
+        }
+
+        // Looks for the slot with exactly 'index' taken slots before it
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(slots.length); step > 0; step >>= 1) {
+            final int next = position + step;
+            if (next <= slots.length && takenSlotCounts[next] < remaining) {
+                position = next;
+                remaining -= takenSlotCounts[next];
+            }
+        }
+
+        return position;
+    }
+
+    private int countTakenSlotsBefore(final int slot) {
+        int count = 0;
+        for (int position = slot; position > 0; position -= position & -position) {
+            count += takenSlotCounts[position];
+        }
+        return count;
+    }
+
+    private void updateTakenSlotCounts(final int slot, final int delta) {
+        for (int position = slot + 1; position <= slots.length; position += position & -position) {
+            takenSlotCounts[position] += delta;
+        }
+    }
+
+    private void rebuild(final int capacity) {
+        final StubHttpLifecycle[] previousSlots = this.slots;
+        final int previousUsedSlots = this.usedSlots;
+
+        this.slots = new StubHttpLifecycle[capacity];
+        this.takenSlotCounts = new int[capacity + 1];
+        this.usedSlots = 0;
+        for (int slot = 0; slot < previousUsedSlots; slot++) {
+            final StubHttpLifecycle stub = previousSlots[slot];
+            if (stub != null) {
+                stub.assignSlot(usedSlots, stub.getStubId());
+                this.slots[usedSlots] = stub;
+                this.takenSlotCounts[++usedSlots] = 1;
+            }
+        }
+
+        // Builds the Fenwick tree in linear time, by pushing each partial count up to its parent
+        for (int position = 1; position <= capacity; position++) {
+            final int parent = position + (position & -position);
+            if (parent <= capacity) {
+                takenSlotCounts[parent] += takenSlotCounts[position];
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+import java.util.List;
+
+/**
+ * One page of the loaded stubs that passed a listing filter, in their display order
+ *
+ * @see StubRepository#getStubsPage(java.util.function.Predicate, int, int)
+ */
+public final class StubsPage {
+
+    private final List<StubHttpLifecycle> stubs;
+    private final int offset;
+    private final int limit;
+    private final int totalCount;
+
+    StubsPage(final List<StubHttpLifecycle> stubs, final int offset, final int limit, final int totalCount) {
+        this.stubs = stubs;
+        this.offset = offset;
+        this.limit = limit;
+        this.totalCount = totalCount;
+    }
+
+    public List<StubHttpLifecycle> getStubs() {
+        return stubs;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return number of the loaded stubs that passed the filter, across all the pages
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+
+    public boolean hasNext() {
+        return offset + stubs.size() < totalCount;
+    }
+}
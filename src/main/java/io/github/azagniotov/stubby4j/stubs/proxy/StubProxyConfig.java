@@ -26,8 +26,10 @@ import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.UUID;
 
 import io.github.azagniotov.stubby4j.stubs.AbstractBuilder;
 import io.github.azagniotov.stubby4j.stubs.ReflectableStub;
+import io.github.azagniotov.stubby4j.utils.ObjectUtils;
 import io.github.azagniotov.stubby4j.utils.ReflectionUtils;
 import io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty;
+import io.github.azagniotov.stubby4j.yaml.YamlSource;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -41,6 +43,8 @@ public class StubProxyConfig implements ReflectableStub {
     private final Map<String, String> headers;
     private final Map<String, String> properties;
     private final String proxyConfigAsYAML;
+    // Renders the above YAML on demand, when it was not given upfront
+    private final YamlSource yamlSource;
 
     private StubProxyConfig(
             final String description,
@@ -48,13 +52,15 @@ public class StubProxyConfig implements ReflectableStub {
             final StubProxyStrategy strategy,
             final Map<String, String> headers,
             final Map<String, String> properties,
-            final String proxyConfigAsYAML) {
+            final String proxyConfigAsYAML,
+            final YamlSource yamlSource) {
         this.description = description;
         this.uuid = uuid;
         this.strategy = strategy;
         this.headers = headers;
         this.properties = properties;
         this.proxyConfigAsYAML = proxyConfigAsYAML;
+        this.yamlSource = yamlSource;
     }
 
     public String getDescription() {
@@ -94,6 +100,9 @@ public class StubProxyConfig implements ReflectableStub {
      * It is used by {@link ReflectionUtils} at runtime when fetching content for Ajax response
      */
     public String getProxyConfigAsYAML() {
+        if (ObjectUtils.isNull(proxyConfigAsYAML) && ObjectUtils.isNotNull(yamlSource)) {
+            return yamlSource.renderAsYamlList();
+        }
         return proxyConfigAsYAML;
     }
 
@@ -122,6 +131,7 @@ public class StubProxyConfig implements ReflectableStub {
         private Map<String, String> headers;
         private Map<String, String> properties;
         private String proxyConfigAsYAML;
+        private YamlSource yamlSource;
 
         public Builder() {
             super();
@@ -171,6 +181,12 @@ public class StubProxyConfig implements ReflectableStub {
             return this;
         }
 
+        public Builder withYamlSource(final YamlSource yamlSource) {
+            this.yamlSource = yamlSource;
+
+            return this;
+        }
+
         @Override
         public String yamlFamilyName() {
             return ConfigurableYAMLProperty.PROXY_CONFIG.toString();
@@ -185,8 +201,8 @@ public class StubProxyConfig implements ReflectableStub {
             this.properties =
                     asCheckedLinkedHashMap(getStaged(Map.class, PROPERTIES, properties), String.class, String.class);
 
-            final StubProxyConfig stubProxyConfig =
-                    new StubProxyConfig(description, uuid, strategy, headers, properties, proxyConfigAsYAML);
+            final StubProxyConfig stubProxyConfig = new StubProxyConfig(
+                    description, uuid, strategy, headers, properties, proxyConfigAsYAML, yamlSource);
 
             reset();
 
@@ -202,6 +218,7 @@ public class StubProxyConfig implements ReflectableStub {
             this.headers = new LinkedHashMap<>();
             this.properties = new LinkedHashMap<>();
             this.proxyConfigAsYAML = null;
+            this.yamlSource = null;
         }
     }
 }
@@ -26,8 +26,10 @@ import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.UUID;
 import io.github.azagniotov.stubby4j.annotations.GeneratedCodeMethodCoverageExclusion;
 import io.github.azagniotov.stubby4j.stubs.AbstractBuilder;
 import io.github.azagniotov.stubby4j.stubs.ReflectableStub;
+import io.github.azagniotov.stubby4j.utils.ObjectUtils;
 import io.github.azagniotov.stubby4j.utils.ReflectionUtils;
 import io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty;
+import io.github.azagniotov.stubby4j.yaml.YamlSource;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -43,6 +45,8 @@ public class StubWebSocketConfig implements ReflectableStub {
     private final StubWebSocketServerResponse onOpenServerResponse;
     private final List<StubWebSocketOnMessageLifeCycle> onMessageLifeCycles;
     private final String webSocketConfigAsYAML;
+    // Renders the above YAML on demand, when it was not given upfront
+    private final YamlSource yamlSource;
 
     private StubWebSocketConfig(
             final String uuid,
@@ -51,7 +55,8 @@ public class StubWebSocketConfig implements ReflectableStub {
             final Set<String> subProtocols,
             final StubWebSocketServerResponse onOpenServerResponse,
             final List<StubWebSocketOnMessageLifeCycle> onMessageLifeCycles,
-            final String webSocketConfigAsYAML) {
+            final String webSocketConfigAsYAML,
+            final YamlSource yamlSource) {
         this.uuid = uuid;
         this.description = description;
         this.url = url;
@@ -59,6 +64,7 @@ public class StubWebSocketConfig implements ReflectableStub {
         this.onOpenServerResponse = onOpenServerResponse;
         this.onMessageLifeCycles = onMessageLifeCycles;
         this.webSocketConfigAsYAML = webSocketConfigAsYAML;
+        this.yamlSource = yamlSource;
     }
 
     public String getUuid() {
@@ -90,6 +96,9 @@ public class StubWebSocketConfig implements ReflectableStub {
      * It is used by {@link ReflectionUtils} at runtime when fetching content for Ajax response
      */
     public String getWebSocketConfigAsYAML() {
+        if (ObjectUtils.isNull(webSocketConfigAsYAML) && ObjectUtils.isNotNull(yamlSource)) {
+            return yamlSource.renderAsYamlList();
+        }
         return webSocketConfigAsYAML;
     }
 
@@ -122,6 +131,7 @@ public class StubWebSocketConfig implements ReflectableStub {
         private StubWebSocketServerResponse onOpenServerResponse;
         private List<StubWebSocketOnMessageLifeCycle> onMessageLifeCycles;
         private String webSocketConfigAsYAML;
+        private YamlSource yamlSource;
 
         public Builder() {
             super();
@@ -170,6 +180,12 @@ public class StubWebSocketConfig implements ReflectableStub {
             return this;
         }
 
+        public Builder withYamlSource(final YamlSource yamlSource) {
+            this.yamlSource = yamlSource;
+
+            return this;
+        }
+
         @Override
         public String yamlFamilyName() {
             return ConfigurableYAMLProperty.WEB_SOCKET.toString();
@@ -191,7 +207,8 @@ public class StubWebSocketConfig implements ReflectableStub {
                     splitCsv(this.subProtocols),
                     onOpenServerResponse,
                     onMessageLifeCycles,
-                    webSocketConfigAsYAML);
+                    webSocketConfigAsYAML,
+                    yamlSource);
 
             reset();
 
@@ -204,6 +221,7 @@ public class StubWebSocketConfig implements ReflectableStub {
             this.uuid = "";
             this.description = "";
             this.webSocketConfigAsYAML = null;
+            this.yamlSource = null;
             this.url = null;
             this.subProtocols = null;
             this.onOpenServerResponse = null;
@@ -27,34 +27,195 @@ import java.util.concurrent.BlockingQueue;
 
 public final class CollectionUtils {
 
+    private static final String URL_ENCODED_PLUS = "%2B";
+    private static final String URL_ENCODED_SPACE = "%20";
+    private static final String PLUS = "+";
+    private static final String URL_ENCODED_OPENING_SQUARE_BRACKET = "%5B";
+    private static final String URL_ENCODED_CLOSING_SQUARE_BRACKET = "%5D";
+    private static final String URL_ENCODED_DOUBLE_QUOTE = "%22";
+    private static final String URL_ENCODED_SINGLE_QUOTE = "%27";
+
     private CollectionUtils() {}
 
+    /**
+     * Parses raw query string into a map of query params in a single pass over the query string, i.e.: without
+     * splitting the query string into intermediate arrays and without regex based replacements.
+     * <p>
+     * Semantics of the parsing:
+     * <ul>
+     * <li>Query string is split into pairs on '&amp;', trailing empty pairs are ignored</li>
+     * <li>Pair is split into a key and a value on '=', anything after the second '=' (if any) is ignored</li>
+     * <li>Values within square brackets (raw or URL encoded) are treated as CSV arrays, e.g.: the value
+     * {@code %5B%22cheburashka%22,%20%22wendy%22%5D} becomes {@code ["cheburashka","wendy"]}</li>
+     * <li>URL encoded spaces in values are decoded, consecutive whitespace is collapsed into a single space</li>
+     * </ul>
+     *
+     * @param requestQueryString raw query string
+     * @return an ordered map of query params
+     */
     public static Map<String, String> constructParamMap(final String requestQueryString) {
         if (!StringUtils.isSet(requestQueryString)) {
             return new LinkedHashMap<>();
         }
 
         final Map<String, String> paramMap = new LinkedHashMap<>();
-        final String[] pairs = requestQueryString.split("&");
-        for (final String pair : pairs) {
-            final String[] splittedPair = pair.split("=");
-
-            final String splittedPairKey = splittedPair[0];
-            String splittedPairValue = splittedPair.length > 1 ? splittedPair[1] : "";
-
-            if (StringUtils.isWithinSquareBrackets(splittedPairValue)) {
-                final String cleansedValue =
-                        StringUtils.decodeUrlEncodedQuotes(StringUtils.removeSquareBrackets(splittedPairValue));
-                final String bracketedQueryValueAsCSV =
-                        Arrays.asList(cleansedValue.split(",")).toString();
-                splittedPairValue = StringUtils.trimSpacesBetweenCSVElements(bracketedQueryValueAsCSV);
+
+        int queryEnd = requestQueryString.length();
+        while (queryEnd > 0 && requestQueryString.charAt(queryEnd - 1) == '&') {
+            queryEnd--;
+        }
+
+        int pairStart = 0;
+        while (pairStart < queryEnd) {
+            int pairEnd = requestQueryString.indexOf('&', pairStart);
+            if (pairEnd == -1) {
+                pairEnd = queryEnd;
             }
 
-            paramMap.put(splittedPairKey, StringUtils.decodeUrlEncoded(splittedPairValue));
+            final int keyEnd = indexOf(requestQueryString, '=', pairStart, pairEnd);
+            if (keyEnd == -1) {
+                paramMap.put(requestQueryString.substring(pairStart, pairEnd), "");
+            } else {
+                int valueEnd = indexOf(requestQueryString, '=', keyEnd + 1, pairEnd);
+                if (valueEnd == -1) {
+                    valueEnd = pairEnd;
+                }
+
+                final String key = requestQueryString.substring(pairStart, keyEnd);
+                final String value = requestQueryString.substring(keyEnd + 1, valueEnd);
+                paramMap.put(key, decodeQueryParamValue(value));
+            }
+
+            pairStart = pairEnd + 1;
         }
+
         return paramMap;
     }
 
+    private static int indexOf(final String source, final char toFind, final int fromIndex, final int toIndex) {
+        final int index = source.indexOf(toFind, fromIndex);
+
+        return index < toIndex ? index : -1;
+    }
+
+    private static String decodeQueryParamValue(final String value) {
+        final String csvAwareValue = StringUtils.isWithinSquareBrackets(value) ? toBracketedCsv(value) : value;
+
+        if (csvAwareValue.contains(URL_ENCODED_PLUS)) {
+            return replaceWithSpaceAndCollapseWhitespace(csvAwareValue, URL_ENCODED_PLUS);
+        } else if (csvAwareValue.contains(URL_ENCODED_SPACE)) {
+            return replaceWithSpaceAndCollapseWhitespace(csvAwareValue, URL_ENCODED_SPACE);
+        } else if (csvAwareValue.indexOf('+') != -1) {
+            return replaceWithSpaceAndCollapseWhitespace(csvAwareValue, PLUS);
+        }
+
+        return csvAwareValue;
+    }
+
+    private static String toBracketedCsv(final String value) {
+        final int length = value.length();
+
+        // Square brackets, raw or URL encoded, are dropped wherever they are
+        final StringBuilder unbracketed = new StringBuilder(length);
+        int idx = 0;
+        while (idx < length) {
+            if (value.startsWith(URL_ENCODED_OPENING_SQUARE_BRACKET, idx)
+                    || value.startsWith(URL_ENCODED_CLOSING_SQUARE_BRACKET, idx)) {
+                idx += URL_ENCODED_OPENING_SQUARE_BRACKET.length();
+            } else if (value.charAt(idx) == '[' || value.charAt(idx) == ']') {
+                idx++;
+            } else {
+                unbracketed.append(value.charAt(idx++));
+            }
+        }
+
+        // Trailing empty CSV elements are ignored
+        int unbracketedEnd = unbracketed.length();
+        while (unbracketedEnd > 0 && unbracketed.charAt(unbracketedEnd - 1) == ',') {
+            unbracketedEnd--;
+        }
+
+        // URL encoded quotes are decoded, and whitespace that follows CSV delimiters is dropped
+        final StringBuilder csv = new StringBuilder(unbracketedEnd + 2).append('[');
+        boolean isAfterDelimiter = false;
+        idx = 0;
+        while (idx < unbracketedEnd) {
+            final char character = unbracketed.charAt(idx);
+            if (character == '%' && startsWith(unbracketed, URL_ENCODED_DOUBLE_QUOTE, idx, unbracketedEnd)) {
+                csv.append('"');
+                idx += URL_ENCODED_DOUBLE_QUOTE.length();
+                isAfterDelimiter = false;
+            } else if (character == '%' && startsWith(unbracketed, URL_ENCODED_SINGLE_QUOTE, idx, unbracketedEnd)) {
+                csv.append('\'');
+                idx += URL_ENCODED_SINGLE_QUOTE.length();
+                isAfterDelimiter = false;
+            } else {
+                if (character == ',') {
+                    csv.append(character);
+                    isAfterDelimiter = true;
+                } else if (!(isAfterDelimiter && isWhitespace(character))) {
+                    csv.append(character);
+                    isAfterDelimiter = false;
+                }
+                idx++;
+            }
+        }
+
+        return csv.append(']').toString();
+    }
+
+    private static String replaceWithSpaceAndCollapseWhitespace(final String value, final String toReplace) {
+        final int length = value.length();
+        final StringBuilder replaced = new StringBuilder(length);
+
+        boolean isAfterWhitespace = false;
+        int idx = 0;
+        while (idx < length) {
+            final boolean isWhitespace;
+            if (value.startsWith(toReplace, idx)) {
+                isWhitespace = true;
+                idx += toReplace.length();
+            } else {
+                final char character = value.charAt(idx++);
+                isWhitespace = isWhitespace(character);
+                if (!isWhitespace) {
+                    replaced.append(character);
+                }
+            }
+
+            if (isWhitespace && !isAfterWhitespace) {
+                replaced.append(' ');
+            }
+            isAfterWhitespace = isWhitespace;
+        }
+
+        return replaced.toString();
+    }
+
+    private static boolean startsWith(
+            final CharSequence source, final String prefix, final int fromIndex, final int toIndex) {
+        if (fromIndex + prefix.length() > toIndex) {
+            return false;
+        }
+        for (int idx = 0; idx < prefix.length(); idx++) {
+            if (source.charAt(fromIndex + idx) != prefix.charAt(idx)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Same set of characters as matched by the regex '\s' character class
+    private static boolean isWhitespace(final char character) {
+        return character == ' '
+                || character == '\t'
+                || character == '\n'
+                || character == '\u000B'
+                || character == '\f'
+                || character == '\r';
+    }
+
     public static String constructQueryString(final Map<String, String> query) {
         final Set<Map.Entry<String, String>> mapEntries = query.entrySet();
         final Iterator<Map.Entry<String, String>> iterator = mapEntries.iterator();
@@ -200,6 +200,10 @@ public final class ConsoleUtils {
         debug = isDebug;
     }
 
+    public static boolean isDebug() {
+        return debug;
+    }
+
     private static void lorFormattedResponse(int status) {
         final String logMessage =
                 String.format("[%s] <= %s %s\n", getLocalDateTime(), status, HttpStatus.getMessage(status));
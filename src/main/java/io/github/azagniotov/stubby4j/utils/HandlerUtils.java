@@ -25,6 +25,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 
 import io.github.azagniotov.stubby4j.cli.ANSITerminal;
 import io.github.azagniotov.stubby4j.common.Common;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Locale;
@@ -37,7 +38,14 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings("serial")
 public final class HandlerUtils {
 
+    // The largest byte[] most JVMs can allocate, i.e.: effectively no limit on the request body size
+    public static final int DEFAULT_MAX_REQUEST_BODY_BYTES = Integer.MAX_VALUE - 8;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(HandlerUtils.class);
+    private static final int READ_BUFFER_SIZE_BYTES = 8192;
+    private static final String ESCAPED_FORWARD_SLASH = "\\/";
+
+    private static volatile int maxRequestBodyBytes = DEFAULT_MAX_REQUEST_BODY_BYTES;
 
     private HandlerUtils() {}
 
@@ -96,16 +104,24 @@ public final class HandlerUtils {
         return String.format(getHtmlResourceByName(templateName), params);
     }
 
-    public static String extractPostRequestBody(final HttpServletRequest request, final String source)
-            throws IOException {
+    public static String extractPostRequestBody(final HttpServletRequest request, final String source) {
         if (!Common.POSTING_METHODS.contains(request.getMethod().toUpperCase())) {
             return null;
         }
 
         try {
-            final String requestContent = StringUtils.inputStreamToString(request.getInputStream());
+            final byte[] requestContentBytes = readRequestBodyBytes(request.getInputStream(), maxRequestBodyBytes);
+            if (requestContentBytes.length == 0) {
+                return null;
+            }
+            final String requestContent = StringUtils.newStringUtf8(requestContentBytes).trim();
+
+            // https://code.google.com/p/snakeyaml/issues/detail?id=93
+            if (requestContent.contains(ESCAPED_FORWARD_SLASH)) {
+                return requestContent.replace(ESCAPED_FORWARD_SLASH, "/");
+            }
 
-            return requestContent.replaceAll("\\\\/", "/"); // https://code.google.com/p/snakeyaml/issues/detail?id=93
+            return requestContent;
         } catch (final Exception ex) {
             final String err = String.format("Error when extracting POST body: %s, returning null..", ex.toString());
             ConsoleUtils.logIncomingRequestError(request, source, err);
@@ -113,6 +129,41 @@ public final class HandlerUtils {
         }
     }
 
+    /**
+     * Sets the upper bound on the number of bytes read from an incoming request body. Bodies larger
+     * than the limit are not read in full, and are treated as if the body could not be extracted.
+     *
+     * @param maxBytes the maximum number of request body bytes to read
+     */
+    public static void configureMaxRequestBodyBytes(final int maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Max request body size must be a positive number of bytes, got: %s", maxBytes));
+        }
+        maxRequestBodyBytes = maxBytes;
+    }
+
+    static byte[] readRequestBodyBytes(final InputStream inputStream, final int maxBytes) throws IOException {
+        if (ObjectUtils.isNull(inputStream)) {
+            return new byte[] {};
+        }
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[READ_BUFFER_SIZE_BYTES];
+        int totalBytesRead = 0;
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer)) != -1) {
+            totalBytesRead += bytesRead;
+            if (totalBytesRead > maxBytes || totalBytesRead < 0) {
+                throw new IOException(
+                        String.format("Request body exceeds the configured limit of %s bytes", maxBytes));
+            }
+            outputStream.write(buffer, 0, bytesRead);
+        }
+
+        return outputStream.toByteArray();
+    }
+
     public static String calculateStubbyUpTime(final long timestamp) {
         final long days = MILLISECONDS.toDays(timestamp);
         final long hours = MILLISECONDS.toHours(timestamp) - DAYS.toHours(MILLISECONDS.toDays(timestamp));
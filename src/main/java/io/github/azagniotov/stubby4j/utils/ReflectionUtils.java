@@ -34,7 +34,8 @@ public final class ReflectionUtils {
 
     // These fields are defined in various Stub* classes, e.g.: StubRequest or StubProxyConfig
     private static List<String> reflectionSkippableProperties = Collections.unmodifiableList(
-            Arrays.asList("proxyConfigAsYAML", "webSocketConfigAsYAML", "regexGroups", "fileBytes"));
+            Arrays.asList(
+                    "proxyConfigAsYAML", "webSocketConfigAsYAML", "yamlSource", "regexGroups", "fileBytes"));
 
     private ReflectionUtils() {}
 
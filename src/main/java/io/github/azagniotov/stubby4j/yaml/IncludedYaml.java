@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.yaml;
+
+import java.io.File;
+
+/**
+ * Describes what was loaded from one of the YAMLs listed under the {@code includes} of the main YAML. The
+ * stubs of the included YAMLs are loaded one after another in the order of the includes, so the number
+ * of stubs loaded from each include is enough to tell where its stubs are.
+ */
+public final class IncludedYaml {
+
+    private final File file;
+    private final int stubCount;
+    private final boolean hasProxyOrWebSocketConfigs;
+
+    public IncludedYaml(final File file, final int stubCount, final boolean hasProxyOrWebSocketConfigs) {
+        this.file = file;
+        this.stubCount = stubCount;
+        this.hasProxyOrWebSocketConfigs = hasProxyOrWebSocketConfigs;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getStubCount() {
+        return stubCount;
+    }
+
+    public boolean hasProxyOrWebSocketConfigs() {
+        return hasProxyOrWebSocketConfigs;
+    }
+}
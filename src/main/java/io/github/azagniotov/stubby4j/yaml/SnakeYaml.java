@@ -19,6 +19,7 @@ package io.github.azagniotov.stubby4j.yaml;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.BaseConstructor;
 import org.yaml.snakeyaml.constructor.Constructor;
 import org.yaml.snakeyaml.representer.Representer;
 import org.yaml.snakeyaml.resolver.Resolver;
@@ -26,18 +27,33 @@ import org.yaml.snakeyaml.resolver.Resolver;
 public enum SnakeYaml {
     INSTANCE;
 
-    private final Yaml snakeYaml;
+    // SnakeYAML instances are not thread-safe, while YAML configs are parsed concurrently on the fork-join pool
+    private final ThreadLocal<Yaml> snakeYaml;
 
     SnakeYaml() {
-        snakeYaml = new Yaml(
-                new Constructor(new LoaderOptions()),
-                new Representer(new DumperOptions()),
-                new DumperOptions(),
-                new YamlParserResolver());
+        snakeYaml = ThreadLocal.withInitial(() ->
+                new Yaml(newConstructor(), new Representer(new DumperOptions()), new DumperOptions(), newResolver()));
     }
 
+    /**
+     * @return {@link Yaml} instance confined to the calling thread
+     */
     public Yaml getSnakeYaml() {
-        return snakeYaml;
+        return snakeYaml.get();
+    }
+
+    /**
+     * @return a new constructor of Java objects from YAML nodes, same as used by the {@link Yaml} instances
+     */
+    BaseConstructor newConstructor() {
+        return new Constructor(new LoaderOptions());
+    }
+
+    /**
+     * @return a new resolver of YAML node tags, same as used by the {@link Yaml} instances
+     */
+    Resolver newResolver() {
+        return new YamlParserResolver();
     }
 
     private static final class YamlParserResolver extends Resolver {
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.yaml;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.constructor.BaseConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+/**
+ * Loads the items of the top-level sequence of a YAML one at a time, instead of loading the whole YAML into nested
+ * {@link Map}s and {@link List}s at once. This way, only the item being loaded is held in memory on top of what
+ * was already built from the previous items.
+ * <p>
+ * The SnakeYAML events of the YAML are re-arranged, so that every item of the top-level sequence becomes a YAML
+ * document of its own, which is composed and constructed the same way as the whole YAML would be by
+ * {@link org.yaml.snakeyaml.Yaml#load(InputStream)}. As YAML anchors do not outlive their document, an alias to
+ * an anchor defined in one of the previous items (or in one of the previously loaded YAMLs sharing the same
+ * anchored nodes) is replaced with the events of the anchored node.
+ * <p>
+ * When the root of the YAML is not a sequence, e.g.: the main YAML with includes, the YAML is loaded as a whole.
+ */
+final class StreamingYamlLoader {
+
+    private final ItemsParser itemsParser;
+    private final BaseConstructor constructor;
+
+    /**
+     * @param configAsStream YAML to load
+     * @param anchoredNodes  events of the anchored nodes loaded so far, keyed by the anchor. Shared between the
+     *                       loaders of the YAMLs, which may refer to the anchors of each other, e.g.: included YAMLs
+     */
+    StreamingYamlLoader(final InputStream configAsStream, final Map<String, List<Event>> anchoredNodes) {
+        final LoaderOptions loaderOptions = new LoaderOptions();
+        this.itemsParser = new ItemsParser(
+                new ParserImpl(new StreamReader(new UnicodeReader(configAsStream)), loaderOptions), anchoredNodes);
+        this.constructor = SnakeYaml.INSTANCE.newConstructor();
+        this.constructor.setComposer(new Composer(itemsParser, SnakeYaml.INSTANCE.newResolver(), loaderOptions));
+    }
+
+    /**
+     * @return true if the root of the YAML is a sequence, whose items should be loaded using {@link #nextItem()}
+     */
+    boolean isRootSequence() {
+        return itemsParser.isRootSequence();
+    }
+
+    /**
+     * Loads the whole YAML, when its root is not a sequence
+     *
+     * @return the loaded YAML, or null if the YAML is empty
+     */
+    Object loadRoot() {
+        if (isRootSequence()) {
+            throw new IllegalStateException("Items of the top-level sequence must be loaded one at a time");
+        }
+        return constructor.getSingleData(Object.class);
+    }
+
+    boolean hasNextItem() {
+        return isRootSequence() && constructor.checkData();
+    }
+
+    /**
+     * @return the next item of the top-level sequence
+     */
+    Object nextItem() {
+        return constructor.getData();
+    }
+
+    /**
+     * Skips the next item of the top-level sequence, without constructing it. The anchors defined in the item
+     * are still recorded
+     */
+    void skipItem() {
+        Event event;
+        do {
+            event = itemsParser.getEvent();
+        } while (!(event instanceof DocumentEndEvent));
+    }
+
+    /**
+     * @return true if the YAML referred to an anchor defined in another YAML sharing the same anchored nodes
+     */
+    boolean isReferringToOtherYamlAnchors() {
+        return itemsParser.isReferringToOtherYamlAnchors();
+    }
+
+    /**
+     * Turns the events of a YAML with a top-level sequence into a stream of YAML documents, one per sequence item.
+     * Events of other YAMLs are passed through as is.
+     */
+    private static final class ItemsParser implements Parser {
+
+        private final Parser parser;
+        private final Map<String, List<Event>> anchoredNodes;
+        private final Deque<Event> pendingEvents;
+        private final boolean rootSequence;
+
+        // Anchors defined in the document of the current item, i.e.: which the aliases can refer to as is
+        private final Set<String> documentAnchors;
+        // Anchors defined in this YAML, as opposed to the anchors of the other YAMLs sharing the anchored nodes
+        private final Set<String> yamlAnchors;
+        private boolean referringToOtherYamlAnchors;
+        private final List<AnchoredNodeRecording> recordings;
+        private int depth;
+        private boolean exhausted;
+
+        private ItemsParser(final Parser parser, final Map<String, List<Event>> anchoredNodes) {
+            this.parser = parser;
+            this.anchoredNodes = anchoredNodes;
+            this.pendingEvents = new ArrayDeque<>();
+            this.documentAnchors = new HashSet<>();
+            this.yamlAnchors = new HashSet<>();
+            this.referringToOtherYamlAnchors = false;
+            this.recordings = new ArrayList<>();
+            this.depth = 0;
+            this.exhausted = false;
+
+            pendingEvents.add(parser.getEvent()); // StreamStart
+            final Event nextEvent = parser.peekEvent();
+            if (nextEvent instanceof DocumentStartEvent && isPlainDocumentStart((DocumentStartEvent) nextEvent)) {
+                final Event documentStartEvent = parser.getEvent();
+                final Event rootEvent = parser.peekEvent();
+                this.rootSequence =
+                        rootEvent instanceof SequenceStartEvent && ((SequenceStartEvent) rootEvent).getAnchor() == null;
+                if (rootSequence) {
+                    parser.getEvent();
+                } else {
+                    pendingEvents.add(documentStartEvent);
+                }
+            } else {
+                this.rootSequence = false;
+            }
+        }
+
+        private static boolean isPlainDocumentStart(final DocumentStartEvent documentStartEvent) {
+            // Directives, e.g.: %TAG, apply to the whole document, so they cannot be split across the items
+            return documentStartEvent.getVersion() == null
+                    && (documentStartEvent.getTags() == null
+                            || documentStartEvent.getTags().isEmpty());
+        }
+
+        boolean isRootSequence() {
+            return rootSequence;
+        }
+
+        boolean isReferringToOtherYamlAnchors() {
+            return referringToOtherYamlAnchors;
+        }
+
+        @Override
+        public boolean checkEvent(final Event.ID choice) {
+            final Event event = peekEvent();
+            return event != null && event.is(choice);
+        }
+
+        @Override
+        public Event peekEvent() {
+            if (pendingEvents.isEmpty()) {
+                if (!rootSequence) {
+                    return parser.peekEvent();
+                }
+                fillPendingEvents();
+            }
+            return pendingEvents.peekFirst();
+        }
+
+        @Override
+        public Event getEvent() {
+            final Event event = peekEvent();
+            if (!pendingEvents.isEmpty()) {
+                pendingEvents.pollFirst();
+                return event;
+            }
+            return parser.getEvent();
+        }
+
+        private void fillPendingEvents() {
+            if (exhausted) {
+                return;
+            }
+
+            if (depth > 0) {
+                addItemEvent(parser.getEvent());
+                return;
+            }
+
+            final Event event = parser.peekEvent();
+            if (event instanceof CollectionEndEvent) {
+                // The end of the top-level sequence, followed by the end of the YAML document
+                parser.getEvent();
+                parser.getEvent();
+                if (!parser.checkEvent(Event.ID.StreamEnd)) {
+                    final Event nextEvent = parser.getEvent();
+                    throw new YAMLException(
+                            "expected a single document in the stream, but found another document"
+                                    + nextEvent.getStartMark());
+                }
+                pendingEvents.add(parser.getEvent());
+                exhausted = true;
+                return;
+            }
+
+            pendingEvents.add(new DocumentStartEvent(
+                    event.getStartMark(), event.getStartMark(), false, null, Collections.emptyMap()));
+            documentAnchors.clear();
+            addItemEvent(parser.getEvent());
+        }
+
+        private void addItemEvent(final Event event) {
+            if (event instanceof AliasEvent) {
+                final String anchor = ((AliasEvent) event).getAnchor();
+                if (!documentAnchors.contains(anchor) && anchoredNodes.containsKey(anchor)) {
+                    // The anchor was defined in another document, so its node is re-played in this document
+                    if (!yamlAnchors.contains(anchor)) {
+                        referringToOtherYamlAnchors = true;
+                    }
+                    for (final Event anchoredNodeEvent : anchoredNodes.get(anchor)) {
+                        addEvent(anchoredNodeEvent);
+                    }
+                    return;
+                }
+            }
+            addEvent(event);
+        }
+
+        private void addEvent(final Event event) {
+            if (event instanceof NodeEvent && !(event instanceof AliasEvent)) {
+                final String anchor = ((NodeEvent) event).getAnchor();
+                if (anchor != null) {
+                    documentAnchors.add(anchor);
+                    yamlAnchors.add(anchor);
+                    recordings.add(new AnchoredNodeRecording(anchor, depth));
+                }
+            }
+
+            pendingEvents.add(event);
+            for (final AnchoredNodeRecording recording : recordings) {
+                recording.events.add(event);
+            }
+
+            if (event instanceof CollectionStartEvent) {
+                depth++;
+            } else if (event instanceof CollectionEndEvent) {
+                depth--;
+            }
+
+            final Iterator<AnchoredNodeRecording> recordingsIterator = recordings.iterator();
+            while (recordingsIterator.hasNext()) {
+                final AnchoredNodeRecording recording = recordingsIterator.next();
+                if (recording.depth == depth) {
+                    anchoredNodes.put(recording.anchor, recording.events);
+                    recordingsIterator.remove();
+                }
+            }
+
+            if (depth == 0) {
+                pendingEvents.add(new DocumentEndEvent(event.getEndMark(), event.getEndMark(), false));
+            }
+        }
+    }
+
+    private static final class AnchoredNodeRecording {
+        private final String anchor;
+        private final int depth;
+        private final List<Event> events;
+
+        private AnchoredNodeRecording(final String anchor, final int depth) {
+            this.anchor = anchor;
+            this.depth = depth;
+            this.events = new ArrayList<>();
+        }
+    }
+}
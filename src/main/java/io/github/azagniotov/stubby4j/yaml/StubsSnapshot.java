@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.yaml;
+
+import static io.github.azagniotov.stubby4j.utils.FileUtils.constructInputStream;
+import static io.github.azagniotov.stubby4j.utils.FileUtils.isFilePathContainTemplateTokens;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.BODY;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.FILE;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.HEADERS;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.LATENCY;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.METHOD;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.POST;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.QUERY;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.STATUS;
+import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.URL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.github.azagniotov.stubby4j.cli.ANSITerminal;
+import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
+import io.github.azagniotov.stubby4j.stubs.StubRequest;
+import io.github.azagniotov.stubby4j.stubs.StubResponse;
+import io.github.azagniotov.stubby4j.stubs.proxy.StubProxyConfig;
+import io.github.azagniotov.stubby4j.utils.ObjectUtils;
+import io.github.azagniotov.stubby4j.utils.StringUtils;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+import org.eclipse.jetty.http.HttpStatus.Code;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles the stubs parsed from a YAML config into a compact binary snapshot, which can be loaded on startup
+ * instead of parsing the YAML config, i.e.: without loading the YAML with SnakeYAML, walking the loaded YAML
+ * mappings and dumping them back to YAML for the admin portal.
+ * <p>
+ * Besides the stubs, the snapshot holds the CRC32 checksums of the main YAML, its included YAMLs and the external
+ * files referenced by the stubs. A snapshot is loaded only when none of them changed since the snapshot was
+ * compiled, otherwise the YAML config has to be parsed as usual. The contents of the external files are not part
+ * of the snapshot, they are read from disk when the stubs are loaded, same as when the YAML config is parsed.
+ * <p>
+ * Web socket configs cannot be compiled into a snapshot.
+ */
+public final class StubsSnapshot {
+
+    // Bump the version whenever the layout of the snapshot changes, so that older snapshots are not loaded
+    static final int FORMAT_VERSION = 1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StubsSnapshot.class);
+
+    // "S4JS", written at the start and at the end of a snapshot, so that a truncated snapshot is not loaded
+    private static final int MAGIC = 0x53344A53;
+    private static final int NULL_LENGTH = -1;
+    private static final long MISSING_FILE_LENGTH = -1L;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private StubsSnapshot() {}
+
+    /**
+     * Parses the YAML config, and writes the parsed stubs and proxy configs into the snapshot file
+     *
+     * @param configFile   main YAML config
+     * @param snapshotFile snapshot file to write, which is overwritten when it exists
+     * @return the parsed YAML config
+     * @throws IOException when the YAML config cannot be parsed or has web socket configs, or when the snapshot
+     *                     file cannot be written
+     */
+    public static YamlParseResultSet compile(final File configFile, final File snapshotFile) throws IOException {
+        final YamlParser yamlParser = new YamlParser();
+        final YamlParseResultSet yamlParseResultSet = yamlParser.parse(configFile.getParent(), configFile);
+        if (!yamlParseResultSet.getWebSocketConfigs().isEmpty()) {
+            throw new IOException("Web socket configs cannot be compiled into a snapshot");
+        }
+
+        final Set<File> sourceFiles = collectSourceFiles(yamlParser, configFile, yamlParseResultSet);
+        try (final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(snapshotFile), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeSourceFiles(out, sourceFiles);
+            writeStubs(out, yamlParseResultSet.getStubs());
+            writeProxyConfigs(out, yamlParseResultSet.getProxyConfigs().values());
+            writeIncludedYamls(out, yamlParseResultSet.getIncludedYamls());
+            out.writeInt(MAGIC);
+        }
+
+        return yamlParseResultSet;
+    }
+
+    /**
+     * Loads the stubs and proxy configs from the snapshot file, when the snapshot was compiled from the given
+     * YAML config, and none of its source files changed since then.
+     *
+     * @param configFile   main YAML config
+     * @param snapshotFile snapshot file to load
+     * @return an {@link Optional} describing the loaded stubs, or an empty {@link Optional} if the snapshot is
+     * missing, corrupted, stale or of an unsupported version, in which case the YAML config should be parsed
+     */
+    public static Optional<YamlParseResultSet> load(final File configFile, final File snapshotFile) {
+        if (!snapshotFile.isFile()) {
+            return skip(snapshotFile, "the snapshot does not exist");
+        }
+
+        try (final DataInputStream in =
+                new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                return skip(snapshotFile, "the file is not a stubs snapshot");
+            }
+            final int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                return skip(
+                        snapshotFile, String.format("the snapshot format version %s is unsupported", formatVersion));
+            }
+
+            final Optional<String> staleReason = checkSourceFiles(in, configFile);
+            if (staleReason.isPresent()) {
+                return skip(snapshotFile, staleReason.get());
+            }
+
+            final List<StubHttpLifecycle> stubs = readStubs(in);
+            final Map<String, StubProxyConfig> proxyConfigs = readProxyConfigs(in);
+            final List<IncludedYaml> includedYamls = readIncludedYamls(in);
+            if (in.readInt() != MAGIC) {
+                return skip(snapshotFile, "the snapshot is corrupted");
+            }
+
+            final Map<String, StubHttpLifecycle> uuidToStubs = new HashMap<>();
+            for (final StubHttpLifecycle stub : stubs) {
+                if (StringUtils.isSet(stub.getUUID())) {
+                    uuidToStubs.put(stub.getUUID(), stub);
+                }
+            }
+
+            return Optional.of(
+                    new YamlParseResultSet(stubs, uuidToStubs, proxyConfigs, new LinkedHashMap<>(), includedYamls));
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.debug("Could not load stubs snapshot {}.", snapshotFile.getAbsolutePath(), e);
+
+            return skip(snapshotFile, "the snapshot is corrupted");
+        }
+    }
+
+    private static Optional<YamlParseResultSet> skip(final File snapshotFile, final String reason) {
+        final String msg = String.format(
+                "Stubs snapshot %s is not loaded, because %s. Parsing YAML config instead",
+                snapshotFile.getAbsolutePath(), reason);
+        ANSITerminal.warn(msg);
+        LOGGER.warn(msg);
+
+        return Optional.empty();
+    }
+
+    private static Set<File> collectSourceFiles(
+            final YamlParser yamlParser, final File configFile, final YamlParseResultSet yamlParseResultSet)
+            throws IOException {
+        // The main YAML always comes first, see checkSourceFiles(DataInputStream, File)
+        final Set<File> sourceFiles = new LinkedHashSet<>();
+        sourceFiles.add(normalize(configFile));
+
+        try (final InputStream configInputStream = constructInputStream(configFile)) {
+            final Object loadedConfig = yamlParser.loadRawYamlConfig(configInputStream);
+            if (yamlParser.isMainYamlHasIncludes(loadedConfig)) {
+                for (final File yamlInclude : yamlParser.getYamlIncludes(configFile.getParent(), loadedConfig)) {
+                    sourceFiles.add(normalize(yamlInclude));
+                }
+            }
+        }
+
+        for (final StubHttpLifecycle stub : yamlParseResultSet.getStubs()) {
+            addExternalFile(sourceFiles, stub.getRequest().getRawFile());
+            for (final StubResponse response : stub.getResponses()) {
+                addExternalFile(sourceFiles, response.getRawFile());
+            }
+        }
+
+        return sourceFiles;
+    }
+
+    private static void addExternalFile(final Set<File> sourceFiles, final File file) {
+        // Templated file paths are resolved for every incoming request, so there is no single file to check
+        if (ObjectUtils.isNotNull(file) && !isFilePathContainTemplateTokens(file)) {
+            sourceFiles.add(normalize(file));
+        }
+    }
+
+    private static File normalize(final File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    private static void writeSourceFiles(final DataOutputStream out, final Set<File> sourceFiles) throws IOException {
+        out.writeInt(sourceFiles.size());
+        for (final File sourceFile : sourceFiles) {
+            writeString(out, sourceFile.getPath());
+            out.writeLong(sourceFile.isFile() ? sourceFile.length() : MISSING_FILE_LENGTH);
+            out.writeLong(sourceFile.isFile() ? checksum(sourceFile) : 0L);
+        }
+    }
+
+    private static Optional<String> checkSourceFiles(final DataInputStream in, final File configFile)
+            throws IOException {
+        final int sourceFilesCount = in.readInt();
+        for (int idx = 0; idx < sourceFilesCount; idx++) {
+            final File sourceFile = new File(readString(in));
+            final long length = in.readLong();
+            final long checksum = in.readLong();
+
+            if (idx == 0 && !sourceFile.equals(normalize(configFile))) {
+                return Optional.of(String.format("it was compiled from %s", sourceFile.getPath()));
+            }
+
+            final long currentLength = sourceFile.isFile() ? sourceFile.length() : MISSING_FILE_LENGTH;
+            if (currentLength != length
+                    || (currentLength != MISSING_FILE_LENGTH && checksum(sourceFile) != checksum)) {
+                return Optional.of(String.format("%s changed since the snapshot was compiled", sourceFile.getPath()));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private static long checksum(final File file) throws IOException {
+        final CRC32 crc32 = new CRC32();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (final InputStream inputStream = new FileInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                crc32.update(buffer, 0, read);
+            }
+        }
+
+        return crc32.getValue();
+    }
+
+    private static void writeStubs(final DataOutputStream out, final List<StubHttpLifecycle> stubs)
+            throws IOException {
+        out.writeInt(stubs.size());
+        for (final StubHttpLifecycle stub : stubs) {
+            writeString(out, stub.getDescription());
+            writeString(out, stub.getUUID());
+            writeString(out, stub.getCompleteYaml());
+            writeString(out, stub.getRequestAsYAML());
+            writeString(out, stub.getResponseAsYAML());
+
+            final StubRequest request = stub.getRequest();
+            writeString(out, request.getUri());
+            writeStrings(out, request.getMethod());
+            writeString(out, request.getPost());
+            writeFile(out, request.getRawFile());
+            writeMap(out, request.getHeaders());
+            writeMap(out, request.getQuery());
+
+            final List<StubResponse> responses = stub.getResponses();
+            out.writeBoolean(stub.hasSequencedResponses());
+            out.writeInt(responses.size());
+            for (final StubResponse response : responses) {
+                final Code httpStatusCode = response.getHttpStatusCode();
+                writeString(out, ObjectUtils.isNull(httpStatusCode) ? null : String.valueOf(httpStatusCode.getCode()));
+                writeString(out, response.getBody());
+                writeFile(out, response.getRawFile());
+                writeString(out, response.getLatency());
+                writeMap(out, response.getHeaders());
+            }
+        }
+    }
+
+    private static List<StubHttpLifecycle> readStubs(final DataInputStream in) throws IOException {
+        final int stubsCount = in.readInt();
+        final List<StubHttpLifecycle> stubs = new ArrayList<>(stubsCount);
+        for (int resourceId = 0; resourceId < stubsCount; resourceId++) {
+            final StubHttpLifecycle.Builder stubBuilder = new StubHttpLifecycle.Builder()
+                    .withDescription(readString(in))
+                    .withUUID(readString(in))
+                    .withCompleteYAML(readString(in))
+                    .withRequestAsYAML(readString(in))
+                    .withResponseAsYAML(readString(in));
+
+            final StubRequest.Builder requestBuilder = new StubRequest.Builder();
+            requestBuilder.stage(URL, Optional.ofNullable(readString(in)));
+            requestBuilder.stage(METHOD, Optional.of(readStrings(in)));
+            requestBuilder.stage(POST, Optional.ofNullable(readString(in)));
+            requestBuilder.stage(FILE, Optional.ofNullable(readFile(in)));
+            requestBuilder.stage(HEADERS, Optional.of(readMap(in)));
+            requestBuilder.stage(QUERY, Optional.of(readMap(in)));
+            final StubRequest stubRequest = requestBuilder.build();
+            stubRequest.compileRegexPatternsAndCache();
+            stubBuilder.withRequest(stubRequest);
+
+            final boolean hasSequencedResponses = in.readBoolean();
+            final int responsesCount = in.readInt();
+            final List<StubResponse> responses = new ArrayList<>(responsesCount);
+            for (int idx = 0; idx < responsesCount; idx++) {
+                final StubResponse.Builder responseBuilder = new StubResponse.Builder();
+                responseBuilder.stage(STATUS, Optional.ofNullable(readString(in)));
+                responseBuilder.stage(BODY, Optional.ofNullable(readString(in)));
+                responseBuilder.stage(FILE, Optional.ofNullable(readFile(in)));
+                responseBuilder.stage(LATENCY, Optional.ofNullable(readString(in)));
+                responseBuilder.stage(HEADERS, Optional.of(readMap(in)));
+                responses.add(responseBuilder.build());
+            }
+            stubBuilder.withResponse(hasSequencedResponses ? responses : responses.get(0));
+
+            stubs.add(stubBuilder.withResourceId(resourceId).build());
+        }
+
+        return stubs;
+    }
+
+    private static void writeProxyConfigs(final DataOutputStream out, final Collection<StubProxyConfig> proxyConfigs)
+            throws IOException {
+        out.writeInt(proxyConfigs.size());
+        for (final StubProxyConfig proxyConfig : proxyConfigs) {
+            writeString(out, proxyConfig.getDescription());
+            writeString(out, proxyConfig.getUUID());
+            writeString(out, proxyConfig.getStrategy().toString());
+            writeMap(out, proxyConfig.getHeaders());
+            writeMap(out, proxyConfig.getProperties());
+            writeString(out, proxyConfig.getProxyConfigAsYAML());
+        }
+    }
+
+    private static Map<String, StubProxyConfig> readProxyConfigs(final DataInputStream in) throws IOException {
+        final int proxyConfigsCount = in.readInt();
+        final Map<String, StubProxyConfig> proxyConfigs = new HashMap<>();
+        for (int idx = 0; idx < proxyConfigsCount; idx++) {
+            final StubProxyConfig.Builder proxyConfigBuilder = new StubProxyConfig.Builder()
+                    .withDescription(readString(in))
+                    .withUuid(readString(in))
+                    .withStrategy(readString(in));
+            readMap(in).forEach(proxyConfigBuilder::withHeader);
+            readMap(in).forEach(proxyConfigBuilder::withProperty);
+            final StubProxyConfig proxyConfig =
+                    proxyConfigBuilder.withProxyConfigAsYAML(readString(in)).build();
+            proxyConfigs.put(proxyConfig.getUUID(), proxyConfig);
+        }
+
+        return proxyConfigs;
+    }
+
+    private static void writeIncludedYamls(final DataOutputStream out, final List<IncludedYaml> includedYamls)
+            throws IOException {
+        out.writeInt(includedYamls.size());
+        for (final IncludedYaml includedYaml : includedYamls) {
+            writeFile(out, includedYaml.getFile());
+            out.writeInt(includedYaml.getStubCount());
+            out.writeBoolean(includedYaml.hasProxyOrWebSocketConfigs());
+        }
+    }
+
+    private static List<IncludedYaml> readIncludedYamls(final DataInputStream in) throws IOException {
+        final int includedYamlsCount = in.readInt();
+        final List<IncludedYaml> includedYamls = new ArrayList<>(includedYamlsCount);
+        for (int idx = 0; idx < includedYamlsCount; idx++) {
+            includedYamls.add(new IncludedYaml(readFile(in), in.readInt(), in.readBoolean()));
+        }
+
+        return includedYamls;
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (ObjectUtils.isNull(value)) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        // DataOutputStream.writeUTF(String) cannot write strings longer than 64K bytes, e.g.: large stubbed bodies
+        final byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeFile(final DataOutputStream out, final File file) throws IOException {
+        writeString(out, ObjectUtils.isNull(file) ? null : file.getAbsolutePath());
+    }
+
+    private static File readFile(final DataInputStream in) throws IOException {
+        final String path = readString(in);
+
+        return ObjectUtils.isNull(path) ? null : new File(path);
+    }
+
+    private static void writeStrings(final DataOutputStream out, final List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (final String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(final DataInputStream in) throws IOException {
+        final int valuesCount = in.readInt();
+        final List<String> values = new ArrayList<>(valuesCount);
+        for (int idx = 0; idx < valuesCount; idx++) {
+            values.add(readString(in));
+        }
+
+        return values;
+    }
+
+    private static void writeMap(final DataOutputStream out, final Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(final DataInputStream in) throws IOException {
+        final int entriesCount = in.readInt();
+        final Map<String, String> map = new LinkedHashMap<>();
+        for (int idx = 0; idx < entriesCount; idx++) {
+            map.put(readString(in), readString(in));
+        }
+
+        return map;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.yaml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.yaml.snakeyaml.events.Event;
+
+/**
+ * Deflated copy of a loaded YAML, from which its top-level YAML mappings are loaded again when they are rendered,
+ * see {@link YamlSource}. The copy is taken while the YAML is being loaded, so the YAML is read only once, and
+ * the rendered mappings are the ones that were loaded, even if the YAML file has changed since.
+ * <p>
+ * The mappings are usually rendered in the declaration order, e.g.: when all the stubs are dumped. So the last
+ * position in the YAML is kept (as long as the memory allows), in order not to load the YAML from the start for
+ * every mapping.
+ */
+final class YamlDocument {
+
+    // The YAML loaded before this one, e.g.: the previous included YAML, whose anchors this YAML may refer to
+    private final YamlDocument previousDocument;
+
+    private InputStream copiedStream;
+    private ByteArrayOutputStream deflatedContentBuffer;
+    private DeflaterOutputStream deflaterOutputStream;
+    private byte[] deflatedContent;
+    private boolean referringToPreviousAnchors;
+
+    private SoftReference<Cursor> cursorReference;
+
+    YamlDocument(final YamlDocument previousDocument) {
+        this.previousDocument = previousDocument;
+        this.deflatedContentBuffer = new ByteArrayOutputStream();
+        this.deflaterOutputStream = new DeflaterOutputStream(deflatedContentBuffer);
+        this.cursorReference = new SoftReference<>(null);
+    }
+
+    /**
+     * @param configAsStream YAML to load
+     * @return the given YAML, which is copied as it is being read
+     */
+    InputStream copyWhileReading(final InputStream configAsStream) {
+        this.copiedStream = new FilterInputStream(configAsStream) {
+            @Override
+            public int read() throws IOException {
+                final int readByte = super.read();
+                if (readByte != -1) {
+                    deflaterOutputStream.write(readByte);
+                }
+                return readByte;
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                final int readCount = super.read(buffer, offset, length);
+                if (readCount > 0) {
+                    deflaterOutputStream.write(buffer, offset, readCount);
+                }
+                return readCount;
+            }
+        };
+        return copiedStream;
+    }
+
+    /**
+     * Completes the copy, once the YAML has been loaded. The rest of the YAML, which the loader has not read
+     * (e.g.: its trailing comments), is copied as well, so that the copy is a complete YAML
+     *
+     * @param yamlLoader loader the YAML was loaded with
+     */
+    void completeCopy(final StreamingYamlLoader yamlLoader) throws IOException {
+        final byte[] buffer = new byte[8192];
+        while (copiedStream.read(buffer) != -1) {
+            // Copies the rest of the YAML
+        }
+        deflaterOutputStream.close();
+        this.deflatedContent = deflatedContentBuffer.toByteArray();
+        this.referringToPreviousAnchors = yamlLoader.isReferringToOtherYamlAnchors();
+        this.copiedStream = null;
+        this.deflatedContentBuffer = null;
+        this.deflaterOutputStream = null;
+    }
+
+    /**
+     * @param mappingIdx position of the mapping in the top-level sequence of the YAML
+     * @return the mapping loaded again from the copy of the YAML
+     */
+    synchronized Object loadMapping(final int mappingIdx) {
+        if (deflatedContent == null) {
+            throw new IllegalStateException("YAML has not been loaded yet");
+        }
+
+        Cursor cursor = cursorReference.get();
+        if (cursor == null || !cursor.canLoad(mappingIdx)) {
+            final Map<String, List<Event>> anchoredNodes = new HashMap<>();
+            if (referringToPreviousAnchors && previousDocument != null) {
+                previousDocument.replayAnchors(anchoredNodes);
+            }
+            cursor = new Cursor(anchoredNodes);
+            cursorReference = new SoftReference<>(cursor);
+        }
+
+        return cursor.load(mappingIdx);
+    }
+
+    private void replayAnchors(final Map<String, List<Event>> anchoredNodes) {
+        if (referringToPreviousAnchors && previousDocument != null) {
+            previousDocument.replayAnchors(anchoredNodes);
+        }
+        // Only the items of a top-level sequence, which are loaded one at a time, record their anchors
+        final StreamingYamlLoader yamlLoader = new StreamingYamlLoader(openCopy(), anchoredNodes);
+        while (yamlLoader.hasNextItem()) {
+            yamlLoader.skipItem();
+        }
+    }
+
+    private InputStream openCopy() {
+        return new InflaterInputStream(new ByteArrayInputStream(deflatedContent));
+    }
+
+    private final class Cursor {
+        private final StreamingYamlLoader yamlLoader;
+        // The items of a top-level sequence, which could not be loaded one at a time
+        private final List<?> rootItems;
+        private int nextMappingIdx;
+
+        private Cursor(final Map<String, List<Event>> anchoredNodes) {
+            this.yamlLoader = new StreamingYamlLoader(openCopy(), anchoredNodes);
+            this.rootItems = yamlLoader.isRootSequence() ? null : (List<?>) yamlLoader.loadRoot();
+            this.nextMappingIdx = 0;
+        }
+
+        private boolean canLoad(final int mappingIdx) {
+            return rootItems != null || mappingIdx >= nextMappingIdx;
+        }
+
+        private Object load(final int mappingIdx) {
+            if (rootItems != null) {
+                return rootItems.get(mappingIdx);
+            }
+
+            while (nextMappingIdx < mappingIdx) {
+                yamlLoader.skipItem();
+                nextMappingIdx++;
+            }
+            nextMappingIdx++;
+
+            return yamlLoader.nextItem();
+        }
+    }
+}
@@ -19,6 +19,7 @@ package io.github.azagniotov.stubby4j.yaml;
 import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
 import io.github.azagniotov.stubby4j.stubs.proxy.StubProxyConfig;
 import io.github.azagniotov.stubby4j.stubs.websocket.StubWebSocketConfig;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -31,12 +32,14 @@ public class YamlParseResultSet {
     private final Map<String, StubHttpLifecycle> uuidToStubs;
     private final Map<String, StubProxyConfig> proxyConfigs;
     private final Map<String, StubWebSocketConfig> webSocketConfigs;
+    private final List<IncludedYaml> includedYamls;
 
     public YamlParseResultSet(final List<StubHttpLifecycle> stubs, final Map<String, StubHttpLifecycle> uuidToStubs) {
         this.stubs = stubs;
         this.uuidToStubs = uuidToStubs;
         this.proxyConfigs = new HashMap<>();
         this.webSocketConfigs = new LinkedHashMap<>();
+        this.includedYamls = new ArrayList<>();
     }
 
     public YamlParseResultSet(
@@ -47,6 +50,7 @@ public class YamlParseResultSet {
         this.uuidToStubs = uuidToStubs;
         this.proxyConfigs = proxyConfigs;
         this.webSocketConfigs = new LinkedHashMap<>();
+        this.includedYamls = new ArrayList<>();
     }
 
     public YamlParseResultSet(
@@ -54,10 +58,20 @@ public class YamlParseResultSet {
             final Map<String, StubHttpLifecycle> uuidToStubs,
             final Map<String, StubProxyConfig> proxyConfigs,
             final Map<String, StubWebSocketConfig> webSocketConfigs) {
+        this(stubs, uuidToStubs, proxyConfigs, webSocketConfigs, new ArrayList<>());
+    }
+
+    public YamlParseResultSet(
+            final List<StubHttpLifecycle> stubs,
+            final Map<String, StubHttpLifecycle> uuidToStubs,
+            final Map<String, StubProxyConfig> proxyConfigs,
+            final Map<String, StubWebSocketConfig> webSocketConfigs,
+            final List<IncludedYaml> includedYamls) {
         this.stubs = stubs;
         this.uuidToStubs = uuidToStubs;
         this.proxyConfigs = proxyConfigs;
         this.webSocketConfigs = webSocketConfigs;
+        this.includedYamls = includedYamls;
     }
 
     public List<StubHttpLifecycle> getStubs() {
@@ -75,4 +89,12 @@ public class YamlParseResultSet {
     public Map<String, StubWebSocketConfig> getWebSocketConfigs() {
         return new LinkedHashMap<>(webSocketConfigs);
     }
+
+    /**
+     * @return what was loaded from each of the included YAMLs in the order of the includes, or an empty list
+     * when the main YAML has no includes, or when the included YAMLs could only be loaded all together
+     */
+    public List<IncludedYaml> getIncludedYamls() {
+        return new ArrayList<>(includedYamls);
+    }
 }
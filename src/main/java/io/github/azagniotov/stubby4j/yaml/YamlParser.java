@@ -24,7 +24,6 @@ import static io.github.azagniotov.stubby4j.stubs.StubbableAuthorizationType.CUS
 import static io.github.azagniotov.stubby4j.utils.ConsoleUtils.logUnmarshalledProxyConfig;
 import static io.github.azagniotov.stubby4j.utils.ConsoleUtils.logUnmarshalledStub;
 import static io.github.azagniotov.stubby4j.utils.ConsoleUtils.logUnmarshalledWebSocketConfig;
-import static io.github.azagniotov.stubby4j.utils.FileUtils.BR;
 import static io.github.azagniotov.stubby4j.utils.FileUtils.constructInputStream;
 import static io.github.azagniotov.stubby4j.utils.FileUtils.isFilePathContainTemplateTokens;
 import static io.github.azagniotov.stubby4j.utils.FileUtils.uriToFile;
@@ -48,9 +47,10 @@ import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.UUID;
 import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.fromString;
 import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.isUnknownFamilyProperty;
 import static io.github.azagniotov.stubby4j.yaml.ConfigurableYAMLProperty.isUnknownProperty;
+import static io.github.azagniotov.stubby4j.yaml.YamlSource.toYaml;
+import static io.github.azagniotov.stubby4j.yaml.YamlSource.toYamlListString;
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
-import static org.yaml.snakeyaml.DumperOptions.FlowStyle;
 
 import io.github.azagniotov.stubby4j.cli.ANSITerminal;
 import io.github.azagniotov.stubby4j.stubs.AbstractBuilder;
@@ -84,20 +84,24 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
 
 public class YamlParser {
     static final String FAILED_TO_LOAD_FILE_ERR =
             "Failed to retrieveLoadedStubs response content using relative path specified in 'file'. Check that response content exists in relative path specified in 'file'";
     private static final Logger LOGGER = LoggerFactory.getLogger(YamlParser.class);
-    private static final Yaml SNAKE_YAML = SnakeYaml.INSTANCE.getSnakeYaml();
+    // Below this number of YAML mappings, parsing on the fork-join pool does not pay off
+    private static final int PARALLEL_PARSING_THRESHOLD = 64;
+    // Number of the loaded YAML mappings held in memory at most, before they are parsed all together
+    private static final int MAPPINGS_BATCH_SIZE = 4 * PARALLEL_PARSING_THRESHOLD;
     private final AtomicInteger parsedStubCounter = new AtomicInteger();
     private String dataConfigHomeDirectory;
 
     public Object loadRawYamlConfig(final InputStream configAsStream) {
-        return SNAKE_YAML.load(configAsStream);
+        return SnakeYaml.INSTANCE.getSnakeYaml().load(configAsStream);
     }
 
     public boolean isMainYamlHasIncludes(final Object loadedYamlConfig) {
@@ -119,6 +123,28 @@ public class YamlParser {
         return yamlIncludes;
     }
 
+    /**
+     * Reads the YAMLs included from the given main YAML. A main YAML with a top-level sequence of stubs has no
+     * includes, and so it is not loaded any further than its first node
+     *
+     * @param mainYaml main YAML config
+     * @return the included YAMLs, in the order of the includes
+     */
+    public List<File> getYamlIncludes(final File mainYaml) throws IOException {
+        try (final InputStream configAsStream = constructInputStream(mainYaml)) {
+            final StreamingYamlLoader yamlLoader = new StreamingYamlLoader(configAsStream, new HashMap<>());
+            if (yamlLoader.isRootSequence()) {
+                return Collections.emptyList();
+            }
+
+            final Object loadedConfig = yamlLoader.loadRoot();
+            if (!isMainYamlHasIncludes(loadedConfig)) {
+                return Collections.emptyList();
+            }
+            return getYamlIncludes(mainYaml.getParent(), loadedConfig);
+        }
+    }
+
     public YamlParseResultSet parse(final String dataConfigHomeDirectory, final String configContent)
             throws IOException {
         return parse(dataConfigHomeDirectory, constructInputStream(configContent));
@@ -132,63 +158,31 @@ public class YamlParser {
             throws IOException {
         this.dataConfigHomeDirectory = dataConfigHomeDirectory;
 
-        final Object loadedConfig = loadYamlFromInputStream(configAsStream);
-
-        final List<StubHttpLifecycle> stubs = new LinkedList<>();
-        final Map<String, StubHttpLifecycle> uuidToStubs = new HashMap<>();
-        final Map<String, StubProxyConfig> proxyConfigs = new HashMap<>();
-        final Map<String, StubWebSocketConfig> webSocketConfigs = new LinkedHashMap<>();
-
-        final List<Map> yamlMappings = asCheckedArrayList(loadedConfig, Map.class);
-
-        for (final Map yamlMapping : yamlMappings) {
-            final Map<String, Object> yamlMappingProperties =
-                    asCheckedLinkedHashMap(yamlMapping, String.class, Object.class);
-            if (isProxyConfigMapping(yamlMapping)) {
-                // the YAML config file contains a top-level:
-                // - proxy-config
-                final StubProxyConfig stubProxyConfig = parseStubProxyConfig(yamlMappingProperties);
-                if (proxyConfigs.containsKey(stubProxyConfig.getUUID())) {
-                    throw new IOException("Proxy config YAML contains duplicate UUIDs: " + stubProxyConfig.getUUID());
-                }
-
-                proxyConfigs.put(stubProxyConfig.getUUID(), stubProxyConfig);
-            } else if (isWebSocketConfigMapping(yamlMapping)) {
-                // the YAML config file contains a top-level:
-                // - web-socket
-                final StubWebSocketConfig stubWebSocketConfig = parseStubWebSocketConfig(yamlMappingProperties);
-                if (webSocketConfigs.containsKey(stubWebSocketConfig.getUrl())) {
-                    throw new IOException(
-                            "Web socket config YAML contains duplicate URL: " + stubWebSocketConfig.getUrl());
-                }
-
-                if (ObjectUtils.isNull(stubWebSocketConfig.getOnOpenServerResponse())
-                        && stubWebSocketConfig.getOnMessage().isEmpty()) {
-                    throw new IOException(
-                            "Web socket config must have at least one of the two 'on-open' or 'on-message' defined");
-                }
+        // The YAMLs are loaded one top-level mapping at a time, so that the whole YAML config is never held
+        // in memory as nested maps & lists, see StreamingYamlLoader
+        final Map<String, List<Event>> anchoredNodes = new HashMap<>();
+        final YamlMappingsCollector yamlMappingsCollector = new YamlMappingsCollector();
 
-                webSocketConfigs.put(stubWebSocketConfig.getUrl(), stubWebSocketConfig);
-            } else {
-                // the YAML config file contains a top-level:
-                // - request
-                final StubHttpLifecycle stubHttpLifecycle = parseStubbedHttpLifecycleConfig(yamlMappingProperties);
+        final YamlDocument yamlDocument = new YamlDocument(null);
+        final StreamingYamlLoader yamlLoader =
+                new StreamingYamlLoader(yamlDocument.copyWhileReading(configAsStream), anchoredNodes);
+        if (yamlLoader.isRootSequence()) {
+            loadYamlMappings(yamlLoader, yamlDocument, null, yamlMappingsCollector);
+            yamlDocument.completeCopy(yamlLoader);
+            yamlMappingsCollector.flush();
 
-                if (StringUtils.isSet(stubHttpLifecycle.getUUID())) {
-                    if (uuidToStubs.containsKey(stubHttpLifecycle.getUUID())) {
-                        throw new IOException("Stubs YAML contains duplicate UUIDs: " + stubHttpLifecycle.getUUID());
-                    }
-                    uuidToStubs.put(stubHttpLifecycle.getUUID(), stubHttpLifecycle);
-                }
-                stubs.add(stubHttpLifecycle);
-            }
+            return yamlMappingsCollector.toYamlParseResultSet(Collections.emptyList());
         }
 
-        return new YamlParseResultSet(stubs, uuidToStubs, proxyConfigs, webSocketConfigs);
-    }
+        final Object loadedConfig = yamlLoader.loadRoot();
+        if (loadedConfig instanceof List) {
+            // A top-level sequence with a directive or an anchor, which was loaded as a whole
+            collectYamlMappings((List<?>) loadedConfig, yamlDocument, null, yamlMappingsCollector);
+            yamlDocument.completeCopy(yamlLoader);
+            yamlMappingsCollector.flush();
 
-    private Object loadYamlFromInputStream(final InputStream configAsStream) throws IOException {
-        Object loadedConfig = loadRawYamlConfig(configAsStream);
+            return yamlMappingsCollector.toYamlParseResultSet(Collections.emptyList());
+        }
 
         // This means that our main YAML config includes other files, i.e.:
         //
@@ -197,28 +191,116 @@ public class YamlParser {
         //  - service-2-stubs.yaml
         //  - service-3-stubs.yaml
         //
-        if (isMainYamlHasIncludes(loadedConfig)) {
-            final List<File> yamlIncludes = getYamlIncludes(dataConfigHomeDirectory, loadedConfig);
-
-            final StringBuilder uberYamlBuilder = new StringBuilder();
-            for (final File yamlInclude : yamlIncludes) {
-                try (final InputStream pathInputStream = constructInputStream(yamlInclude)) {
-                    uberYamlBuilder.append(StringUtils.inputStreamToString(pathInputStream));
-                    uberYamlBuilder.append(BR).append(BR).append(BR);
+        if (!isMainYamlHasIncludes(loadedConfig)) {
+            throw new IOException(
+                    "Loaded YAML root node must be an instance of ArrayList, otherwise something went wrong. Check provided YAML");
+        }
+
+        final List<File> yamlIncludes = getYamlIncludes(dataConfigHomeDirectory, loadedConfig);
+        // When the same YAML is included more than once, it cannot be told which include its stubs came from
+        final boolean isEachYamlIncludedOnce = new HashSet<>(yamlIncludes).size() == yamlIncludes.size();
+        // The included YAMLs are loaded one after another, not in parallel: an included YAML may refer to
+        // the anchors of the previous ones, and only the mappings of a single batch are held in memory at once.
+        // The parsing of the loaded mappings into stubs is what runs in parallel, see parseYamlMappings()
+        // The main YAML may declare anchors, which the included YAMLs refer to
+        yamlDocument.completeCopy(yamlLoader);
+        YamlDocument previousIncludeDocument = yamlDocument;
+        for (final File yamlInclude : yamlIncludes) {
+            final File sourceFile = isEachYamlIncludedOnce ? yamlInclude : null;
+            final YamlDocument includeDocument = new YamlDocument(previousIncludeDocument);
+            try (final InputStream includeInputStream = constructInputStream(yamlInclude)) {
+                final StreamingYamlLoader includeLoader = new StreamingYamlLoader(
+                        includeDocument.copyWhileReading(includeInputStream), anchoredNodes);
+                if (includeLoader.isRootSequence()) {
+                    loadYamlMappings(includeLoader, includeDocument, sourceFile, yamlMappingsCollector);
+                } else {
+                    final Object loadedInclude = includeLoader.loadRoot();
+                    if (loadedInclude instanceof List) {
+                        collectYamlMappings(
+                                (List<?>) loadedInclude, includeDocument, sourceFile, yamlMappingsCollector);
+                    } else if (ObjectUtils.isNotNull(loadedInclude)) {
+                        throw new IOException(String.format(
+                                "Loaded root node of the included YAML %s must be an instance of ArrayList",
+                                yamlInclude.getAbsolutePath()));
+                    }
                 }
+                includeDocument.completeCopy(includeLoader);
             }
+            previousIncludeDocument = includeDocument;
+        }
+        yamlMappingsCollector.flush();
+
+        return yamlMappingsCollector.toYamlParseResultSet(
+                isEachYamlIncludedOnce ? yamlIncludes : Collections.emptyList());
+    }
+
+    private void loadYamlMappings(
+            final StreamingYamlLoader yamlLoader,
+            final YamlDocument yamlDocument,
+            final File sourceFile,
+            final YamlMappingsCollector collector)
+            throws IOException {
+        int mappingIdx = 0;
+        while (yamlLoader.hasNextItem()) {
+            collector.add(yamlLoader.nextItem(), sourceFile, YamlSource.of(yamlDocument, mappingIdx++));
+        }
+    }
 
-            loadedConfig = loadRawYamlConfig(constructInputStream(uberYamlBuilder.toString()));
+    private void collectYamlMappings(
+            final List<?> yamlMappings,
+            final YamlDocument yamlDocument,
+            final File sourceFile,
+            final YamlMappingsCollector collector)
+            throws IOException {
+        for (int mappingIdx = 0; mappingIdx < yamlMappings.size(); mappingIdx++) {
+            collector.add(yamlMappings.get(mappingIdx), sourceFile, YamlSource.of(yamlDocument, mappingIdx));
         }
+    }
 
-        if (!(loadedConfig instanceof List)) {
-            throw new IOException(
-                    "Loaded YAML root node must be an instance of ArrayList, otherwise something went wrong. Check provided YAML");
+    private ParsedYamlMapping[] parseYamlMappings(final List<Map> yamlMappings, final List<YamlSource> yamlSources) {
+        // Resource IDs are assigned by the position of a stub among the stubs, not by the order of parsing
+        final int[] resourceIds = new int[yamlMappings.size()];
+        int stubCount = 0;
+        for (int mappingIdx = 0; mappingIdx < yamlMappings.size(); mappingIdx++) {
+            final Map yamlMapping = yamlMappings.get(mappingIdx);
+            final boolean isStub = !isProxyConfigMapping(yamlMapping) && !isWebSocketConfigMapping(yamlMapping);
+            resourceIds[mappingIdx] = isStub ? stubCount++ : -1;
+        }
+        final int firstResourceId = parsedStubCounter.getAndAdd(stubCount);
+
+        IntStream mappingIndices = IntStream.range(0, yamlMappings.size());
+        if (yamlMappings.size() >= PARALLEL_PARSING_THRESHOLD) {
+            mappingIndices = mappingIndices.parallel();
+        }
+
+        return mappingIndices
+                .mapToObj(mappingIdx -> parseYamlMapping(
+                        yamlMappings.get(mappingIdx),
+                        yamlSources.get(mappingIdx),
+                        firstResourceId + resourceIds[mappingIdx]))
+                .toArray(ParsedYamlMapping[]::new);
+    }
+
+    private ParsedYamlMapping parseYamlMapping(
+            final Map yamlMapping, final YamlSource yamlSource, final int resourceId) {
+        try {
+            final Map<String, Object> yamlMappingProperties =
+                    asCheckedLinkedHashMap(yamlMapping, String.class, Object.class);
+            if (isProxyConfigMapping(yamlMapping)) {
+                return ParsedYamlMapping.of(parseStubProxyConfig(yamlMappingProperties, yamlSource));
+            } else if (isWebSocketConfigMapping(yamlMapping)) {
+                return ParsedYamlMapping.of(parseStubWebSocketConfig(yamlMappingProperties, yamlSource));
+            } else {
+                return ParsedYamlMapping.of(
+                        parseStubbedHttpLifecycleConfig(yamlMappingProperties, yamlSource, resourceId));
+            }
+        } catch (final RuntimeException e) {
+            return ParsedYamlMapping.failed(e);
         }
-        return loadedConfig;
     }
 
-    private StubProxyConfig parseStubProxyConfig(final Map<String, Object> yamlMappingProperties) {
+    private StubProxyConfig parseStubProxyConfig(
+            final Map<String, Object> yamlMappingProperties, final YamlSource yamlSource) {
         final StubProxyConfig.Builder proxyConfigBuilder = new StubProxyConfig.Builder();
 
         for (final Map.Entry<String, Object> stubType : yamlMappingProperties.entrySet()) {
@@ -228,16 +310,14 @@ public class YamlParser {
                     asCheckedLinkedHashMap(stubTypeValue, String.class, Object.class);
 
             buildReflectableStub(stubbedProperties, proxyConfigBuilder);
-            proxyConfigBuilder.withProxyConfigAsYAML(toCompleteYamlListString(yamlMappingProperties));
+            proxyConfigBuilder.withYamlSource(yamlSource);
         }
 
-        final StubProxyConfig stubProxyConfig = proxyConfigBuilder.build();
-        logUnmarshalledProxyConfig(stubProxyConfig);
-
-        return stubProxyConfig;
+        return proxyConfigBuilder.build();
     }
 
-    private StubWebSocketConfig parseStubWebSocketConfig(final Map<String, Object> yamlMappingProperties) {
+    private StubWebSocketConfig parseStubWebSocketConfig(
+            final Map<String, Object> yamlMappingProperties, final YamlSource yamlSource) {
         final StubWebSocketConfig.Builder webSocketConfigBuilder = new StubWebSocketConfig.Builder();
 
         for (final Map.Entry<String, Object> stubType : yamlMappingProperties.entrySet()) {
@@ -293,7 +373,7 @@ public class YamlParser {
                             final Object rawServerResponse = onMessageLifeCycleObjects.get(SERVER_RESPONSE.toString());
                             final Object serverResponse =
                                     buildStubWebSocketServerResponse(rawServerResponse, onMessageLifeCycleObjects);
-                            final String lifeCycleCompleteYAML = toCompleteYamlListString(
+                            final String lifeCycleCompleteYAML = toYamlListString(
                                     asCheckedLinkedHashMap(onMessageLifeCycle, String.class, Object.class));
 
                             lifeCycles.add(new StubWebSocketOnMessageLifeCycle(
@@ -307,13 +387,10 @@ public class YamlParser {
                 }
             }
 
-            webSocketConfigBuilder.withWebSocketConfigAsYAML(toCompleteYamlListString(yamlMappingProperties));
+            webSocketConfigBuilder.withYamlSource(yamlSource);
         }
 
-        final StubWebSocketConfig stubWebSocketConfig = webSocketConfigBuilder.build();
-        logUnmarshalledWebSocketConfig(stubWebSocketConfig);
-
-        return stubWebSocketConfig;
+        return webSocketConfigBuilder.build();
     }
 
     private Object buildStubWebSocketServerResponse(
@@ -368,7 +445,8 @@ public class YamlParser {
         }
     }
 
-    private StubHttpLifecycle parseStubbedHttpLifecycleConfig(final Map<String, Object> yamlMappingProperties) {
+    private StubHttpLifecycle parseStubbedHttpLifecycleConfig(
+            final Map<String, Object> yamlMappingProperties, final YamlSource yamlSource, final int resourceId) {
         final StubHttpLifecycle.Builder stubBuilder = new StubHttpLifecycle.Builder();
 
         for (final Map.Entry<String, Object> stubType : yamlMappingProperties.entrySet()) {
@@ -396,16 +474,10 @@ public class YamlParser {
             }
         }
 
-        StubHttpLifecycle loadedStub = stubBuilder
-                .withCompleteYAML(toCompleteYamlListString(yamlMappingProperties))
-                .withRequestAsYAML(toYaml(yamlMappingProperties, REQUEST))
-                .withResponseAsYAML(toYaml(yamlMappingProperties, RESPONSE))
-                .withResourceId(parsedStubCounter.getAndIncrement())
+        return stubBuilder
+                .withYamlSource(yamlSource)
+                .withResourceId(resourceId)
                 .build();
-
-        logUnmarshalledStub(loadedStub);
-
-        return loadedStub;
     }
 
     private void parseStubbedRequestConfig(
@@ -558,26 +630,6 @@ public class YamlParser {
         return Optional.empty();
     }
 
-    private String toCompleteYamlListString(final Map<String, Object> yamlMappingProperties) {
-        final List<Map<String, Object>> root = new ArrayList<Map<String, Object>>() {
-            {
-                add(yamlMappingProperties);
-            }
-        };
-
-        return SNAKE_YAML.dumpAs(root, null, FlowStyle.BLOCK);
-    }
-
-    private String toYaml(final Map<String, Object> yamlMappingProperties, final ConfigurableYAMLProperty stubName) {
-        final Map<String, Object> httpType = new HashMap<String, Object>() {
-            {
-                put(stubName.toString(), yamlMappingProperties.get(stubName.toString()));
-            }
-        };
-
-        return SNAKE_YAML.dumpAs(httpType, null, FlowStyle.BLOCK);
-    }
-
     private Map<String, String> configureAuthorizationHeader(final Map<String, String> rawHeaders) {
 
         final Map<String, String> headers = new LinkedHashMap<>();
@@ -630,4 +682,147 @@ public class YamlParser {
             }
         }
     }
+
+    /**
+     * Collects the loaded top-level YAML mappings in batches, and parses each batch into stubs, proxy configs and
+     * web socket configs. Once a batch is parsed, its YAML mappings are let go.
+     */
+    private final class YamlMappingsCollector {
+        private final List<StubHttpLifecycle> stubs = new LinkedList<>();
+        private final Map<String, StubHttpLifecycle> uuidToStubs = new HashMap<>();
+        private final Map<String, StubProxyConfig> proxyConfigs = new HashMap<>();
+        private final Map<String, StubWebSocketConfig> webSocketConfigs = new LinkedHashMap<>();
+
+        private final Map<File, Integer> includeStubCounts = new HashMap<>();
+        private final Set<File> includesWithProxyOrWebSocketConfigs = new HashSet<>();
+
+        private final List<Object> pendingYamlMappings = new ArrayList<>(MAPPINGS_BATCH_SIZE);
+        // The included YAML each pending mapping came from, or null when it is not tracked
+        private final List<File> pendingSourceFiles = new ArrayList<>(MAPPINGS_BATCH_SIZE);
+        private final List<YamlSource> pendingYamlSources = new ArrayList<>(MAPPINGS_BATCH_SIZE);
+
+        void add(final Object yamlMapping, final File sourceFile, final YamlSource yamlSource) throws IOException {
+            pendingYamlMappings.add(yamlMapping);
+            pendingSourceFiles.add(sourceFile);
+            pendingYamlSources.add(yamlSource);
+            if (pendingYamlMappings.size() == MAPPINGS_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            final List<Map> yamlMappings = asCheckedArrayList(pendingYamlMappings, Map.class);
+
+            // The mappings are parsed in parallel, while the parsed results are collected below in the declaration
+            // order, so that resource IDs, duplicates detection and the reported errors do not depend on timing
+            final ParsedYamlMapping[] parsedYamlMappings = parseYamlMappings(yamlMappings, pendingYamlSources);
+
+            for (int mappingIdx = 0; mappingIdx < yamlMappings.size(); mappingIdx++) {
+                collect(
+                        yamlMappings.get(mappingIdx),
+                        parsedYamlMappings[mappingIdx],
+                        pendingSourceFiles.get(mappingIdx));
+            }
+
+            pendingYamlMappings.clear();
+            pendingSourceFiles.clear();
+            pendingYamlSources.clear();
+        }
+
+        private void collect(final Map yamlMapping, final ParsedYamlMapping parsedYamlMapping, final File sourceFile)
+                throws IOException {
+            if (isProxyConfigMapping(yamlMapping) || isWebSocketConfigMapping(yamlMapping)) {
+                includesWithProxyOrWebSocketConfigs.add(sourceFile);
+            } else if (ObjectUtils.isNotNull(sourceFile)) {
+                includeStubCounts.merge(sourceFile, 1, Integer::sum);
+            }
+
+            final Object parsed = parsedYamlMapping.get();
+            if (isProxyConfigMapping(yamlMapping)) {
+                // the YAML config file contains a top-level:
+                // - proxy-config
+                final StubProxyConfig stubProxyConfig = (StubProxyConfig) parsed;
+                logUnmarshalledProxyConfig(stubProxyConfig);
+                if (proxyConfigs.containsKey(stubProxyConfig.getUUID())) {
+                    throw new IOException("Proxy config YAML contains duplicate UUIDs: " + stubProxyConfig.getUUID());
+                }
+
+                proxyConfigs.put(stubProxyConfig.getUUID(), stubProxyConfig);
+            } else if (isWebSocketConfigMapping(yamlMapping)) {
+                // the YAML config file contains a top-level:
+                // - web-socket
+                final StubWebSocketConfig stubWebSocketConfig = (StubWebSocketConfig) parsed;
+                logUnmarshalledWebSocketConfig(stubWebSocketConfig);
+                if (webSocketConfigs.containsKey(stubWebSocketConfig.getUrl())) {
+                    throw new IOException(
+                            "Web socket config YAML contains duplicate URL: " + stubWebSocketConfig.getUrl());
+                }
+
+                if (ObjectUtils.isNull(stubWebSocketConfig.getOnOpenServerResponse())
+                        && stubWebSocketConfig.getOnMessage().isEmpty()) {
+                    throw new IOException(
+                            "Web socket config must have at least one of the two 'on-open' or 'on-message' defined");
+                }
+
+                webSocketConfigs.put(stubWebSocketConfig.getUrl(), stubWebSocketConfig);
+            } else {
+                // the YAML config file contains a top-level:
+                // - request
+                final StubHttpLifecycle stubHttpLifecycle = (StubHttpLifecycle) parsed;
+                logUnmarshalledStub(stubHttpLifecycle);
+
+                if (StringUtils.isSet(stubHttpLifecycle.getUUID())) {
+                    if (uuidToStubs.containsKey(stubHttpLifecycle.getUUID())) {
+                        throw new IOException("Stubs YAML contains duplicate UUIDs: " + stubHttpLifecycle.getUUID());
+                    }
+                    uuidToStubs.put(stubHttpLifecycle.getUUID(), stubHttpLifecycle);
+                }
+                stubs.add(stubHttpLifecycle);
+            }
+        }
+
+        /**
+         * @param yamlIncludes included YAMLs to describe in the result set, in the order of the includes
+         */
+        YamlParseResultSet toYamlParseResultSet(final List<File> yamlIncludes) {
+            final List<IncludedYaml> includedYamls = new ArrayList<>();
+            for (final File includeFile : yamlIncludes) {
+                includedYamls.add(new IncludedYaml(
+                        includeFile,
+                        includeStubCounts.getOrDefault(includeFile, 0),
+                        includesWithProxyOrWebSocketConfigs.contains(includeFile)));
+            }
+
+            return new YamlParseResultSet(stubs, uuidToStubs, proxyConfigs, webSocketConfigs, includedYamls);
+        }
+    }
+
+    /**
+     * Outcome of parsing on the fork-join pool, which holds on to the failure, so that the failure is
+     * rethrown only once the outcomes are looked at in the declaration order
+     */
+    private static final class ParsedYamlMapping {
+        private final Object parsed;
+        private final RuntimeException failure;
+
+        private ParsedYamlMapping(final Object parsed, final RuntimeException failure) {
+            this.parsed = parsed;
+            this.failure = failure;
+        }
+
+        static ParsedYamlMapping of(final Object parsed) {
+            return new ParsedYamlMapping(parsed, null);
+        }
+
+        static ParsedYamlMapping failed(final RuntimeException failure) {
+            return new ParsedYamlMapping(null, failure);
+        }
+
+        Object get() {
+            if (failure != null) {
+                throw failure;
+            }
+            return parsed;
+        }
+    }
 }
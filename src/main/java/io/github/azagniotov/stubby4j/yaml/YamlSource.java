@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.yaml;
+
+import io.github.azagniotov.stubby4j.caching.Cache;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.yaml.snakeyaml.DumperOptions.FlowStyle;
+
+/**
+ * Reference to the top-level YAML mapping a stub was parsed from, which renders the stub back into YAML only
+ * when it is asked for, e.g.: by the admin UI or the admin GET endpoints. The reference is just the position of
+ * the mapping in the deflated copy of its YAML, see {@link YamlDocument}, so neither the rendered YAML strings
+ * nor the loaded mappings are held on to for the lifetime of the stub.
+ * <p>
+ * The most recently rendered YAMLs are memoized in a small cache, shared by all the sources.
+ */
+public final class YamlSource {
+
+    private static final AtomicLong SOURCE_ID_COUNTER = new AtomicLong();
+    private static final Cache<String, String> RENDERED_YAML_CACHE = Cache.renderedYamlCache();
+
+    private final long sourceId;
+    private final YamlDocument yamlDocument;
+    private final int mappingIdx;
+
+    private YamlSource(final YamlDocument yamlDocument, final int mappingIdx) {
+        this.sourceId = SOURCE_ID_COUNTER.incrementAndGet();
+        this.yamlDocument = yamlDocument;
+        this.mappingIdx = mappingIdx;
+    }
+
+    /**
+     * @param yamlDocument YAML the mapping was loaded from
+     * @param mappingIdx   position of the mapping in the top-level sequence of the YAML
+     */
+    static YamlSource of(final YamlDocument yamlDocument, final int mappingIdx) {
+        return new YamlSource(yamlDocument, mappingIdx);
+    }
+
+    /**
+     * @return the whole YAML mapping rendered as a single-item YAML list
+     */
+    public String renderAsYamlList() {
+        return render("list", () -> toYamlListString(loadYamlMappingProperties()));
+    }
+
+    /**
+     * @return only the given property of the YAML mapping rendered as YAML, e.g.: 'request' or 'response'
+     */
+    public String renderAsYaml(final ConfigurableYAMLProperty property) {
+        return render(property.toString(), () -> toYaml(loadYamlMappingProperties(), property));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> loadYamlMappingProperties() {
+        return (Map<String, Object>) yamlDocument.loadMapping(mappingIdx);
+    }
+
+    static String toYamlListString(final Map<String, Object> yamlMappingProperties) {
+        final List<Map<String, Object>> root = new ArrayList<>();
+        root.add(yamlMappingProperties);
+
+        return SnakeYaml.INSTANCE.getSnakeYaml().dumpAs(root, null, FlowStyle.BLOCK);
+    }
+
+    static String toYaml(final Map<String, Object> yamlMappingProperties, final ConfigurableYAMLProperty property) {
+        final Map<String, Object> httpType = new HashMap<>();
+        httpType.put(property.toString(), yamlMappingProperties.get(property.toString()));
+
+        return SnakeYaml.INSTANCE.getSnakeYaml().dumpAs(httpType, null, FlowStyle.BLOCK);
+    }
+
+    private String render(final String renderedAs, final Supplier<String> renderer) {
+        final String cacheKey = sourceId + "/" + renderedAs;
+        final Optional<String> cachedYaml = RENDERED_YAML_CACHE.get(cacheKey);
+        if (cachedYaml.isPresent()) {
+            return cachedYaml.get();
+        }
+
+        final String renderedYaml = renderer.get();
+        RENDERED_YAML_CACHE.putIfAbsent(cacheKey, renderedYaml);
+
+        return renderedYaml;
+    }
+}
@@ -38,6 +38,13 @@ public class CacheTest {
         assertThat(cache).isInstanceOf(StubHttpLifecycleCache.class);
     }
 
+    @Test
+    public void shouldBuildRenderedYamlCache() throws Exception {
+        final Cache<String, String> cache = Cache.renderedYamlCache();
+
+        assertThat(cache).isInstanceOf(RenderedYamlCache.class);
+    }
+
     @Test
     public void shouldClearCacheByKey() throws Exception {
 
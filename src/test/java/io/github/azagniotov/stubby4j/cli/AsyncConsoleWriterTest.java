@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.cli;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AsyncConsoleWriterTest {
+
+    @Test
+    public void shouldPrintAllMessagesInOrder_WhenClosed() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final AsyncConsoleWriter asyncConsoleWriter = new AsyncConsoleWriter(
+                new PrintStream(outputStream, true, "UTF-8"), ANSITerminal.OverflowPolicy.BLOCK, 16);
+
+        final StringBuilder expected = new StringBuilder();
+        for (int idx = 0; idx < 1000; idx++) {
+            final String message = "message #" + idx + "\n";
+            asyncConsoleWriter.write(message);
+            expected.append(message);
+        }
+        asyncConsoleWriter.close();
+
+        assertThat(outputStream.toString("UTF-8")).isEqualTo(expected.toString());
+        assertThat(asyncConsoleWriter.getDroppedMessages()).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldPrintAllMessages_WhenWrittenConcurrently() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final AsyncConsoleWriter asyncConsoleWriter = new AsyncConsoleWriter(
+                new PrintStream(outputStream, true, "UTF-8"), ANSITerminal.OverflowPolicy.BLOCK, 64);
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int producerIdx = 0; producerIdx < 4; producerIdx++) {
+            producers.add(new Thread(() -> {
+                for (int idx = 0; idx < 2500; idx++) {
+                    asyncConsoleWriter.write("x\n");
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (final Thread producer : producers) {
+            producer.join();
+        }
+        asyncConsoleWriter.close();
+
+        final String[] printedLines = outputStream.toString("UTF-8").split("\n");
+        assertThat(printedLines.length).isEqualTo(10000);
+    }
+
+    @Test
+    public void shouldDropAndCountMessages_WhenBufferIsFull() throws Exception {
+        final CountDownLatch writerPrinting = new CountDownLatch(1);
+        final CountDownLatch releaseWriter = new CountDownLatch(1);
+        final ByteArrayOutputStream printedBytes = new ByteArrayOutputStream();
+        final OutputStream blockingOutputStream = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                printedBytes.write(b);
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length) {
+                writerPrinting.countDown();
+                try {
+                    releaseWriter.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                printedBytes.write(bytes, offset, length);
+            }
+        };
+        final AsyncConsoleWriter asyncConsoleWriter = new AsyncConsoleWriter(
+                new PrintStream(blockingOutputStream, true, "UTF-8"), ANSITerminal.OverflowPolicy.DROP, 2);
+
+        asyncConsoleWriter.write("one\n");
+        assertThat(writerPrinting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Writer thread is busy printing the first message, so the buffer fills up after two messages
+        asyncConsoleWriter.write("two\n");
+        asyncConsoleWriter.write("three\n");
+        asyncConsoleWriter.write("four\n");
+        asyncConsoleWriter.write("five\n");
+
+        releaseWriter.countDown();
+        asyncConsoleWriter.close();
+
+        assertThat(asyncConsoleWriter.getDroppedMessages()).isEqualTo(2L);
+        assertThat(new String(printedBytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("one\ntwo\nthree\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateWriter_WhenCapacityIsNotPowerOfTwo() throws Exception {
+        new AsyncConsoleWriter(System.out, ANSITerminal.OverflowPolicy.DROP, 3);
+    }
+}
@@ -106,6 +106,126 @@ public class CommandLineInterpreterTest {
         assertThat(isCacheDisabled).isTrue();
     }
 
+    @Test
+    public void testHasMaxRequestBodyBytesWhenLongOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"--max_request_body_bytes", "1024"});
+        final String maxRequestBodyBytes =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_MAX_REQUEST_BODY_BYTES);
+
+        assertThat(maxRequestBodyBytes).isEqualTo("1024");
+    }
+
+    @Test
+    public void testHasMaxRequestBodyBytesWhenShortOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"-mb", "2048"});
+        final String maxRequestBodyBytes =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_MAX_REQUEST_BODY_BYTES);
+
+        assertThat(maxRequestBodyBytes).isEqualTo("2048");
+    }
+
+    @Test
+    public void testHasAsyncConsoleWhenLongOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"--async_console"});
+        final Map<String, String> params = commandLineInterpreter.getCommandlineParams();
+
+        assertThat(params).containsKey(CommandLineInterpreter.OPTION_ASYNC_CONSOLE);
+        assertThat(params.get(CommandLineInterpreter.OPTION_ASYNC_CONSOLE)).isNull();
+    }
+
+    @Test
+    public void testHasAsyncConsoleWhenShortOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"-ac", "block"});
+        final String overflowPolicy =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_ASYNC_CONSOLE);
+
+        assertThat(overflowPolicy).isEqualTo("block");
+    }
+
+    @Test
+    public void testHasAccessJournalWhenLongOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"--access_journal", "/tmp/journal"});
+        final String accessJournalDirectory =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_ACCESS_JOURNAL);
+
+        assertThat(accessJournalDirectory).isEqualTo("/tmp/journal");
+    }
+
+    @Test
+    public void testHasAccessJournalWhenShortOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"-aj", "/tmp/journal"});
+        final String accessJournalDirectory =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_ACCESS_JOURNAL);
+
+        assertThat(accessJournalDirectory).isEqualTo("/tmp/journal");
+    }
+
+    @Test
+    public void testHasUnixSocketWhenLongOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"--unix_socket", "/tmp/stubby4j.sock"});
+        final String unixSocketPath =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_UNIX_SOCKET);
+
+        assertThat(unixSocketPath).isEqualTo("/tmp/stubby4j.sock");
+    }
+
+    @Test
+    public void testHasUnixSocketWhenShortOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"-us", "/tmp/stubby4j.sock"});
+        final String unixSocketPath =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_UNIX_SOCKET);
+
+        assertThat(unixSocketPath).isEqualTo("/tmp/stubby4j.sock");
+    }
+
+    @Test
+    public void testHasSnapshotWhenLongOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"--snapshot", "stubs.snapshot"});
+        final String snapshotPath =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_SNAPSHOT);
+
+        assertThat(snapshotPath).isEqualTo("stubs.snapshot");
+    }
+
+    @Test
+    public void testHasSnapshotWhenShortOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"-ss", "stubs.snapshot"});
+        final String snapshotPath =
+                commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_SNAPSHOT);
+
+        assertThat(snapshotPath).isEqualTo("stubs.snapshot");
+    }
+
+    @Test
+    public void testIsCompileSnapshotWhenLongOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"--compile_snapshot", "stubs.snapshot"});
+
+        assertThat(commandLineInterpreter.isCompileSnapshot()).isTrue();
+        assertThat(commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_COMPILE_SNAPSHOT))
+                .isEqualTo("stubs.snapshot");
+    }
+
+    @Test
+    public void testIsCompileSnapshotWhenShortOptionGiven() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {"-cs", "stubs.snapshot"});
+
+        assertThat(commandLineInterpreter.isCompileSnapshot()).isTrue();
+        assertThat(commandLineInterpreter.getCommandlineParams().get(CommandLineInterpreter.OPTION_COMPILE_SNAPSHOT))
+                .isEqualTo("stubs.snapshot");
+    }
+
     @Test
     public void testIsAdminPortalDisabledWhenLongOptionGiven() throws Exception {
         final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.filesystem;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class FileChangeWatcherTest {
+
+    private static final long DEBOUNCE_MILLIS = 200L;
+    private static final long AWAIT_SECONDS = 10L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final BlockingQueue<Set<File>> notifications = new LinkedBlockingQueue<>();
+
+    private FileChangeWatcher fileChangeWatcher;
+
+    @After
+    public void afterEach() {
+        if (fileChangeWatcher != null) {
+            fileChangeWatcher.close();
+        }
+    }
+
+    @Test
+    public void shouldNotifyAboutChangedFileUsingWatchService() throws Exception {
+        final File watched = temporaryFolder.newFile("main.yaml");
+        final File notWatched = temporaryFolder.newFile("other.yaml");
+
+        startWatcher(false, watched);
+
+        touch(notWatched);
+        touch(watched);
+
+        final Set<File> changedFiles = notifications.poll(AWAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(changedFiles).containsExactly(watched.getAbsoluteFile());
+    }
+
+    @Test
+    public void shouldNotifyAboutChangedFileWhenPolling() throws Exception {
+        final File watched = temporaryFolder.newFile("main.yaml");
+
+        startWatcher(true, watched);
+        assertThat(fileChangeWatcher.isUsingWatchService()).isFalse();
+
+        touch(watched);
+
+        final Set<File> changedFiles = notifications.poll(AWAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(changedFiles).containsExactly(watched.getAbsoluteFile());
+    }
+
+    @Test
+    public void shouldCoalesceBurstOfChangesIntoSingleNotification() throws Exception {
+        final File first = temporaryFolder.newFile("first.yaml");
+        final File second = temporaryFolder.newFolder("includes").toPath().resolve("second.yaml").toFile();
+        Files.write(second.toPath(), "initial".getBytes(StandardCharsets.UTF_8));
+
+        startWatcher(false, first, second);
+
+        touch(first);
+        touch(second);
+
+        final Set<File> changedFiles = notifications.poll(AWAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(changedFiles).containsExactly(first.getAbsoluteFile(), second.getAbsoluteFile());
+        assertThat(notifications.poll(DEBOUNCE_MILLIS * 3, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void shouldNotifyAboutFileReplacedByRename() throws Exception {
+        final File watched = temporaryFolder.newFile("main.yaml");
+
+        startWatcher(false, watched);
+
+        final File replacement = temporaryFolder.newFile("main.yaml.tmp");
+        Files.write(replacement.toPath(), "replaced".getBytes(StandardCharsets.UTF_8));
+        assertThat(replacement.setLastModified(watched.lastModified() + 5000L)).isTrue();
+        Files.delete(watched.toPath());
+        Files.move(replacement.toPath(), watched.toPath());
+
+        final Set<File> changedFiles = notifications.poll(AWAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(changedFiles).containsExactly(watched.getAbsoluteFile());
+    }
+
+    @Test
+    public void shouldNotifyAboutFileChangedThroughSymbolicLinkIntoAnotherDirectory() throws Exception {
+        final File target = temporaryFolder.newFolder("elsewhere").toPath().resolve("main.yaml").toFile();
+        Files.write(target.toPath(), "initial".getBytes(StandardCharsets.UTF_8));
+        final File watched = temporaryFolder.newFolder("config").toPath().resolve("main.yaml").toFile();
+        Files.createSymbolicLink(watched.toPath(), target.toPath());
+
+        startWatcher(false, watched);
+
+        touch(target);
+
+        final Set<File> changedFiles = notifications.poll(AWAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(changedFiles).containsExactly(watched.getAbsoluteFile());
+    }
+
+    @Test
+    public void shouldNotifyAboutFileChangedBySwappingSymbolicLinkedDirectory() throws Exception {
+        // Lays out the files the way a Kubernetes ConfigMap volume does
+        final Path config = temporaryFolder.newFolder("config").toPath();
+        Files.createDirectory(config.resolve("..v1"));
+        Files.write(config.resolve("..v1").resolve("main.yaml"), "initial".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(config.resolve("..data"), Paths.get("..v1"));
+        final File watched = config.resolve("main.yaml").toFile();
+        Files.createSymbolicLink(watched.toPath(), Paths.get("..data", "main.yaml"));
+
+        startWatcher(false, watched);
+
+        Files.createDirectory(config.resolve("..v2"));
+        final File updated = config.resolve("..v2").resolve("main.yaml").toFile();
+        Files.write(updated.toPath(), "updated".getBytes(StandardCharsets.UTF_8));
+        assertThat(updated.setLastModified(watched.lastModified() + 5000L)).isTrue();
+        Files.createSymbolicLink(config.resolve("..data_tmp"), Paths.get("..v2"));
+        Files.move(config.resolve("..data_tmp"), config.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+        final Set<File> changedFiles = notifications.poll(AWAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(changedFiles).containsExactly(watched.getAbsoluteFile());
+    }
+
+    @Test
+    public void shouldNotifyAboutFileInDirectoryDeletedAndCreatedAgain() throws Exception {
+        final File includes = temporaryFolder.newFolder("includes");
+        final File watched = includes.toPath().resolve("main.yaml").toFile();
+        Files.write(watched.toPath(), "initial".getBytes(StandardCharsets.UTF_8));
+        final long initialLastModified = watched.lastModified();
+
+        startWatcher(false, watched);
+
+        Files.delete(watched.toPath());
+        Files.delete(includes.toPath());
+        // Lets the watcher notice that the directory is gone
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertThat(includes.mkdir()).isTrue();
+        Files.write(watched.toPath(), "created again".getBytes(StandardCharsets.UTF_8));
+        assertThat(watched.setLastModified(initialLastModified + 5000L)).isTrue();
+
+        final Set<File> changedFiles = notifications.poll(AWAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(changedFiles).containsExactly(watched.getAbsoluteFile());
+    }
+
+    @Test
+    public void shouldThrowWhenDebounceTimeIsNotPositive() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Watch debounce time must be a positive number, got: 0");
+
+        new FileChangeWatcher(HashSet::new, notifications::add, 0L, false);
+    }
+
+    private void startWatcher(final boolean forcePolling, final File... files) throws Exception {
+        final Set<File> watchedFiles = new HashSet<>(Arrays.asList(files));
+        fileChangeWatcher =
+                new FileChangeWatcher(() -> watchedFiles, notifications::add, DEBOUNCE_MILLIS, forcePolling);
+        new Thread(fileChangeWatcher, FileChangeWatcherTest.class.getSimpleName()).start();
+
+        // Lets the watcher take the snapshot of the last modification dates before the files are touched
+        Thread.sleep(DEBOUNCE_MILLIS);
+    }
+
+    private static void touch(final File file) throws Exception {
+        Files.write(file.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        // Moves the last modification date forward regardless of the file system timestamp granularity
+        assertThat(file.setLastModified(file.lastModified() + 5000L)).isTrue();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.handlers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdmissionControlHandlerTest {
+
+    @Mock
+    private Handler mockHandler;
+
+    @Mock
+    private Request mockBaseRequest;
+
+    @Mock
+    private HttpServletRequest mockHttpServletRequest;
+
+    @Mock
+    private HttpServletResponse mockHttpServletResponse;
+
+    @Mock
+    private AsyncContext mockAsyncContext;
+
+    @Test
+    public void shouldReleasePermit_WhenRequestHandledSynchronously() throws Exception {
+        final AdmissionController admissionController = new AdmissionController(1, 0, 1);
+        final AdmissionControlHandler admissionControlHandler =
+                new AdmissionControlHandler(admissionController, mockHandler);
+
+        admissionControlHandler.handle("/path", mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        verify(mockHandler).handle("/path", mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+        assertThat(admissionController.getInFlightRequests()).isEqualTo(0);
+        assertThat(admissionController.getShedRequests()).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldRespondWithServiceUnavailable_WhenRequestShed() throws Exception {
+        final AdmissionController admissionController = new AdmissionController(1, 0, 7);
+        assertThat(admissionController.tryAdmit()).isTrue();
+        final AdmissionControlHandler admissionControlHandler =
+                new AdmissionControlHandler(admissionController, mockHandler);
+
+        admissionControlHandler.handle("/path", mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        verify(mockBaseRequest).setHandled(true);
+        verify(mockHttpServletResponse).setStatus(HttpStatus.SERVICE_UNAVAILABLE_503);
+        verify(mockHttpServletResponse).setHeader("Retry-After", "7");
+        verify(mockHandler, never())
+                .handle(anyString(), any(Request.class), any(HttpServletRequest.class), any(HttpServletResponse.class));
+        assertThat(admissionController.getShedRequests()).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldReleasePermit_WhenAsyncRequestCompletes() throws Exception {
+        final AdmissionController admissionController = new AdmissionController(1, 0, 1);
+        final AdmissionControlHandler admissionControlHandler =
+                new AdmissionControlHandler(admissionController, mockHandler);
+
+        final AtomicReference<AsyncListener> asyncListener = new AtomicReference<>();
+        when(mockHttpServletRequest.isAsyncStarted()).thenReturn(true);
+        when(mockHttpServletRequest.getAsyncContext()).thenReturn(mockAsyncContext);
+        doAnswer(invocation -> {
+                    asyncListener.set(invocation.getArgument(0));
+                    return null;
+                })
+                .when(mockAsyncContext)
+                .addListener(any(AsyncListener.class));
+
+        admissionControlHandler.handle("/path", mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        assertThat(admissionController.getInFlightRequests()).isEqualTo(1);
+
+        final AsyncEvent asyncEvent = new AsyncEvent(mockAsyncContext);
+        asyncListener.get().onComplete(asyncEvent);
+        asyncListener.get().onComplete(asyncEvent);
+
+        assertThat(admissionController.getInFlightRequests()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReleasePermit_WhenAsyncRequestCompletesBeforeWrappedHandlerReturns() throws Exception {
+        final AdmissionController admissionController = new AdmissionController(1, 0, 1);
+        final AdmissionControlHandler admissionControlHandler =
+                new AdmissionControlHandler(admissionController, mockHandler);
+
+        final Map<String, Object> requestAttributes = new HashMap<>();
+        doAnswer(invocation -> requestAttributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(mockHttpServletRequest)
+                .setAttribute(anyString(), any());
+        when(mockHttpServletRequest.getAttribute(anyString()))
+                .thenAnswer(invocation -> requestAttributes.get(invocation.<String>getArgument(0)));
+        when(mockHttpServletRequest.isAsyncStarted()).thenReturn(true);
+        when(mockHttpServletRequest.getAsyncContext()).thenReturn(mockAsyncContext);
+
+        final AtomicReference<AsyncListener> asyncListener = new AtomicReference<>();
+        doAnswer(invocation -> {
+                    asyncListener.set(invocation.getArgument(0));
+                    return null;
+                })
+                .when(mockAsyncContext)
+                .addListener(any(AsyncListener.class));
+
+        doAnswer(invocation -> {
+                    // Starts the async cycle, which completes on another thread before the handler returns
+                    AdmissionControlHandler.addPermitReleasingListener(mockHttpServletRequest, mockAsyncContext);
+                    asyncListener.get().onComplete(new AsyncEvent(mockAsyncContext));
+                    return null;
+                })
+                .when(mockHandler)
+                .handle("/path", mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        admissionControlHandler.handle("/path", mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        verify(mockAsyncContext, times(1)).addListener(any(AsyncListener.class));
+        assertThat(admissionController.getInFlightRequests()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotAdmit_WhenBaseRequestAlreadyHandled() throws Exception {
+        when(mockBaseRequest.isHandled()).thenReturn(true);
+        final AdmissionController admissionController = new AdmissionController(1, 0, 1);
+        final AdmissionControlHandler admissionControlHandler =
+                new AdmissionControlHandler(admissionController, mockHandler);
+
+        admissionControlHandler.handle("/path", mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        verify(mockBaseRequest, never()).setHandled(eq(true));
+        assertThat(admissionController.getShedRequests()).isEqualTo(0L);
+        assertThat(admissionController.getInFlightRequests()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.handlers;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class AdmissionControllerTest {
+
+    @Test
+    public void shouldShedRequests_WhenMaxConcurrentRequestsReached() throws Exception {
+        final AdmissionController admissionController = new AdmissionController(2, 0, 1);
+
+        assertThat(admissionController.tryAdmit()).isTrue();
+        assertThat(admissionController.tryAdmit()).isTrue();
+        assertThat(admissionController.getInFlightRequests()).isEqualTo(2);
+
+        assertThat(admissionController.tryAdmit()).isFalse();
+        assertThat(admissionController.tryAdmit()).isFalse();
+        assertThat(admissionController.getShedRequests()).isEqualTo(2L);
+
+        admissionController.release();
+
+        assertThat(admissionController.getInFlightRequests()).isEqualTo(1);
+        assertThat(admissionController.tryAdmit()).isTrue();
+        assertThat(admissionController.getShedRequests()).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldAdmitQueuedRequest_WhenPermitReleasedWithinMaxQueueWait() throws Exception {
+        final AdmissionController admissionController = new AdmissionController(1, 5000, 1);
+        assertThat(admissionController.tryAdmit()).isTrue();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean admitted = new AtomicBoolean(false);
+        final Thread queuedRequest = new Thread(() -> {
+            started.countDown();
+            admitted.set(admissionController.tryAdmit());
+        });
+        queuedRequest.start();
+        started.await();
+
+        admissionController.release();
+        queuedRequest.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(admitted.get()).isTrue();
+        assertThat(admissionController.getShedRequests()).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldShedQueuedRequest_WhenMaxQueueWaitElapsed() throws Exception {
+        final AdmissionController admissionController = new AdmissionController(1, 50, 1);
+        assertThat(admissionController.tryAdmit()).isTrue();
+
+        final long startNanos = System.nanoTime();
+        assertThat(admissionController.tryAdmit()).isFalse();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)).isAtLeast(50L);
+        assertThat(admissionController.getShedRequests()).isEqualTo(1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrow_WhenMaxConcurrentRequestsIsNotPositive() throws Exception {
+        new AdmissionController(0, 0, 1);
+    }
+}
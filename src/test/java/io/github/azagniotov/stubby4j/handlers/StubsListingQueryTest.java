@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.handlers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.github.azagniotov.stubby4j.stubs.StubHttpLifecycle;
+import io.github.azagniotov.stubby4j.stubs.StubRequest;
+import java.util.function.Predicate;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StubsListingQueryTest {
+
+    @Mock
+    private HttpServletRequest mockHttpServletRequest;
+
+    @Test
+    public void shouldUseDefaults_WhenNoQueryParameters() throws Exception {
+        final StubsListingQuery query = StubsListingQuery.fromRequest(mockHttpServletRequest);
+
+        assertThat(query.getPage()).isEqualTo(1);
+        assertThat(query.getPageSize()).isEqualTo(StubsListingQuery.DEFAULT_PAGE_SIZE);
+        assertThat(query.getOffset()).isEqualTo(0);
+        assertThat(query.isPaged()).isFalse();
+        assertThat(query.toFilter().test(buildStub("/invoice", "GET", null))).isTrue();
+    }
+
+    @Test
+    public void shouldUseDefaults_WhenMalformedPageParameters() throws Exception {
+        when(mockHttpServletRequest.getParameter(StubsListingQuery.PARAM_PAGE)).thenReturn("two");
+        when(mockHttpServletRequest.getParameter(StubsListingQuery.PARAM_SIZE)).thenReturn("");
+
+        final StubsListingQuery query = StubsListingQuery.fromRequest(mockHttpServletRequest);
+
+        assertThat(query.getPage()).isEqualTo(1);
+        assertThat(query.getPageSize()).isEqualTo(StubsListingQuery.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    public void shouldCalculateOffset_WhenPageGiven() throws Exception {
+        when(mockHttpServletRequest.getParameter(StubsListingQuery.PARAM_PAGE)).thenReturn("3");
+        when(mockHttpServletRequest.getParameter(StubsListingQuery.PARAM_SIZE)).thenReturn("20");
+
+        final StubsListingQuery query = StubsListingQuery.fromRequest(mockHttpServletRequest);
+
+        assertThat(query.getOffset()).isEqualTo(40);
+        assertThat(query.isPaged()).isTrue();
+    }
+
+    @Test
+    public void shouldClampPageAndPageSize_WhenOutOfRange() throws Exception {
+        final StubsListingQuery query = new StubsListingQuery(Integer.MAX_VALUE, 100000, null, null, null);
+
+        assertThat(query.getPageSize()).isEqualTo(StubsListingQuery.MAX_PAGE_SIZE);
+        assertThat(query.getOffset()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(new StubsListingQuery(-1, 0, null, null, null).getOffset()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldFilterStubs_ByUrlUuidAndMethod() throws Exception {
+        final Predicate<StubHttpLifecycle> filter =
+                new StubsListingQuery(1, 10, "/invoice", "stub-1", "get").toFilter();
+
+        assertThat(filter.test(buildStub("/api/invoice/123", "GET", "stub-1"))).isTrue();
+        assertThat(filter.test(buildStub("/api/receipt/123", "GET", "stub-1"))).isFalse();
+        assertThat(filter.test(buildStub("/api/invoice/123", "POST", "stub-1"))).isFalse();
+        assertThat(filter.test(buildStub("/api/invoice/123", "GET", "stub-2"))).isFalse();
+        assertThat(filter.test(buildStub("/api/invoice/123", "GET", null))).isFalse();
+    }
+
+    @Test
+    public void shouldBuildQueryString_WithFiltersOfQuery() throws Exception {
+        final StubsListingQuery query = new StubsListingQuery(2, 10, "/invoice?id=1", null, "GET");
+
+        assertThat(query.toQueryString(3)).isEqualTo("?page=3&size=10&url=%2Finvoice%3Fid%3D1&method=GET");
+    }
+
+    private static StubHttpLifecycle buildStub(final String url, final String method, final String uuid) {
+        final StubRequest stubRequest = new StubRequest.Builder()
+                .withUrl(url)
+                .withMethod(method)
+                .build();
+
+        return new StubHttpLifecycle.Builder()
+                .withRequest(stubRequest)
+                .withUUID(uuid)
+                .build();
+    }
+}
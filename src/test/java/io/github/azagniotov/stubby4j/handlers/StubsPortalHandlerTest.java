@@ -16,13 +16,19 @@
 
 package io.github.azagniotov.stubby4j.handlers;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.github.azagniotov.stubby4j.cli.ANSITerminal;
+import io.github.azagniotov.stubby4j.journal.AccessJournal;
 import io.github.azagniotov.stubby4j.stubs.StubRepository;
 import io.github.azagniotov.stubby4j.stubs.StubRequest;
 import io.github.azagniotov.stubby4j.stubs.StubResponse;
@@ -31,6 +37,9 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.AsyncContext;
 import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
 import javax.servlet.ServletOutputStream;
@@ -40,10 +49,12 @@ import javax.servlet.http.HttpServletResponse;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpStatus.Code;
+import org.eclipse.jetty.server.HttpChannel;
 import org.eclipse.jetty.server.Request;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -87,6 +98,15 @@ public class StubsPortalHandlerTest {
     @Mock
     private Request mockBaseRequest;
 
+    @Mock
+    private AsyncContext mockAsyncContext;
+
+    @Mock
+    private HttpChannel mockHttpChannel;
+
+    @Mock
+    private AccessJournal mockAccessJournal;
+
     @BeforeClass
     public static void beforeClass() throws Exception {
         ANSITerminal.muteConsole(true);
@@ -131,6 +151,39 @@ public class StubsPortalHandlerTest {
         verify(mockHttpServletResponse, never()).setStatus(HttpStatus.OK_200);
     }
 
+    @Test
+    public void verifyBehaviourDuringHandleGetRequestOnRequestExecutor() throws Exception {
+
+        final String requestPathInfo = "/path/1";
+
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethod.GET.asString());
+        when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+        when(mockHttpServletRequest.startAsync()).thenReturn(mockAsyncContext);
+        when(mockStubResponse.getHttpStatusCode()).thenReturn(Code.NOT_FOUND);
+        when(mockStubResponse.getResponseBodyAsBytes()).thenReturn(new byte[] {});
+
+        when(mockStubRepository.toStubRequest(mockHttpServletRequest)).thenCallRealMethod();
+        final StubRequest assertionStubRequest = mockStubRepository.toStubRequest(mockHttpServletRequest);
+        when(mockStubRepository.search(mockHttpServletRequest)).thenReturn(mockStubSearchResult);
+        when(mockStubSearchResult.getInvariant()).thenReturn(assertionStubRequest);
+        when(mockStubSearchResult.getMatch()).thenReturn(mockStubResponse);
+
+        final List<Runnable> submittedTasks = new ArrayList<>();
+        final StubsPortalHandler stubsPortalHandler =
+                new StubsPortalHandler(mockStubRepository, AccessJournal.noOpAccessJournal(), submittedTasks::add);
+        stubsPortalHandler.handle(requestPathInfo, mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        verify(mockAsyncContext).setTimeout(0);
+        verify(mockStubRepository, never()).search(any(HttpServletRequest.class));
+        verify(mockAsyncContext, never()).complete();
+        assertThat(submittedTasks).hasSize(1);
+
+        submittedTasks.get(0).run();
+
+        verify(mockHttpServletResponse).setStatus(HttpStatus.NOT_FOUND_404);
+        verify(mockAsyncContext).complete();
+    }
+
     @Test
     public void verifyBehaviourDuringHandlePostRequestWithNoResults() throws Exception {
 
@@ -176,12 +229,15 @@ public class StubsPortalHandlerTest {
         when(mockStubResponse.getHttpStatusCode()).thenReturn(Code.OK);
 
         final InputStream inputStream = new ByteArrayInputStream("".getBytes());
-        when(mockHttpServletRequest.getInputStream()).thenReturn(getServletInputStream(inputStream));
+        lenient().when(mockHttpServletRequest.getInputStream()).thenReturn(getServletInputStream(inputStream));
 
         setUpStubSearchMockExpectations(requestPathInfo);
 
         verify(mockHttpServletResponse, never()).setStatus(HttpStatus.BAD_REQUEST_400);
         verify(mockHttpServletResponse).setStatus(HttpStatus.OK_200);
+
+        // Request body is read lazily, only when needed for matching or reporting
+        verify(mockHttpServletRequest, never()).getInputStream();
     }
 
     @Test
@@ -257,11 +313,14 @@ public class StubsPortalHandlerTest {
         when(mockStubResponse.getHttpStatusCode()).thenReturn(Code.OK);
         when(mockStubResponse.getResponseBodyAsBytes()).thenReturn(null);
         final InputStream inputStream = new ByteArrayInputStream(postData.getBytes());
-        when(mockHttpServletRequest.getInputStream()).thenReturn(getServletInputStream(inputStream));
+        lenient().when(mockHttpServletRequest.getInputStream()).thenReturn(getServletInputStream(inputStream));
 
         setUpStubSearchMockExpectations(requestPathInfo);
 
         verify(mockHttpServletResponse).setStatus(HttpStatus.OK_200);
+
+        // Request body is read lazily, only when needed for matching or reporting
+        verify(mockHttpServletRequest, never()).getInputStream();
     }
 
     @Test
@@ -298,6 +357,48 @@ public class StubsPortalHandlerTest {
         verify(mockPrintWriter, never()).println(SOME_RESULTS_MESSAGE);
     }
 
+    @Test
+    public void shouldAppendToAccessJournal_OnlyOnceResponseCompleted() throws Exception {
+        final String requestPathInfo = "/path/1";
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethod.GET.asString());
+        when(mockHttpServletRequest.getPathInfo()).thenReturn(requestPathInfo);
+        when(mockHttpServletRequest.getRequestURI()).thenReturn(requestPathInfo);
+        when(mockBaseRequest.getTimeStamp()).thenReturn(1700000000000L);
+        when(mockBaseRequest.getHttpChannel()).thenReturn(mockHttpChannel);
+        when(mockStubResponse.getHttpStatusCode()).thenReturn(Code.NOT_FOUND);
+        when(mockStubResponse.getResponseBodyAsBytes()).thenReturn(new byte[] {});
+        when(mockHttpServletResponse.getStatus()).thenReturn(HttpStatus.NOT_FOUND_404);
+
+        when(mockStubRepository.toStubRequest(mockHttpServletRequest)).thenCallRealMethod();
+        final StubRequest assertionStubRequest = mockStubRepository.toStubRequest(mockHttpServletRequest);
+        when(mockStubRepository.search(mockHttpServletRequest)).thenReturn(mockStubSearchResult);
+        when(mockStubSearchResult.getInvariant()).thenReturn(assertionStubRequest);
+        when(mockStubSearchResult.getMatch()).thenReturn(mockStubResponse);
+
+        final StubsPortalHandler stubsPortalHandler =
+                new StubsPortalHandler(mockStubRepository, mockAccessJournal, null);
+        stubsPortalHandler.handle(requestPathInfo, mockBaseRequest, mockHttpServletRequest, mockHttpServletResponse);
+
+        final ArgumentCaptor<HttpChannel.Listener> listenerCaptor = ArgumentCaptor.forClass(HttpChannel.Listener.class);
+        verify(mockHttpChannel).addListener(listenerCaptor.capture());
+        verify(mockAccessJournal, never())
+                .append(anyLong(), anyString(), anyString(), anyInt(), anyInt(), anyLong(), anyLong());
+
+        // The gzip handler flushed the rest of the response by the time it completed
+        when(mockHttpChannel.getBytesWritten()).thenReturn(1234L);
+        listenerCaptor.getValue().onComplete(mockBaseRequest);
+
+        verify(mockAccessJournal)
+                .append(
+                        eq(1700000000000L),
+                        eq("GET"),
+                        eq(requestPathInfo),
+                        eq(AccessJournal.NO_RESOURCE_ID),
+                        eq(HttpStatus.NOT_FOUND_404),
+                        anyLong(),
+                        eq(1234L));
+    }
+
     private void setUpStubSearchMockExpectations(final String requestPathInfo) throws Exception {
         when(mockStubRepository.toStubRequest(mockHttpServletRequest)).thenCallRealMethod();
         final StubRequest assertionStubRequest = mockStubRepository.toStubRequest(mockHttpServletRequest);
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AccessJournalExporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldExportCsv() throws Exception {
+        final Path directory = writeJournal();
+        final StringWriter writer = new StringWriter();
+
+        AccessJournalExporter.exportCsv(directory, writer);
+
+        assertThat(writer.toString())
+                .isEqualTo(AccessJournalExporter.CSV_HEADER + "\n"
+                        + "2023-11-14T22:13:20Z,GET,/hello,0,200,15,11\n"
+                        + "2023-11-14T22:13:20.001Z,GET,\"/search?q=a,b\",-1,404,7,0\n");
+    }
+
+    @Test
+    public void shouldExportJson() throws Exception {
+        final Path directory = writeJournal();
+        final StringWriter writer = new StringWriter();
+
+        AccessJournalExporter.exportJson(directory, writer);
+
+        final JSONArray records = new JSONArray(writer.toString());
+        assertThat(records.length()).isEqualTo(2);
+
+        final JSONObject first = records.getJSONObject(0);
+        assertThat(first.getString("timestamp")).isEqualTo("2023-11-14T22:13:20Z");
+        assertThat(first.getString("method")).isEqualTo("GET");
+        assertThat(first.getString("url")).isEqualTo("/hello");
+        assertThat(first.getInt("resource_id")).isEqualTo(0);
+        assertThat(first.getInt("status")).isEqualTo(200);
+        assertThat(first.getLong("match_time_micros")).isEqualTo(15L);
+        assertThat(first.getLong("bytes")).isEqualTo(11L);
+
+        assertThat(records.getJSONObject(1).getString("url")).isEqualTo("/search?q=a,b");
+    }
+
+    @Test
+    public void shouldExportEmptyJsonArray_WhenJournalIsEmpty() throws Exception {
+        final StringWriter writer = new StringWriter();
+
+        AccessJournalExporter.exportJson(temporaryFolder.newFolder().toPath(), writer);
+
+        assertThat(new JSONArray(writer.toString()).length()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldQuoteCsvField_WhenNeeded() throws Exception {
+        assertThat(AccessJournalExporter.toCsvField("/plain")).isEqualTo("/plain");
+        assertThat(AccessJournalExporter.toCsvField("/a,b")).isEqualTo("\"/a,b\"");
+        assertThat(AccessJournalExporter.toCsvField("/a\"b")).isEqualTo("\"/a\"\"b\"");
+    }
+
+    private Path writeJournal() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AccessJournal accessJournal = AccessJournal.mappedSegmentAccessJournal(directory);
+        accessJournal.append(1700000000000L, "GET", "/hello", 0, 200, 15L, 11L);
+        accessJournal.append(1700000000001L, "GET", "/search?q=a,b", AccessJournal.NO_RESOURCE_ID, 404, 7L, 0L);
+        accessJournal.close();
+
+        return directory;
+    }
+}
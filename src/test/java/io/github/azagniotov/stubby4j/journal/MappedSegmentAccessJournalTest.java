@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.journal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedSegmentAccessJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadBackAppendedRecords() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AccessJournal accessJournal = new MappedSegmentAccessJournal(directory, 8, 4);
+        accessJournal.append(1700000000000L, "GET", "/hello?name=stubby", 3, 200, 150L, 42L);
+        accessJournal.append(1700000000001L, "POST", "/not/found", AccessJournal.NO_RESOURCE_ID, 404, 90L, 0L);
+        accessJournal.close();
+
+        final List<AccessJournalRecord> records = readAll(directory);
+
+        assertThat(records).hasSize(2);
+        final AccessJournalRecord first = records.get(0);
+        assertThat(first.getTimestampMillis()).isEqualTo(1700000000000L);
+        assertThat(first.getMethod()).isEqualTo("GET");
+        assertThat(first.getUrl()).isEqualTo("/hello?name=stubby");
+        assertThat(first.getResourceId()).isEqualTo(3);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getMatchTimeMicros()).isEqualTo(150L);
+        assertThat(first.getBytes()).isEqualTo(42L);
+
+        final AccessJournalRecord second = records.get(1);
+        assertThat(second.getMethod()).isEqualTo("POST");
+        assertThat(second.getUrl()).isEqualTo("/not/found");
+        assertThat(second.getResourceId()).isEqualTo(AccessJournal.NO_RESOURCE_ID);
+        assertThat(second.getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void shouldRotateSegments_AndDeleteTheOldestSegments() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AccessJournal accessJournal = new MappedSegmentAccessJournal(directory, 4, 3);
+        for (int idx = 0; idx < 20; idx++) {
+            accessJournal.append(idx, "GET", "/item/" + idx, idx, 200, 1L, 1L);
+        }
+        accessJournal.close();
+
+        assertThat(AccessJournalReader.listSegments(directory)).hasSize(3);
+
+        final List<AccessJournalRecord> records = readAll(directory);
+        // The newest retained segment is empty, because it was mapped ahead of time
+        assertThat(records).hasSize(8);
+        assertThat(records.get(0).getUrl()).isEqualTo("/item/12");
+        assertThat(records.get(7).getUrl()).isEqualTo("/item/19");
+    }
+
+    @Test
+    public void shouldContinueSegmentNumbering_WhenReopened() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AccessJournal firstRun = new MappedSegmentAccessJournal(directory, 4, 8);
+        firstRun.append(1L, "GET", "/first/run", 1, 200, 1L, 1L);
+        firstRun.close();
+
+        final AccessJournal secondRun = new MappedSegmentAccessJournal(directory, 4, 8);
+        secondRun.append(2L, "GET", "/second/run", 1, 200, 1L, 1L);
+        secondRun.close();
+
+        final List<AccessJournalRecord> records = readAll(directory);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getUrl()).isEqualTo("/first/run");
+        assertThat(records.get(1).getUrl()).isEqualTo("/second/run");
+    }
+
+    @Test
+    public void shouldTruncateLongUrl_WithoutCuttingMultibyteCharacter() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final StringBuilder longUrl = new StringBuilder("/");
+        for (int idx = 0; idx < AccessJournalLayout.MAX_URL_LENGTH; idx++) {
+            longUrl.append('\u00e9');
+        }
+        final AccessJournal accessJournal = new MappedSegmentAccessJournal(directory, 4, 2);
+        accessJournal.append(1L, "A-VERY-LONG-HTTP-METHOD", longUrl.toString(), 1, 200, 1L, 1L);
+        accessJournal.close();
+
+        final AccessJournalRecord record = readAll(directory).get(0);
+
+        assertThat(record.getMethod()).isEqualTo("A-VERY-LONG-HTTP");
+        assertThat(record.getUrl().getBytes(StandardCharsets.UTF_8).length)
+                .isAtMost(AccessJournalLayout.MAX_URL_LENGTH);
+        assertThat(longUrl.toString()).startsWith(record.getUrl());
+    }
+
+    @Test
+    public void shouldNotAppend_WhenClosed() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AccessJournal accessJournal = new MappedSegmentAccessJournal(directory, 4, 2);
+        accessJournal.close();
+        accessJournal.append(1L, "GET", "/closed", 1, 200, 1L, 1L);
+
+        assertThat(readAll(directory)).isEmpty();
+        try (final Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(0L);
+        }
+    }
+
+    @Test
+    public void shouldReadRecordsWrittenConcurrently() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AccessJournal accessJournal = new MappedSegmentAccessJournal(directory, 1024, 16);
+
+        final List<Thread> writers = new ArrayList<>();
+        for (int writerIdx = 0; writerIdx < 4; writerIdx++) {
+            final int writerId = writerIdx;
+            writers.add(new Thread(() -> {
+                for (int idx = 0; idx < 1000; idx++) {
+                    accessJournal.append(idx, "GET", "/writer/" + writerId, writerId, 200, 1L, 1L);
+                }
+            }));
+        }
+        for (final Thread writer : writers) {
+            writer.start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        accessJournal.close();
+
+        final List<AccessJournalRecord> records = readAll(directory);
+
+        assertThat(records).hasSize(4000);
+        for (final AccessJournalRecord record : records) {
+            assertThat(record.getUrl()).isEqualTo("/writer/" + record.getResourceId());
+        }
+    }
+
+    @Test
+    public void shouldTruncateUtf8Length_AtCharacterBoundary() throws Exception {
+        final byte[] utf8Bytes = "ab\u00e9".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(MappedSegmentAccessJournal.truncatedUtf8Length(utf8Bytes, 10)).isEqualTo(4);
+        assertThat(MappedSegmentAccessJournal.truncatedUtf8Length(utf8Bytes, 4)).isEqualTo(4);
+        assertThat(MappedSegmentAccessJournal.truncatedUtf8Length(utf8Bytes, 3)).isEqualTo(2);
+        assertThat(MappedSegmentAccessJournal.truncatedUtf8Length(utf8Bytes, 2)).isEqualTo(2);
+    }
+
+    private static List<AccessJournalRecord> readAll(final Path directory) throws Exception {
+        final List<AccessJournalRecord> records = new ArrayList<>();
+        AccessJournalReader.read(directory, records::add);
+
+        return records;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.server;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.net.ServerSocket;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.junit.Test;
+
+public class ReusePortServerConnectorTest {
+
+    @Test
+    public void shouldBindSeveralConnectorsToTheSamePort() throws Exception {
+        assumeTrue(ReusePortServerConnector.isReusePortSupported());
+
+        final int port;
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+
+        final Server server = new Server();
+        final ReusePortServerConnector first =
+                new ReusePortServerConnector(server, 1, 1, new HttpConnectionFactory());
+        final ReusePortServerConnector second =
+                new ReusePortServerConnector(server, 1, 1, new HttpConnectionFactory());
+        first.setHost("127.0.0.1");
+        first.setPort(port);
+        second.setHost("127.0.0.1");
+        second.setPort(port);
+
+        try {
+            first.open();
+            second.open();
+
+            assertThat(first.getLocalPort()).isEqualTo(port);
+            assertThat(second.getLocalPort()).isEqualTo(port);
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.server;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.github.azagniotov.stubby4j.cli.CommandLineInterpreter;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class ServerTuningTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldUseDefaults_WhenNoTuningOptionsGiven() throws Exception {
+        final ServerTuning serverTuning = ServerTuning.fromCommandLineArgs(new HashMap<>());
+
+        assertThat(serverTuning.getMinThreads()).isEqualTo(ServerTuning.DEFAULT_MIN_THREADS);
+        assertThat(serverTuning.getMaxThreads()).isEqualTo(ServerTuning.DEFAULT_MAX_THREADS);
+        assertThat(serverTuning.getMaxQueuedRequests()).isEqualTo(ServerTuning.UNBOUNDED_QUEUE);
+        assertThat(serverTuning.getAcceptors()).isEqualTo(ServerTuning.JETTY_DEFAULT);
+        assertThat(serverTuning.getSelectors()).isEqualTo(ServerTuning.JETTY_DEFAULT);
+        assertThat(serverTuning.getIdleTimeoutMillis()).isEqualTo(45000);
+        assertThat(serverTuning.getOutputBufferSize()).isEqualTo(32768);
+        assertThat(serverTuning.getRequestHeaderSize()).isEqualTo(8192);
+        assertThat(serverTuning.getResponseHeaderSize()).isEqualTo(8192);
+        assertThat(serverTuning.getHttp2MaxConcurrentStreams()).isEqualTo(100);
+        assertThat(serverTuning.getHttp2InitialSessionRecvWindow()).isEqualTo(1048576);
+        assertThat(serverTuning.getHttp2InitialStreamRecvWindow()).isEqualTo(524288);
+        assertThat(serverTuning.getAdminMaxThreads()).isEqualTo(ServerTuning.DEFAULT_ADMIN_MAX_THREADS);
+        assertThat(serverTuning.getTlsMaxThreads()).isEqualTo(ServerTuning.SHARED_THREAD_POOL);
+        assertThat(serverTuning.getMaxConcurrentRequests()).isEqualTo(ServerTuning.UNLIMITED_CONCURRENT_REQUESTS);
+        assertThat(serverTuning.getMaxQueueWaitMillis()).isEqualTo(0);
+        assertThat(serverTuning.getRetryAfterSeconds()).isEqualTo(1);
+        assertThat(serverTuning.getStubsConnectors()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldUseGivenTuningOptions() throws Exception {
+        final CommandLineInterpreter commandLineInterpreter = new CommandLineInterpreter();
+        commandLineInterpreter.parseCommandLine(new String[] {
+            "--min_threads", "16",
+            "--max_threads", "512",
+            "--max_queued_requests", "1000",
+            "--acceptors", "0",
+            "--selectors", "4",
+            "--idle_timeout", "10000",
+            "--output_buffer_size", "65536",
+            "--request_header_size", "16384",
+            "--response_header_size", "4096",
+            "--http2_max_concurrent_streams", "1000",
+            "--http2_initial_session_recv_window", "8388608",
+            "--http2_initial_stream_recv_window", "4194304",
+            "--admin_max_threads", "8",
+            "--tls_max_threads", "64",
+            "--max_concurrent_requests", "500",
+            "--max_queue_wait", "20",
+            "--retry_after", "3",
+            "--stubs_connectors", "4"
+        });
+        final ServerTuning serverTuning =
+                ServerTuning.fromCommandLineArgs(commandLineInterpreter.getCommandlineParams());
+
+        assertThat(serverTuning.getMinThreads()).isEqualTo(16);
+        assertThat(serverTuning.getMaxThreads()).isEqualTo(512);
+        assertThat(serverTuning.getMaxQueuedRequests()).isEqualTo(1000);
+        assertThat(serverTuning.getAcceptors()).isEqualTo(0);
+        assertThat(serverTuning.getSelectors()).isEqualTo(4);
+        assertThat(serverTuning.getIdleTimeoutMillis()).isEqualTo(10000);
+        assertThat(serverTuning.getOutputBufferSize()).isEqualTo(65536);
+        assertThat(serverTuning.getRequestHeaderSize()).isEqualTo(16384);
+        assertThat(serverTuning.getResponseHeaderSize()).isEqualTo(4096);
+        assertThat(serverTuning.getHttp2MaxConcurrentStreams()).isEqualTo(1000);
+        assertThat(serverTuning.getHttp2InitialSessionRecvWindow()).isEqualTo(8388608);
+        assertThat(serverTuning.getHttp2InitialStreamRecvWindow()).isEqualTo(4194304);
+        assertThat(serverTuning.getAdminMaxThreads()).isEqualTo(8);
+        assertThat(serverTuning.getTlsMaxThreads()).isEqualTo(64);
+        assertThat(serverTuning.getMaxConcurrentRequests()).isEqualTo(500);
+        assertThat(serverTuning.getMaxQueueWaitMillis()).isEqualTo(20);
+        assertThat(serverTuning.getRetryAfterSeconds()).isEqualTo(3);
+        assertThat(serverTuning.getStubsConnectors()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldThrow_WhenTuningOptionIsNotNumber() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_MAX_THREADS, "many");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The --max_threads must be a number, got: many");
+
+        ServerTuning.fromCommandLineArgs(commandLineArgs);
+    }
+
+    @Test
+    public void shouldThrow_WhenTuningOptionIsBelowMinimum() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_SELECTORS, "0");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The --selectors must be at least 1, got: 0");
+
+        ServerTuning.fromCommandLineArgs(commandLineArgs);
+    }
+
+    @Test
+    public void shouldThrow_WhenDedicatedThreadPoolIsTooSmall() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_ADMIN_MAX_THREADS, "2");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The --admin_max_threads must be at least 4, got: 2");
+
+        ServerTuning.fromCommandLineArgs(commandLineArgs);
+    }
+
+    @Test
+    public void shouldLowerDefaultMinThreads_WhenOnlyMaxThreadsGiven() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_MAX_THREADS, "6");
+
+        final ServerTuning serverTuning = ServerTuning.fromCommandLineArgs(commandLineArgs, 8);
+
+        assertThat(serverTuning.getMinThreads()).isEqualTo(6);
+        assertThat(serverTuning.getMaxThreads()).isEqualTo(6);
+    }
+
+    @Test
+    public void shouldThrow_WhenMaxThreadsCannotFitAcceptorsSelectorsAndReservedThreads() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_MAX_THREADS, "1");
+
+        // On 8 cores, each of the stubs and TLS connectors takes 1 acceptor and 1 selector, plus 1 reserved thread
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+                "The --max_threads must be at least 6 to run the acceptor, selector and reserved threads, got: 1");
+
+        ServerTuning.fromCommandLineArgs(commandLineArgs, 8);
+    }
+
+    @Test
+    public void shouldNotCountTlsConnector_WhenTlsDisabled() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_MAX_THREADS, "4");
+        commandLineArgs.put(CommandLineInterpreter.OPTION_DISABLE_SSL, null);
+
+        final ServerTuning serverTuning = ServerTuning.fromCommandLineArgs(commandLineArgs, 8);
+
+        assertThat(serverTuning.getMinThreads()).isEqualTo(4);
+        assertThat(serverTuning.getMaxThreads()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldThrow_WhenDedicatedTlsThreadPoolCannotFitSelectors() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_SELECTORS, "8");
+        commandLineArgs.put(CommandLineInterpreter.OPTION_TLS_MAX_THREADS, "8");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+                "The --tls_max_threads must be at least 11 to run the acceptor, selector and reserved threads, got: 8");
+
+        ServerTuning.fromCommandLineArgs(commandLineArgs, 8);
+    }
+
+    @Test
+    public void shouldThrow_WhenMinThreadsGreaterThanMaxThreads() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_MIN_THREADS, "300");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+                "The --min_threads must not be greater than the --max_threads, got: 300 and 200");
+
+        ServerTuning.fromCommandLineArgs(commandLineArgs);
+    }
+}
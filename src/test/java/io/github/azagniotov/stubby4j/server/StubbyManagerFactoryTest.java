@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.server;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.github.azagniotov.stubby4j.cli.ANSITerminal;
+import io.github.azagniotov.stubby4j.cli.CommandLineInterpreter;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class StubbyManagerFactoryTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldParseOverflowPolicy_IgnoringCase() throws Exception {
+        assertThat(StubbyManagerFactory.parseOverflowPolicy("block")).isEqualTo(ANSITerminal.OverflowPolicy.BLOCK);
+        assertThat(StubbyManagerFactory.parseOverflowPolicy("DROP")).isEqualTo(ANSITerminal.OverflowPolicy.DROP);
+        assertThat(StubbyManagerFactory.parseOverflowPolicy(null)).isEqualTo(ANSITerminal.OverflowPolicy.DROP);
+    }
+
+    @Test
+    public void shouldThrow_WhenOverflowPolicyIsUnknown() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_ASYNC_CONSOLE, "dorp");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The --async_console must be one of [DROP, BLOCK], got: dorp");
+
+        new StubbyManagerFactory()
+                .construct(new File("stubs.yaml"), commandLineArgs, CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void shouldThrow_WhenMaxRequestBodyBytesIsNotNumber() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_MAX_REQUEST_BODY_BYTES, "1mb");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The --max_request_body_bytes must be a number, got: 1mb");
+
+        new StubbyManagerFactory()
+                .construct(new File("stubs.yaml"), commandLineArgs, CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void shouldThrow_WhenMaxRequestBodyBytesIsNotPositive() throws Exception {
+        final Map<String, String> commandLineArgs = new HashMap<>();
+        commandLineArgs.put(CommandLineInterpreter.OPTION_MAX_REQUEST_BODY_BYTES, "0");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The --max_request_body_bytes must be at least 1, got: 0");
+
+        new StubbyManagerFactory()
+                .construct(new File("stubs.yaml"), commandLineArgs, CompletableFuture.completedFuture(null));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.server;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void shouldProvideExecutor_OnlyWhenJvmSupportsVirtualThreads() throws Exception {
+        final Optional<ExecutorService> executorService = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        executorService.ifPresent(ExecutorService::shutdown);
+
+        if (javaFeatureVersion() >= 21) {
+            assertThat(executorService.isPresent()).isTrue();
+        } else if (javaFeatureVersion() < 19) {
+            assertThat(executorService.isPresent()).isFalse();
+        }
+    }
+
+    @Test
+    public void shouldRunTasksOnVirtualThreads() throws Exception {
+        final Optional<ExecutorService> executorService = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        assumeTrue(executorService.isPresent());
+
+        final Future<Object> isVirtual = executorService
+                .get()
+                .submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+        executorService.get().shutdown();
+
+        assertThat(isVirtual.get()).isEqualTo(true);
+    }
+
+    private static int javaFeatureVersion() {
+        final String specificationVersion = System.getProperty("java.specification.version");
+        // Prior to JDK 9, the specification version has the 1.x format, e.g.: 1.8
+        return specificationVersion.startsWith("1.")
+                ? Integer.parseInt(specificationVersion.substring(2))
+                : Integer.parseInt(specificationVersion);
+    }
+}
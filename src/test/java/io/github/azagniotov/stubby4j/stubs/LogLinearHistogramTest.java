@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+public class LogLinearHistogramTest {
+
+    @Test
+    public void shouldCountSmallValuesExactly() throws Exception {
+        for (long value = 0; value < 16; value++) {
+            final int bucketIndex = LogLinearHistogram.bucketIndexOf(value);
+            assertThat(bucketIndex).isEqualTo((int) value);
+            assertThat(LogLinearHistogram.highestValueOf(bucketIndex)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void shouldCountValuesInContiguousBuckets_AtMostAnEighthAsWideAsTheValue() throws Exception {
+        int previousBucketIndex = 0;
+        for (long value = 1; value < (1L << 20); value++) {
+            final int bucketIndex = LogLinearHistogram.bucketIndexOf(value);
+            assertThat(bucketIndex - previousBucketIndex).isAtMost(1);
+            assertThat(bucketIndex).isAtLeast(previousBucketIndex);
+
+            final long highestValue = LogLinearHistogram.highestValueOf(bucketIndex);
+            assertThat(highestValue).isAtLeast(value);
+            assertThat(highestValue - value).isAtMost(value / 8);
+            assertThat(LogLinearHistogram.highestValueOf(bucketIndex - 1)).isLessThan(value);
+
+            previousBucketIndex = bucketIndex;
+        }
+    }
+
+    @Test
+    public void shouldReturnZeroPercentiles_WhenNothingRecorded() throws Exception {
+        final StubLatencyStats.Percentiles percentiles = new LogLinearHistogram(1000L).getPercentiles();
+
+        assertThat(percentiles.getCount()).isEqualTo(0L);
+        assertThat(percentiles.getP50()).isEqualTo(0L);
+        assertThat(percentiles.getP99()).isEqualTo(0L);
+        assertThat(percentiles.getMax()).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldReturnPercentiles_AsHighestValuesOfTheirBuckets() throws Exception {
+        final LogLinearHistogram histogram = new LogLinearHistogram(1000L);
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        final StubLatencyStats.Percentiles percentiles = histogram.getPercentiles();
+        assertThat(percentiles.getCount()).isEqualTo(100L);
+        assertThat(percentiles.getP50()).isEqualTo(51L);
+        assertThat(percentiles.getP90()).isEqualTo(95L);
+        // The bucket of the 99th value goes up to 103, but no recorded value is above the max
+        assertThat(percentiles.getP99()).isEqualTo(100L);
+        assertThat(percentiles.getMax()).isEqualTo(100L);
+        assertThat(percentiles.toString()).isEqualTo("p50 51, p90 95, p99 100, max 100 (100 samples)");
+    }
+
+    @Test
+    public void shouldCountValuesAboveHighestTrackableValueInLastBucket_KeepingTheMax() throws Exception {
+        final LogLinearHistogram histogram = new LogLinearHistogram(1000L);
+        histogram.record(5000L);
+        histogram.record(-1L);
+
+        final StubLatencyStats.Percentiles percentiles = histogram.getPercentiles();
+        assertThat(percentiles.getCount()).isEqualTo(2L);
+        assertThat(percentiles.getP50()).isEqualTo(0L);
+        assertThat(percentiles.getP99())
+                .isEqualTo(LogLinearHistogram.highestValueOf(LogLinearHistogram.bucketIndexOf(1000L)));
+        assertThat(percentiles.getMax()).isEqualTo(5000L);
+    }
+}
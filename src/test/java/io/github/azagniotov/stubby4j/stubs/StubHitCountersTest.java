@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StubHitCountersTest {
+
+    private AtomicLong nowSecond;
+    private StubHitCounters stubHitCounters;
+
+    @Before
+    public void setUp() throws Exception {
+        nowSecond = new AtomicLong(1000L);
+        stubHitCounters = new StubHitCounters(nowSecond::get);
+    }
+
+    @Test
+    public void shouldNotHaveHitCounts_WhenStubNeverHit() throws Exception {
+        assertThat(stubHitCounters.isEmpty()).isTrue();
+        assertThat(stubHitCounters.getHitCounts(0)).isNull();
+        assertThat(stubHitCounters.getHitCounts(5000)).isNull();
+    }
+
+    @Test
+    public void shouldCountHits_ByStubId() throws Exception {
+        stubHitCounters.recordHit(0);
+        stubHitCounters.recordHit(0);
+        // A stub ID in a chunk other than the first one
+        stubHitCounters.recordHit(4096);
+
+        assertThat(stubHitCounters.isEmpty()).isFalse();
+        assertThat(stubHitCounters.getHitCounts(0).getHits()).isEqualTo(2L);
+        assertThat(stubHitCounters.getHitCounts(4096).getHits()).isEqualTo(1L);
+        assertThat(stubHitCounters.getHitCounts(1)).isNull();
+    }
+
+    @Test
+    public void shouldCountHitsOfCompleteSecondsOnly_InRollingWindows() throws Exception {
+        stubHitCounters.recordHit(7);
+        nowSecond.addAndGet(30);
+        stubHitCounters.recordHit(7);
+        stubHitCounters.recordHit(7);
+
+        StubHitCounters.HitCounts hitCounts = stubHitCounters.getHitCounts(7);
+        assertThat(hitCounts.getHits()).isEqualTo(3L);
+        assertThat(hitCounts.getHitsInLastSecond()).isEqualTo(0L);
+        assertThat(hitCounts.getHitsInLastMinute()).isEqualTo(1L);
+
+        nowSecond.incrementAndGet();
+        hitCounts = stubHitCounters.getHitCounts(7);
+        assertThat(hitCounts.getHitsInLastSecond()).isEqualTo(2L);
+        assertThat(hitCounts.getHitsInLastMinute()).isEqualTo(3L);
+
+        nowSecond.addAndGet(StubHitCounters.WINDOW_SECONDS - 1);
+        stubHitCounters.recordHit(7);
+        hitCounts = stubHitCounters.getHitCounts(7);
+        assertThat(hitCounts.getHits()).isEqualTo(4L);
+        assertThat(hitCounts.getHitsInLastSecond()).isEqualTo(0L);
+        assertThat(hitCounts.getHitsInLastMinute()).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldDropHitCounts_WhenRemovedOrCleared() throws Exception {
+        stubHitCounters.recordHit(1);
+        stubHitCounters.recordHit(2);
+
+        stubHitCounters.remove(1);
+        stubHitCounters.remove(3);
+        assertThat(stubHitCounters.getHitCounts(1)).isNull();
+        assertThat(stubHitCounters.isEmpty()).isFalse();
+
+        stubHitCounters.clear();
+        assertThat(stubHitCounters.getHitCounts(2)).isNull();
+        assertThat(stubHitCounters.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldRecordLatencyStats_ByStubId() throws Exception {
+        assertThat(stubHitCounters.getLatencyStats(3)).isNull();
+
+        stubHitCounters.recordHit(3);
+        stubHitCounters.recordMatchCandidates(3, 12);
+        stubHitCounters.recordMatchTime(3, 40);
+        stubHitCounters.recordServiceTime(3, 900);
+        stubHitCounters.recordServiceTime(3, 1100);
+
+        final StubLatencyStats latencyStats = stubHitCounters.getLatencyStats(3);
+        assertThat(latencyStats.getMatchCandidates().getCount()).isEqualTo(1L);
+        assertThat(latencyStats.getMatchCandidates().getMax()).isEqualTo(12L);
+        assertThat(latencyStats.getMatchTimeMicros().getMax()).isEqualTo(40L);
+        assertThat(latencyStats.getServiceTimeMicros().getCount()).isEqualTo(2L);
+        assertThat(latencyStats.getServiceTimeMicros().getMax()).isEqualTo(1100L);
+    }
+
+    @Test
+    public void shouldNotRecordServiceTime_WhenStubNeverHit() throws Exception {
+        stubHitCounters.recordServiceTime(8, 500);
+
+        assertThat(stubHitCounters.getLatencyStats(8)).isNull();
+        assertThat(stubHitCounters.isEmpty()).isTrue();
+    }
+}
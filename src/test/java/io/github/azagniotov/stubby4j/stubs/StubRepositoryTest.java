@@ -37,6 +37,7 @@ import io.github.azagniotov.stubby4j.client.StubbyResponse;
 import io.github.azagniotov.stubby4j.common.Common;
 import io.github.azagniotov.stubby4j.http.StubbyHttpTransport;
 import io.github.azagniotov.stubby4j.stubs.proxy.StubProxyConfig;
+import io.github.azagniotov.stubby4j.utils.ConsoleUtils;
 import io.github.azagniotov.stubby4j.yaml.YamlParseResultSet;
 import io.github.azagniotov.stubby4j.yaml.YamlParser;
 import java.io.File;
@@ -46,6 +47,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
@@ -121,6 +123,110 @@ public class StubRepositoryTest {
         assertThat(spyStubRepository.getResourceStatsAsCsv()).isEqualTo("resourceId,hits\n");
     }
 
+    @Test
+    public void shouldCaptureOnlyReferencedHeaders_WhenConvertingIncomingRequest() throws Exception {
+        final StubRequest stubRequest = requestBuilder
+                .withUrl("/resource/item/1")
+                .withMethodGet()
+                .withHeader("X-Custom-Header", "custom")
+                .build();
+        spyStubRepository.resetStubsCache(parseYaml(stubRequest, StubResponse.okResponse(), STUB_UUID_ONE));
+
+        final Map<String, String> incomingHeaders = new HashMap<>();
+        incomingHeaders.put("x-custom-header", "custom");
+        incomingHeaders.put("authorization", "Bearer Ym9iOnNlY3JldA==");
+        incomingHeaders.put("x-b3-traceid", "80f198ee56343ba864fe8b2a57d3eff7");
+        incomingHeaders.put("user-agent", "curl/8.1.2");
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/resource/item/1");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getHeader(anyString()))
+                .thenAnswer(invocation -> incomingHeaders.get(invocation.<String>getArgument(0)));
+
+        final StubRequest assertingRequest = spyStubRepository.toStubRequest(mockHttpServletRequest);
+
+        assertThat(assertingRequest.getHeaders())
+                .containsExactly("x-custom-header", "custom", "authorization", "Bearer Ym9iOnNlY3JldA==");
+        verify(mockHttpServletRequest, never()).getHeaderNames();
+    }
+
+    @Test
+    public void shouldCaptureAllHeaders_WhenProxyConfigsLoaded() throws Exception {
+        final StubProxyConfig stubProxyConfig = new StubProxyConfig.Builder()
+                .withUuid(StubProxyConfig.Builder.DEFAULT_UUID)
+                .withStrategy("as-is")
+                .withPropertyEndpoint("https://jsonplaceholder.typicode.com")
+                .build();
+        final YamlParseResultSet yamlParseResultSet = new YamlParseResultSet(
+                new LinkedList<>(),
+                new HashMap<>(),
+                Collections.singletonMap(StubProxyConfig.Builder.DEFAULT_UUID, stubProxyConfig),
+                new HashMap<>());
+        spyStubRepository.resetStubsCache(yamlParseResultSet);
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/resource/item/1");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getHeaderNames())
+                .thenReturn(Collections.enumeration(Collections.singletonList("X-B3-TraceId")));
+        when(mockHttpServletRequest.getHeader("X-B3-TraceId")).thenReturn("80f198ee56343ba864fe8b2a57d3eff7");
+
+        final StubRequest assertingRequest = spyStubRepository.toStubRequest(mockHttpServletRequest);
+
+        assertThat(assertingRequest.getHeaders()).containsExactly("x-b3-traceid", "80f198ee56343ba864fe8b2a57d3eff7");
+    }
+
+    @Test
+    public void shouldCaptureAllHeaders_WhenNoStubMatched() throws Exception {
+        final StubRequest stubRequest = requestBuilder
+                .withUrl("/resource/item/1")
+                .withMethodGet()
+                .withHeader("X-Custom-Header", "custom")
+                .build();
+        spyStubRepository.resetStubsCache(parseYaml(stubRequest, StubResponse.okResponse(), STUB_UUID_ONE));
+
+        final Map<String, String> incomingHeaders = new HashMap<>();
+        incomingHeaders.put("X-Custom-Header", "other");
+        incomingHeaders.put("User-Agent", "curl/8.1.2");
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/resource/item/1");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getHeaderNames())
+                .thenReturn(Collections.enumeration(incomingHeaders.keySet()));
+        when(mockHttpServletRequest.getHeader(anyString()))
+                .thenAnswer(invocation -> incomingHeaders.get(invocation.<String>getArgument(0)));
+
+        final StubSearchResult stubSearchResult = spyStubRepository.search(mockHttpServletRequest);
+
+        assertThat(stubSearchResult.getMatch().getHttpStatusCode()).isEqualTo(HttpStatus.Code.NOT_FOUND);
+        assertThat(stubSearchResult.getInvariant().getHeaders())
+                .containsExactly("x-custom-header", "other", "user-agent", "curl/8.1.2");
+    }
+
+    @Test
+    public void shouldCaptureAllHeaders_WhenDebugEnabled() throws Exception {
+        final StubRequest stubRequest = requestBuilder
+                .withUrl("/resource/item/1")
+                .withMethodGet()
+                .withHeader("X-Custom-Header", "custom")
+                .build();
+        spyStubRepository.resetStubsCache(parseYaml(stubRequest, StubResponse.okResponse(), STUB_UUID_ONE));
+
+        when(mockHttpServletRequest.getPathInfo()).thenReturn("/resource/item/1");
+        when(mockHttpServletRequest.getMethod()).thenReturn(HttpMethods.GET);
+        when(mockHttpServletRequest.getHeaderNames())
+                .thenReturn(Collections.enumeration(Collections.singletonList("User-Agent")));
+        when(mockHttpServletRequest.getHeader("User-Agent")).thenReturn("curl/8.1.2");
+
+        ConsoleUtils.enableDebug(true);
+        try {
+            final StubRequest assertingRequest = spyStubRepository.toStubRequest(mockHttpServletRequest);
+
+            assertThat(assertingRequest.getHeaders()).containsExactly("user-agent", "curl/8.1.2");
+        } finally {
+            ConsoleUtils.enableDebug(false);
+        }
+    }
+
     @Test
     public void canMatchHttpCycleByUuid() throws Exception {
         final YamlParseResultSet yamlParseResultSet = parseYaml("/resource/item/1", STUB_UUID_ONE);
@@ -28,6 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -70,6 +71,92 @@ public class StubRequestBuilderTest {
         assertThat(builder.getStaged(String.class, BODY, orElse)).isEqualTo(orElse);
     }
 
+    @Test
+    public void shouldResolveLazyPostOnlyOnce_WhenPostBodyAccessed() throws Exception {
+        final AtomicInteger supplierInvocations = new AtomicInteger();
+        final StubRequest stubRequest = builder.withUrl("/path/1")
+                .withMethodPost()
+                .withLazyPost(() -> {
+                    supplierInvocations.incrementAndGet();
+                    return "lazy post";
+                })
+                .build();
+
+        assertThat(supplierInvocations.get()).isEqualTo(0);
+        assertThat(stubRequest.getPostBody()).isEqualTo("lazy post");
+        assertThat(stubRequest.getPost()).isEqualTo("lazy post");
+        assertThat(supplierInvocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotResolveLazyPost_WhenStubbedUrlDoesNotMatch() throws Exception {
+        final AtomicInteger supplierInvocations = new AtomicInteger();
+        final StubRequest stubbedRequest = builder.withUrl("/path/2")
+                .withMethodPost()
+                .withPost("stubbed post")
+                .build();
+        final StubRequest assertingRequest = builder.withUrl("/path/1")
+                .withMethodPost()
+                .withLazyPost(() -> {
+                    supplierInvocations.incrementAndGet();
+                    return "stubbed post";
+                })
+                .build();
+
+        assertThat(assertingRequest).isNotEqualTo(stubbedRequest);
+        assertThat(supplierInvocations.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotResolveLazyPost_WhenHashedOrPrinted() throws Exception {
+        final AtomicInteger supplierInvocations = new AtomicInteger();
+        final StubRequest stubRequest = builder.withUrl("/path/1")
+                .withMethodPost()
+                .withLazyPost(() -> {
+                    supplierInvocations.incrementAndGet();
+                    return "lazy post";
+                })
+                .build();
+
+        final int unresolvedHashCode = stubRequest.hashCode();
+        assertThat(stubRequest.toString()).doesNotContain("post=");
+        assertThat(stubRequest.isPostResolved()).isFalse();
+        assertThat(supplierInvocations.get()).isEqualTo(0);
+
+        stubRequest.resolveLazyPost();
+        assertThat(stubRequest.isPostResolved()).isTrue();
+        assertThat(stubRequest.toString()).contains("post=lazy post");
+        assertThat(stubRequest.hashCode()).isNotEqualTo(unresolvedHashCode);
+        assertThat(supplierInvocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNeedPostToMatch_OnlyWhenUrlAndMethodOfBodyMatchingStubMatch() throws Exception {
+        final StubRequest stubbedRequest = builder.withUrl("/path/1")
+                .withMethodPost()
+                .withPost("stubbed post")
+                .build();
+        final StubRequest otherUrlRequest = builder.withUrl("/path/2")
+                .withMethodPost()
+                .withLazyPost(() -> "stubbed post")
+                .build();
+        final StubRequest otherMethodRequest = builder.withUrl("/path/1")
+                .withMethodPut()
+                .withLazyPost(() -> "stubbed post")
+                .build();
+        final StubRequest assertingRequest = builder.withUrl("/path/1")
+                .withMethodPost()
+                .withLazyPost(() -> "stubbed post")
+                .build();
+
+        assertThat(otherUrlRequest.isPostNeededToMatch(stubbedRequest)).isFalse();
+        assertThat(otherMethodRequest.isPostNeededToMatch(stubbedRequest)).isFalse();
+        assertThat(assertingRequest.isPostNeededToMatch(stubbedRequest)).isTrue();
+
+        assertingRequest.resolveLazyPost();
+        assertThat(assertingRequest.isPostNeededToMatch(stubbedRequest)).isFalse();
+    }
+
     @Test
     public void stubbedRequestEqualsAssertingRequest_WhenNullUrlStubbed_AndNullUrlSubmitted() throws Exception {
 
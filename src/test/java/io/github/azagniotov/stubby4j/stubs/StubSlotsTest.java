@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.stubs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class StubSlotsTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private StubSlots stubSlots;
+
+    @Before
+    public void setUp() throws Exception {
+        stubSlots = new StubSlots();
+    }
+
+    @Test
+    public void shouldKeepDisplayOrder_WhenStubsRemoved() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(5);
+
+        assertThat(stubSlots.remove(1)).isSameInstanceAs(stubs.get(1));
+        assertThat(stubSlots.remove(2)).isSameInstanceAs(stubs.get(3));
+
+        assertThat(stubSlots.size()).isEqualTo(3);
+        assertThat(stubSlots.toList()).containsExactly(stubs.get(0), stubs.get(2), stubs.get(4)).inOrder();
+        assertThat(stubSlots.get(1)).isSameInstanceAs(stubs.get(2));
+        assertThat(stubSlots.get(2)).isSameInstanceAs(stubs.get(4));
+        assertThat(stubSlots.indexOf(stubs.get(4))).isEqualTo(2);
+        assertThat(stubSlots.indexOf(stubs.get(3))).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldKeepStubIds_WhenOtherStubsRemoved() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(3);
+        final int stubId = stubs.get(2).getStubId();
+
+        stubSlots.remove(0);
+
+        assertThat(stubs.get(2).getStubId()).isEqualTo(stubId);
+        assertThat(stubSlots.indexOf(stubs.get(2))).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRefreshResourceId_WhenDisplayIndexChanged() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(3);
+        stubs.forEach(stubSlots::refreshResourceId);
+        assertThat(stubs.get(2).getResourceId()).isEqualTo("2");
+
+        stubSlots.remove(0);
+        assertThat(stubs.get(2).getResourceId()).isEqualTo("2");
+
+        stubSlots.refreshResourceId(stubs.get(2));
+        assertThat(stubs.get(2).getResourceId()).isEqualTo("1");
+    }
+
+    @Test
+    public void shouldReplaceStubInPlace_WhenStubSet() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(3);
+        final StubHttpLifecycle newStub = buildStub();
+
+        assertThat(stubSlots.set(1, newStub)).isSameInstanceAs(stubs.get(1));
+
+        assertThat(stubSlots.toList()).containsExactly(stubs.get(0), newStub, stubs.get(2)).inOrder();
+        assertThat(stubSlots.indexOf(newStub)).isEqualTo(1);
+        assertThat(stubSlots.indexOf(stubs.get(1))).isEqualTo(-1);
+        assertThat(newStub.getStubId()).isNotEqualTo(stubs.get(1).getStubId());
+    }
+
+    @Test
+    public void shouldKeepDisplayOrder_WhenSlotsCompactedOrGrown() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(16);
+        for (int idx = 0; idx < 8; idx++) {
+            stubSlots.remove(0);
+        }
+        final List<StubHttpLifecycle> expectedStubs = new ArrayList<>(stubs.subList(8, 16));
+        expectedStubs.addAll(addStubs(40));
+
+        assertThat(stubSlots.size()).isEqualTo(48);
+        assertThat(stubSlots.toList()).containsExactlyElementsIn(expectedStubs).inOrder();
+        for (int idx = 0; idx < expectedStubs.size(); idx++) {
+            assertThat(stubSlots.get(idx)).isSameInstanceAs(expectedStubs.get(idx));
+            assertThat(stubSlots.indexOf(expectedStubs.get(idx))).isEqualTo(idx);
+        }
+    }
+
+    @Test
+    public void shouldKeepStubIdsOfLoadedStubs_WhenAllStubsReplaced() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(3);
+        final int firstStubId = stubs.get(0).getStubId();
+        final int lastStubId = stubs.get(2).getStubId();
+        final StubHttpLifecycle newStub = buildStub();
+
+        stubSlots.replaceAll(Arrays.asList(stubs.get(0), newStub, stubs.get(2)));
+
+        assertThat(stubSlots.toList()).containsExactly(stubs.get(0), newStub, stubs.get(2)).inOrder();
+        assertThat(stubs.get(0).getStubId()).isEqualTo(firstStubId);
+        assertThat(stubs.get(2).getStubId()).isEqualTo(lastStubId);
+        assertThat(newStub.getStubId()).isNotIn(Arrays.asList(firstStubId, stubs.get(1).getStubId(), lastStubId));
+        assertThat(stubSlots.indexOf(stubs.get(1))).isEqualTo(-1);
+        assertThat(stubSlots.indexOf(stubs.get(2))).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotFindStubs_WhenCleared() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(3);
+
+        stubSlots.clear();
+
+        assertThat(stubSlots.isEmpty()).isTrue();
+        assertThat(stubSlots.indexOf(stubs.get(0))).isEqualTo(-1);
+        assertThat(stubSlots.iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    public void shouldThrow_WhenIndexOutOfBounds() throws Exception {
+        addStubs(3);
+        stubSlots.remove(2);
+
+        expectedException.expect(IndexOutOfBoundsException.class);
+        expectedException.expectMessage("Index: 2, Size: 2");
+
+        stubSlots.get(2);
+    }
+
+    @Test
+    public void shouldCountModificationsOfLoadedStubs() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(2);
+        int modificationCount = stubSlots.getModificationCount();
+
+        stubSlots.set(1, buildStub());
+        assertThat(stubSlots.getModificationCount()).isGreaterThan(modificationCount);
+        modificationCount = stubSlots.getModificationCount();
+
+        stubSlots.refreshResourceId(stubs.get(0));
+        stubSlots.indexOf(stubs.get(0));
+        assertThat(stubSlots.getModificationCount()).isEqualTo(modificationCount);
+
+        stubSlots.remove(0);
+        assertThat(stubSlots.getModificationCount()).isGreaterThan(modificationCount);
+        modificationCount = stubSlots.getModificationCount();
+
+        stubSlots.clear();
+        assertThat(stubSlots.getModificationCount()).isGreaterThan(modificationCount);
+    }
+
+    @Test
+    public void shouldIterateFromGivenStub() throws Exception {
+        final List<StubHttpLifecycle> stubs = addStubs(4);
+        stubSlots.remove(2);
+
+        final List<StubHttpLifecycle> iterated = new ArrayList<>();
+        stubSlots.iteratorFrom(stubs.get(1)).forEachRemaining(iterated::add);
+
+        assertThat(iterated).containsExactly(stubs.get(1), stubs.get(3)).inOrder();
+    }
+
+    private List<StubHttpLifecycle> addStubs(final int count) {
+        final List<StubHttpLifecycle> stubs = new ArrayList<>();
+        for (int idx = 0; idx < count; idx++) {
+            final StubHttpLifecycle stub = buildStub();
+            stubSlots.add(stub);
+            stubs.add(stub);
+        }
+        return stubs;
+    }
+
+    private static StubHttpLifecycle buildStub() {
+        return new StubHttpLifecycle.Builder()
+                .withResponse(new StubResponse.Builder().build())
+                .build();
+    }
+}
@@ -160,6 +160,69 @@ public class CollectionUtilsTest {
         assertThat(expectedParams).isEqualTo(actualParams);
     }
 
+    @Test
+    public void constructParamMap_ShouldTrimSpacesAndIgnoreTrailingEmptyElements_WhenQueryParamsAreAnArray()
+            throws Exception {
+
+        final Map<String, String> expectedParams = new HashMap<String, String>() {
+            {
+                put("paramOne", "[1,2,3, ,]");
+            }
+        };
+
+        final Map<String, String> actualParams = CollectionUtils.constructParamMap("paramOne=[1,  2,3,%20,  ,,,]");
+
+        assertThat(expectedParams).isEqualTo(actualParams);
+    }
+
+    @Test
+    public void constructParamMap_ShouldCollapseUrlEncodedSpaces_WhenQueryParamHasPluses() throws Exception {
+
+        final Map<String, String> expectedParams = new LinkedHashMap<String, String>() {
+            {
+                put("one", "stalin lenin truman");
+                put("two", "stalin lenin truman");
+                put("three", "stalin+lenin truman");
+            }
+        };
+
+        final Map<String, String> actualParams = CollectionUtils.constructParamMap(
+                "one=stalin+++lenin+truman&two=stalin%20%20lenin%20truman&three=stalin+lenin%2Btruman");
+
+        assertThat(actualParams).containsExactlyEntriesIn(expectedParams).inOrder();
+    }
+
+    @Test
+    public void constructParamMap_ShouldIgnoreTrailingEmptyPairsAndExtraEqualSigns() throws Exception {
+
+        final Map<String, String> expectedParams = new LinkedHashMap<String, String>() {
+            {
+                put("paramOne", "one");
+                put("", "");
+                put("paramTwo", "two");
+            }
+        };
+
+        final Map<String, String> actualParams = CollectionUtils.constructParamMap("paramOne=one=1&&paramTwo=two&&");
+
+        assertThat(actualParams).containsExactlyEntriesIn(expectedParams).inOrder();
+    }
+
+    @Test
+    public void constructParamMap_ShouldConstructParamMap_WhenQueryPairIsOnlyEqualSign() throws Exception {
+
+        final Map<String, String> expectedParams = new LinkedHashMap<String, String>() {
+            {
+                put("", "");
+                put("paramTwo", "two");
+            }
+        };
+
+        final Map<String, String> actualParams = CollectionUtils.constructParamMap("=&paramTwo=two");
+
+        assertThat(actualParams).containsExactlyEntriesIn(expectedParams).inOrder();
+    }
+
     @Test
     public void givenTwoStringArrays_whenConcatWithCopy_thenGetExpectedResult() {
         final String[] args = new String[] {"-m", "-l", "127.0.0.1", "-s", "8882", "-a", "8889", "-t", "7443"};
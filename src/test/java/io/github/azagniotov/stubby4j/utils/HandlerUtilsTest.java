@@ -18,6 +18,10 @@ package io.github.azagniotov.stubby4j.utils;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.eclipse.jetty.http.HttpScheme;
 import org.junit.Test;
 
@@ -104,4 +108,44 @@ public class HandlerUtilsTest {
 
         assertThat(actualUpTime).isEqualTo("2 days, 0 hours, 0 mins, 1 sec");
     }
+
+    @Test
+    public void shouldReadRequestBodyBytesWhenWithinLimit() throws Exception {
+        final byte[] expectedBytes = "{\"name\": \"stubby4j\"}".getBytes(StandardCharsets.UTF_8);
+
+        final byte[] actualBytes = HandlerUtils.readRequestBodyBytes(
+                new ByteArrayInputStream(expectedBytes), expectedBytes.length);
+
+        assertThat(actualBytes).isEqualTo(expectedBytes);
+    }
+
+    @Test
+    public void shouldReadRequestBodyBytesLargerThanReadBuffer() throws Exception {
+        final byte[] expectedBytes = new byte[20000];
+        Arrays.fill(expectedBytes, (byte) 'a');
+
+        final byte[] actualBytes = HandlerUtils.readRequestBodyBytes(
+                new ByteArrayInputStream(expectedBytes), HandlerUtils.DEFAULT_MAX_REQUEST_BODY_BYTES);
+
+        assertThat(actualBytes).isEqualTo(expectedBytes);
+    }
+
+    @Test
+    public void shouldReadEmptyRequestBodyBytesFromNullStream() throws Exception {
+        final byte[] actualBytes = HandlerUtils.readRequestBodyBytes(null, HandlerUtils.DEFAULT_MAX_REQUEST_BODY_BYTES);
+
+        assertThat(actualBytes).isEmpty();
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldThrowWhenRequestBodyBytesExceedLimit() throws Exception {
+        final byte[] bodyBytes = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+        HandlerUtils.readRequestBodyBytes(new ByteArrayInputStream(bodyBytes), bodyBytes.length - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotConfigureNonPositiveMaxRequestBodyBytes() throws Exception {
+        HandlerUtils.configureMaxRequestBodyBytes(0);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012-2024 Alexander Zagniotov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.azagniotov.stubby4j.yaml;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.yaml.snakeyaml.events.Event;
+
+public class YamlSourceTest {
+
+    private static final String YAML = "- request:\n"
+            + "    method: [GET]\n"
+            + "    url: /invoice\n"
+            + "  response:\n"
+            + "    status: 200\n"
+            + "- request:\n"
+            + "    url: /receipt\n"
+            + "  response:\n"
+            + "    status: 201\n";
+
+    private Map<String, List<Event>> anchoredNodes;
+    private YamlDocument yamlDocument;
+
+    @Before
+    public void setUp() throws Exception {
+        anchoredNodes = new HashMap<>();
+        yamlDocument = loadYamlDocument(YAML, null);
+    }
+
+    @Test
+    public void shouldRenderYamlMappingAsYamlList() throws Exception {
+        final YamlSource yamlSource = YamlSource.of(yamlDocument, 0);
+
+        assertThat(yamlSource.renderAsYamlList())
+                .isEqualTo("- request:\n"
+                        + "    method:\n"
+                        + "    - GET\n"
+                        + "    url: /invoice\n"
+                        + "  response:\n"
+                        + "    status: 200\n");
+    }
+
+    @Test
+    public void shouldRenderYamlMappingPropertyAsYaml() throws Exception {
+        final YamlSource yamlSource = YamlSource.of(yamlDocument, 0);
+
+        assertThat(yamlSource.renderAsYaml(ConfigurableYAMLProperty.RESPONSE)).isEqualTo("response:\n  status: 200\n");
+    }
+
+    @Test
+    public void shouldRenderYamlMappingsInAnyOrder() throws Exception {
+        final YamlSource yamlSource = YamlSource.of(yamlDocument, 0);
+        final YamlSource otherYamlSource = YamlSource.of(yamlDocument, 1);
+
+        assertThat(otherYamlSource.renderAsYaml(ConfigurableYAMLProperty.RESPONSE))
+                .isEqualTo("response:\n  status: 201\n");
+        assertThat(yamlSource.renderAsYaml(ConfigurableYAMLProperty.RESPONSE)).isEqualTo("response:\n  status: 200\n");
+    }
+
+    @Test
+    public void shouldRenderYamlMappingReferringToAnchorOfPreviousYaml() throws Exception {
+        final YamlDocument anchoringYamlDocument = loadYamlDocument(
+                "- request:\n    url: /anchored\n  response: &ok\n    status: 202\n", yamlDocument);
+        final YamlDocument referringYamlDocument = loadYamlDocument(
+                "- request:\n    url: /referring\n  response: *ok\n", anchoringYamlDocument);
+
+        final YamlSource yamlSource = YamlSource.of(referringYamlDocument, 0);
+
+        assertThat(yamlSource.renderAsYaml(ConfigurableYAMLProperty.RESPONSE)).isEqualTo("response:\n  status: 202\n");
+    }
+
+    @Test
+    public void shouldMemoizeRenderedYaml() throws Exception {
+        final YamlSource yamlSource = YamlSource.of(yamlDocument, 0);
+
+        final String renderedYaml = yamlSource.renderAsYaml(ConfigurableYAMLProperty.REQUEST);
+
+        assertThat(yamlSource.renderAsYaml(ConfigurableYAMLProperty.REQUEST)).isSameInstanceAs(renderedYaml);
+    }
+
+    @Test
+    public void shouldNotShareRenderedYamlBetweenSources() throws Exception {
+        final YamlSource yamlSource = YamlSource.of(yamlDocument, 0);
+        final YamlSource otherYamlSource = YamlSource.of(yamlDocument, 1);
+
+        assertThat(yamlSource.renderAsYaml(ConfigurableYAMLProperty.RESPONSE)).isEqualTo("response:\n  status: 200\n");
+        assertThat(otherYamlSource.renderAsYaml(ConfigurableYAMLProperty.RESPONSE))
+                .isEqualTo("response:\n  status: 201\n");
+    }
+
+    private YamlDocument loadYamlDocument(final String yaml, final YamlDocument previousDocument) throws Exception {
+        final YamlDocument loadedYamlDocument = new YamlDocument(previousDocument);
+        final InputStream yamlAsStream = new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8));
+        final StreamingYamlLoader yamlLoader =
+                new StreamingYamlLoader(loadedYamlDocument.copyWhileReading(yamlAsStream), anchoredNodes);
+        while (yamlLoader.hasNextItem()) {
+            yamlLoader.nextItem();
+        }
+        loadedYamlDocument.completeCopy(yamlLoader);
+
+        return loadedYamlDocument;
+    }
+}